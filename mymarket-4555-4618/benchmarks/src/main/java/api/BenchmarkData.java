@@ -0,0 +1,41 @@
+package api;
+
+import tools.DatasetGenerator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Prepares the data sets of the benchmarks. A data set is generated once per size with {@link DatasetGenerator}
+ * into the temporary directory and reused by later runs, since every JMH fork is a new JVM.
+ * The data directory of {@link DataFiles} is pointed at it, so it must be prepared before the
+ * {@link Database} is first used in the fork.
+ */
+final class BenchmarkData {
+
+    /** The number of customers of every data set; the orders are spread over them. */
+    static final int CUSTOMERS = 100;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Prepares the data set of a size and makes it the data directory of the shop.
+     *
+     * @param products the number of products; the data set also has as many orders.
+     * @return the data directory.
+     * @throws IOException if the data set cannot be generated.
+     */
+    static File prepare(int products) throws IOException {
+        File directory = new File(System.getProperty("java.io.tmpdir"), "mymarket-benchmarks-" + products);
+        File complete = new File(directory, ".complete");
+        if (!complete.exists()) {
+            directory.mkdirs();
+            new DatasetGenerator(directory, products, CUSTOMERS, products, DatasetGenerator.DEFAULT_SEED,
+                    Runtime.getRuntime().availableProcessors()).generate();
+            complete.createNewFile();
+        }
+        System.setProperty(DataFiles.DATA_DIRECTORY_PROPERTY, directory.getPath());
+        return directory;
+    }
+}
@@ -0,0 +1,39 @@
+package api;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks and writes their results as JSON to {@code results/benchmarks-<date>.json},
+ * so runs can be compared over time, e.g. with JMH Visualizer.
+ * The arguments are the usual JMH command line options, e.g. a regular expression selecting the benchmarks
+ * or {@code -p products=1000} to run only one data size.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the JMH command line options.
+     * @throws RunnerException if a benchmark fails.
+     * @throws CommandLineOptionException if the options are not valid.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        File results = new File("results");
+        results.mkdirs();
+        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(results, "benchmarks-" + date + ".json").getPath())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cart operations of a {@link Customer} and {@link Customer#completeOrder()}, with carts of several sizes.
+ * The stock bought by every checkout is put back afterwards, so the catalog never runs out during a run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int products;
+
+    @Param({"1", "10", "50"})
+    int cartLines;
+
+    private Customer customer;
+    private List<Product> lines;
+
+    @Setup
+    public void prepare() throws IOException {
+        BenchmarkData.prepare(products);
+        Database database = Database.getInstance();
+        customer = new Customer("benchmark" + Thread.currentThread().threadId(), "password", "Benchmark", "Customer");
+        List<Product> catalog = database.getAllProducts();
+        lines = new ArrayList<>();
+        for (int i = 0; i < cartLines; i++) {
+            lines.add(catalog.get(i * (catalog.size() / cartLines)));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clearHistory() {
+        customer.clearCart();
+        customer.setCustomerOrderHistory(new ArrayList<>());
+    }
+
+    @Benchmark
+    public double addAndRemove() {
+        for (Product product : lines) {
+            customer.addProductToCart(product, 1);
+        }
+        double total = customer.getTotalCartCost();
+        for (Product line : customer.getCart()) {
+            customer.removeProductFromCart(line);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double adjustQuantities() {
+        for (Product product : lines) {
+            customer.addProductToCart(product, 1);
+        }
+        for (Product line : customer.getCart()) {
+            customer.adjustProductQuantityInCart(line, 2);
+        }
+        double total = customer.getTotalCartCost();
+        customer.clearCart();
+        return total;
+    }
+
+    @Benchmark
+    public boolean completeOrder() {
+        for (Product product : lines) {
+            customer.addProductToCart(product, 1);
+        }
+        boolean completed = customer.completeOrder().completed();
+        if (completed) {
+            for (Product product : lines) {
+                product.release(1);
+            }
+        }
+        return completed;
+    }
+}
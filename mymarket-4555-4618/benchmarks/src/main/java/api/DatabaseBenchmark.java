@@ -0,0 +1,90 @@
+package api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups, filters and analytics of the {@link Database}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int products;
+
+    private Database database;
+    private Product product;
+    private String category;
+    private String subCategory;
+    private int next;
+
+    @Setup
+    public void prepare() throws IOException {
+        BenchmarkData.prepare(products);
+        database = Database.getInstance();
+        List<Product> catalog = database.getAllProducts();
+        product = catalog.get(catalog.size() / 2);
+        category = product.getProductCategory();
+        subCategory = product.getProductSubCategory();
+    }
+
+    @Benchmark
+    public Product getSpecificProduct() {
+        List<Product> catalog = database.getAllProducts();
+        next = (next + 7919) % catalog.size();
+        return database.getSpecificProduct(catalog.get(next));
+    }
+
+    @Benchmark
+    public boolean productExists() {
+        return database.productExists(product);
+    }
+
+    @Benchmark
+    public ArrayList<Product> getAllProductsByCategory() {
+        return database.getAllProductsByCategory(category);
+    }
+
+    @Benchmark
+    public ArrayList<Product> getAllProductsBySubCategory() {
+        return database.getAllProductsBySubCategory(subCategory);
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, Integer> subCategoryCounts() {
+        FacetIndex facetIndex = database.getFacetIndex();
+        BitSet results = facetIndex.matching(FacetIndex.CATEGORY, category);
+        return facetIndex.counts(FacetIndex.SUBCATEGORY, results);
+    }
+
+    @Benchmark
+    public ArrayList<Product> unavailableProducts() {
+        return database.unavailableProducts();
+    }
+
+    @Benchmark
+    public ArrayList<String> frequentlyBoughtProducts() {
+        return database.frequentlyBoughtProducts(10);
+    }
+}
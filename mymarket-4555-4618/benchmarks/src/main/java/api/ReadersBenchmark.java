@@ -0,0 +1,85 @@
+package api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the readers of the data files. The order history read is that of one customer,
+ * which holds 1/{@value BenchmarkData#CUSTOMERS} of the orders, and the cart read has one line per
+ * hundred products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadersBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int products;
+
+    private String productsFile;
+    private String customersFile;
+    private String orderHistoryFile;
+    private String cartFile;
+
+    @Setup
+    public void prepare() throws IOException {
+        File directory = BenchmarkData.prepare(products);
+        productsFile = new File(directory, "products.txt").getPath();
+        customersFile = new File(directory, "customers.txt").getPath();
+        orderHistoryFile = DataFiles.orderHistory("user1");
+
+        cartFile = new File(directory, "benchmarkCart.txt").getPath();
+        List<Product> catalog = new ProductsReader(productsFile).getProducts();
+        try (FileWriter writer = new FileWriter(cartFile, false)) {
+            for (int i = 0; i < catalog.size(); i += 100) {
+                Product product = catalog.get(i);
+                writer.write("Τίτλος: " + product.getProductTitle() + "\n");
+                writer.write("Περιγραφή: " + product.getProductDescription() + "\n");
+                writer.write("Κατηγορία: " + product.getProductCategory() + "\n");
+                writer.write("Υποκατηγορία: " + product.getProductSubCategory() + "\n");
+                writer.write("Τιμή: " + String.valueOf(product.getProductPrice()).replace('.', ',') + "€\n");
+                writer.write("Ποσότητα: 1 τεμάχια\n");
+            }
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Product> productsReader() {
+        return new ProductsReader(productsFile).getProducts();
+    }
+
+    @Benchmark
+    public HashMap<String, Customer> customersReader() {
+        return new CustomersReader(customersFile).getCustomers();
+    }
+
+    @Benchmark
+    public ArrayList<Product> customerCartReader() {
+        return new CustomerCartReader(cartFile).getProducts();
+    }
+
+    @Benchmark
+    public ArrayList<Order> customerOrderHistoryReader() {
+        return new CustomerOrderHistoryReader(orderHistoryFile).getOrders();
+    }
+}
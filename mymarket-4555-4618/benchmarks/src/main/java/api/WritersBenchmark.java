@@ -0,0 +1,59 @@
+package api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the writers of the data files, writing the data set loaded by the {@link Database} back to its directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WritersBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int products;
+
+    private Database database;
+
+    @Setup
+    public void prepare() throws IOException {
+        BenchmarkData.prepare(products);
+        database = Database.getInstance();
+    }
+
+    @Benchmark
+    public ProductsWriter productsWriter() {
+        return new ProductsWriter();
+    }
+
+    @Benchmark
+    public CustomersWriter customersWriter() {
+        return new CustomersWriter(database.getAllCustomers());
+    }
+
+    @Benchmark
+    public CustomerCartsWriter customerCartsWriter() {
+        return new CustomerCartsWriter();
+    }
+
+    @Benchmark
+    public CustomersOrderHistoryWriter customersOrderHistoryWriter() {
+        return new CustomersOrderHistoryWriter();
+    }
+}
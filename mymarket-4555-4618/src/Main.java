@@ -1,4 +1,10 @@
+import api.Database;
+import api.FulfillmentPipeline;
+import api.Metrics;
 import gui.*;
+import server.ShopServer;
+
+import java.io.IOException;
 
 /**
  * The main class of the program that creates the login screen (LoginFrame) for the e-shop.
@@ -6,13 +12,60 @@ import gui.*;
  * which allows users to enter their credentials to access the e-shop.
  * After that, the program continues based on the user's choices and transitions
  * through other classes that handle the functionality of the e-shop.
+ * <p>
+ * Passing {@code --cart-holds=<minutes>} enables holds on the stock of the products in carts
+ * for the given number of minutes. The orders are fulfilled in the background by
+ * {@code --fulfillment-workers=<n>} workers (two by default). Passing {@code --watch-catalog} applies the changes
+ * made to products.txt by other programs while the shop is running.</p>
+ * <p>
+ * Passing {@code --server} or {@code --server=<port>} starts the headless {@link ShopServer} instead of the GUI,
+ * on port 8080 by default. The data is saved when the server is shut down.</p>
+ * <p>
+ * The operation metrics are published over JMX as the MBean {@value Metrics#OBJECT_NAME};
+ * passing {@code --metrics-log=<seconds>} also prints them periodically.</p>
  *
  * @see LoginFrame
  */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+
+        int fulfillmentWorkers = FulfillmentPipeline.DEFAULT_WORKERS;
+        int serverPort = -1;
+        boolean watchCatalog = false;
+        for (String arg : args) {
+            if (arg.equals("--server")) {
+                serverPort = ShopServer.DEFAULT_PORT;
+            } else if (arg.startsWith("--server=")) {
+                serverPort = Integer.parseInt(arg.substring("--server=".length()));
+            } else if (arg.startsWith("--fulfillment-workers=")) {
+                fulfillmentWorkers = Integer.parseInt(arg.substring("--fulfillment-workers=".length()));
+            } else if (arg.startsWith("--cart-holds=")) {
+                long minutes = Long.parseLong(arg.substring("--cart-holds=".length()));
+                Database.getInstance().enableCartHolds(minutes * 60 * 1000);
+            } else if (arg.equals("--watch-catalog")) {
+                watchCatalog = true;
+            } else if (arg.startsWith("--metrics-log=")) {
+                long seconds = Long.parseLong(arg.substring("--metrics-log=".length()));
+                Metrics.startLogging(seconds * 1000);
+            }
+        }
+        Metrics.registerMBean();
+        Database.getInstance().startFulfillment(fulfillmentWorkers);
+        if (watchCatalog) {
+            Database.getInstance().startCatalogWatch();
+        }
 
-        new LoginFrame();
+        if (serverPort >= 0) {
+            ShopServer server = new ShopServer(Database.getInstance());
+            server.start(serverPort);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                Database.getInstance().allWritersCall();
+            }));
+            System.out.println("MyMarket server listening on port " + server.getPort());
+        } else {
+            new LoginFrame();
+        }
 
     }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package api;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * Reads the persisted distinct-buyer sketches of the products from a specified file.
+ * Each product is stored as two lines: its title and its Base64 encoded {@link HyperLogLog} registers.
+ * A file cut short, e.g. by a crash while it was saved, or holding an invalid sketch is reported by
+ * {@link #isComplete()}, so the caller can rebuild the sketches instead.
+ */
+public class BuyerSketchesReader {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("reader.buyerSketches");
+
+    private final HashMap<String, HyperLogLog> sketches = new HashMap<>();
+    private final boolean found;
+    private boolean complete;
+
+    /**
+     * Constructs a BuyerSketchesReader instance and reads the sketches from the specified file.
+     * If the file does not exist, no sketches are read and {@link #fileFound()} returns {@code false}.
+     *
+     * @param fileName the path to the file containing the sketches.
+     * @throws RuntimeException if there is an error reading the file.
+     */
+    public BuyerSketchesReader(String fileName) {
+        File file = new File(fileName);
+        found = file.exists();
+
+        if (found) {
+            ShopEvents.FileIo run = METRICS.begin(fileName);
+            try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+                String line;
+                complete = true;
+                while ((line = reader.readLine()) != null) {
+                    String productTitle = (line.substring(line.indexOf(':') + 1).trim());
+                    line = reader.readLine();
+                    if (line == null) {
+                        complete = false;
+                        break;
+                    }
+                    String registers = (line.substring(line.indexOf(':') + 1).trim());
+                    try {
+                        sketches.put(productTitle, HyperLogLog.decode(registers));
+                    } catch (IllegalArgumentException ex) {
+                        complete = false;
+                        break;
+                    }
+                }
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+            METRICS.end(run, file.length(), sketches.size());
+        }
+    }
+
+    /**
+     * Checks whether the sketches file existed.
+     *
+     * @return {@code true} if the file existed and was read, {@code false} otherwise.
+     */
+    public boolean fileFound() {
+        return found;
+    }
+
+    /**
+     * Checks whether the sketches file existed and every product in it had a valid sketch.
+     *
+     * @return {@code true} if the sketches can be used, {@code false} if the file is missing, cut short or invalid.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Retrieves the sketches read from the file.
+     *
+     * @return a HashMap where the keys are product titles and the values are their buyer sketches.
+     */
+    public HashMap<String, HyperLogLog> getSketches() {
+        return sketches;
+    }
+}
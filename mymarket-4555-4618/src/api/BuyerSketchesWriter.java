@@ -0,0 +1,36 @@
+package api;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the distinct-buyer sketches of all products to a file, so the approximate
+ * buyer counts are available as soon as the application starts again.
+ */
+public class BuyerSketchesWriter {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("writer.buyerSketches");
+
+    /**
+     * Constructs a BuyerSketchesWriter instance and writes the product sketches of the
+     * database's {@link DistinctBuyersIndex} to the file "buyerSketches.txt".
+     * The file format includes for each product:
+     * - Title
+     * - Base64 encoded sketch registers
+     */
+    public BuyerSketchesWriter() {
+        ShopEvents.FileIo run = METRICS.begin(DataFiles.file("buyerSketches.txt"));
+        Database database = Database.getInstance();
+        Map<String, HyperLogLog> sketches = database.getDistinctBuyersIndex().getProductSketches();
+        try (FileWriter writer = new FileWriter(DataFiles.file("buyerSketches.txt"), false)) {
+            for (Map.Entry<String, HyperLogLog> entry : sketches.entrySet()) {
+                writer.write("Τίτλος: " + entry.getKey() + "\n");
+                writer.write("Sketch: " + entry.getValue().encode() + "\n");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        METRICS.end(run, new File(DataFiles.file("buyerSketches.txt")).length(), sketches.size());
+    }
+}
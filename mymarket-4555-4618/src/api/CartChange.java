@@ -0,0 +1,51 @@
+package api;
+
+/**
+ * A change of a customer's cart, sent to the cart listeners of the {@link Customer} after it has happened.
+ * A change names the cart line it affects, so a cart view can update that line and the total alone.
+ * The lines are the cart's own products; every change carries the total cost of the cart after it.
+ */
+public sealed interface CartChange {
+
+    /**
+     * Retrieves the total cost of the cart after the change.
+     *
+     * @return the total cost of the cart.
+     */
+    double totalCartCost();
+
+    /**
+     * A product was added to the cart.
+     *
+     * @param line          the new cart line
+     * @param totalCartCost the total cost of the cart after the change
+     */
+    record LineAdded(Product line, double totalCartCost) implements CartChange {
+    }
+
+    /**
+     * The quantity or the details of a cart line changed.
+     *
+     * @param line          the changed cart line
+     * @param totalCartCost the total cost of the cart after the change
+     */
+    record LineUpdated(Product line, double totalCartCost) implements CartChange {
+    }
+
+    /**
+     * A product was removed from the cart.
+     *
+     * @param line          the removed cart line
+     * @param totalCartCost the total cost of the cart after the change
+     */
+    record LineRemoved(Product line, double totalCartCost) implements CartChange {
+    }
+
+    /**
+     * The cart was cleared or replaced as a whole, e.g. by a completed order.
+     *
+     * @param totalCartCost the total cost of the cart after the change
+     */
+    record Reset(double totalCartCost) implements CartChange {
+    }
+}
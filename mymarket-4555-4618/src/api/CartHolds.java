@@ -0,0 +1,280 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds stock for the products in the customers' carts for a limited time.
+ * Adding a product to a cart takes its quantity out of the database stock, so it cannot be sold
+ * to someone else while the customer shops. If the customer does not check out within the time to live,
+ * the hold expires and the quantity is returned to the stock. The expiry times are kept in a
+ * {@link TimingWheel}, so expiring a hold never scans the other carts.
+ * The holds are advanced either by {@link #start()}, or explicitly with {@link #advance(long)}.
+ */
+public class CartHolds {
+
+    /** The default duration of a tick of the timing wheel: one second. */
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    /**
+     * The stock held for one cart line.
+     */
+    private static final class Hold {
+        private final String username;
+        private String productTitle;
+        private final Product product;
+        private final int quantity;
+        private TimingWheel<Hold>.Timeout timeout;
+
+        private Hold(String username, String productTitle, Product product, int quantity) {
+            this.username = username;
+            this.productTitle = productTitle;
+            this.product = product;
+            this.quantity = quantity;
+        }
+    }
+
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final TimingWheel<Hold> wheel;
+    private final HashMap<String, HashMap<String, Hold>> holds;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs an empty set of holds.
+     *
+     * @param ttlMillis the time to live of a hold, in milliseconds.
+     * @param tickMillis the precision of the expiry times, in milliseconds.
+     * @param startTime the current time, in milliseconds since the epoch.
+     */
+    public CartHolds(long ttlMillis, long tickMillis, long startTime) {
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        this.wheel = new TimingWheel<>(tickMillis, startTime);
+        this.holds = new HashMap<>();
+    }
+
+    /**
+     * Holds a quantity of a product for a customer. If the customer already holds the product,
+     * the hold is replaced by the new quantity and its time to live starts again.
+     *
+     * @param username the username of the customer.
+     * @param product the product of the database whose stock is held.
+     * @param quantity the quantity to hold.
+     * @param now the current time, in milliseconds since the epoch.
+     * @return {@code true} if the quantity is held, or {@code false} if the stock is not enough; the previous hold is then kept.
+     */
+    public synchronized boolean hold(String username, Product product, int quantity, long now) {
+        Hold previous = holdOf(username, product.getProductTitle());
+        int previousQuantity = previous == null ? 0 : previous.quantity;
+        if (quantity > previousQuantity && !product.tryReserve(quantity - previousQuantity)) {
+            return false;
+        }
+        if (quantity < previousQuantity) {
+            product.release(previousQuantity - quantity);
+        }
+        if (previous != null) {
+            previous.timeout.cancel();
+        }
+        if (quantity <= 0) {
+            removeHold(username, product.getProductTitle());
+        } else {
+            addHold(new Hold(username, product.getProductTitle(), product, quantity), now);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the hold of a customer on a product and returns its quantity to the stock.
+     *
+     * @param username the username of the customer.
+     * @param productTitle the title of the product.
+     * @return the released quantity, or 0 if there was no hold.
+     */
+    public synchronized int release(String username, String productTitle) {
+        Hold hold = removeHold(username, productTitle);
+        if (hold == null) {
+            return 0;
+        }
+        hold.timeout.cancel();
+        hold.product.release(hold.quantity);
+        return hold.quantity;
+    }
+
+    /**
+     * Releases all the holds of a customer.
+     *
+     * @param username the username of the customer.
+     */
+    public synchronized void releaseAll(String username) {
+        HashMap<String, Hold> customerHolds = holds.get(username);
+        if (customerHolds == null) {
+            return;
+        }
+        for (String productTitle : new ArrayList<>(customerHolds.keySet())) {
+            release(username, productTitle);
+        }
+    }
+
+    /**
+     * Turns a hold into a sale at checkout: the hold is removed without returning its quantity to the stock.
+     *
+     * @param username the username of the customer.
+     * @param productTitle the title of the product.
+     * @param quantity the quantity being bought.
+     * @return {@code true} if the customer held exactly this quantity, {@code false} otherwise; the hold is then left as it was.
+     */
+    public synchronized boolean take(String username, String productTitle, int quantity) {
+        Hold hold = holdOf(username, productTitle);
+        if (hold == null || hold.quantity != quantity) {
+            return false;
+        }
+        removeHold(username, productTitle);
+        hold.timeout.cancel();
+        return true;
+    }
+
+    /**
+     * Moves the hold of a customer on a product to a new title, when the product was renamed in the catalog.
+     * The hold keeps its quantity and its expiry time. If the customer already holds the new title,
+     * the moved hold is released instead.
+     *
+     * @param username the username of the customer.
+     * @param productTitle the old title of the product.
+     * @param newProductTitle the new title of the product.
+     */
+    public synchronized void rename(String username, String productTitle, String newProductTitle) {
+        if (productTitle.equals(newProductTitle) || holdOf(username, productTitle) == null) {
+            return;
+        }
+        if (holdOf(username, newProductTitle) != null) {
+            release(username, productTitle);
+            return;
+        }
+        Hold hold = removeHold(username, productTitle);
+        hold.productTitle = newProductTitle;
+        holds.computeIfAbsent(username, k -> new HashMap<>()).put(newProductTitle, hold);
+    }
+
+    /**
+     * Puts back a hold taken by {@link #take(String, String, int)}, when the checkout is rolled back.
+     * The quantity is already out of the stock, so nothing is reserved again.
+     *
+     * @param username the username of the customer.
+     * @param product the product of the database whose stock is held.
+     * @param quantity the held quantity.
+     * @param now the current time, in milliseconds since the epoch.
+     */
+    public synchronized void restore(String username, Product product, int quantity, long now) {
+        addHold(new Hold(username, product.getProductTitle(), product, quantity), now);
+    }
+
+    /**
+     * Retrieves the quantity of a product held for a customer.
+     *
+     * @param username the username of the customer.
+     * @param productTitle the title of the product.
+     * @return the held quantity, or 0 if there is no hold.
+     */
+    public synchronized int heldQuantity(String username, String productTitle) {
+        Hold hold = holdOf(username, productTitle);
+        return hold == null ? 0 : hold.quantity;
+    }
+
+    /**
+     * Retrieves the stock of products as it is with all the holds released, without releasing them.
+     * The stock is saved this way, since the carts are saved along with it but the holds are not.
+     *
+     * @param products the products of the database.
+     * @return the quantity of each product plus the quantity held for it, in the order of the products.
+     */
+    public synchronized int[] stockWithHolds(List<Product> products) {
+        HashMap<String, Integer> held = new HashMap<>();
+        for (HashMap<String, Hold> customerHolds : holds.values()) {
+            for (Hold hold : customerHolds.values()) {
+                held.merge(hold.productTitle, hold.quantity, Integer::sum);
+            }
+        }
+        int[] stock = new int[products.size()];
+        for (int i = 0; i < stock.length; i++) {
+            Product product = products.get(i);
+            stock[i] = product.getProductQuantity() + held.getOrDefault(product.getProductTitle(), 0);
+        }
+        return stock;
+    }
+
+    /**
+     * Retrieves the number of active holds.
+     *
+     * @return the number of holds that have not expired, been released or been taken.
+     */
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Expires the holds whose time to live has passed and returns their quantities to the stock.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     * @return the number of expired holds.
+     */
+    public synchronized int advance(long now) {
+        ArrayList<Hold> expired = wheel.advance(now);
+        for (Hold hold : expired) {
+            removeHold(hold.username, hold.productTitle);
+            hold.product.release(hold.quantity);
+        }
+        return expired.size();
+    }
+
+    /**
+     * Starts a daemon thread that advances the holds once per tick.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-holds");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> advance(System.currentTimeMillis()), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the thread started by {@link #start()}. The holds are kept.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private Hold holdOf(String username, String productTitle) {
+        HashMap<String, Hold> customerHolds = holds.get(username);
+        return customerHolds == null ? null : customerHolds.get(productTitle);
+    }
+
+    private void addHold(Hold hold, long now) {
+        hold.timeout = wheel.schedule(hold, now + ttlMillis);
+        holds.computeIfAbsent(hold.username, k -> new HashMap<>()).put(hold.productTitle, hold);
+    }
+
+    private Hold removeHold(String username, String productTitle) {
+        HashMap<String, Hold> customerHolds = holds.get(username);
+        if (customerHolds == null) {
+            return null;
+        }
+        Hold hold = customerHolds.remove(productTitle);
+        if (customerHolds.isEmpty()) {
+            holds.remove(username);
+        }
+        return hold;
+    }
+}
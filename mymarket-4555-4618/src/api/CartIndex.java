@@ -0,0 +1,127 @@
+package api;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Indexes the customers by the titles of the products in their carts, so a change of the catalog only
+ * refreshes the carts that hold a changed product instead of sending a command to every customer.
+ * The index follows each tracked customer through its {@link CartChange}s. It may still list a customer
+ * whose line was renamed or removed moments ago; that only costs one refresh that finds nothing to do.
+ */
+final class CartIndex {
+
+    private final ConcurrentHashMap<String, Set<Customer>> holders;
+    private final ConcurrentHashMap<Customer, Set<String>> titles;
+    private final ConcurrentHashMap<Customer, Consumer<CartChange>> listeners;
+
+    /**
+     * Constructs an empty index.
+     */
+    CartIndex() {
+        this.holders = new ConcurrentHashMap<>();
+        this.titles = new ConcurrentHashMap<>();
+        this.listeners = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts following the cart of a customer, including the products already in it.
+     *
+     * @param customer the customer.
+     */
+    void track(Customer customer) {
+        if (titles.putIfAbsent(customer, ConcurrentHashMap.newKeySet()) != null) {
+            return;
+        }
+        Consumer<CartChange> listener = change -> {
+            switch (change) {
+                case CartChange.LineAdded added -> add(customer, added.line().getProductTitle());
+                case CartChange.LineUpdated updated -> add(customer, updated.line().getProductTitle());
+                case CartChange.LineRemoved removed -> remove(customer, removed.line().getProductTitle());
+                case CartChange.Reset reset -> {
+                    forget(customer);
+                    for (Product line : customer.getCart()) {
+                        add(customer, line.getProductTitle());
+                    }
+                }
+            }
+        };
+        listeners.put(customer, listener);
+        customer.addCartListener(listener);
+        for (Product line : customer.getCart()) {
+            add(customer, line.getProductTitle());
+        }
+    }
+
+    /**
+     * Stops following the cart of a customer and removes it from the index.
+     *
+     * @param customer the customer.
+     */
+    void untrack(Customer customer) {
+        Consumer<CartChange> listener = listeners.remove(customer);
+        if (listener == null) {
+            return;
+        }
+        customer.removeCartListener(listener);
+        forget(customer);
+        titles.remove(customer);
+    }
+
+    /**
+     * Retrieves the customers whose carts hold products with the given titles, and forgets them under these titles;
+     * the refreshed carts index their lines again under the new titles.
+     *
+     * @param changedTitles the titles of the changed or removed products.
+     * @return the customers holding any of the products.
+     */
+    Set<Customer> takeHolders(Collection<String> changedTitles) {
+        HashSet<Customer> found = new HashSet<>();
+        for (String title : changedTitles) {
+            Set<Customer> customers = holders.remove(title);
+            if (customers != null) {
+                for (Customer customer : customers) {
+                    Set<String> customerTitles = titles.get(customer);
+                    if (customerTitles != null) {
+                        customerTitles.remove(title);
+                        found.add(customer);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void forget(Customer customer) {
+        Set<String> customerTitles = titles.get(customer);
+        if (customerTitles != null) {
+            for (String title : List.copyOf(customerTitles)) {
+                remove(customer, title);
+            }
+        }
+    }
+
+    private void add(Customer customer, String title) {
+        Set<String> customerTitles = titles.get(customer);
+        if (customerTitles == null) {
+            return;
+        }
+        customerTitles.add(title);
+        holders.computeIfAbsent(title, k -> ConcurrentHashMap.newKeySet()).add(customer);
+    }
+
+    private void remove(Customer customer, String title) {
+        Set<String> customerTitles = titles.get(customer);
+        if (customerTitles != null) {
+            customerTitles.remove(title);
+        }
+        holders.computeIfPresent(title, (key, customers) -> {
+            customers.remove(customer);
+            return customers.isEmpty() ? null : customers;
+        });
+    }
+}
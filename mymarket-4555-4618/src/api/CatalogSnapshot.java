@@ -0,0 +1,434 @@
+package api;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * An immutable, versioned view of the product catalog at one point in time.
+ * The products are stored in chunks of up to {@link #CHUNK_SIZE} products. An edit copies only the chunks it changes
+ * and shares the others with the previous version, so publishing a new version after an admin change is cheap,
+ * and threads still reading an older version keep a consistent catalog without any locking.
+ * New versions are built with an {@link Editor}, which applies a batch of changes and publishes them as one version.
+ * <p>
+ * The snapshot also holds the indexes of its products: the chunk of every product, the products of every title
+ * and the {@link FacetIndex}. They are versioned together with the products, so a reader of a snapshot
+ * never sees an index that is ahead of or behind it.</p>
+ */
+public final class CatalogSnapshot extends AbstractList<Product> implements RandomAccess {
+
+    /** The largest number of products in a chunk. */
+    static final int CHUNK_SIZE = 32;
+
+    private final long version;
+    private final Product[][] chunks;
+    private final int[] offsets;
+    private final int size;
+    private final PartitionedMap<Product, Integer> positions;
+    private final PartitionedMap<String, Product[]> titles;
+    private final FacetIndex facetIndex;
+
+    private CatalogSnapshot(long version, Product[][] chunks, int[] offsets, int size,
+                            PartitionedMap<Product, Integer> positions, PartitionedMap<String, Product[]> titles,
+                            FacetIndex facetIndex) {
+        this.version = version;
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = size;
+        this.positions = positions;
+        this.titles = titles;
+        this.facetIndex = facetIndex;
+    }
+
+    /**
+     * Builds the first version of a catalog.
+     *
+     * @param products the products of the catalog, in order.
+     * @return a snapshot of version 1 holding the products.
+     */
+    public static CatalogSnapshot of(Collection<Product> products) {
+        CatalogSnapshot empty = new CatalogSnapshot(0, new Product[0][], new int[0], 0,
+                PartitionedMap.byIdentity(), PartitionedMap.byEquality(), new FacetIndex(List.of()));
+        Editor editor = empty.edit();
+        for (Product product : products) {
+            editor.add(product);
+        }
+        return editor.publish();
+    }
+
+    /**
+     * Retrieves the version of the snapshot. Every published edit increases it by one.
+     *
+     * @return the version number.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Product get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        // The last chunk that starts at or before the index; empty chunks start where the next one does.
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= index) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return chunks[low][index - offsets[low]];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Product> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int position;
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Product next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                while (position == lengthOf(chunk)) {
+                    chunk++;
+                    position = 0;
+                }
+                remaining--;
+                return chunks[chunk][position++];
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> action) {
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            for (int position = 0, length = lengthOf(chunk); position < length; position++) {
+                action.accept(chunks[chunk][position]);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return object instanceof Product product && positions.get(product) != null;
+    }
+
+    /**
+     * Finds a product of the snapshot by its title.
+     *
+     * @param productTitle the title of the product.
+     * @return the first product with this title, or {@code null} if there is none.
+     */
+    public Product find(String productTitle) {
+        Product[] withTitle = titles.get(productTitle);
+        return withTitle == null ? null : withTitle[0];
+    }
+
+    /**
+     * Retrieves the facet index of the products of the snapshot.
+     *
+     * @return the {@link FacetIndex} of this version.
+     */
+    public FacetIndex getFacetIndex() {
+        return facetIndex;
+    }
+
+    /**
+     * Starts a batch of changes based on this snapshot. The snapshot itself is never modified.
+     *
+     * @return an editor for the next version.
+     */
+    public Editor edit() {
+        return new Editor(this);
+    }
+
+    /**
+     * Retrieves a chunk of the snapshot, for checking which chunks are shared between versions.
+     *
+     * @param chunk the index of the chunk.
+     * @return the array of the chunk.
+     */
+    Product[] chunk(int chunk) {
+        return chunks[chunk];
+    }
+
+    private int lengthOf(int chunk) {
+        return (chunk + 1 < chunks.length ? offsets[chunk + 1] : size) - offsets[chunk];
+    }
+
+    /**
+     * A change made by an {@link Editor}: a product added ({@code removed} is {@code null}),
+     * removed ({@code added} is {@code null}) or replaced by a new version of it.
+     *
+     * @param removed the product taken out of the catalog, or {@code null}
+     * @param added   the product put into the catalog, or {@code null}
+     */
+    record Change(Product removed, Product added) {
+    }
+
+    /**
+     * Applies a batch of changes to a snapshot and publishes them as a new version.
+     * A chunk is copied the first time the batch changes it, later changes to it are made in place.
+     * Products are found through the index of their chunk, so a change touches one chunk and never scans the catalog;
+     * a removal leaves its chunk shorter, and the chunks are packed again when too many of them are short.
+     * The editor also records its changes, so the facet index and the listeners of the catalog
+     * can be updated without rescanning it. An editor is used by one thread and published once.
+     */
+    public static final class Editor {
+
+        private final CatalogSnapshot base;
+        private Product[][] chunks;
+        private int[] lengths;
+        private boolean[] owned;
+        private int chunkCount;
+        private int size;
+        private PartitionedMap.Editor<Product, Integer> positions;
+        private final PartitionedMap.Editor<String, Product[]> titles;
+        private boolean published;
+        private final ArrayList<Change> changes;
+
+        private Editor(CatalogSnapshot base) {
+            this.base = base;
+            this.chunks = base.chunks.clone();
+            this.chunkCount = chunks.length;
+            this.lengths = new int[chunkCount];
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                lengths[chunk] = base.lengthOf(chunk);
+            }
+            this.owned = new boolean[chunkCount];
+            this.size = base.size;
+            this.positions = base.positions.edit();
+            this.titles = base.titles.edit();
+            this.changes = new ArrayList<>();
+        }
+
+        /**
+         * Appends a product to the catalog.
+         *
+         * @param product the new product.
+         */
+        public void add(Product product) {
+            checkNotPublished();
+            int chunk = chunkCount - 1;
+            if (chunk < 0 || lengths[chunk] == CHUNK_SIZE) {
+                chunk = newChunk();
+            }
+            writableChunk(chunk)[lengths[chunk]++] = product;
+            size++;
+            positions.put(product, chunk);
+            addTitle(product);
+            changes.add(new Change(null, product));
+        }
+
+        /**
+         * Replaces a product of the catalog with a new version of it, at the same position.
+         *
+         * @param product the product to replace.
+         * @param replacement the new version of the product.
+         * @return {@code true} if the product was found and replaced.
+         */
+        public boolean replace(Product product, Product replacement) {
+            checkNotPublished();
+            Integer chunk = positions.get(product);
+            if (chunk == null) {
+                return false;
+            }
+            Product[] writable = writableChunk(chunk);
+            writable[positionIn(chunk, product)] = replacement;
+            positions.remove(product);
+            positions.put(replacement, chunk);
+            if (product.getProductTitle().equals(replacement.getProductTitle())) {
+                Product[] withTitle = titles.get(product.getProductTitle()).clone();
+                withTitle[indexOf(withTitle, product)] = replacement;
+                titles.put(product.getProductTitle(), withTitle);
+            } else {
+                removeTitle(product);
+                addTitle(replacement);
+            }
+            changes.add(new Change(product, replacement));
+            return true;
+        }
+
+        /**
+         * Removes a product from the catalog. The following products move one position back.
+         *
+         * @param product the product to remove.
+         * @return {@code true} if the product was found and removed.
+         */
+        public boolean remove(Product product) {
+            checkNotPublished();
+            Integer chunk = positions.get(product);
+            if (chunk == null) {
+                return false;
+            }
+            Product[] writable = writableChunk(chunk);
+            int position = positionIn(chunk, product);
+            System.arraycopy(writable, position + 1, writable, position, lengths[chunk] - position - 1);
+            writable[--lengths[chunk]] = null;
+            size--;
+            positions.remove(product);
+            removeTitle(product);
+            changes.add(new Change(product, null));
+            return true;
+        }
+
+        /**
+         * Finds a product of the catalog being edited by its title.
+         *
+         * @param productTitle the title of the product.
+         * @return the first product with this title, or {@code null} if there is none.
+         */
+        public Product find(String productTitle) {
+            Product[] withTitle = titles.get(productTitle);
+            return withTitle == null ? null : withTitle[0];
+        }
+
+        /**
+         * Publishes the changes as a new, immutable snapshot. The editor cannot be used afterwards.
+         *
+         * @return the new version of the catalog.
+         */
+        public CatalogSnapshot publish() {
+            checkNotPublished();
+            published = true;
+            int fullChunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            if (chunkCount > 2 * fullChunks + 1) {
+                pack();
+            }
+            Product[][] publishedChunks = Arrays.copyOf(chunks, chunkCount);
+            int[] offsets = new int[chunkCount];
+            for (int chunk = 1; chunk < chunkCount; chunk++) {
+                offsets[chunk] = offsets[chunk - 1] + lengths[chunk - 1];
+            }
+            return new CatalogSnapshot(base.version + 1, publishedChunks, offsets, size,
+                    positions.publish(), titles.publish(), base.facetIndex.apply(changes));
+        }
+
+        /**
+         * Retrieves the changes of the batch, in the order they were made.
+         *
+         * @return the changes.
+         */
+        ArrayList<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * Moves the products into full chunks again after many removals, and indexes their new chunks.
+         */
+        private void pack() {
+            Product[][] packed = new Product[(size + CHUNK_SIZE - 1) / CHUNK_SIZE][];
+            int[] packedLengths = new int[packed.length];
+            PartitionedMap.Editor<Product, Integer> packedPositions = PartitionedMap.<Product, Integer>byIdentity().edit();
+            int count = 0;
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                for (int position = 0; position < lengths[chunk]; position++) {
+                    int target = count / CHUNK_SIZE;
+                    if (packed[target] == null) {
+                        packed[target] = new Product[CHUNK_SIZE];
+                    }
+                    packed[target][packedLengths[target]++] = chunks[chunk][position];
+                    packedPositions.put(chunks[chunk][position], target);
+                    count++;
+                }
+            }
+            chunks = packed;
+            lengths = packedLengths;
+            chunkCount = packed.length;
+            owned = new boolean[chunkCount];
+            positions = packedPositions;
+        }
+
+        private int newChunk() {
+            if (chunkCount == chunks.length) {
+                int capacity = Math.max(4, chunks.length * 2);
+                chunks = Arrays.copyOf(chunks, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                owned = Arrays.copyOf(owned, capacity);
+            }
+            chunks[chunkCount] = new Product[CHUNK_SIZE];
+            owned[chunkCount] = true;
+            return chunkCount++;
+        }
+
+        private int positionIn(int chunk, Product product) {
+            Product[] products = chunks[chunk];
+            for (int position = 0; position < lengths[chunk]; position++) {
+                if (products[position] == product) {
+                    return position;
+                }
+            }
+            throw new IllegalStateException("The product is not in its indexed chunk");
+        }
+
+        private void addTitle(Product product) {
+            Product[] withTitle = titles.get(product.getProductTitle());
+            if (withTitle == null) {
+                titles.put(product.getProductTitle(), new Product[]{product});
+            } else {
+                Product[] longer = Arrays.copyOf(withTitle, withTitle.length + 1);
+                longer[withTitle.length] = product;
+                titles.put(product.getProductTitle(), longer);
+            }
+        }
+
+        private void removeTitle(Product product) {
+            Product[] withTitle = titles.get(product.getProductTitle());
+            if (withTitle.length == 1) {
+                titles.remove(product.getProductTitle());
+                return;
+            }
+            int index = indexOf(withTitle, product);
+            Product[] shorter = new Product[withTitle.length - 1];
+            System.arraycopy(withTitle, 0, shorter, 0, index);
+            System.arraycopy(withTitle, index + 1, shorter, index, shorter.length - index);
+            titles.put(product.getProductTitle(), shorter);
+        }
+
+        private static int indexOf(Product[] products, Product product) {
+            for (int i = 0; i < products.length; i++) {
+                if (products[i] == product) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("The product is not indexed by its title");
+        }
+
+        private Product[] writableChunk(int chunk) {
+            if (!owned[chunk]) {
+                chunks[chunk] = chunks[chunk].clone();
+                owned[chunk] = true;
+            }
+            return chunks[chunk];
+        }
+
+        private void checkNotPublished() {
+            if (published) {
+                throw new IllegalStateException("The edit has already been published");
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the products file for changes made by other programs, e.g. catalog updates exported by the ERP,
+ * and applies them to the live catalog without a restart.
+ * The new file is diffed by product title against the file loaded before it, so only the products that were added,
+ * changed or removed in the file are looked up in the catalog, and those that differ from it are applied
+ * as one batch of {@link Database#editCatalog}. The indexes are updated with the new catalog version,
+ * and the carts holding changed or removed products are updated by the database's "carts" subscriber of the {@link EventBus}.
+ * <p>
+ * A changed product is revised with {@link Product#revise(Product)}, so its stock is set to the quantity of the file.
+ * The file is reloaded once it has been quiet for a while, so a file being written is not read half way,
+ * and only if its content hash changed, so a touched but unchanged file is not read again;
+ * the files written by the shop itself through {@link #writeCatalog(Runnable)} are not reloaded.</p>
+ */
+public class CatalogWatcher {
+
+    /** How long the file must stay unchanged before it is reloaded, in milliseconds. */
+    public static final long DEFAULT_QUIET_MILLIS = 200;
+
+    /**
+     * The changes applied by a reload.
+     *
+     * @param added   the number of products added to the catalog
+     * @param updated the number of products whose details changed
+     * @param removed the number of products removed from the catalog
+     */
+    public record Reload(int added, int updated, int removed) {
+
+        /**
+         * Retrieves the total number of changes.
+         *
+         * @return the number of products added, updated or removed.
+         */
+        public int changes() {
+            return added + updated + removed;
+        }
+    }
+
+    private final Database database;
+    private final Path file;
+    private final long quietMillis;
+    private WatchService watchService;
+    private Thread watcher;
+    private byte[] lastDigest;
+    private HashMap<String, Product> fileProducts;
+
+    /**
+     * Constructs a watcher of a products file. The catalog is assumed to match the current file.
+     *
+     * @param database the database whose catalog is updated.
+     * @param file the products file.
+     * @param quietMillis how long the file must stay unchanged before it is reloaded, in milliseconds.
+     */
+    public CatalogWatcher(Database database, Path file, long quietMillis) {
+        this.database = database;
+        this.file = file.toAbsolutePath();
+        this.quietMillis = quietMillis;
+        rememberFile();
+    }
+
+    /**
+     * Starts watching the file on a daemon thread.
+     *
+     * @throws IOException if the directory of the file cannot be watched.
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(this::watch, "catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the file.
+     */
+    public synchronized void stop() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        watcher.interrupt();
+        watcher = null;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = touchesFile(key);
+                if (changed) {
+                    WatchKey next;
+                    while ((next = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)) != null) {
+                        touchesFile(next);
+                    }
+                    reloadIfChanged();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped.
+        }
+    }
+
+    private boolean touchesFile(WatchKey key) {
+        boolean touches = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                touches = true;
+            }
+        }
+        key.reset();
+        return touches;
+    }
+
+    private synchronized void reloadIfChanged() {
+        try {
+            if (Arrays.equals(digest(), lastDigest)) {
+                return;
+            }
+            reload();
+        } catch (RuntimeException e) {
+            // Most likely a file still being written; the next change reloads it again.
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the file and applies the products that changed in it since it was last loaded, where they differ from the catalog.
+     *
+     * @return the changes applied; no new catalog version is published if there are none.
+     */
+    public synchronized Reload reload() {
+        byte[] digest = digest();
+        HashMap<String, Product> newFileProducts = read();
+        CatalogSnapshot catalog = database.getCatalog();
+
+        ArrayList<Product> added = new ArrayList<>();
+        ArrayList<Product[]> updated = new ArrayList<>();
+        for (Product fileProduct : newFileProducts.values()) {
+            Product previous = fileProducts.get(fileProduct.getProductTitle());
+            if (previous != null && sameDetails(previous, fileProduct)) {
+                continue;
+            }
+            Product live = catalog.find(fileProduct.getProductTitle());
+            if (live == null) {
+                added.add(fileProduct);
+            } else if (!sameDetails(live, fileProduct)) {
+                updated.add(new Product[]{live, fileProduct});
+            }
+        }
+        ArrayList<Product> removed = new ArrayList<>();
+        for (String title : fileProducts.keySet()) {
+            Product live = newFileProducts.containsKey(title) ? null : catalog.find(title);
+            if (live != null) {
+                removed.add(live);
+            }
+        }
+
+        int[] applied = new int[3];
+        if (!added.isEmpty() || !updated.isEmpty() || !removed.isEmpty()) {
+            database.editCatalog(editor -> {
+                for (Product product : added) {
+                    if (editor.find(product.getProductTitle()) == null) {
+                        editor.add(product);
+                        applied[0]++;
+                    }
+                }
+                for (Product[] change : updated) {
+                    Product revised = change[0].revise(change[1]);
+                    if (editor.replace(change[0], revised)) {
+                        revised.setProductQuantity(change[1].getProductQuantity());
+                        applied[1]++;
+                    }
+                }
+                for (Product product : removed) {
+                    if (editor.remove(product)) {
+                        applied[2]++;
+                    }
+                }
+            });
+        }
+        lastDigest = digest;
+        fileProducts = newFileProducts;
+        return new Reload(applied[0], applied[1], applied[2]);
+    }
+
+    /**
+     * Runs a writer of the products file and takes the written file as the current version of the catalog,
+     * so the watcher does not reload the shop's own changes.
+     *
+     * @param writer the writer of the file.
+     */
+    public synchronized void writeCatalog(Runnable writer) {
+        writer.run();
+        rememberFile();
+    }
+
+    private void rememberFile() {
+        lastDigest = digest();
+        fileProducts = read();
+    }
+
+    /**
+     * Reads the products of the file.
+     *
+     * @return the products by title, in file order; of products with the same title, the first one.
+     */
+    private HashMap<String, Product> read() {
+        LinkedHashMap<String, Product> products = new LinkedHashMap<>();
+        for (Product product : new ProductsReader(file.toString()).getProducts()) {
+            products.putIfAbsent(product.getProductTitle(), product);
+        }
+        return products;
+    }
+
+    /**
+     * Hashes the content of the file, so a change that keeps its size and modification time is still seen.
+     *
+     * @return the SHA-256 digest of the file.
+     */
+    private byte[] digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks whether a product of the file has the same details as the product of the catalog.
+     *
+     * @param live the product of the catalog.
+     * @param fileProduct the product read from the file.
+     * @return {@code true} if nothing but the object differs.
+     */
+    static boolean sameDetails(Product live, Product fileProduct) {
+        return live.getProductDescription().equals(fileProduct.getProductDescription())
+                && live.getProductCategory().equals(fileProduct.getProductCategory())
+                && live.getProductSubCategory().equals(fileProduct.getProductSubCategory())
+                && Double.compare(live.getProductPrice(), fileProduct.getProductPrice()) == 0
+                && live.getProductQuantity() == fileProduct.getProductQuantity()
+                && live.getProductMeasurementUnit().equals(fileProduct.getProductMeasurementUnit());
+    }
+}
@@ -0,0 +1,14 @@
+package api;
+
+import java.util.ArrayList;
+
+/**
+ * The CheckoutResult record represents the outcome of {@link Customer#completeOrder()}.
+ * A checkout reserves the stock of every cart line or of none of them, so either the order
+ * was completed, or it was rejected and the lines whose stock could not be reserved are listed.
+ *
+ * @param completed    {@code true} if the order was placed and the stock was taken
+ * @param failedLines  the cart lines that could not be reserved (empty if the order was completed)
+ */
+public record CheckoutResult(boolean completed, ArrayList<Product> failedLines) {
+}
@@ -0,0 +1,219 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.function.IntFunction;
+
+/**
+ * A sparse co-occurrence matrix over pairs of products that were bought in the same order.
+ * Every product title is given an {@code int} id and every row of the matrix is an {@link IntCountMap}
+ * from the ids of the other products to the number of orders that contained both products;
+ * a row is only created once its product is bought together with another product.
+ * The matrix is built once from the order history of all customers and is then updated
+ * incrementally each time an order is completed. Rows that grow beyond a fixed number of
+ * neighbours are pruned to the half with the highest counts, so memory stays bounded.
+ */
+public class CoPurchaseMatrix {
+
+    /** The default number of neighbours kept for each product before its row is pruned. */
+    public static final int DEFAULT_MAX_NEIGHBOURS = 256;
+
+    private final int maxNeighbours;
+    private final HashMap<String, Integer> productIds;
+    private final ArrayList<String> productTitles;
+    private final ArrayList<IntCountMap> rows;
+
+    /**
+     * Constructs an empty matrix.
+     *
+     * @param maxNeighbours the number of neighbours a row may hold before its lowest counts are pruned.
+     */
+    public CoPurchaseMatrix(int maxNeighbours) {
+        this.maxNeighbours = maxNeighbours;
+        this.productIds = new HashMap<>();
+        this.productTitles = new ArrayList<>();
+        this.rows = new ArrayList<>();
+    }
+
+    /**
+     * Builds a matrix from the order history of the given customers.
+     * Product ids are assigned in a first sequential pass, then the orders of the customers are
+     * counted in parallel into partial rows that are merged at the end.
+     *
+     * @param customers the customers whose order history is counted.
+     * @param maxNeighbours the number of neighbours a row may hold before its lowest counts are pruned.
+     * @return the built matrix.
+     */
+    public static CoPurchaseMatrix build(Collection<Customer> customers, int maxNeighbours) {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(maxNeighbours);
+        for (Customer customer : customers) {
+            for (Order order : customer.getCustomerOrderHistory()) {
+                for (String productTitle : order.boughtProducts()) {
+                    matrix.idOf(productTitle);
+                }
+            }
+        }
+
+        int numberOfProducts = matrix.productTitles.size();
+        IntCountMap[] builtRows = customers.parallelStream().collect(
+                () -> new IntCountMap[numberOfProducts],
+                (partialRows, customer) -> {
+                    for (Order order : customer.getCustomerOrderHistory()) {
+                        matrix.countOrder(id -> rowIn(partialRows, id), matrix.distinctIds(order.boughtProducts()));
+                    }
+                },
+                (partialRows, otherRows) -> {
+                    for (int i = 0; i < numberOfProducts; i++) {
+                        if (otherRows[i] == null) {
+                            continue;
+                        }
+                        if (partialRows[i] == null) {
+                            partialRows[i] = otherRows[i];
+                        } else {
+                            partialRows[i].addAll(otherRows[i]);
+                        }
+                    }
+                });
+
+        for (int i = 0; i < numberOfProducts; i++) {
+            if (builtRows[i] != null) {
+                matrix.rows.set(i, builtRows[i]);
+                matrix.pruneIfNeeded(builtRows[i]);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Records a completed order, increasing the count of every pair of distinct products in it.
+     *
+     * @param boughtProducts the titles of the products bought in the order.
+     */
+    public synchronized void recordOrder(Collection<String> boughtProducts) {
+        ArrayList<String> titles = new ArrayList<>(boughtProducts);
+        for (String productTitle : titles) {
+            idOf(productTitle);
+        }
+        int[] ids = distinctIds(titles);
+        countOrder(this::row, ids);
+        for (int id : ids) {
+            IntCountMap row = rows.get(id);
+            if (row != null) {
+                pruneIfNeeded(row);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the products most frequently bought together with the given product.
+     *
+     * @param productTitle the title of the product.
+     * @param xTopProducts the number of neighbours to return.
+     * @return the titles of the neighbours, ordered from the most to the least frequent, ties in the order the products were first seen.
+     *         The list is empty if the product was never bought together with another product.
+     */
+    public synchronized ArrayList<String> topNeighbours(String productTitle, int xTopProducts) {
+        ArrayList<String> neighbours = new ArrayList<>();
+        Integer id = productIds.get(productTitle);
+        if (id == null || xTopProducts <= 0) {
+            return neighbours;
+        }
+
+        IntCountMap row = rows.get(id);
+        if (row == null) {
+            return neighbours;
+        }
+        int[] keys = row.keys();
+        int[] counts = row.counts();
+        int selected = Math.min(xTopProducts, keys.length);
+
+        // Partial selection sort: the rows are small, so picking the top few entries is cheaper than sorting.
+        for (int i = 0; i < selected; i++) {
+            int best = i;
+            for (int j = i + 1; j < keys.length; j++) {
+                if (counts[j] > counts[best] || (counts[j] == counts[best] && keys[j] < keys[best])) {
+                    best = j;
+                }
+            }
+            int key = keys[best];
+            keys[best] = keys[i];
+            keys[i] = key;
+            int count = counts[best];
+            counts[best] = counts[i];
+            counts[i] = count;
+            neighbours.add(productTitles.get(keys[i]));
+        }
+        return neighbours;
+    }
+
+    /**
+     * Retrieves how many orders contained both of the given products.
+     *
+     * @param firstProductTitle the title of the first product.
+     * @param secondProductTitle the title of the second product.
+     * @return the number of orders that contained both products.
+     */
+    public synchronized int getCount(String firstProductTitle, String secondProductTitle) {
+        Integer firstId = productIds.get(firstProductTitle);
+        Integer secondId = productIds.get(secondProductTitle);
+        if (firstId == null || secondId == null) {
+            return 0;
+        }
+        IntCountMap row = rows.get(firstId);
+        return row == null ? 0 : row.get(secondId);
+    }
+
+    private int idOf(String productTitle) {
+        Integer id = productIds.get(productTitle);
+        if (id == null) {
+            id = productTitles.size();
+            productIds.put(productTitle, id);
+            productTitles.add(productTitle);
+            rows.add(null);
+        }
+        return id;
+    }
+
+    private int[] distinctIds(Collection<String> boughtProducts) {
+        int[] ids = new int[boughtProducts.size()];
+        int index = 0;
+        for (String productTitle : boughtProducts) {
+            ids[index++] = productIds.get(productTitle);
+        }
+        return Arrays.stream(ids).distinct().toArray();
+    }
+
+    private void countOrder(IntFunction<IntCountMap> rowOf, int[] ids) {
+        for (int first : ids) {
+            for (int second : ids) {
+                if (first != second) {
+                    rowOf.apply(first).increment(second, 1);
+                }
+            }
+        }
+    }
+
+    private IntCountMap row(int id) {
+        IntCountMap row = rows.get(id);
+        if (row == null) {
+            row = new IntCountMap();
+            rows.set(id, row);
+        }
+        return row;
+    }
+
+    private static IntCountMap rowIn(IntCountMap[] targetRows, int id) {
+        if (targetRows[id] == null) {
+            targetRows[id] = new IntCountMap();
+        }
+        return targetRows[id];
+    }
+
+    private void pruneIfNeeded(IntCountMap row) {
+        if (row.size() > maxNeighbours) {
+            row.retainTop(maxNeighbours / 2);
+        }
+    }
+}
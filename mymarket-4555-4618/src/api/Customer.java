@@ -3,22 +3,45 @@ package api;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Represents a customer in the system, managing personal information,
  * a shopping cart, and an order history. The class provides functionality
  * to interact with a product database, modify the cart, and complete orders.
+ * Every command on the cart and the order history runs through the customer's {@link CustomerMailbox},
+ * one at a time, so a customer can safely be used from several sessions and threads at once.
+ * Every change of the cart is sent as a {@link CartChange} to the cart listeners, e.g. the cart views of the GUI.
  */
 public class Customer {
+    private static final LatencyHistogram ADD_LATENCY = Metrics.histogram("customer.addProductToCart");
+    private static final LatencyHistogram REMOVE_LATENCY = Metrics.histogram("customer.removeProductFromCart");
+    private static final LatencyHistogram ADJUST_LATENCY = Metrics.histogram("customer.adjustProductQuantityInCart");
+    private static final LatencyHistogram CHECKOUT_LATENCY = Metrics.histogram("customer.completeOrder");
+    private static final LongAdder CHECKOUTS_COMPLETED = Metrics.counter("customer.checkout.completed");
+    private static final LongAdder CHECKOUTS_FAILED = Metrics.counter("customer.checkout.failed");
+
     private final String username;
     private final String password;
     private final String firstName;
     private final String surname;
 
-    public ArrayList<Product> cart;
+    private ArrayList<Product> cart;
     private double totalCartCost;
 
     private ArrayList<Order> customerOrderHistory;
+    private CustomerSummary summary;
+    private OrderIndex orderIndex;
+
+    private final CustomerMailbox mailbox = new CustomerMailbox();
+    private final CopyOnWriteArrayList<Consumer<CartChange>> cartListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a Customer instance with the specified personal information.
@@ -36,10 +59,10 @@ public class Customer {
         this.firstName = firstName;
         this.surname = surname;
 
-        CustomerOrderHistoryReader myHistoryReader = new CustomerOrderHistoryReader("src/api/textFiles/CustomersOrderHistory/" + username + ".txt");
+        CustomerOrderHistoryReader myHistoryReader = new CustomerOrderHistoryReader(DataFiles.orderHistory(username));
         customerOrderHistory = myHistoryReader.getOrders();
 
-        CustomerCartReader myReader = new CustomerCartReader("src/api/textFiles/CustomersActiveCarts/" + username + "_activeCart" + ".txt");
+        CustomerCartReader myReader = new CustomerCartReader(DataFiles.activeCart(username));
         totalCartCost = myReader.getTotalCartCost();
         this.setCart(myReader.getProducts());
     }
@@ -89,23 +112,25 @@ public class Customer {
      * @return true if the product was successfully added; false otherwise.
      */
     public boolean addProductToCart(Product p, int neededQuantity) {
+        return timed(ADD_LATENCY, () -> {
+            Product databaseProduct = Database.getInstance().getSpecificProduct(p);
+            for(Product product : cart) {
+                if(product.getProductTitle().equals(p.getProductTitle())) {
+                    return false;
+                }
+            }
 
-        Product databaseProduct = Database.getInstance().getSpecificProduct(p);
-        for(Product product : cart) {
-            if(product.getProductTitle().equals(p.getProductTitle())) {
+            if (neededQuantity <= 0 || !holdStock(databaseProduct, neededQuantity)) {
                 return false;
+            } else {
+                Product newCartProduct = p.copy();
+                newCartProduct.setProductQuantity(neededQuantity);
+                cart.add(newCartProduct);
+                totalCartCost += newCartProduct.getProductPrice() * neededQuantity;
+                notifyCartListeners(new CartChange.LineAdded(newCartProduct, roundedTotal()));
+                return true;
             }
-        }
-
-        if (neededQuantity > databaseProduct.getProductQuantity() || neededQuantity <= 0) {
-            return false;
-        } else {
-            Product newCartProduct = p.copy();
-            newCartProduct.setProductQuantity(neededQuantity);
-            cart.add(newCartProduct);
-            totalCartCost += newCartProduct.getProductPrice() * neededQuantity;
-            return true;
-        }
+        });
     }
 
     /**
@@ -114,8 +139,16 @@ public class Customer {
      * @param p the product to remove from the cart.
      */
     public void removeProductFromCart(Product p) {
-        totalCartCost -= p.getProductQuantity() * p.getProductPrice();
-        cart.remove(p);
+        timed(REMOVE_LATENCY, () -> {
+            if (cart.remove(p)) {
+                totalCartCost -= p.getProductQuantity() * p.getProductPrice();
+                CartHolds holds = Database.getInstance().getCartHolds();
+                if (holds != null) {
+                    holds.release(username, p.getProductTitle());
+                }
+                notifyCartListeners(new CartChange.LineRemoved(p, roundedTotal()));
+            }
+        });
     }
 
     /**
@@ -126,54 +159,179 @@ public class Customer {
      * @return true if the quantity was successfully adjusted; false otherwise.
      */
     public boolean adjustProductQuantityInCart(Product p, int neededQuantity) {
-        Product databaseProduct = Database.getInstance().getSpecificProduct(p);
+        return timed(ADJUST_LATENCY, () -> {
+            Product databaseProduct = Database.getInstance().getSpecificProduct(p);
 
-        if (neededQuantity < 0)
-            return false;
-        else if (neededQuantity > databaseProduct.getProductQuantity()) {
+            if (neededQuantity < 0)
+                return false;
+            else if (neededQuantity != 0 && !holdStock(databaseProduct, neededQuantity)) {
+                return false;
+            } else if (neededQuantity > p.getProductQuantity()) {
+                totalCartCost += (neededQuantity - p.getProductQuantity()) * p.getProductPrice();
+                p.setProductQuantity(neededQuantity);
+                notifyCartListeners(new CartChange.LineUpdated(p, roundedTotal()));
+                return true;
+
+            } else if (neededQuantity < p.getProductQuantity() && neededQuantity != 0) {
+                totalCartCost -= (p.getProductQuantity() - neededQuantity) * p.getProductPrice();
+                p.setProductQuantity(neededQuantity);
+                notifyCartListeners(new CartChange.LineUpdated(p, roundedTotal()));
+                return true;
+            } else if (neededQuantity == p.getProductQuantity()) {
+                return true;
+            } else if (neededQuantity == 0) {
+                this.removeProductFromCart(p);
+                p.setProductQuantity(0);
+                return true;
+            }
             return false;
-        } else if (neededQuantity > p.getProductQuantity()) {
-            totalCartCost += (neededQuantity - p.getProductQuantity()) * p.getProductPrice();
-            p.setProductQuantity(neededQuantity);
-            return true;
-
-        } else if (neededQuantity < p.getProductQuantity() && neededQuantity != 0) {
-            totalCartCost -= (p.getProductQuantity() - neededQuantity) * p.getProductPrice();
-            p.setProductQuantity(neededQuantity);
-            return true;
-        } else if (neededQuantity == p.getProductQuantity()) {
-            return true;
-        } else if (neededQuantity == 0) {
-            this.removeProductFromCart(p);
-            p.setProductQuantity(0);
-            return true;
+        });
+    }
+
+    /**
+     * Checks that the stock is enough for a cart line. When cart holds are enabled,
+     * the quantity is also held for the customer, replacing any previous hold on the product.
+     *
+     * @param databaseProduct the product of the database.
+     * @param quantity the quantity of the cart line.
+     * @return true if the stock is enough (and, with holds, the quantity is now held); false otherwise.
+     */
+    private boolean holdStock(Product databaseProduct, int quantity) {
+        CartHolds holds = Database.getInstance().getCartHolds();
+        if (holds == null) {
+            return quantity <= databaseProduct.getProductQuantity();
         }
-        return false;
+        return holds.hold(username, databaseProduct, quantity, System.currentTimeMillis());
     }
 
     /**
      * Completes the current order by finalizing the cart contents,
      * updating the order history, and reducing product quantities in the database.
+     * The stock of every cart line is reserved atomically before anything else is changed;
+     * if any line cannot be reserved, the lines already reserved are released and the order is not placed.
+     * Lines whose stock is held in the {@link CartHolds} are bought from their hold.
+     * The customer's summary is updated, and the order and the new stock levels are published
+     * on the database's {@link EventBus}, where the analytics pick them up.
      * Clears the cart and resets the total cart cost to zero.
+     * Every checkout is also recorded as a {@link ShopEvents.Checkout} flight recorder event.
+     *
+     * @return the result of the checkout, listing the cart lines whose stock was not enough if it failed.
      */
-    public void completeOrder() {
+    public CheckoutResult completeOrder() {
+        ShopEvents.Checkout event = new ShopEvents.Checkout();
+        event.begin();
+        CheckoutResult result = timed(CHECKOUT_LATENCY, () -> {
+            event.lines = cart.size();
+            Database database = Database.getInstance();
+            ArrayList<Product> failedLines = reserveStock(database);
+            if (!failedLines.isEmpty()) {
+                CHECKOUTS_FAILED.increment();
+                return new CheckoutResult(false, failedLines);
+            }
 
-        LocalDateTime date = LocalDateTime.now();
-        DateTimeFormatter myFormatObj = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String formattedDate = date.format(myFormatObj);
-        ArrayList<String> products = new ArrayList<>();
-        for (Product p : cart) {
-            products.add(p.getProductTitle());
+            LocalDateTime date = LocalDateTime.now();
+            DateTimeFormatter myFormatObj = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+            String formattedDate = date.format(myFormatObj);
+            ArrayList<String> products = new ArrayList<>();
+            for (Product p : cart) {
+                products.add(p.getProductTitle());
+            }
+            Order order = new Order(FulfillmentPipeline.PENDING,formattedDate, products, Double.toString(totalCartCost).replace('.',',')+"€");
+            HashMap<String, String> cartCategories = new HashMap<>();
+            for (Product p : cart) {
+                cartCategories.put(p.getProductTitle(), p.getProductCategory());
+            }
+            getSummary().record(order, cartCategories::get);
+            customerOrderHistory.add(order);
+            if (orderIndex != null) {
+                orderIndex.add(order);
+            }
+            EventBus eventBus = database.getEventBus();
+            eventBus.publish(new DomainEvent.OrderCompleted(username, order, List.copyOf(cart), System.currentTimeMillis()));
+            for (Product p : cart) {
+                Product databaseProduct = database.getSpecificProduct(p);
+                if (databaseProduct != null) {
+                    eventBus.publish(new DomainEvent.StockChanged(p.getProductTitle(), databaseProduct.getProductQuantity()));
+                }
+            }
+            clearCart();
+            totalCartCost = 0;
+            CHECKOUTS_COMPLETED.increment();
+            return new CheckoutResult(true, new ArrayList<>());
+        });
+        event.customer = username;
+        event.completed = result.completed();
+        event.failedLines = result.failedLines().size();
+        event.commit();
+        return result;
+    }
+
+    /**
+     * Runs a command in the mailbox and records how long the caller waited for it, queueing included.
+     *
+     * @param latency the histogram of the operation.
+     * @param command the command to run.
+     * @param <R> the type of the result.
+     * @return the result of the command.
+     */
+    private <R> R timed(LatencyHistogram latency, Callable<R> command) {
+        long start = System.nanoTime();
+        try {
+            return mailbox.call(command);
+        } finally {
+            latency.record(System.nanoTime() - start);
         }
-        Order order = new Order("Εκκρεμής",formattedDate, products, Double.toString(totalCartCost).replace('.',',')+"€");
-        customerOrderHistory.add(order);
-        Database database = Database.getInstance();
+    }
+
+    /**
+     * Runs a command without a result in the mailbox and records how long the caller waited for it.
+     *
+     * @param latency the histogram of the operation.
+     * @param command the command to run.
+     */
+    private void timed(LatencyHistogram latency, Runnable command) {
+        long start = System.nanoTime();
+        try {
+            mailbox.execute(command);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reserves the stock of every cart line, all or nothing.
+     *
+     * @param database the database holding the stock.
+     * @return the lines that could not be reserved; if not empty, no stock was taken.
+     */
+    private ArrayList<Product> reserveStock(Database database) {
+        CartHolds holds = database.getCartHolds();
+        ArrayList<Product> reservedStock = new ArrayList<>();
+        ArrayList<Integer> reservedAmounts = new ArrayList<>();
+        ArrayList<Boolean> fromHolds = new ArrayList<>();
+        ArrayList<Product> failedLines = new ArrayList<>();
         for (Product p : cart) {
             Product databaseProduct = database.getSpecificProduct(p);
-            databaseProduct.setProductQuantity(databaseProduct.getProductQuantity() - p.getProductQuantity());
+            boolean held = databaseProduct != null && holds != null && holds.take(username, p.getProductTitle(), p.getProductQuantity());
+            if (held || (databaseProduct != null && databaseProduct.tryReserve(p.getProductQuantity()))) {
+                reservedStock.add(databaseProduct);
+                reservedAmounts.add(p.getProductQuantity());
+                fromHolds.add(held);
+            } else {
+                failedLines.add(p);
+            }
+        }
+        if (!failedLines.isEmpty()) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < reservedStock.size(); i++) {
+                if (fromHolds.get(i)) {
+                    holds.restore(username, reservedStock.get(i), reservedAmounts.get(i), now);
+                } else {
+                    reservedStock.get(i).release(reservedAmounts.get(i));
+                }
+            }
         }
-        clearCart();
-        totalCartCost = 0;
+        return failedLines;
     }
 
     /**
@@ -182,17 +340,53 @@ public class Customer {
      * @return the total cost of the cart.
      */
     public double getTotalCartCost() {
+        return mailbox.call(this::roundedTotal);
+    }
+
+    /**
+     * Rounds the total cost of the cart to cents. Must run in the mailbox.
+     *
+     * @return the total cost of the cart.
+     */
+    private double roundedTotal() {
         return Math.round(totalCartCost * 100.0) / 100.0;
     }
 
+    /**
+     * Registers a listener of the changes of the cart. The listener runs in the customer's mailbox,
+     * right after each change, so it must be quick and must not wait for other threads; a GUI listener
+     * hands the change over to the event dispatch thread.
+     *
+     * @param listener the listener.
+     */
+    public void addCartListener(Consumer<CartChange> listener) {
+        cartListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener of the changes of the cart.
+     *
+     * @param listener the listener.
+     */
+    public void removeCartListener(Consumer<CartChange> listener) {
+        cartListeners.remove(listener);
+    }
+
+    private void notifyCartListeners(CartChange change) {
+        for (Consumer<CartChange> listener : cartListeners) {
+            listener.accept(change);
+        }
+    }
+
 
     /**
      * Retrieves the list of products in the customer's cart.
+     * The returned list is a copy taken in the customer's mailbox, the products in it are the cart's own.
      *
      * @return an ArrayList of products in the cart.
      */
     public ArrayList<Product> getCart() {
-        return cart;
+        return mailbox.call(() -> new ArrayList<>(cart));
     }
 
     /**
@@ -201,17 +395,20 @@ public class Customer {
      * @param cart an ArrayList of products to set as the cart.
      */
     public void setCart(ArrayList<Product> cart) {
-
+        mailbox.execute(() -> {
             this.cart = cart;
+            notifyCartListeners(new CartChange.Reset(roundedTotal()));
+        });
     }
 
     /**
      * Retrieves the customer's order history.
+     * The returned list is a copy taken in the customer's mailbox.
      *
      * @return an ArrayList of orders representing the customer's order history.
      */
     public ArrayList<Order> getCustomerOrderHistory() {
-        return customerOrderHistory;
+        return mailbox.call(() -> new ArrayList<>(customerOrderHistory));
     }
 
     /**
@@ -221,42 +418,165 @@ public class Customer {
      */
     public void setCustomerOrderHistory(ArrayList<Order> customerOrderHistory) {
         if (customerOrderHistory != null) {
-            this.customerOrderHistory = customerOrderHistory;
+            mailbox.execute(() -> {
+                this.customerOrderHistory = customerOrderHistory;
+                this.summary = null;
+                this.orderIndex = null;
+            });
         }
     }
 
+    /**
+     * Replaces an order of the customer's order history with a copy that has a new status.
+     * The order is found by its id, so an older copy of it, with a previous status, finds it too.
+     *
+     * @param order the order of the history.
+     * @param status the new status, e.g. "Ολοκληρωμένη".
+     * @return the order with the new status, or {@code null} if the order is not in the history.
+     */
+    public Order updateOrderStatus(Order order, String status) {
+        return mailbox.call(() -> {
+            int index = -1;
+            for (int i = customerOrderHistory.size() - 1; i >= 0 && index < 0; i--) {
+                if (customerOrderHistory.get(i).id().equals(order.id())) {
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                return null;
+            }
+            Order updated = order.withStatus(status);
+            Order previous = customerOrderHistory.set(index, updated);
+            if (orderIndex != null) {
+                orderIndex.replace(previous, updated);
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Brings the cart in line with changes of the catalog. The lines of removed products are removed,
+     * and the lines of changed products take their new details and price; the quantities in the cart, and the stock
+     * held for them, are kept.
+     *
+     * @param changes the new version of every changed product by its previous title, or {@code null} for a removed product.
+     * @return the number of cart lines updated or removed.
+     */
+    public int refreshCart(Map<String, Product> changes) {
+        return mailbox.call(() -> {
+            int refreshed = 0;
+            for (Product line : new ArrayList<>(cart)) {
+                if (!changes.containsKey(line.getProductTitle())) {
+                    continue;
+                }
+                Product current = changes.get(line.getProductTitle());
+                if (current == null) {
+                    removeProductFromCart(line);
+                } else {
+                    totalCartCost += (current.getProductPrice() - line.getProductPrice()) * line.getProductQuantity();
+                    CartHolds holds = Database.getInstance().getCartHolds();
+                    if (holds != null) {
+                        holds.rename(username, line.getProductTitle(), current.getProductTitle());
+                    }
+                    line.setProductTitle(current.getProductTitle());
+                    line.setProductDescription(current.getProductDescription());
+                    line.setProductCategory(current.getProductCategory());
+                    line.setProductSubCategory(current.getProductSubCategory());
+                    line.setProductPrice(current.getProductPrice());
+                    line.setProductMeasurementUnit(current.getProductMeasurementUnit());
+                    notifyCartListeners(new CartChange.LineUpdated(line, roundedTotal()));
+                }
+                refreshed++;
+            }
+            return refreshed;
+        });
+    }
+
     /**
      * Sets the total cost of the customer's cart.
      *
      * @param totalCartCost the new total cost of the cart.
      */
     public void setTotalCartCost(double totalCartCost) {
-        this.totalCartCost = totalCartCost;
+        mailbox.execute(() -> this.totalCartCost = totalCartCost);
     }
 
     /**
      * Clears the customer's cart and resets the total cart cost to zero.
      */
     public void clearCart() {
-        if (!cart.isEmpty())
-            cart.clear();
-        totalCartCost = 0;
-
+        mailbox.execute(() -> {
+            if (!cart.isEmpty())
+                cart.clear();
+            CartHolds holds = Database.getInstance().getCartHolds();
+            if (holds != null) {
+                holds.releaseAll(username);
+            }
+            totalCartCost = 0;
+            notifyCartListeners(new CartChange.Reset(0));
+        });
     }
 
 
     /**
      * Finds the maximum number of products bought in a single order from the customer's order history.
+     * The value is read from the customer's summary instead of scanning the order history.
      *
      * @return the maximum number of products bought in any order.
      */
     public int getMaxProductsBought() {
-        int max = 0;
-        for (Order order : customerOrderHistory) {
-            if (max < order.boughtProducts().size())
-                max = order.boughtProducts().size();
-        }
-        return max;
+        return getSummary().getMaxBasket();
+    }
+
+    /**
+     * Retrieves the summary of the customer's order history. The summary is built from the order
+     * history the first time it is needed and is then kept up to date by {@link #completeOrder()}.
+     *
+     * @return the {@link CustomerSummary} of the customer.
+     */
+    public CustomerSummary getSummary() {
+        return mailbox.call(() -> {
+            if (summary == null) {
+                rebuildSummary(Database.getInstance()::getProductCategory);
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Retrieves the value of a metric of the customer's summary. The value is read in the customer's mailbox,
+     * so it is never read while an order is being recorded in the summary.
+     *
+     * @param metric the metric.
+     * @return the value of the metric, see {@link CustomerSummary.Metric#valueOf(CustomerSummary)}.
+     */
+    public double getSummaryValue(CustomerSummary.Metric metric) {
+        return mailbox.call(() -> metric.valueOf(getSummary()));
+    }
+
+    /**
+     * Retrieves the index of the customer's order history, for finding orders by date and product.
+     * The index is built from the order history the first time it is needed and is then kept up to date
+     * by {@link #completeOrder()} and {@link #updateOrderStatus(Order, String)}.
+     *
+     * @return the {@link OrderIndex} of the customer.
+     */
+    public OrderIndex getOrderIndex() {
+        return mailbox.call(() -> {
+            if (orderIndex == null) {
+                orderIndex = OrderIndex.of(customerOrderHistory);
+            }
+            return orderIndex;
+        });
+    }
+
+    /**
+     * Rebuilds the summary of the customer's order history.
+     *
+     * @param categoryOf a function returning the category of a product title, or {@code null} if it is unknown.
+     */
+    void rebuildSummary(Function<String, String> categoryOf) {
+        summary = CustomerSummary.of(customerOrderHistory, categoryOf);
     }
 }
 
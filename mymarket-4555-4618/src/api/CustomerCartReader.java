@@ -8,6 +8,8 @@ import java.util.ArrayList;
  * Populates the cart with products and calculates the total cost.
  */
 public class CustomerCartReader {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("reader.cart");
+
     ArrayList<Product> products = new ArrayList<>();
     double totalCartCost =0;
 
@@ -24,8 +26,7 @@ public class CustomerCartReader {
         File file = new File(fileName);
 
         if (file.exists()) {
-
-
+            ShopEvents.FileIo run = METRICS.begin(fileName);
             try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
@@ -63,6 +64,7 @@ public class CustomerCartReader {
 
                 throw new RuntimeException(ex);
             }
+            METRICS.end(run, file.length(), products.size());
         }
     }
 
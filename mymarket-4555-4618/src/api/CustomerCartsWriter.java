@@ -1,9 +1,10 @@
 package api;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Writes the active cart data of all customers to individual files.
@@ -11,6 +12,7 @@ import java.util.HashMap;
  * for a specific customer.
  */
 public class CustomerCartsWriter {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("writer.carts");
 
     /**
      * Constructs a CustomerCartsWriter instance and writes the active cart
@@ -29,12 +31,16 @@ public class CustomerCartsWriter {
      */
     public CustomerCartsWriter()
         {
+             ShopEvents.FileIo run = METRICS.begin(DataFiles.file(DataFiles.ACTIVE_CARTS_DIRECTORY));
+             long bytes = 0;
+             long lines = 0;
              Database database = Database.getInstance();
-             HashMap<String,Customer> allCustomers = database.getAllCustomers();
+             Map<String,Customer> allCustomers = database.getAllCustomers();
              for(Customer customer : allCustomers.values())
              {
-                 try (FileWriter writer = new FileWriter("src/api/textFiles/" + customer.getUsername() +"_activeCart" + ".txt", false)) {
+                 try (FileWriter writer = new FileWriter(DataFiles.activeCart(customer.getUsername()), false)) {
                      ArrayList<Product> products = customer.getCart();
+                     lines += products.size();
                      for(Product product : products){
                          writer.write("Τίτλος: "+ product.getProductTitle() +"\n");
                          writer.write("Περιγραφή: "+ product.getProductDescription() +"\n");
@@ -52,8 +58,9 @@ public class CustomerCartsWriter {
                  catch (IOException e) {
                         e.printStackTrace();
                  }
-
+                 bytes += new File(DataFiles.activeCart(customer.getUsername())).length();
              }
+             METRICS.end(run, bytes, lines);
 
         }
 }
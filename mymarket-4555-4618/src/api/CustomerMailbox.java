@@ -0,0 +1,116 @@
+package api;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the commands of one customer one at a time, in the order they were sent, so a customer's state
+ * has a single writer without any lock, and the commands of different customers run in parallel.
+ * When the mailbox is idle, the sending thread runs its command itself, without a thread hop.
+ * Commands sent while the mailbox is busy are queued, and the thread that owns the mailbox runs them
+ * after its own; whatever is still queued when it finishes is handed over to a virtual thread.
+ * A command may send further commands to the same mailbox; they run immediately instead of waiting
+ * behind the command that sent them.
+ * <p>
+ * Commands therefore do not always run on a virtual thread: {@link #call(Callable)} waits for the result anyway,
+ * so running an uncontended command on the sending thread saves two thread hops, and only contended commands,
+ * those queued behind another session of the same customer, end up on virtual threads. Either way a customer
+ * has one writer at a time and no command holds a lock shared with other customers.</p>
+ */
+public class CustomerMailbox {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ConcurrentLinkedQueue<FutureTask<?>> commands;
+    private final AtomicBoolean draining;
+    private volatile Thread drainingThread;
+
+    /**
+     * Constructs an empty mailbox.
+     */
+    public CustomerMailbox() {
+        this.commands = new ConcurrentLinkedQueue<>();
+        this.draining = new AtomicBoolean();
+    }
+
+    /**
+     * Sends a command to the mailbox and waits for its result.
+     *
+     * @param command the command to run.
+     * @param <R> the type of the result.
+     * @return the result of the command.
+     */
+    public <R> R call(Callable<R> command) {
+        FutureTask<R> task = new FutureTask<>(command);
+        if (Thread.currentThread() == drainingThread) {
+            task.run();
+        } else {
+            commands.add(task);
+            if (draining.compareAndSet(false, true)) {
+                drain(task);
+            }
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException ex) {
+                    // The command is already queued; wait for it to finish and keep the interrupt for the caller.
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (ex.getCause() instanceof Error error) {
+                        throw error;
+                    }
+                    throw new RuntimeException(ex.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Sends a command without a result to the mailbox and waits for it to finish.
+     *
+     * @param command the command to run.
+     */
+    public void execute(Runnable command) {
+        call(Executors.callable(command));
+    }
+
+    /**
+     * Runs queued commands. The caller must have set the draining flag.
+     *
+     * @param lastTask the command after which the current thread stops, or {@code null} to run until the queue is empty.
+     */
+    private void drain(FutureTask<?> lastTask) {
+        drainingThread = Thread.currentThread();
+        try {
+            FutureTask<?> task;
+            while ((task = commands.poll()) != null) {
+                task.run();
+                if (task == lastTask) {
+                    break;
+                }
+            }
+        } finally {
+            drainingThread = null;
+            draining.set(false);
+        }
+        // Commands queued while this thread was draining, or just after its last poll, are handed over.
+        if (!commands.isEmpty() && draining.compareAndSet(false, true)) {
+            EXECUTOR.execute(() -> drain(null));
+        }
+    }
+}
@@ -11,6 +11,8 @@ import java.util.ArrayList;
  * Creates a list of orders based on the data in the file.
  */
 public class CustomerOrderHistoryReader {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("reader.orderHistory");
+
     ArrayList<Order> orders = new ArrayList<>();
 
     /**
@@ -18,6 +20,7 @@ public class CustomerOrderHistoryReader {
      * customer's order history by reading data from the specified file.
      * If the file does not exist, it creates a new empty file.
      * Each order is parsed with the following details:
+     * - Id, if the file has one
      * - Status
      * - Date
      * - List of products
@@ -30,10 +33,16 @@ public class CustomerOrderHistoryReader {
 
         File file = new File(fileName);
         if (file.exists()) {
-
+            ShopEvents.FileIo run = METRICS.begin(fileName);
             try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    // Files written before orders had ids start with the status; their orders are numbered by position.
+                    String id = Integer.toString(orders.size() + 1);
+                    if (line.startsWith("Id:")) {
+                        id = line.substring(line.indexOf(':') + 1).trim();
+                        line = reader.readLine();
+                    }
                     String status = (line.substring(line.indexOf(':') + 1).trim());
                     line = reader.readLine();
                     String date = (line.substring(line.indexOf(':') + 1).trim());
@@ -50,12 +59,13 @@ public class CustomerOrderHistoryReader {
 
                     line = reader.readLine();
                     String totalCost = (line.substring(line.indexOf(':') + 1).trim());
-                    Order newOrder = new Order(status, date, productsList, totalCost);
+                    Order newOrder = new Order(id, status, date, productsList, totalCost);
                     orders.add(newOrder);
                 }
             } catch (IOException ex) {
                 throw new RuntimeException(ex);
             }
+            METRICS.end(run, file.length(), orders.size());
         }
     }
 
@@ -0,0 +1,230 @@
+package api;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A compact summary of a customer's order history: number of orders, total spend, largest and
+ * average basket, dates of the first and last order and the favourite category.
+ * The summary is built once from the order history and then updated with every completed order,
+ * so customer statistics and rankings never need to scan the order lists again.
+ */
+public class CustomerSummary {
+
+    private static final DateTimeFormatter ORDER_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private int orderCount;
+    private double totalSpend;
+    private int maxBasket;
+    private long totalProducts;
+    private LocalDateTime firstOrderDate;
+    private LocalDateTime lastOrderDate;
+    private final HashMap<String, Integer> categoryCounts;
+    private String favouriteCategory;
+
+    /**
+     * The metrics by which customers can be ranked. Every comparator orders customers
+     * from the highest to the lowest value of the metric.
+     */
+    public enum Metric {
+        ORDER_COUNT("Number of orders", CustomerSummary::getOrderCount),
+        TOTAL_SPEND("Total spend", CustomerSummary::getTotalSpend),
+        MAX_BASKET("Largest basket", CustomerSummary::getMaxBasket),
+        AVERAGE_BASKET("Average basket", CustomerSummary::getAverageBasket),
+        FIRST_ORDER("First order date", summary -> epochSecond(summary.getFirstOrderDate())),
+        LAST_ORDER("Last order date", summary -> epochSecond(summary.getLastOrderDate()));
+
+        private final String label;
+        private final ToDoubleFunction<CustomerSummary> value;
+        private final Comparator<CustomerSummary> comparator;
+
+        Metric(String label, ToDoubleFunction<CustomerSummary> value) {
+            this.label = label;
+            this.value = value;
+            this.comparator = Comparator.comparingDouble(value).reversed();
+        }
+
+        /**
+         * Retrieves the value of the metric in a summary. Dates are given in seconds since the epoch,
+         * and a missing date is lower than every other one.
+         *
+         * @param summary the summary.
+         * @return the value of the metric; higher values are ranked first.
+         */
+        public double valueOf(CustomerSummary summary) {
+            return value.applyAsDouble(summary);
+        }
+
+        /**
+         * Retrieves the comparator that orders summaries from the highest to the lowest value of the metric.
+         *
+         * @return the descending comparator of the metric.
+         */
+        public Comparator<CustomerSummary> comparator() {
+            return comparator;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Constructs an empty summary for a customer without orders.
+     */
+    public CustomerSummary() {
+        this.categoryCounts = new HashMap<>();
+    }
+
+    /**
+     * Builds the summary of an order history.
+     *
+     * @param orders the orders of the customer.
+     * @param categoryOf a function returning the category of a product title, or {@code null} if it is unknown.
+     * @return the summary of the orders.
+     */
+    public static CustomerSummary of(Collection<Order> orders, Function<String, String> categoryOf) {
+        CustomerSummary summary = new CustomerSummary();
+        for (Order order : orders) {
+            summary.record(order, categoryOf);
+        }
+        return summary;
+    }
+
+    /**
+     * Updates the summary with a new order.
+     *
+     * @param order the new order.
+     * @param categoryOf a function returning the category of a product title, or {@code null} if it is unknown.
+     */
+    public void record(Order order, Function<String, String> categoryOf) {
+        int basket = order.boughtProducts().size();
+        orderCount++;
+        totalSpend += parseCost(order.totalOrderCost());
+        totalProducts += basket;
+        maxBasket = Math.max(maxBasket, basket);
+
+        LocalDateTime date = parseDate(order.orderDate());
+        if (date != null) {
+            if (firstOrderDate == null || date.isBefore(firstOrderDate)) {
+                firstOrderDate = date;
+            }
+            if (lastOrderDate == null || date.isAfter(lastOrderDate)) {
+                lastOrderDate = date;
+            }
+        }
+
+        for (String productTitle : order.boughtProducts()) {
+            String category = categoryOf.apply(productTitle);
+            if (category != null) {
+                int count = categoryCounts.merge(category, 1, Integer::sum);
+                if (favouriteCategory == null || count > categoryCounts.get(favouriteCategory)) {
+                    favouriteCategory = category;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of orders of the customer.
+     *
+     * @return the number of orders.
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * Retrieves the total amount spent by the customer.
+     *
+     * @return the sum of the costs of all orders.
+     */
+    public double getTotalSpend() {
+        return Math.round(totalSpend * 100.0) / 100.0;
+    }
+
+    /**
+     * Retrieves the maximum number of products bought in a single order.
+     *
+     * @return the size of the largest basket, or 0 if there are no orders.
+     */
+    public int getMaxBasket() {
+        return maxBasket;
+    }
+
+    /**
+     * Retrieves the average number of products bought per order.
+     *
+     * @return the average basket size, or 0 if there are no orders.
+     */
+    public double getAverageBasket() {
+        return orderCount == 0 ? 0 : (double) totalProducts / orderCount;
+    }
+
+    /**
+     * Retrieves the date of the customer's first order.
+     *
+     * @return the date of the first order, or {@code null} if there are no dated orders.
+     */
+    public LocalDateTime getFirstOrderDate() {
+        return firstOrderDate;
+    }
+
+    /**
+     * Retrieves the date of the customer's last order.
+     *
+     * @return the date of the last order, or {@code null} if there are no dated orders.
+     */
+    public LocalDateTime getLastOrderDate() {
+        return lastOrderDate;
+    }
+
+    /**
+     * Retrieves the category from which the customer bought the most products.
+     *
+     * @return the favourite category, or {@code null} if it is unknown.
+     */
+    public String getFavouriteCategory() {
+        return favouriteCategory;
+    }
+
+    private static double epochSecond(LocalDateTime date) {
+        return date == null ? Double.NEGATIVE_INFINITY : date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Parses an order cost such as "129,99€".
+     *
+     * @param totalOrderCost the cost as stored in an {@link Order}.
+     * @return the cost as a number, or 0 if it cannot be parsed.
+     */
+    static double parseCost(String totalOrderCost) {
+        try {
+            return Double.parseDouble(totalOrderCost.replace("€", "").replace(",", ".").trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Parses an order date such as "04/12/2024 00:19:01".
+     *
+     * @param orderDate the date as stored in an {@link Order}.
+     * @return the parsed date, or {@code null} if it cannot be parsed.
+     */
+    static LocalDateTime parseDate(String orderDate) {
+        try {
+            return LocalDateTime.parse(orderDate, ORDER_DATE_FORMAT);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
@@ -1,23 +1,25 @@
 package api;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Writes updated order history for all customers to their respective files.
- * Orders with a status of "Εκκρεμής" are marked as "Ολοκληρωμένη"
- * and appended to the customer's order history file.
+ * Writes the order history of all customers to their respective files.
+ * Each order is written with its current status; the statuses are advanced
+ * by the {@link FulfillmentPipeline}.
  */
 public class CustomersOrderHistoryWriter {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("writer.orderHistory");
 
     /**
-     * Constructs a CustomersOrderHistoryWriter instance and updates the order
-     * history for all customers. For each customer, orders marked as
-     * "Εκκρεμής" are updated to "Ολοκληρωμένη" and written to a file named
-     * based on the customer's username in the "CustomersOrderHistory" directory.
-     * The file format includes details for each completed order:
-     * - Status (updated to "Ολοκληρωμένη")
+     * Constructs a CustomersOrderHistoryWriter instance and writes the order
+     * history of all customers. Each customer's file, named after the username
+     * in the "CustomersOrderHistory" directory, is rewritten with all the orders.
+     * The file format includes details for each order:
+     * - Id
+     * - Status ("Εκκρεμής", "Σε επεξεργασία" or "Ολοκληρωμένη")
      * - Date
      * - List of products (separated by "|")
      * - Total order cost
@@ -26,28 +28,30 @@ public class CustomersOrderHistoryWriter {
      */
     public CustomersOrderHistoryWriter() {
 
-
+        ShopEvents.FileIo run = METRICS.begin(DataFiles.file(DataFiles.ORDER_HISTORY_DIRECTORY));
+        long bytes = 0;
+        long orders = 0;
         Database database = Database.getInstance();
-        HashMap<String, Customer> allCustomers = database.getAllCustomers();
+        Map<String, Customer> allCustomers = database.getAllCustomers();
         for (Customer customer : allCustomers.values()) {
-            try (FileWriter writer = new FileWriter("src/api/textFiles/" + customer.getUsername() + ".txt", true)) {
+            try (FileWriter writer = new FileWriter(DataFiles.orderHistory(customer.getUsername()), false)) {
                 for (Order order : customer.getCustomerOrderHistory()) {
-                    if (order.status().equals("Εκκρεμής")) {
-                        writer.write("Status: Ολοκληρωμένη\n");
-                        writer.write("Date: " + order.orderDate() + "\n");
-                        writer.write("boughtProducts: ");
-                        for (String product : order.boughtProducts())
-                            writer.write(product + "|");
-                        writer.write("\n");
-                        writer.write("totalOrderCost: " + order.totalOrderCost() + "\n");
-                    }
+                    orders++;
+                    writer.write("Id: " + order.id() + "\n");
+                    writer.write("Status: " + order.status() + "\n");
+                    writer.write("Date: " + order.orderDate() + "\n");
+                    writer.write("boughtProducts: ");
+                    for (String product : order.boughtProducts())
+                        writer.write(product + "|");
+                    writer.write("\n");
+                    writer.write("totalOrderCost: " + order.totalOrderCost() + "\n");
                 }
 
             } catch (IOException e) {
                 e.printStackTrace();
             }
-
+            bytes += new File(DataFiles.orderHistory(customer.getUsername())).length();
         }
+        METRICS.end(run, bytes, orders);
     }
 }
-
@@ -2,6 +2,7 @@ package api;
 
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.HashMap;
@@ -12,6 +13,8 @@ import java.util.HashMap;
  * loaded customer data.
  */
 public class CustomersReader {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("reader.customers");
+
     private final HashMap<String, Customer> customers;
 
     /**
@@ -27,8 +30,7 @@ public class CustomersReader {
      */
     public CustomersReader( String fileName ) {
 
-
-
+        ShopEvents.FileIo run = METRICS.begin(fileName);
         try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
             String line;
             customers = new HashMap<>();
@@ -51,6 +53,7 @@ public class CustomersReader {
         } catch (IOException ex) {
             throw new RuntimeException(ex);
         }
+        METRICS.end(run, new File(fileName).length(), customers.size());
     }
 
     /**
@@ -1,8 +1,9 @@
 package api;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Writes customer data to a specified file. Overwrites the existing file
@@ -10,6 +11,7 @@ import java.util.HashMap;
  * password, first name, and surname.
  */
 public class CustomersWriter {
+    private static final Metrics.IoMetrics METRICS = Metrics.io("writer.customers");
 
     /**
      * Constructs a CustomersWriter instance and writes the provided customer
@@ -19,20 +21,21 @@ public class CustomersWriter {
      * - First name
      * - Surname
      *
-     * @param customers a HashMap where the keys are customer usernames
+     * @param customers a Map where the keys are customer usernames
      *                  and the values are Customer objects to be written to the file.
      * @throws RuntimeException if there is an error writing to the file.
      */
-    public CustomersWriter(HashMap<String, Customer> customers)  {
+    public CustomersWriter(Map<String, Customer> customers)  {
 
-        try (FileWriter writer = new FileWriter("src/api/textFiles/customers.txt", false)) {
+        ShopEvents.FileIo run = METRICS.begin(DataFiles.file("customers.txt"));
+        try (FileWriter writer = new FileWriter(DataFiles.file("customers.txt"), false)) {
                 for (String key : customers.keySet())
                     writer.write(  "username: " + key + "\n" + "password: " + customers.get(key).getPassword()+"\n"+"firstName: "+customers.get(key).getFirstName()+"\n"+"surname: "+customers.get(key).getSurname()+"\n");
         }
         catch (IOException e) {
             e.printStackTrace();
         }
-
+        METRICS.end(run, new File(DataFiles.file("customers.txt")).length(), customers.size());
     }
 
 }
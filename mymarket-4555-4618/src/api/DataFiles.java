@@ -0,0 +1,91 @@
+package api;
+
+import java.io.File;
+
+/**
+ * The locations of the data files of the e-shop. All files live under one data directory,
+ * "src/api/textFiles" by default, which can be changed with the system property {@value #DATA_DIRECTORY_PROPERTY}.
+ */
+public final class DataFiles {
+
+    /** The system property that overrides the data directory. */
+    public static final String DATA_DIRECTORY_PROPERTY = "mymarket.data";
+
+    /** The directory of the customers' order history files, inside the data directory. */
+    public static final String ORDER_HISTORY_DIRECTORY = "CustomersOrderHistory";
+
+    /** The directory of the customers' active cart files, inside the data directory. */
+    public static final String ACTIVE_CARTS_DIRECTORY = "CustomersActiveCarts";
+
+    private static final String DEFAULT_DATA_DIRECTORY = "src/api/textFiles";
+
+    private DataFiles() {
+    }
+
+    /**
+     * Retrieves the data directory.
+     *
+     * @return the path of the data directory, without a trailing separator.
+     */
+    public static String directory() {
+        return System.getProperty(DATA_DIRECTORY_PROPERTY, DEFAULT_DATA_DIRECTORY);
+    }
+
+    /**
+     * Retrieves the path of a file directly in the data directory, e.g. "products.txt".
+     *
+     * @param fileName the name of the file.
+     * @return the path of the file.
+     */
+    public static String file(String fileName) {
+        return directory() + "/" + fileName;
+    }
+
+    /**
+     * Retrieves the path of a customer's order history file, creating its directory if needed.
+     *
+     * @param username the username of the customer.
+     * @return the path of the order history file.
+     */
+    public static String orderHistory(String username) {
+        return inDirectory(ORDER_HISTORY_DIRECTORY, orderHistoryFileName(username));
+    }
+
+    /**
+     * Retrieves the name of a customer's order history file inside {@value #ORDER_HISTORY_DIRECTORY}.
+     *
+     * @param username the username of the customer.
+     * @return the file name.
+     */
+    public static String orderHistoryFileName(String username) {
+        return username + ".txt";
+    }
+
+    /**
+     * Retrieves the path of a customer's active cart file, creating its directory if needed.
+     *
+     * @param username the username of the customer.
+     * @return the path of the active cart file.
+     */
+    public static String activeCart(String username) {
+        return inDirectory(ACTIVE_CARTS_DIRECTORY, activeCartFileName(username));
+    }
+
+    /**
+     * Retrieves the name of a customer's active cart file inside {@value #ACTIVE_CARTS_DIRECTORY}.
+     *
+     * @param username the username of the customer.
+     * @return the file name.
+     */
+    public static String activeCartFileName(String username) {
+        return username + "_activeCart" + ".txt";
+    }
+
+    private static String inDirectory(String subDirectory, String fileName) {
+        File directory = new File(directory(), subDirectory);
+        if (!directory.isDirectory()) {
+            directory.mkdirs();
+        }
+        return directory.getPath() + "/" + fileName;
+    }
+}
@@ -1,21 +1,61 @@
 package api;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * The {@code Database} class is a singleton responsible for managing and storing the product and customer data.
  * It handles product and customer retrieval, addition, and filtering by categories or subcategories.
  * This class ensures that only one instance of the database exists throughout the application.
+ * <p>
+ * The database is safe to use from several threads. The singleton is published through a holder class
+ * and customers are kept in a concurrent map. Each customer serializes its own cart commands through
+ * its {@link CustomerMailbox}, so unrelated customers never wait for each other.</p>
+ * <p>
+ * The product catalog is published as immutable, versioned {@link CatalogSnapshot}s. Readers get the
+ * current snapshot without locking and keep a consistent view for as long as they hold it. Admin changes
+ * are serialized, build the next version with a {@link CatalogSnapshot.Editor} and swap it in atomically.</p>
  */
 
 public class Database {
 
 
-    private static Database instance;
-    private ArrayList<Product> allProducts;
-    private HashMap<String, Customer> allCustomers;
+    /**
+     * The categories of the products and the subcategories of each one, in display order.
+     */
+    public static final Map<String, List<String>> TAXONOMY = taxonomy();
+
+    private static final LatencyHistogram LOGIN_LATENCY = Metrics.histogram("database.login");
+    private static final LatencyHistogram SEARCH_LATENCY = Metrics.histogram("database.searchProducts");
+    private static final LatencyHistogram CATEGORY_FILTER_LATENCY = Metrics.histogram("database.getAllProductsByCategory");
+    private static final LatencyHistogram SUBCATEGORY_FILTER_LATENCY = Metrics.histogram("database.getAllProductsBySubCategory");
+    private static final LatencyHistogram RANK_CUSTOMERS_LATENCY = Metrics.histogram("database.rankCustomers");
+    private static final LatencyHistogram UNAVAILABLE_PRODUCTS_LATENCY = Metrics.histogram("database.unavailableProducts");
+    private static final LatencyHistogram FREQUENTLY_BOUGHT_LATENCY = Metrics.histogram("database.frequentlyBoughtProducts");
+    private static final LatencyHistogram EDIT_CATALOG_LATENCY = Metrics.histogram("database.editCatalog");
+    private static final LatencyHistogram ALL_WRITERS_LATENCY = Metrics.histogram("database.allWritersCall");
+
+    /** How long {@link #allWritersCall()} waits for the event subscribers to catch up before writing. */
+    private static final long WRITERS_WAIT_MILLIS = 5000;
+
+    private volatile CatalogSnapshot catalog;
+    private final ReentrantLock catalogWriteLock;
+    private final ConcurrentHashMap<String, Customer> allCustomers;
+    private final CartIndex cartIndex;
     private ArrayList<String > categories;
     private ArrayList<String > subCategories;
+    private CoPurchaseMatrix coPurchaseMatrix;
+    private DistinctBuyersIndex distinctBuyersIndex;
+    private TrendingProducts trendingProducts;
+    private volatile CartHolds cartHolds;
+    private volatile FulfillmentPipeline fulfillmentPipeline;
+    private volatile CatalogWatcher catalogWatcher;
+    private final EventBus eventBus;
 
     /**
      * Private constructor for the {@code Database} class. Initializes the lists of products, customers, categories,
@@ -32,34 +72,48 @@ public class Database {
      * @param categories A list of product categories available in the database.
      * @param subCategories A list of product subcategories available in the database.
      */
-        allProducts = new ArrayList<>();
-        allCustomers = new HashMap<>();
+        catalogWriteLock = new ReentrantLock();
 
-        String fileName = "src/api/textFiles/products.txt";
+        String fileName = DataFiles.file("products.txt");
         ProductsReader myProductsReader = new ProductsReader(fileName);
-        allProducts = myProductsReader.getProducts();
+        catalog = CatalogSnapshot.of(myProductsReader.getProducts());
 
-        String filename = "src/api/textFiles/customers.txt";
+        String filename = DataFiles.file("customers.txt");
         CustomersReader myCustomersReader = new CustomersReader(filename);
-        allCustomers = myCustomersReader.getCustomers();
+        allCustomers = new ConcurrentHashMap<>(myCustomersReader.getCustomers());
+        cartIndex = new CartIndex();
+        for (Customer customer : allCustomers.values()) {
+            cartIndex.track(customer);
+        }
+
+        coPurchaseMatrix = CoPurchaseMatrix.build(allCustomers.values(), CoPurchaseMatrix.DEFAULT_MAX_NEIGHBOURS);
+        trendingProducts = TrendingProducts.build(allCustomers.values(), TrendingProducts.DEFAULT_HALF_LIFE_MILLIS);
 
-        this.categories = new ArrayList<>();
+        for (Customer customer : allCustomers.values()) {
+            customer.rebuildSummary(this::getProductCategory);
+        }
+        BuyerSketchesReader mySketchesReader = new BuyerSketchesReader(DataFiles.file("buyerSketches.txt"));
+        if (mySketchesReader.isComplete()) {
+            distinctBuyersIndex = new DistinctBuyersIndex(mySketchesReader.getSketches(), this::getProductCategory);
+        } else {
+            distinctBuyersIndex = DistinctBuyersIndex.build(allCustomers.values(), this::getProductCategory);
+        }
+
+        eventBus = new EventBus(EventBus.DEFAULT_CAPACITY);
+        eventBus.subscribe("analytics", this::updateAnalytics);
+        eventBus.subscribe("carts", this::updateCarts);
+        Metrics.gauge("database.products", () -> catalog.size());
+        Metrics.gauge("database.catalogVersion", () -> catalog.getVersion());
+        Metrics.gauge("database.customers", allCustomers::size);
+        Metrics.gauge("eventBus.published", eventBus::getPublishedCount);
+        Metrics.gauge("eventBus.maxLag", eventBus::getMaxLag);
+        Metrics.gauge("eventBus.averagePublishNanos", eventBus::getAveragePublishNanos);
+
+        this.categories = new ArrayList<>(TAXONOMY.keySet());
         this.subCategories = new ArrayList<>();
-        Collections.addAll(categories,"Φρέσκα τρόφιμα","Κατεψυγμένα τρόφιμα","Προϊόντα ψυγείου"
-                ,"Αλλαντικά","Αλκοολούχα ποτά","Μη αλκοολούχα ποτά","Καθαριστικά για το σπίτι"
-                ,"Απορρυπαντικά ρούχων","Καλλυντικά","Προϊόντα στοματικής υγιεινής","Πάνες"
-                ,"Δημητριακά","Ζυμαρικά","Σνακ","Έλαια","Κονσέρβες","Χαρτικά");
-        Collections.addAll(subCategories, "Φρούτα", "Λαχανικά", "Ψάρια", "Κρέατα", "Κατεψυγμένα λαχανικά",
-                "Κατεψυγμένα κρέατα", "Κατεψυγμένες πίτσες", "Κατεψυγμένα γεύματα", "Τυριά", "Γιαούρτια",
-                "Γάλα", "Βούτυρο", "Ζαμπόν", "Σαλάμι", "Μπέικον", "Μπύρα", "Κρασί", "Ούζο", "Τσίπουρο",
-                "Χυμοί", "Αναψυκτικά", "Νερό", "Ενεργειακά ποτά", "Καθαριστικά για το πάτωμα",
-                "Καθαριστικά για τα τζάμια", "Καθαριστικά κουζίνας", "Σκόνες πλυντηρίου", "Υγρά πλυντηρίου",
-                "Μαλακτικά", "Κρέμες προσώπου", "Μακιγιάζ", "Λοσιόν σώματος", "Οδοντόκρεμες",
-                "Οδοντόβουρτσες", "Στοματικά διαλύματα", "Πάνες για μωρά", "Πάνες ενηλίκων",
-                "Νιφάδες καλαμποκιού", "Μούσλι", "Βρώμη", "Μακαρόνια", "Κριθαράκι", "Ταλιατέλες",
-                "Πατατάκια", "Κράκερς", "Μπάρες δημητριακών", "Ελαιόλαδο", "Ηλιέλαιο", "Σογιέλαιο",
-                "Κονσέρβες ψαριών", "Κονσέρβες λαχανικών", "Κονσέρβες φρούτων", "Χαρτί υγείας",
-                "Χαρτοπετσέτες", "Χαρτομάντηλα");
+        for (List<String> categorySubCategories : TAXONOMY.values()) {
+            subCategories.addAll(categorySubCategories);
+        }
 
 
     }
@@ -67,25 +121,158 @@ public class Database {
 
 
 
+    /**
+     * Builds the taxonomy of the products.
+     *
+     * @return An unmodifiable map from every category to its subcategories.
+     */
+    private static Map<String, List<String>> taxonomy() {
+        LinkedHashMap<String, List<String>> taxonomy = new LinkedHashMap<>();
+        taxonomy.put("Φρέσκα τρόφιμα", List.of("Φρούτα", "Λαχανικά", "Ψάρια", "Κρέατα"));
+        taxonomy.put("Κατεψυγμένα τρόφιμα", List.of("Κατεψυγμένα λαχανικά", "Κατεψυγμένα κρέατα", "Κατεψυγμένες πίτσες", "Κατεψυγμένα γεύματα"));
+        taxonomy.put("Προϊόντα ψυγείου", List.of("Τυριά", "Γιαούρτια", "Γάλα", "Βούτυρο"));
+        taxonomy.put("Αλλαντικά", List.of("Ζαμπόν", "Σαλάμι", "Μπέικον"));
+        taxonomy.put("Αλκοολούχα ποτά", List.of("Μπύρα", "Κρασί", "Ούζο", "Τσίπουρο"));
+        taxonomy.put("Μη αλκοολούχα ποτά", List.of("Χυμοί", "Αναψυκτικά", "Νερό", "Ενεργειακά ποτά"));
+        taxonomy.put("Καθαριστικά για το σπίτι", List.of("Καθαριστικά για το πάτωμα", "Καθαριστικά για τα τζάμια", "Καθαριστικά κουζίνας"));
+        taxonomy.put("Απορρυπαντικά ρούχων", List.of("Σκόνες πλυντηρίου", "Υγρά πλυντηρίου", "Μαλακτικά"));
+        taxonomy.put("Καλλυντικά", List.of("Κρέμες προσώπου", "Μακιγιάζ", "Λοσιόν σώματος"));
+        taxonomy.put("Προϊόντα στοματικής υγιεινής", List.of("Οδοντόκρεμες", "Οδοντόβουρτσες", "Στοματικά διαλύματα"));
+        taxonomy.put("Πάνες", List.of("Πάνες για μωρά", "Πάνες ενηλίκων"));
+        taxonomy.put("Δημητριακά", List.of("Νιφάδες καλαμποκιού", "Μούσλι", "Βρώμη"));
+        taxonomy.put("Ζυμαρικά", List.of("Μακαρόνια", "Κριθαράκι", "Ταλιατέλες"));
+        taxonomy.put("Σνακ", List.of("Πατατάκια", "Κράκερς", "Μπάρες δημητριακών"));
+        taxonomy.put("Έλαια", List.of("Ελαιόλαδο", "Ηλιέλαιο", "Σογιέλαιο"));
+        taxonomy.put("Κονσέρβες", List.of("Κονσέρβες ψαριών", "Κονσέρβες λαχανικών", "Κονσέρβες φρούτων"));
+        taxonomy.put("Χαρτικά", List.of("Χαρτί υγείας", "Χαρτοπετσέτες", "Χαρτομάντηλα"));
+        return Collections.unmodifiableMap(taxonomy);
+    }
+
+    /**
+     * Holds the single instance of the {@code Database}. The JVM initializes the holder class lazily and
+     * exactly once, the first time {@link #getInstance()} is called, which publishes the instance safely
+     * to every thread.
+     */
+    private static class InstanceHolder {
+        private static final Database INSTANCE = new Database();
+    }
+
     /**
      * Returns the singleton instance of the {@code Database} class.
      *
      * @return The single instance of the {@code Database}.
      */
     public static Database getInstance() {
-        if (instance == null) {
-            instance = new Database();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     /**
      * Gets the list of all products in the database.
+     * The list is the current immutable snapshot of the catalog; later changes publish new snapshots and never modify it.
      *
      * @return A list of all {@link Product} objects stored in the database.
      */
-    public ArrayList<Product> getAllProducts() {
-        return allProducts;
+    public List<Product> getAllProducts() {
+        return catalog;
+    }
+
+    /**
+     * Retrieves the current version of the catalog.
+     *
+     * @return The current {@link CatalogSnapshot}.
+     */
+    public CatalogSnapshot getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Applies a batch of changes to the catalog and publishes them as one new version.
+     * Batches are applied one at a time; readers keep seeing the previous version, and its title and facet
+     * indexes, until the new one is swapped in.
+     *
+     * @param edits The changes to apply to the editor of the next version.
+     * @return The published {@link CatalogSnapshot}.
+     */
+    public CatalogSnapshot editCatalog(Consumer<CatalogSnapshot.Editor> edits) {
+        long start = System.nanoTime();
+        catalogWriteLock.lock();
+        try {
+            CatalogSnapshot.Editor editor = catalog.edit();
+            edits.accept(editor);
+            CatalogSnapshot published = editor.publish();
+            catalog = published;
+            for (CatalogSnapshot.Change change : editor.getChanges()) {
+                eventBus.publish(toEvent(change));
+            }
+            return published;
+        } finally {
+            catalogWriteLock.unlock();
+            EDIT_CATALOG_LATENCY.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Converts a change of the catalog to the event that announces it.
+     *
+     * @param change The change made by the editor.
+     * @return The {@link DomainEvent} of the change.
+     */
+    private static DomainEvent toEvent(CatalogSnapshot.Change change) {
+        if (change.removed() == null) {
+            return new DomainEvent.ProductAdded(change.added());
+        } else if (change.added() == null) {
+            return new DomainEvent.ProductRemoved(change.removed());
+        }
+        return new DomainEvent.ProductUpdated(change.removed(), change.added());
+    }
+
+    /**
+     * Updates the co-purchase matrix, the distinct-buyer sketches and the trending scores with the completed orders.
+     * Runs on the analytics subscriber of the {@link EventBus}, so checkouts do not wait for it.
+     *
+     * @param events A batch of published events.
+     */
+    private void updateAnalytics(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.OrderCompleted completed) {
+                coPurchaseMatrix.recordOrder(completed.order().boughtProducts());
+                for (Product line : completed.lines()) {
+                    distinctBuyersIndex.recordPurchase(completed.username(), line.getProductTitle(), line.getProductCategory());
+                    trendingProducts.recordPurchase(line.getProductTitle(), completed.orderTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the carts holding products that were changed or removed, e.g. by an admin or a reload of the products file.
+     * Runs on the carts subscriber of the {@link EventBus}.
+     *
+     * @param events A batch of published events.
+     */
+    private void updateCarts(List<DomainEvent> events) {
+        HashMap<String, Product> changes = new HashMap<>();
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.ProductUpdated updated) {
+                changes.put(updated.product().getProductTitle(), updated.revised());
+            } else if (event instanceof DomainEvent.ProductRemoved removed) {
+                changes.put(removed.product().getProductTitle(), catalog.find(removed.product().getProductTitle()));
+            }
+        }
+        if (!changes.isEmpty()) {
+            for (Customer customer : cartIndex.takeHolders(changes.keySet())) {
+                customer.refreshCart(changes);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the bus on which the database and the customers publish their changes.
+     *
+     * @return The {@link EventBus} of the database.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -95,12 +282,7 @@ public class Database {
      * @return The {@link Product} object if found, {@code null} if not found.
      */
     public Product getSpecificProduct(Product product) {
-        for (Product p : allProducts) {
-            if(product.getProductTitle().equals(p.getProductTitle())) {
-                return p;
-            }
-        }
-        return null;
+        return catalog.find(product.getProductTitle());
     }
 
     /**
@@ -111,12 +293,7 @@ public class Database {
      */
 
     public boolean productExists(Product product) {
-        for (Product p : allProducts) {
-            if(p.getProductTitle().equals(product.getProductTitle())) {
-                return true;
-            }
-        }
-        return false;
+        return catalog.find(product.getProductTitle()) != null;
     }
 
     /**
@@ -125,7 +302,128 @@ public class Database {
      * @param product The {@link Product} object to add to the database.
      */
     public void addNewProduct(Product product) {
-        allProducts.add(product);
+        editCatalog(editor -> editor.add(product));
+    }
+
+    /**
+     * Replaces a product of the database with a new version holding the edited details, and publishes it
+     * as a new version of the catalog. The old product object is left unchanged for readers that still hold it.
+     * The edit is based on the version of the product the caller read: if that version is no longer in the catalog,
+     * e.g. because the product was edited or reloaded meanwhile, nothing is changed, not even the stock.
+     *
+     * @param product The {@link Product} of the database to update.
+     * @param edited A {@link Product} holding the new details.
+     * @return The new version of the product, or {@code null} if {@code product} is no longer the current version.
+     */
+    public Product updateProduct(Product product, Product edited) {
+        catalogWriteLock.lock();
+        try {
+            if (!catalog.contains(product)) {
+                return null;
+            }
+            Product revised = product.revise(edited);
+            editCatalog(editor -> {
+                if (editor.replace(product, revised)) {
+                    revised.setProductQuantity(edited.getProductQuantity());
+                }
+            });
+            return revised;
+        } finally {
+            catalogWriteLock.unlock();
+        }
+    }
+
+    /**
+     * Enables time-limited holds on the stock of the products added to carts, and starts expiring them.
+     * Holds are disabled by default; once enabled they stay enabled.
+     *
+     * @param ttlMillis The time to live of a hold, in milliseconds.
+     */
+    public synchronized void enableCartHolds(long ttlMillis) {
+        if (cartHolds == null) {
+            CartHolds holds = new CartHolds(ttlMillis, CartHolds.DEFAULT_TICK_MILLIS, System.currentTimeMillis());
+            holds.start();
+            cartHolds = holds;
+        }
+    }
+
+    /**
+     * Retrieves the holds on the stock of the products in carts.
+     *
+     * @return The {@link CartHolds}, or {@code null} if holds are not enabled.
+     */
+    public CartHolds getCartHolds() {
+        return cartHolds;
+    }
+
+    /**
+     * Starts fulfilling the customers' orders in the background. The orders left pending by the previous run
+     * are resumed, and every order completed from now on is queued for fulfillment.
+     * Once started, the pipeline keeps running.
+     *
+     * @param workers The number of workers fulfilling orders.
+     */
+    public synchronized void startFulfillment(int workers) {
+        if (fulfillmentPipeline == null) {
+            FulfillmentPipeline pipeline = new FulfillmentPipeline(new File(DataFiles.file("fulfillmentJournal.txt")), allCustomers::get, order -> { });
+            pipeline.start(workers, allCustomers.values());
+            eventBus.subscribe("fulfillment", events -> {
+                for (DomainEvent event : events) {
+                    if (event instanceof DomainEvent.OrderCompleted completed) {
+                        pipeline.submit(completed.username(), completed.order());
+                    }
+                }
+            });
+            Metrics.gauge("fulfillment.queueDepth", pipeline::getQueueDepth);
+            Metrics.gauge("fulfillment.inFlight", pipeline::getInFlight);
+            Metrics.gauge("fulfillment.completed", pipeline::getCompletedCount);
+            Metrics.gauge("fulfillment.throughputPerSecond", pipeline::getThroughputPerSecond);
+            Metrics.gauge("fulfillment.averageMillis", pipeline::getAverageFulfilmentMillis);
+            fulfillmentPipeline = pipeline;
+        }
+    }
+
+    /**
+     * Starts watching the products file and applying the changes made to it by other programs to the catalog.
+     * Once started, the watcher keeps running.
+     *
+     * @throws IOException If the data directory cannot be watched.
+     */
+    public synchronized void startCatalogWatch() throws IOException {
+        if (catalogWatcher == null) {
+            CatalogWatcher watcher = new CatalogWatcher(this, Path.of(DataFiles.file("products.txt")), CatalogWatcher.DEFAULT_QUIET_MILLIS);
+            watcher.start();
+            catalogWatcher = watcher;
+        }
+    }
+
+    /**
+     * Retrieves the watcher of the products file.
+     *
+     * @return The {@link CatalogWatcher}, or {@code null} if the products file is not watched.
+     */
+    public CatalogWatcher getCatalogWatcher() {
+        return catalogWatcher;
+    }
+
+    /**
+     * Retrieves the pipeline fulfilling the customers' orders.
+     *
+     * @return The {@link FulfillmentPipeline}, or {@code null} if fulfillment has not started.
+     */
+    public FulfillmentPipeline getFulfillmentPipeline() {
+        return fulfillmentPipeline;
+    }
+
+    /**
+     * Retrieves the category of a product by its title.
+     *
+     * @param productTitle The title of the product.
+     * @return The category of the product, or {@code null} if no product has this title.
+     */
+    public String getProductCategory(String productTitle) {
+        Product product = catalog.find(productTitle);
+        return product == null ? null : product.getProductCategory();
     }
 
     /**
@@ -135,12 +433,12 @@ public class Database {
      * @return A list of {@link Product} objects that belong to the specified category.
      */
     public ArrayList<Product> getAllProductsByCategory(String category) {
-        ArrayList<Product> products = new ArrayList<>();
-        for (Product p : allProducts) {
-            if(p.getProductCategory().equals(category)) {
-                products.add(p);
-            }
-        }
+        long start = System.nanoTime();
+        ShopEvents.Query query = ShopEvents.Query.begin("getAllProductsByCategory", category);
+        FacetIndex facetIndex = catalog.getFacetIndex();
+        ArrayList<Product> products = facetIndex.toProducts(facetIndex.matching(FacetIndex.CATEGORY, category));
+        CATEGORY_FILTER_LATENCY.record(System.nanoTime() - start);
+        query.finish(products.size());
         return products;
     }
 
@@ -151,15 +449,25 @@ public class Database {
      * @return A list of {@link Product} objects that belong to the specified subcategory.
      */
     public ArrayList<Product> getAllProductsBySubCategory(String subCategory) {
-        ArrayList<Product> products = new ArrayList<>();
-        for (Product p : allProducts) {
-            if(p.getProductSubCategory().equals(subCategory)) {
-                products.add(p);
-            }
-        }
+        long start = System.nanoTime();
+        ShopEvents.Query query = ShopEvents.Query.begin("getAllProductsBySubCategory", subCategory);
+        FacetIndex facetIndex = catalog.getFacetIndex();
+        ArrayList<Product> products = facetIndex.toProducts(facetIndex.matching(FacetIndex.SUBCATEGORY, subCategory));
+        SUBCATEGORY_FILTER_LATENCY.record(System.nanoTime() - start);
+        query.finish(products.size());
         return products;
     }
 
+    /**
+     * Retrieves the facet index that keeps a bitset of products per category, subcategory,
+     * price band and measurement unit. It is the index of the current catalog version, see {@link CatalogSnapshot#getFacetIndex()}.
+     *
+     * @return The {@link FacetIndex} of the database.
+     */
+    public FacetIndex getFacetIndex() {
+        return catalog.getFacetIndex();
+    }
+
     /**
      * Adds a new customer to the database.
      *
@@ -168,6 +476,22 @@ public class Database {
      */
     public void addCustomer(String username, Customer customer) {
         allCustomers.put(username,customer);
+        cartIndex.track(customer);
+        eventBus.publish(new DomainEvent.CustomerAdded(customer));
+    }
+
+    /**
+     * Removes a customer from the database. The customer's cart should be cleared first, so no stock stays held for it.
+     *
+     * @param username The username of the customer to remove.
+     * @return The removed {@link Customer}, or {@code null} if there was no customer with that username.
+     */
+    public Customer removeCustomer(String username) {
+        Customer customer = allCustomers.remove(username);
+        if (customer != null) {
+            cartIndex.untrack(customer);
+        }
+        return customer;
     }
 
     /**
@@ -175,7 +499,7 @@ public class Database {
      *
      * @return A map of all {@link Customer} objects, where the key is the customer's username.
      */
-    public HashMap<String, Customer> getAllCustomers() {
+    public Map<String, Customer> getAllCustomers() {
         return allCustomers;
     }
 
@@ -186,14 +510,71 @@ public class Database {
      * @return The {@link Customer} object if found, {@code null} if not found.
      */
     public Customer getSpecificCustomer(Customer customer) {
-        for (Customer customer1 : allCustomers.values()) {
-            if(customer.getUsername().equals(customer1.getUsername())) {
-                return customer1;
+        return allCustomers.get(customer.getUsername());
+    }
+
+    /**
+     * Checks the credentials of a customer.
+     *
+     * @param username The username entered by the customer.
+     * @param password The password entered by the customer.
+     * @return The {@link Customer} with these credentials, or {@code null} if they do not match any customer.
+     */
+    public Customer login(String username, String password) {
+        long start = System.nanoTime();
+        Customer customer = allCustomers.get(username);
+        Customer loggedIn = customer != null && customer.getPassword().equals(password) ? customer : null;
+        LOGIN_LATENCY.record(System.nanoTime() - start);
+        return loggedIn;
+    }
+
+    /**
+     * Searches the catalog for the products whose title, category or subcategory contains a text, ignoring case.
+     *
+     * @param text The text to search for.
+     * @return A list of the matching {@link Product} objects, in catalog order.
+     */
+    public ArrayList<Product> searchProducts(String text) {
+        long start = System.nanoTime();
+        ShopEvents.Query query = ShopEvents.Query.begin("searchProducts", text);
+        String searchingText = text.toLowerCase();
+        ArrayList<Product> results = new ArrayList<>();
+        for (Product product : catalog) {
+            if (product.getProductTitle().toLowerCase().contains(searchingText) || product.getProductCategory().toLowerCase().contains(searchingText) || product.getProductSubCategory().toLowerCase().contains(searchingText)) {
+                results.add(product);
             }
         }
-        return null;
+        SEARCH_LATENCY.record(System.nanoTime() - start);
+        query.finish(results.size());
+        return results;
     }
 
+    /**
+     * Ranks the customers by a metric of their summaries, from the highest to the lowest value.
+     * Only the {@link CustomerSummary} of each customer is read, the order histories are not scanned.
+     *
+     * @param metric The {@link CustomerSummary.Metric} by which customers are ranked.
+     * @param xTopCustomers The maximum number of customers to return.
+     * @return A list of the top ranked {@link Customer} objects.
+     */
+    public ArrayList<Customer> rankCustomers(CustomerSummary.Metric metric, int xTopCustomers) {
+        long start = System.nanoTime();
+        // The value of each customer is copied in the customer's mailbox, so the sort never reads a summary
+        // that an order is being recorded in.
+        record Ranked(Customer customer, double value) {
+        }
+        Ranked[] customers = allCustomers.values().stream()
+                .map(customer -> new Ranked(customer, customer.getSummaryValue(metric)))
+                .toArray(Ranked[]::new);
+        Arrays.parallelSort(customers, Comparator.comparingDouble(Ranked::value).reversed());
+
+        ArrayList<Customer> topCustomers = new ArrayList<>();
+        for (int i = 0; i < Math.min(xTopCustomers, customers.length); i++) {
+            topCustomers.add(customers[i].customer());
+        }
+        RANK_CUSTOMERS_LATENCY.record(System.nanoTime() - start);
+        return topCustomers;
+    }
 
     /**
      * Retrieves the list of all product categories in the database.
@@ -218,32 +599,7 @@ public class Database {
      * @return An {@link ArrayList} of subcategories for the given category, or an empty list if the category is not found.
      */
     public ArrayList<String> getSubCategories(String category) {
-        return switch (category) {
-            case "Φρέσκα τρόφιμα" -> new ArrayList<>(Arrays.asList("Φρούτα", "Λαχανικά", "Ψάρια", "Κρέατα"));
-            case "Κατεψυγμένα τρόφιμα" ->
-                    new ArrayList<>(Arrays.asList("Κατεψυγμένα λαχανικά", "Κατεψυγμένα κρέατα", "Κατεψυγμένες πίτσες", "Κατεψυγμένα γεύματα"));
-            case "Προϊόντα ψυγείου" -> new ArrayList<>(Arrays.asList("Τυριά", "Γιαούρτια", "Γάλα", "Βούτυρο"));
-            case "Αλλαντικά" -> new ArrayList<>(Arrays.asList("Ζαμπόν", "Σαλάμι", "Μπέικον"));
-            case "Αλκοολούχα ποτά" -> new ArrayList<>(Arrays.asList("Μπύρα", "Κρασί", "Ούζο", "Τσίπουρο"));
-            case "Μη αλκοολούχα ποτά" ->
-                    new ArrayList<>(Arrays.asList("Χυμοί", "Αναψυκτικά", "Νερό", "Ενεργειακά ποτά"));
-            case "Καθαριστικά για το σπίτι" ->
-                    new ArrayList<>(Arrays.asList("Καθαριστικά για το πάτωμα", "Καθαριστικά για τα τζάμια", "Καθαριστικά κουζίνας"));
-            case "Απορρυπαντικά ρούχων" ->
-                    new ArrayList<>(Arrays.asList("Σκόνες πλυντηρίου", "Υγρά πλυντηρίου", "Μαλακτικά"));
-            case "Καλλυντικά" -> new ArrayList<>(Arrays.asList("Κρέμες προσώπου", "Μακιγιάζ", "Λοσιόν σώματος"));
-            case "Προϊόντα στοματικής υγιεινής" ->
-                    new ArrayList<>(Arrays.asList("Οδοντόκρεμες", "Οδοντόβουρτσες", "Στοματικά διαλύματα"));
-            case "Πάνες" -> new ArrayList<>(Arrays.asList("Πάνες για μωρά", "Πάνες ενηλίκων"));
-            case "Δημητριακά" -> new ArrayList<>(Arrays.asList("Νιφάδες καλαμποκιού", "Μούσλι", "Βρώμη"));
-            case "Ζυμαρικά" -> new ArrayList<>(Arrays.asList("Μακαρόνια", "Κριθαράκι", "Ταλιατέλες"));
-            case "Σνακ" -> new ArrayList<>(Arrays.asList("Πατατάκια", "Κράκερς", "Μπάρες δημητριακών"));
-            case "Έλαια" -> new ArrayList<>(Arrays.asList("Ελαιόλαδο", "Ηλιέλαιο", "Σογιέλαιο"));
-            case "Κονσέρβες" ->
-                    new ArrayList<>(Arrays.asList("Κονσέρβες ψαριών", "Κονσέρβες λαχανικών", "Κονσέρβες φρούτων"));
-            case "Χαρτικά" -> new ArrayList<>(Arrays.asList("Χαρτί υγείας", "Χαρτοπετσέτες", "Χαρτομάντηλα"));
-            default -> new ArrayList<>();
-        };
+        return new ArrayList<>(TAXONOMY.getOrDefault(category, List.of()));
     }
 
 
@@ -257,16 +613,29 @@ public class Database {
      *     <li>{@link ProductsWriter} - Saves product data to storage.</li>
      *     <li>{@link CustomerCartsWriter} - Saves shopping cart data for all customers to storage.</li>
      *     <li>{@link CustomersOrderHistoryWriter} - Saves order history for all customers to storage.</li>
+     *     <li>{@link BuyerSketchesWriter} - Saves the distinct-buyer sketches of all products to storage.</li>
      * </ul>
      * </p>
      */
 
-    public void allWritersCall()
-    {
+    public void allWritersCall() {
+        long start = System.nanoTime();
+        eventBus.awaitSubscribers(WRITERS_WAIT_MILLIS);
+        FulfillmentPipeline pipeline = fulfillmentPipeline;
+        if (pipeline != null) {
+            pipeline.flush(WRITERS_WAIT_MILLIS);
+        }
         new CustomersWriter(allCustomers);
-        new ProductsWriter();
+        CatalogWatcher watcher = catalogWatcher;
+        if (watcher != null) {
+            watcher.writeCatalog(ProductsWriter::new);
+        } else {
+            new ProductsWriter();
+        }
         new CustomerCartsWriter();
         new CustomersOrderHistoryWriter();
+        new BuyerSketchesWriter();
+        ALL_WRITERS_LATENCY.record(System.nanoTime() - start);
     }
 
     /**
@@ -275,11 +644,13 @@ public class Database {
      * @return A list of {@link Product} objects that have a quantity of 0, indicating they are unavailable.
      */
     public ArrayList<Product> unavailableProducts() {
+        long start = System.nanoTime();
         ArrayList<Product> products = new ArrayList<>();
-        for (Product p : allProducts) {
+        for (Product p : catalog) {
             if(p.getProductQuantity()==0)
                 products.add(p);
         }
+        UNAVAILABLE_PRODUCTS_LATENCY.record(System.nanoTime() - start);
         return products;
     }
 
@@ -292,6 +663,7 @@ public class Database {
      *         Returns {@code null} if no products were bought.
      */
     public ArrayList<String> frequentlyBoughtProducts(int xTopProducts) {
+        long start = System.nanoTime();
         ArrayList<String> allProductsBought = new ArrayList<>();
         for (Customer customer : allCustomers.values()) {
             for (Order order : customer.getCustomerOrderHistory()) {
@@ -314,6 +686,7 @@ public class Database {
             topProducts.add(sortedProducts.get(i).getKey());
         }
 
+        FREQUENTLY_BOUGHT_LATENCY.record(System.nanoTime() - start);
         if (topProducts.isEmpty()) {
             return null;
         }
@@ -321,4 +694,53 @@ public class Database {
         return topProducts;
     }
 
+    /**
+     * Retrieves the co-purchase matrix that counts how often pairs of products are bought in the same order.
+     *
+     * @return The {@link CoPurchaseMatrix} of the database.
+     */
+    public CoPurchaseMatrix getCoPurchaseMatrix() {
+        return coPurchaseMatrix;
+    }
+
+    /**
+     * Retrieves the ranking of products by their recent, exponentially decayed purchase scores.
+     *
+     * @return The {@link TrendingProducts} of the database.
+     */
+    public TrendingProducts getTrendingProducts() {
+        return trendingProducts;
+    }
+
+    /**
+     * Retrieves the products that are trending now, i.e. those with the highest decayed purchase scores.
+     * Unlike {@link #frequentlyBoughtProducts(int)}, recent purchases weigh more than old ones.
+     *
+     * @param xTopProducts The number of trending products to return.
+     * @return A list of product titles, from the most to the least trending.
+     */
+    public ArrayList<String> trendingProducts(int xTopProducts) {
+        return trendingProducts.topTrending(xTopProducts);
+    }
+
+    /**
+     * Retrieves the index that estimates how many distinct customers bought each product and category.
+     *
+     * @return The {@link DistinctBuyersIndex} of the database.
+     */
+    public DistinctBuyersIndex getDistinctBuyersIndex() {
+        return distinctBuyersIndex;
+    }
+
+    /**
+     * Retrieves the products that customers most frequently bought together with the given product.
+     *
+     * @param product The {@link Product} whose neighbours are requested.
+     * @param xTopProducts The number of products to return.
+     * @return A list of product titles, ordered from the most to the least frequently bought together.
+     */
+    public ArrayList<String> frequentlyBoughtTogether(Product product, int xTopProducts) {
+        return coPurchaseMatrix.topNeighbours(product.getProductTitle(), xTopProducts);
+    }
+
 }
\ No newline at end of file
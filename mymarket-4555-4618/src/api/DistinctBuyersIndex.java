@@ -0,0 +1,124 @@
+package api;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keeps approximate counts of the distinct customers who bought each product and each category.
+ * Every product has its own {@link HyperLogLog} sketch of buyer usernames. The sketch of a category
+ * is the roll-up (merge) of the sketches of the products in it, and both are updated on every
+ * completed order. Only the product sketches are persisted, the category sketches are rolled up
+ * again when the index is loaded.
+ */
+public class DistinctBuyersIndex {
+
+    private final HashMap<String, HyperLogLog> productSketches;
+    private final HashMap<String, HyperLogLog> categorySketches;
+
+    /**
+     * Constructs an index from already built product sketches and rolls them up into category sketches.
+     *
+     * @param productSketches the sketches of buyer usernames, indexed by product title.
+     * @param categoryOf a function returning the category of a product title, or {@code null} if it is unknown.
+     */
+    public DistinctBuyersIndex(Map<String, HyperLogLog> productSketches, Function<String, String> categoryOf) {
+        this.productSketches = new HashMap<>(productSketches);
+        this.categorySketches = new HashMap<>();
+        for (Map.Entry<String, HyperLogLog> entry : this.productSketches.entrySet()) {
+            String category = categoryOf.apply(entry.getKey());
+            if (category != null) {
+                categorySketches.computeIfAbsent(category, k -> new HyperLogLog(HyperLogLog.DEFAULT_PRECISION)).merge(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Builds an index from the order history of the given customers.
+     *
+     * @param customers the customers whose order history is counted.
+     * @param categoryOf a function returning the category of a product title, or {@code null} if it is unknown.
+     * @return the built index.
+     */
+    public static DistinctBuyersIndex build(Collection<Customer> customers, Function<String, String> categoryOf) {
+        HashMap<String, HyperLogLog> productSketches = new HashMap<>();
+        for (Customer customer : customers) {
+            for (Order order : customer.getCustomerOrderHistory()) {
+                for (String productTitle : order.boughtProducts()) {
+                    productSketches.computeIfAbsent(productTitle, k -> new HyperLogLog(HyperLogLog.DEFAULT_PRECISION)).offer(customer.getUsername());
+                }
+            }
+        }
+        return new DistinctBuyersIndex(productSketches, categoryOf);
+    }
+
+    /**
+     * Records that a customer bought a product.
+     *
+     * @param username the username of the customer.
+     * @param productTitle the title of the bought product.
+     * @param category the category of the bought product.
+     */
+    public synchronized void recordPurchase(String username, String productTitle, String category) {
+        productSketches.computeIfAbsent(productTitle, k -> new HyperLogLog(HyperLogLog.DEFAULT_PRECISION)).offer(username);
+        if (category != null) {
+            categorySketches.computeIfAbsent(category, k -> new HyperLogLog(HyperLogLog.DEFAULT_PRECISION)).offer(username);
+        }
+    }
+
+    /**
+     * Estimates how many distinct customers bought a product.
+     *
+     * @param productTitle the title of the product.
+     * @return the estimated number of distinct buyers, or 0 if the product was never bought.
+     */
+    public synchronized long distinctBuyersOfProduct(String productTitle) {
+        HyperLogLog sketch = productSketches.get(productTitle);
+        return sketch == null ? 0 : sketch.estimate();
+    }
+
+    /**
+     * Estimates how many distinct customers bought at least one product of a category.
+     *
+     * @param category the category.
+     * @return the estimated number of distinct buyers, or 0 if no product of the category was bought.
+     */
+    public synchronized long distinctBuyersOfCategory(String category) {
+        HyperLogLog sketch = categorySketches.get(category);
+        return sketch == null ? 0 : sketch.estimate();
+    }
+
+    /**
+     * Estimates how many distinct customers bought at least one product of any of the given categories,
+     * by merging the sketches of the categories.
+     *
+     * @param categories the categories.
+     * @return the estimated number of distinct buyers.
+     */
+    public synchronized long distinctBuyersOfCategories(Collection<String> categories) {
+        HyperLogLog merged = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (String category : categories) {
+            HyperLogLog sketch = categorySketches.get(category);
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+        return merged.estimate();
+    }
+
+    /**
+     * Retrieves a copy of the product sketches, for persisting them.
+     *
+     * @return the sketches of buyer usernames, indexed by product title.
+     */
+    public synchronized HashMap<String, HyperLogLog> getProductSketches() {
+        HashMap<String, HyperLogLog> copy = new HashMap<>();
+        for (Map.Entry<String, HyperLogLog> entry : productSketches.entrySet()) {
+            HyperLogLog sketch = new HyperLogLog(entry.getValue().getPrecision());
+            sketch.merge(entry.getValue());
+            copy.put(entry.getKey(), sketch);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,63 @@
+package api;
+
+import java.util.List;
+
+/**
+ * A change of the e-shop's state, published on the {@link EventBus} after it has happened.
+ * Events are immutable, so subscribers can read them on their own threads.
+ */
+public sealed interface DomainEvent {
+
+    /**
+     * A product was added to the catalog.
+     *
+     * @param product the new product
+     */
+    record ProductAdded(Product product) implements DomainEvent {
+    }
+
+    /**
+     * A product of the catalog was replaced by a new version of it.
+     *
+     * @param product the old version of the product
+     * @param revised the new version of the product
+     */
+    record ProductUpdated(Product product, Product revised) implements DomainEvent {
+    }
+
+    /**
+     * A product was removed from the catalog.
+     *
+     * @param product the removed product
+     */
+    record ProductRemoved(Product product) implements DomainEvent {
+    }
+
+    /**
+     * The stock of a product changed because of a sale.
+     *
+     * @param productTitle the title of the product
+     * @param quantity     the quantity left in stock
+     */
+    record StockChanged(String productTitle, int quantity) implements DomainEvent {
+    }
+
+    /**
+     * A customer completed an order.
+     *
+     * @param username  the username of the customer
+     * @param order     the new order
+     * @param lines     the cart lines of the order, with the bought quantities
+     * @param orderTime the time of the order, in milliseconds since the epoch
+     */
+    record OrderCompleted(String username, Order order, List<Product> lines, long orderTime) implements DomainEvent {
+    }
+
+    /**
+     * A new customer signed up.
+     *
+     * @param customer the new customer
+     */
+    record CustomerAdded(Customer customer) implements DomainEvent {
+    }
+}
@@ -0,0 +1,347 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An in-process bus of {@link DomainEvent}s built on a preallocated ring buffer.
+ * Publishers claim the next sequence of the ring with one atomic increment, store the event in its
+ * slot and mark the slot as published, so publishing never allocates and never waits for subscribers
+ * unless the ring is full. Every subscriber has its own thread and sequence, and receives all the events
+ * published since its last run in one batch, so a slow subscriber catches up in large batches instead
+ * of delaying the publishers. A subscriber with nothing to do spins briefly and then parks until a publisher
+ * wakes it up, so idle subscribers cost no CPU. A slot is cleared once every subscriber has handled it,
+ * so the ring does not keep old events alive.
+ * The bus keeps the cost of publishing and the lag of every subscriber as metrics.
+ */
+public class EventBus {
+
+    /** The default number of slots of the ring. */
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 100_000;
+
+    /**
+     * Receives batches of events on the thread of its subscription.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * Handles a batch of events, in the order they were published.
+         *
+         * @param events the events; the list is reused and is only valid during the call.
+         */
+        void onEvents(List<DomainEvent> events);
+    }
+
+    /**
+     * A subscriber of the bus, with its own thread and position in the ring.
+     */
+    public final class Subscription {
+        private final String name;
+        private final Handler handler;
+        private final AtomicLong sequence;
+        private final LongAdder processed;
+        private final LongAdder batches;
+        private final Thread thread;
+        private volatile boolean running;
+        private volatile boolean parked;
+
+        private Subscription(String name, Handler handler, long start) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+            this.processed = new LongAdder();
+            this.batches = new LongAdder();
+            this.running = true;
+            this.thread = new Thread(this::run, "event-bus-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * Retrieves the name of the subscription.
+         *
+         * @return the name given when subscribing.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Retrieves how many published events the subscriber has not handled yet.
+         *
+         * @return the lag of the subscriber, in events.
+         */
+        public long getLag() {
+            return Math.max(0, cursor.get() - sequence.get());
+        }
+
+        /**
+         * Retrieves the number of events handled so far.
+         *
+         * @return the number of handled events.
+         */
+        public long getProcessedCount() {
+            return processed.sum();
+        }
+
+        /**
+         * Retrieves the average number of events handled per batch.
+         *
+         * @return the average batch size, or 0 if no batch was handled yet.
+         */
+        public double getAverageBatchSize() {
+            long count = batches.sum();
+            return count == 0 ? 0 : (double) processed.sum() / count;
+        }
+
+        /**
+         * Stops the subscriber. Events published afterwards are not handled and do not wait for it.
+         */
+        public void cancel() {
+            running = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        private void run() {
+            ArrayList<DomainEvent> batch = new ArrayList<>();
+            int idle = 0;
+            while (running) {
+                long next = sequence.get() + 1;
+                long last = highestPublished(next, cursor.get());
+                if (last < next) {
+                    if (idle < 2 * SPINS) {
+                        idle = idle(idle);
+                    } else {
+                        // Publishers unpark a parked subscriber, so check again after announcing it to not miss an event.
+                        parked = true;
+                        if (running && highestPublished(next, cursor.get()) < next) {
+                            LockSupport.park(this);
+                        }
+                        parked = false;
+                    }
+                    continue;
+                }
+                idle = 0;
+                for (long s = next; s <= last; s++) {
+                    batch.add(entries[(int) (s & mask)]);
+                }
+                try {
+                    handler.onEvents(batch);
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace();
+                }
+                processed.add(batch.size());
+                batches.increment();
+                batch.clear();
+                sequence.set(last);
+                releaseSlots();
+            }
+        }
+    }
+
+    private final DomainEvent[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor;
+    private final AtomicLong released;
+    private final ReentrantLock releaseLock;
+    private final CopyOnWriteArrayList<Subscription> subscriptions;
+    private final LongAdder publishCount;
+    private final LongAdder publishNanos;
+
+    /**
+     * Constructs a bus with an empty ring.
+     *
+     * @param capacity the number of slots of the ring; it is rounded up to a power of two.
+     */
+    public EventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.entries = new DomainEvent[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.cursor = new AtomicLong(-1);
+        this.released = new AtomicLong(-1);
+        this.releaseLock = new ReentrantLock();
+        this.subscriptions = new CopyOnWriteArrayList<>();
+        this.publishCount = new LongAdder();
+        this.publishNanos = new LongAdder();
+    }
+
+    /**
+     * Subscribes a handler to the events published from now on, and starts its thread.
+     *
+     * @param name the name of the subscriber, used for its thread and its metrics.
+     * @param handler the handler of the events.
+     * @return the subscription, for reading its metrics or cancelling it.
+     */
+    public Subscription subscribe(String name, Handler handler) {
+        Subscription subscription = new Subscription(name, handler, cursor.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Publishes an event to all subscribers. The call only waits if the slowest subscriber
+     * is a whole ring behind.
+     *
+     * @param event the event.
+     */
+    public void publish(DomainEvent event) {
+        long start = System.nanoTime();
+        long sequence = cursor.incrementAndGet();
+        int idle = 0;
+        while (sequence - entries.length > released.get()) {
+            releaseSlots();
+            idle = idle(idle);
+        }
+        int index = (int) (sequence & mask);
+        entries[index] = event;
+        published.set(index, sequence);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.parked) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+        publishNanos.add(System.nanoTime() - start);
+        publishCount.increment();
+    }
+
+    /**
+     * Waits until every subscriber has handled the events published before the call.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds.
+     * @return {@code true} if the subscribers caught up, {@code false} if the time ran out.
+     */
+    public boolean awaitSubscribers(long timeoutMillis) {
+        long target = cursor.get();
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        int idle = 0;
+        while (minimumSequence() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            idle = idle(idle);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the number of published events.
+     *
+     * @return the number of events published so far.
+     */
+    public long getPublishedCount() {
+        return publishCount.sum();
+    }
+
+    /**
+     * Retrieves the average time a publisher spends in {@link #publish(DomainEvent)}.
+     *
+     * @return the average cost of publishing, in nanoseconds.
+     */
+    public double getAveragePublishNanos() {
+        long count = publishCount.sum();
+        return count == 0 ? 0 : (double) publishNanos.sum() / count;
+    }
+
+    /**
+     * Retrieves the largest lag among the subscribers.
+     *
+     * @return the lag of the slowest subscriber, in events.
+     */
+    public long getMaxLag() {
+        long maxLag = 0;
+        for (Subscription subscription : subscriptions) {
+            maxLag = Math.max(maxLag, subscription.getLag());
+        }
+        return maxLag;
+    }
+
+    /**
+     * Retrieves the active subscriptions.
+     *
+     * @return the subscriptions, for reading their metrics.
+     */
+    public List<Subscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+
+    /**
+     * Retrieves the event held by the slot of a sequence, for checking which slots have been cleared.
+     *
+     * @param sequence the sequence of the event.
+     * @return the event in the slot, or {@code null} if the slot is empty.
+     */
+    DomainEvent slot(long sequence) {
+        return entries[(int) (sequence & mask)];
+    }
+
+    private long highestPublished(long from, long to) {
+        long last = from - 1;
+        for (long s = from; s <= to && published.get((int) (s & mask)) == s; s++) {
+            last = s;
+        }
+        return last;
+    }
+
+    /**
+     * Clears the slots that every subscriber has handled, so they do not keep their events alive,
+     * and makes them available to the publishers. Does nothing if another thread is already clearing.
+     */
+    private void releaseSlots() {
+        if (!releaseLock.tryLock()) {
+            return;
+        }
+        try {
+            long minimum = minimumSequence();
+            for (long s = released.get() + 1; s <= minimum; s++) {
+                entries[(int) (s & mask)] = null;
+            }
+            if (minimum > released.get()) {
+                released.set(minimum);
+            }
+        } finally {
+            releaseLock.unlock();
+        }
+    }
+
+    private long minimumSequence() {
+        long minimum = cursor.get();
+        for (Subscription subscription : subscriptions) {
+            minimum = Math.min(minimum, subscription.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Waits a little: spins first, then yields, then parks for a short time, so short waits stay fast
+     * and long ones do not burn a core.
+     *
+     * @param idle the number of times the caller has already waited.
+     * @return the number of waits including this one.
+     */
+    private static int idle(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+}
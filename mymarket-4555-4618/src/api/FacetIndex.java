@@ -0,0 +1,369 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a {@link BitSet} of products for every value of every facet (category, subcategory,
+ * price band and measurement unit). Each product is identified by an ordinal, its position in the index.
+ * Filtering by a facet value is a bitset lookup, and the number of results of every value of a facet
+ * within the current result set is obtained by intersecting bitsets, without scanning the products.
+ * <p>
+ * An index is immutable: every {@link CatalogSnapshot} holds the index of its own products, and an edit of the
+ * catalog builds the index of the next version by copying only the bitsets it changes.</p>
+ */
+public class FacetIndex {
+
+    /** The facet of the product categories. */
+    public static final String CATEGORY = "category";
+
+    /** The facet of the product subcategories. */
+    public static final String SUBCATEGORY = "subCategory";
+
+    /** The facet of the product price bands. */
+    public static final String PRICE_BAND = "priceBand";
+
+    /** The facet of the product measurement units. */
+    public static final String UNIT = "unit";
+
+    /** The upper bounds of the price bands, in euros. The last band has no upper bound. */
+    private static final double[] PRICE_BAND_LIMITS = {1, 3, 5, 10};
+
+    private static final int CHUNK_SIZE = 32;
+
+    private static final int CHUNK_BITS = 5;
+
+    private final Product[][] products;
+    private final int nextOrdinal;
+    private final PartitionedMap<Product, Integer> ordinals;
+    private final HashMap<String, LinkedHashMap<String, BitSet>> facets;
+    private final BitSet allProducts;
+
+    private FacetIndex(Product[][] products, int nextOrdinal, PartitionedMap<Product, Integer> ordinals,
+                       HashMap<String, LinkedHashMap<String, BitSet>> facets, BitSet allProducts) {
+        this.products = products;
+        this.nextOrdinal = nextOrdinal;
+        this.ordinals = ordinals;
+        this.facets = facets;
+        this.allProducts = allProducts;
+    }
+
+    /**
+     * Constructs an index over the given products. The ordinal of each product is its position in the collection.
+     *
+     * @param products the products to index.
+     */
+    public FacetIndex(Collection<Product> products) {
+        this(empty().apply(added(products)));
+    }
+
+    private FacetIndex(FacetIndex index) {
+        this(index.products, index.nextOrdinal, index.ordinals, index.facets, index.allProducts);
+    }
+
+    private static FacetIndex empty() {
+        HashMap<String, LinkedHashMap<String, BitSet>> facets = new HashMap<>();
+        for (String facet : List.of(CATEGORY, SUBCATEGORY, PRICE_BAND, UNIT)) {
+            facets.put(facet, new LinkedHashMap<>());
+        }
+        return new FacetIndex(new Product[0][], 0, PartitionedMap.byIdentity(), facets, new BitSet());
+    }
+
+    private static ArrayList<CatalogSnapshot.Change> added(Collection<Product> products) {
+        ArrayList<CatalogSnapshot.Change> changes = new ArrayList<>(products.size());
+        for (Product product : products) {
+            changes.add(new CatalogSnapshot.Change(null, product));
+        }
+        return changes;
+    }
+
+    /**
+     * Re-indexes a product after its category, subcategory, price or measurement unit changed.
+     * The index itself is never modified.
+     *
+     * @param product the changed product.
+     * @return the new version of the index.
+     */
+    public FacetIndex update(Product product) {
+        return apply(List.of(new CatalogSnapshot.Change(product, product)));
+    }
+
+    /**
+     * Applies the changes of a catalog edit and returns the new version of the index.
+     * A new product gets the next free ordinal, a new version of a product keeps the ordinal of the old one,
+     * and the ordinal of a removed product is not reused. Only the bitsets and the chunk of products
+     * that the changes touch are copied, the rest is shared with this version.
+     *
+     * @param changes the changes, in the order they were made.
+     * @return the new version of the index.
+     */
+    FacetIndex apply(List<CatalogSnapshot.Change> changes) {
+        Editor editor = new Editor(this);
+        for (CatalogSnapshot.Change change : changes) {
+            if (change.removed() == null) {
+                editor.add(change.added());
+            } else if (change.added() == null) {
+                editor.remove(change.removed());
+            } else {
+                editor.replace(change.removed(), change.added());
+            }
+        }
+        return editor.publish();
+    }
+
+    /**
+     * Retrieves the products that have the given value of a facet.
+     *
+     * @param facet the facet, e.g. {@link #CATEGORY}.
+     * @param value the value of the facet.
+     * @return a new bitset of the ordinals of the matching products.
+     */
+    public BitSet matching(String facet, String value) {
+        BitSet bitSet = facets.get(facet).get(value);
+        return bitSet == null ? new BitSet() : (BitSet) bitSet.clone();
+    }
+
+    /**
+     * Retrieves every product of the index.
+     *
+     * @return a new bitset of the ordinals of all products.
+     */
+    public BitSet all() {
+        return (BitSet) allProducts.clone();
+    }
+
+    /**
+     * Counts, for every value of a facet, how many products of a result set have that value.
+     *
+     * @param facet the facet, e.g. {@link #SUBCATEGORY}.
+     * @param resultSet the ordinals of the products in the current result set.
+     * @return the number of results per facet value, in the order the values were first indexed.
+     */
+    public LinkedHashMap<String, Integer> counts(String facet, BitSet resultSet) {
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, BitSet> entry : facets.get(facet).entrySet()) {
+            BitSet intersection = (BitSet) entry.getValue().clone();
+            intersection.and(resultSet);
+            counts.put(entry.getKey(), intersection.cardinality());
+        }
+        return counts;
+    }
+
+    /**
+     * Converts a collection of indexed products to a bitset of their ordinals.
+     * Products that are not in the index are ignored.
+     *
+     * @param resultProducts the products of a result set.
+     * @return a new bitset of the ordinals of the products.
+     */
+    public BitSet toBitSet(Collection<Product> resultProducts) {
+        BitSet bitSet = new BitSet();
+        for (Product product : resultProducts) {
+            Integer ordinal = ordinals.get(product);
+            if (ordinal != null) {
+                bitSet.set(ordinal);
+            }
+        }
+        return bitSet;
+    }
+
+    /**
+     * Converts a bitset of ordinals to the list of the corresponding products, in ordinal order.
+     *
+     * @param bitSet the ordinals of the products.
+     * @return a list of the products.
+     */
+    public ArrayList<Product> toProducts(BitSet bitSet) {
+        ArrayList<Product> result = new ArrayList<>(bitSet.cardinality());
+        for (int ordinal = bitSet.nextSetBit(0); ordinal >= 0; ordinal = bitSet.nextSetBit(ordinal + 1)) {
+            result.add(product(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the current versions of products in a later version of the index. Products are followed by their
+     * ordinals, which a replaced product passes on to its replacement, so a renamed product is still found.
+     *
+     * @param later a later version of this index.
+     * @param resultProducts products of this index or of the later one.
+     * @return the versions of the products in the later index, in the same order; removed products are left out.
+     */
+    public ArrayList<Product> resolveIn(FacetIndex later, List<Product> resultProducts) {
+        ArrayList<Product> result = new ArrayList<>(resultProducts.size());
+        for (Product product : resultProducts) {
+            Integer ordinal = later.ordinals.get(product);
+            if (ordinal == null) {
+                ordinal = ordinals.get(product);
+            }
+            if (ordinal != null && later.allProducts.get(ordinal)) {
+                result.add(later.product(ordinal));
+            }
+        }
+        return result;
+    }
+
+    private Product product(int ordinal) {
+        return products[ordinal >>> CHUNK_BITS][ordinal & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Retrieves the price band of a price, e.g. "1-3€".
+     *
+     * @param price the price of a product.
+     * @return the label of the price band that contains the price.
+     */
+    public static String priceBandOf(double price) {
+        double lower = 0;
+        for (double limit : PRICE_BAND_LIMITS) {
+            if (price < limit) {
+                return formatLimit(lower) + "-" + formatLimit(limit) + "€";
+            }
+            lower = limit;
+        }
+        return formatLimit(lower) + "€+";
+    }
+
+    private static String formatLimit(double limit) {
+        return Integer.toString((int) limit);
+    }
+
+    /**
+     * Builds the next version of an index. The product chunks, the facet value maps and the bitsets are
+     * copied the first time the batch changes them, later changes to them are made in place.
+     */
+    private static final class Editor {
+
+        private Product[][] products;
+        private boolean[] ownedChunks;
+        private int nextOrdinal;
+        private final PartitionedMap.Editor<Product, Integer> ordinals;
+        private final HashMap<String, LinkedHashMap<String, BitSet>> facets;
+        private final Set<Object> owned;
+        private BitSet allProducts;
+
+        private Editor(FacetIndex base) {
+            this.products = base.products.clone();
+            this.ownedChunks = new boolean[products.length];
+            this.nextOrdinal = base.nextOrdinal;
+            this.ordinals = base.ordinals.edit();
+            this.facets = new HashMap<>(base.facets);
+            this.owned = Collections.newSetFromMap(new IdentityHashMap<>());
+            this.allProducts = base.allProducts;
+        }
+
+        private void add(Product product) {
+            int ordinal = nextOrdinal++;
+            int chunk = ordinal >>> CHUNK_BITS;
+            if (chunk == products.length) {
+                products = Arrays.copyOf(products, Math.max(1, products.length * 2));
+            }
+            if (chunk >= ownedChunks.length) {
+                ownedChunks = Arrays.copyOf(ownedChunks, products.length);
+            }
+            if (products[chunk] == null) {
+                products[chunk] = new Product[CHUNK_SIZE];
+                ownedChunks[chunk] = true;
+            }
+            setProduct(ordinal, product);
+            writableAll().set(ordinal);
+            setFacets(ordinal, product);
+        }
+
+        private void replace(Product product, Product replacement) {
+            Integer ordinal = ordinals.get(product);
+            if (ordinal == null) {
+                add(replacement);
+                return;
+            }
+            ordinals.remove(product);
+            setProduct(ordinal, replacement);
+            clearFacets(ordinal);
+            setFacets(ordinal, replacement);
+        }
+
+        private void remove(Product product) {
+            Integer ordinal = ordinals.get(product);
+            if (ordinal == null) {
+                return;
+            }
+            ordinals.remove(product);
+            int chunk = ordinal >>> CHUNK_BITS;
+            writableChunk(chunk)[ordinal & (CHUNK_SIZE - 1)] = null;
+            clearFacets(ordinal);
+            writableAll().clear(ordinal);
+        }
+
+        private FacetIndex publish() {
+            int usedChunks = (nextOrdinal + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+            return new FacetIndex(Arrays.copyOf(products, usedChunks), nextOrdinal, ordinals.publish(), facets, allProducts);
+        }
+
+        private void setProduct(int ordinal, Product product) {
+            writableChunk(ordinal >>> CHUNK_BITS)[ordinal & (CHUNK_SIZE - 1)] = product;
+            ordinals.put(product, ordinal);
+        }
+
+        private Product[] writableChunk(int chunk) {
+            if (!ownedChunks[chunk]) {
+                products[chunk] = products[chunk].clone();
+                ownedChunks[chunk] = true;
+            }
+            return products[chunk];
+        }
+
+        private BitSet writableAll() {
+            if (!owned.contains(allProducts)) {
+                allProducts = (BitSet) allProducts.clone();
+                owned.add(allProducts);
+            }
+            return allProducts;
+        }
+
+        private void clearFacets(int ordinal) {
+            for (String facet : List.of(CATEGORY, SUBCATEGORY, PRICE_BAND, UNIT)) {
+                for (Map.Entry<String, BitSet> entry : facets.get(facet).entrySet()) {
+                    if (entry.getValue().get(ordinal)) {
+                        writableValue(facet, entry.getKey()).clear(ordinal);
+                    }
+                }
+            }
+        }
+
+        private void setFacets(int ordinal, Product product) {
+            writableValue(CATEGORY, product.getProductCategory()).set(ordinal);
+            writableValue(SUBCATEGORY, product.getProductSubCategory()).set(ordinal);
+            writableValue(PRICE_BAND, priceBandOf(product.getProductPrice())).set(ordinal);
+            writableValue(UNIT, product.getProductMeasurementUnit()).set(ordinal);
+        }
+
+        private BitSet writableValue(String facet, String value) {
+            LinkedHashMap<String, BitSet> values = facets.get(facet);
+            if (!owned.contains(values)) {
+                values = new LinkedHashMap<>(values);
+                facets.put(facet, values);
+                owned.add(values);
+            }
+            BitSet bitSet = values.get(value);
+            if (bitSet == null) {
+                bitSet = new BitSet();
+                owned.add(bitSet);
+                values.put(value, bitSet);
+            } else if (!owned.contains(bitSet)) {
+                bitSet = (BitSet) bitSet.clone();
+                owned.add(bitSet);
+                values.put(value, bitSet);
+            }
+            return bitSet;
+        }
+    }
+}
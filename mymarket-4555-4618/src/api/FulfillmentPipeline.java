@@ -0,0 +1,396 @@
+package api;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Fulfills the customers' orders in the background. Every completed checkout is queued as a pending order,
+ * and a bounded pool of workers moves each order through the states
+ * {@value #PENDING} → {@value #PROCESSING} → {@value #COMPLETED}.
+ * <p>
+ * Every state change is appended to a journal file, as the status, the username and the {@link Order#id() id} of the order. The journal is written by a single thread in batches,
+ * with one flush and sync per batch, so workers never wait for the disk. When the pipeline starts,
+ * it replays the journal: completed orders get their status back and every order that had not completed
+ * is queued again, so a restart resumes where the previous run stopped. The journal is then compacted
+ * to the orders still in flight.</p>
+ */
+public class FulfillmentPipeline {
+
+    /** The status of an order waiting in the queue. */
+    public static final String PENDING = "Εκκρεμής";
+
+    /** The status of an order taken by a worker. */
+    public static final String PROCESSING = "Σε επεξεργασία";
+
+    /** The status of a fulfilled order. */
+    public static final String COMPLETED = "Ολοκληρωμένη";
+
+    /** The default number of workers. */
+    public static final int DEFAULT_WORKERS = 2;
+
+    /** The maximum number of journal records written in one batch. */
+    private static final int MAX_JOURNAL_BATCH = 512;
+
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * An order in the pipeline.
+     *
+     * @param username the username of the customer
+     * @param order    the order, as it is in the customer's history
+     */
+    private record Job(String username, Order order) {
+    }
+
+    private final File journalFile;
+    private final Function<String, Customer> customers;
+    private final Consumer<Order> fulfilment;
+    private final LinkedBlockingQueue<Job> queue;
+    private final LinkedBlockingQueue<String> journalRecords;
+    private final AtomicLong appendedRecords;
+    private final AtomicLong writtenRecords;
+    private final AtomicInteger inFlight;
+    private final LongAdder completedOrders;
+    private final LongAdder fulfilmentNanos;
+    private final LongAdder journalBatches;
+    private ExecutorService workers;
+    private Thread journalWriter;
+    private long startNanos;
+
+    /**
+     * Constructs a stopped pipeline.
+     *
+     * @param journalFile the journal of the order states.
+     * @param customers a function returning the customer with a username, or {@code null} if there is none.
+     * @param fulfilment the work done for every order while it is processing, e.g. notifying the warehouse.
+     */
+    public FulfillmentPipeline(File journalFile, Function<String, Customer> customers, Consumer<Order> fulfilment) {
+        this.journalFile = journalFile;
+        this.customers = customers;
+        this.fulfilment = fulfilment;
+        this.queue = new LinkedBlockingQueue<>();
+        this.journalRecords = new LinkedBlockingQueue<>();
+        this.appendedRecords = new AtomicLong();
+        this.writtenRecords = new AtomicLong();
+        this.inFlight = new AtomicInteger();
+        this.completedOrders = new LongAdder();
+        this.fulfilmentNanos = new LongAdder();
+        this.journalBatches = new LongAdder();
+    }
+
+    /**
+     * Recovers the orders left by the previous run from the journal and starts the workers.
+     * If there is no journal yet, the pending orders of all customers are queued once instead.
+     *
+     * @param workerCount the number of workers.
+     * @param allCustomers all the customers, used only when there is no journal.
+     */
+    public synchronized void start(int workerCount, Iterable<Customer> allCustomers) {
+        if (workers != null) {
+            return;
+        }
+        ArrayList<Job> recovered = journalFile.exists() ? replayJournal() : pendingOrders(allCustomers);
+        compactJournal(recovered);
+        queue.addAll(recovered);
+
+        startNanos = System.nanoTime();
+        journalWriter = new Thread(this::writeJournal, "fulfillment-journal");
+        journalWriter.setDaemon(true);
+        journalWriter.start();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "fulfillment-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    /**
+     * Stops the workers and the journal writer, after the journal records appended so far are written.
+     * Orders still queued or processing stay in the journal and are resumed by the next start.
+     */
+    public synchronized void stop() {
+        if (workers == null) {
+            return;
+        }
+        workers.shutdownNow();
+        flush(TimeUnit.SECONDS.toMillis(5));
+        journalWriter.interrupt();
+        workers = null;
+        journalWriter = null;
+    }
+
+    /**
+     * Queues a newly completed checkout as a pending order.
+     *
+     * @param username the username of the customer.
+     * @param order the order, as it is in the customer's history.
+     */
+    public void submit(String username, Order order) {
+        appendRecord(PENDING, username, order);
+        queue.add(new Job(username, order));
+    }
+
+    /**
+     * Waits until the journal records appended so far are written to the journal file.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds.
+     * @return {@code true} if the records were written, {@code false} if the time ran out.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = appendedRecords.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (writtenRecords) {
+            while (writtenRecords.get() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    writtenRecords.wait(remaining);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the number of orders waiting for a worker.
+     *
+     * @return the depth of the pending-order queue.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Retrieves the number of orders the workers are processing right now.
+     *
+     * @return the number of orders in processing.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Retrieves the number of orders completed since the pipeline started.
+     *
+     * @return the number of completed orders.
+     */
+    public long getCompletedCount() {
+        return completedOrders.sum();
+    }
+
+    /**
+     * Retrieves the fulfillment throughput since the pipeline started.
+     *
+     * @return the completed orders per second, or 0 if the pipeline has not started.
+     */
+    public double getThroughputPerSecond() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : completedOrders.sum() / seconds;
+    }
+
+    /**
+     * Retrieves the average time a worker spends on an order.
+     *
+     * @return the average processing time, in milliseconds.
+     */
+    public double getAverageFulfilmentMillis() {
+        long count = completedOrders.sum();
+        return count == 0 ? 0 : fulfilmentNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * Retrieves the average number of journal records written per batch.
+     *
+     * @return the average journal batch size, or 0 if nothing was written yet.
+     */
+    public double getAverageJournalBatch() {
+        long batches = journalBatches.sum();
+        return batches == 0 ? 0 : (double) writtenRecords.get() / batches;
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                Order processing = setStatus(job, job.order(), PROCESSING);
+                fulfilment.accept(processing);
+                setStatus(job, processing, COMPLETED);
+                completedOrders.increment();
+                fulfilmentNanos.add(System.nanoTime() - start);
+            } catch (RuntimeException ex) {
+                // Leave the order as it is in the journal; it is retried after the next restart.
+                ex.printStackTrace();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private Order setStatus(Job job, Order order, String status) {
+        Customer customer = customers.apply(job.username());
+        Order updated = customer == null ? null : customer.updateOrderStatus(order, status);
+        if (updated == null) {
+            updated = order.withStatus(status);
+        }
+        appendRecord(status, job.username(), order);
+        return updated;
+    }
+
+    private void appendRecord(String status, String username, Order order) {
+        journalRecords.add(status + SEPARATOR + username + SEPARATOR + order.id());
+        appendedRecords.incrementAndGet();
+    }
+
+    private void writeJournal() {
+        ArrayList<String> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(journalRecords.take());
+            } catch (InterruptedException ex) {
+                if (journalRecords.isEmpty()) {
+                    return;
+                }
+            }
+            journalRecords.drainTo(batch, MAX_JOURNAL_BATCH - batch.size());
+            try (FileOutputStream output = new FileOutputStream(journalFile, true);
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (String record : batch) {
+                    writer.write(record);
+                    writer.write("\n");
+                }
+                writer.flush();
+                output.getFD().sync();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            journalBatches.increment();
+            synchronized (writtenRecords) {
+                writtenRecords.addAndGet(batch.size());
+                writtenRecords.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Replays the journal. The last record of every order wins.
+     *
+     * @return the orders that had not completed, as pending jobs.
+     */
+    private ArrayList<Job> replayJournal() {
+        LinkedHashMap<String, String[]> lastRecords = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR);
+                if (fields.length == 3) {
+                    lastRecords.put(fields[1] + SEPARATOR + fields[2], fields);
+                }
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+
+        ArrayList<Job> recovered = new ArrayList<>();
+        for (Map.Entry<String, String[]> entry : lastRecords.entrySet()) {
+            String[] fields = entry.getValue();
+            Customer customer = customers.apply(fields[1]);
+            Order order = customer == null ? null : findOrder(customer, fields[2]);
+            if (order == null) {
+                continue;
+            }
+            if (fields[0].equals(COMPLETED)) {
+                if (!order.status().equals(COMPLETED)) {
+                    customer.updateOrderStatus(order, COMPLETED);
+                }
+            } else {
+                Order pending = order.status().equals(PENDING) ? order : customer.updateOrderStatus(order, PENDING);
+                recovered.add(new Job(fields[1], pending));
+            }
+        }
+        return recovered;
+    }
+
+    private ArrayList<Job> pendingOrders(Iterable<Customer> allCustomers) {
+        ArrayList<Job> pending = new ArrayList<>();
+        for (Customer customer : allCustomers) {
+            for (Order order : customer.getCustomerOrderHistory()) {
+                if (!order.status().equals(COMPLETED)) {
+                    Order pendingOrder = order.status().equals(PENDING) ? order : customer.updateOrderStatus(order, PENDING);
+                    pending.add(new Job(customer.getUsername(), pendingOrder));
+                }
+            }
+        }
+        return pending;
+    }
+
+    private static Order findOrder(Customer customer, String id) {
+        for (Order order : customer.getCustomerOrderHistory()) {
+            if (order.id().equals(id)) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rewrites the journal with only the orders still in flight, replacing the old file atomically.
+     *
+     * @param inFlightJobs the orders that have not completed.
+     */
+    private void compactJournal(ArrayList<Job> inFlightJobs) {
+        File compacted = new File(journalFile.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(compacted), StandardCharsets.UTF_8))) {
+            for (Job job : inFlightJobs) {
+                writer.write(PENDING + SEPARATOR + job.username() + SEPARATOR + job.order().id());
+                writer.write("\n");
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        try {
+            Files.move(compacted.toPath(), journalFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package api;
+
+import java.util.Base64;
+
+/**
+ * A HyperLogLog sketch that estimates the number of distinct strings offered to it
+ * using a fixed amount of memory, independently of how many strings are offered.
+ * Two sketches with the same precision can be merged, and the merged sketch estimates
+ * the number of distinct strings offered to either of them.
+ */
+public class HyperLogLog {
+
+    /** The default precision: 2^10 registers, about 3% standard error and 1KB per sketch. */
+    public static final int DEFAULT_PRECISION = 10;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param precision the number of hash bits used to select a register (4 to 16).
+     * @throws IllegalArgumentException if the precision is out of range.
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 4 and 16: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Offers a value to the sketch.
+     *
+     * @param value the value to count.
+     */
+    public void offer(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        long remaining = hash << precision;
+        int rank = Math.min(Long.numberOfLeadingZeros(remaining), 64 - precision) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    /**
+     * Merges another sketch into this one.
+     *
+     * @param other the sketch to merge.
+     * @throws IllegalArgumentException if the sketches have different precisions.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with different precisions");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of distinct values offered to the sketch.
+     *
+     * @return the estimated number of distinct values.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeroRegisters = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeroRegisters++;
+            }
+        }
+        double alpha = switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeroRegisters > 0) {
+            estimate = m * Math.log((double) m / zeroRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Retrieves the precision of the sketch.
+     *
+     * @return the number of hash bits used to select a register.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Encodes the registers of the sketch as a Base64 string, so it can be written to a text file.
+     *
+     * @return the encoded registers.
+     */
+    public String encode() {
+        return Base64.getEncoder().encodeToString(registers);
+    }
+
+    /**
+     * Decodes a sketch from registers encoded with {@link #encode()}.
+     *
+     * @param encodedRegisters the encoded registers.
+     * @return the decoded sketch.
+     * @throws IllegalArgumentException if the encoded registers are not a valid sketch.
+     */
+    public static HyperLogLog decode(String encodedRegisters) {
+        byte[] decoded = Base64.getDecoder().decode(encodedRegisters);
+        int precision = Integer.numberOfTrailingZeros(decoded.length);
+        if (decoded.length != 1 << precision) {
+            throw new IllegalArgumentException("Invalid number of registers: " + decoded.length);
+        }
+        HyperLogLog sketch = new HyperLogLog(precision);
+        System.arraycopy(decoded, 0, sketch.registers, 0, decoded.length);
+        return sketch;
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,163 @@
+package api;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing hash map from non-negative {@code int} keys to {@code int} counts.
+ * It avoids boxing every key and value, which keeps sparse count tables (such as the rows of the
+ * {@link CoPurchaseMatrix}) compact and fast to scan.
+ */
+class IntCountMap {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    /**
+     * Constructs an empty map with room for a few entries before the first resize.
+     */
+    IntCountMap() {
+        keys = new int[8];
+        counts = new int[8];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Adds {@code delta} to the count stored for {@code key}, inserting the key if it is not present.
+     *
+     * @param key the non-negative key.
+     * @param delta the amount to add to the key's count.
+     */
+    void increment(int key, int delta) {
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            counts[slot] += delta;
+            return;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Retrieves the count stored for a key.
+     *
+     * @param key the key to look up.
+     * @return the count of the key, or 0 if the key is not present.
+     */
+    int get(int key) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    /**
+     * Retrieves the number of keys stored in the map.
+     *
+     * @return the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Keeps only the entries with the highest counts. Entries with equal counts are ranked by key, lowest first,
+     * so a row full of ties keeps exactly {@code limit} entries and always the same ones.
+     *
+     * @param limit the number of entries to keep.
+     */
+    void retainTop(int limit) {
+        if (size <= limit) {
+            return;
+        }
+        // Highest count first, then lowest key: both packed in one long so a plain sort ranks them.
+        long[] ranked = new long[size];
+        int index = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                ranked[index++] = ((long) (Integer.MAX_VALUE - counts[i]) << 32) | keys[i];
+            }
+        }
+        Arrays.sort(ranked);
+        keys = new int[keys.length];
+        counts = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < limit; i++) {
+            increment((int) ranked[i], Integer.MAX_VALUE - (int) (ranked[i] >>> 32));
+        }
+    }
+
+    /**
+     * Copies the stored keys into a new array, in table order.
+     *
+     * @return an array holding every key of the map.
+     */
+    int[] keys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies the stored counts into a new array, in the same order as {@link #keys()}.
+     *
+     * @return an array holding every count of the map.
+     */
+    int[] counts() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                result[index++] = counts[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds every count of another map into this one.
+     *
+     * @param other the map whose counts are added.
+     */
+    void addAll(IntCountMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                increment(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                increment(oldKeys[i], oldCounts[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package api;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies with a fixed relative precision, in the style of HdrHistogram.
+ * Values below {@value #LINEAR_VALUES} get a bucket each. Above that, every power of two is split into
+ * {@value #SUB_BUCKETS} equal buckets, so a value is known to within 1/{@value #SUB_BUCKETS} (under 2%)
+ * of itself no matter how large it is, and the whole range of {@code long} fits in a few thousand buckets.
+ * Recording is lock-free and can be done from any number of threads.
+ */
+public class LatencyHistogram {
+
+    /** The number of buckets of every power of two above {@value #LINEAR_VALUES}. */
+    static final int SUB_BUCKETS = 64;
+
+    /** The values recorded exactly, each in its own bucket. */
+    static final int LINEAR_VALUES = 2 * SUB_BUCKETS;
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int BUCKETS = LINEAR_VALUES + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, e.g. a latency in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(recorded));
+        count.increment();
+        sum.add(recorded);
+        max.accumulateAndGet(recorded, Math::max);
+    }
+
+    /**
+     * Adds all the values recorded by another histogram to this one.
+     *
+     * @param other the other histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long bucketCount = other.counts.get(bucket);
+            if (bucketCount != 0) {
+                counts.addAndGet(bucket, bucketCount);
+            }
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * Removes all the recorded values.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Retrieves the number of recorded values.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Retrieves the largest recorded value, exactly.
+     *
+     * @return the maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Retrieves the mean of the recorded values, exactly.
+     *
+     * @return the mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Retrieves the value below which a percentage of the recorded values fall.
+     * The result is the highest value of the bucket of the percentile, so it is never lower than the real one.
+     *
+     * @param percentile the percentage, from 0 to 100.
+     * @return the value at the percentile, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long values = count.sum();
+        if (values == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * values));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value a value that is not negative.
+     * @return the index of its bucket.
+     */
+    static int bucketOf(long value) {
+        if (value < LINEAR_VALUES) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_VALUES + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the highest value that falls in a bucket.
+     *
+     * @param bucket the index of the bucket.
+     * @return the highest value of the bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_VALUES) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_VALUES) / SUB_BUCKETS + 1;
+        long subBucket = (bucket - LINEAR_VALUES) % SUB_BUCKETS + SUB_BUCKETS;
+        long highest = ((subBucket + 1) << shift) - 1;
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+}
@@ -0,0 +1,299 @@
+package api;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The registry of the operation metrics of the e-shop: counters, gauges and latency histograms, by name.
+ * The instrumented classes look their metrics up once and keep them in static fields, so recording costs
+ * a couple of lock-free updates and nothing is allocated on the hot paths.
+ * <p>
+ * The metrics are published as the JMX MBean {@value #OBJECT_NAME} by {@link #registerMBean()}, where every
+ * counter and gauge is an attribute and every histogram is a set of attributes (count, mean, p50, p90, p99
+ * and max, in microseconds). {@link #startLogging(long)} also prints them periodically.</p>
+ */
+public final class Metrics {
+
+    /** The JMX name of the metrics MBean. */
+    public static final String OBJECT_NAME = "mymarket:type=Metrics";
+
+    /**
+     * The metrics of a reader or writer: the bytes and records it processed, and how long every run took.
+     */
+    public static final class IoMetrics {
+        private final String name;
+        private final LongAdder bytes;
+        private final LongAdder records;
+        private final LatencyHistogram duration;
+
+        private IoMetrics(String name) {
+            this.name = name;
+            this.bytes = counter(name + ".bytes");
+            this.records = counter(name + ".records");
+            this.duration = histogram(name + ".duration");
+        }
+
+        /**
+         * Records a run of the reader or writer.
+         *
+         * @param bytes the size of the files read or written.
+         * @param records the number of records, e.g. products or orders.
+         * @param nanos the duration of the run, in nanoseconds.
+         */
+        public void record(long bytes, long records, long nanos) {
+            this.bytes.add(bytes);
+            this.records.add(records);
+            this.duration.record(nanos);
+        }
+
+        /**
+         * Starts timing a run of the reader or writer, and its {@link ShopEvents.FileIo} flight recorder event.
+         *
+         * @param file the path of the file, or the directory of a writer of one file per customer.
+         * @return the started run, to pass to {@link #end(ShopEvents.FileIo, long, long)}.
+         */
+        public ShopEvents.FileIo begin(String file) {
+            return ShopEvents.FileIo.begin(name, file);
+        }
+
+        /**
+         * Records a run started by {@link #begin(String)} and commits its flight recorder event.
+         *
+         * @param run the started run.
+         * @param bytes the size of the files read or written.
+         * @param records the number of records, e.g. products or orders.
+         */
+        public void end(ShopEvents.FileIo run, long bytes, long records) {
+            record(bytes, records, System.nanoTime() - run.startNanos);
+            run.finish(records, bytes);
+        }
+    }
+
+    private static final ConcurrentHashMap<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, DoubleSupplier> GAUGES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, IoMetrics> IO = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService logger;
+
+    private Metrics() {
+    }
+
+    /**
+     * Retrieves the counter with a name, creating it the first time.
+     *
+     * @param name the name, e.g. "customer.checkout.completed".
+     * @return the counter.
+     */
+    public static LongAdder counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Registers a gauge, a value read whenever the metrics are published. A gauge with the same name is replaced.
+     *
+     * @param name the name, e.g. "eventBus.maxLag".
+     * @param value the supplier of the current value.
+     */
+    public static void gauge(String name, DoubleSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    /**
+     * Retrieves the latency histogram with a name, creating it the first time. The values are in nanoseconds.
+     *
+     * @param name the name, e.g. "customer.completeOrder".
+     * @return the histogram.
+     */
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Retrieves the metrics of a reader or writer, creating them the first time.
+     *
+     * @param name the name, e.g. "reader.products".
+     * @return the metrics.
+     */
+    public static IoMetrics io(String name) {
+        return IO.computeIfAbsent(name, IoMetrics::new);
+    }
+
+    /**
+     * Takes the current values of all the metrics. Histograms are flattened into one value per statistic,
+     * named "&lt;histogram&gt;.count", "&lt;histogram&gt;.p99Micros" and so on.
+     *
+     * @return the values, sorted by name.
+     */
+    public static TreeMap<String, Number> snapshot() {
+        TreeMap<String, Number> values = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        for (Map.Entry<String, DoubleSupplier> gauge : GAUGES.entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().getAsDouble());
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : HISTOGRAMS.entrySet()) {
+            String name = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            values.put(name + ".count", histogram.getCount());
+            values.put(name + ".meanMicros", histogram.getMean() / 1e3);
+            values.put(name + ".p50Micros", histogram.getValueAtPercentile(50) / 1e3);
+            values.put(name + ".p90Micros", histogram.getValueAtPercentile(90) / 1e3);
+            values.put(name + ".p99Micros", histogram.getValueAtPercentile(99) / 1e3);
+            values.put(name + ".maxMicros", histogram.getMax() / 1e3);
+        }
+        return values;
+    }
+
+    /**
+     * Formats the current values of the metrics that have been used, one per line.
+     *
+     * @return the formatted metrics.
+     */
+    public static String dump() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Number> value : snapshot().entrySet()) {
+            builder.append(value.getKey()).append(" = ");
+            if (value.getValue() instanceof Double number) {
+                builder.append(String.format("%.3f", number));
+            } else {
+                builder.append(value.getValue());
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Clears all the counters and histograms. Gauges are not affected.
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(LongAdder::reset);
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Registers the metrics MBean with the platform MBean server, if it is not registered yet.
+     */
+    public static synchronized void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Starts printing the metrics periodically on a daemon thread.
+     *
+     * @param periodMillis the time between two dumps, in milliseconds.
+     */
+    public static synchronized void startLogging(long periodMillis) {
+        if (logger != null) {
+            return;
+        }
+        logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-logger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.scheduleAtFixedRate(() -> System.out.print("Metrics:\n" + dump()), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic dump started by {@link #startLogging(long)}.
+     */
+    public static synchronized void stopLogging() {
+        if (logger != null) {
+            logger.shutdownNow();
+            logger = null;
+        }
+    }
+
+    /**
+     * The MBean of the metrics. Its attributes are read from a new {@link #snapshot()} every time,
+     * so metrics created after the registration show up too.
+     */
+    private static final class MetricsMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Number value = snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("The metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            TreeMap<String, Number> values = snapshot();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                if (values.containsKey(attribute)) {
+                    list.add(new Attribute(attribute, values.get(attribute)));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            if (actionName.equals("reset")) {
+                reset();
+                return null;
+            }
+            if (actionName.equals("dump")) {
+                return dump();
+            }
+            throw new ReflectionException(new NoSuchMethodException(actionName), "No such operation: " + actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            ArrayList<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Map.Entry<String, Number> value : snapshot().entrySet()) {
+                String type = value.getValue() instanceof Double ? "double" : "long";
+                attributes.add(new MBeanAttributeInfo(value.getKey(), type, value.getKey(), true, false, false));
+            }
+            MBeanOperationInfo[] operations = {
+                    new MBeanOperationInfo("reset", "Clears the counters and histograms", new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION),
+                    new MBeanOperationInfo("dump", "Formats all the metrics", new MBeanParameterInfo[0], String.class.getName(), MBeanOperationInfo.INFO)
+            };
+            return new MBeanInfo(Metrics.class.getName(), "The operation metrics of MyMarket",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, operations, null);
+        }
+    }
+}
@@ -1,16 +1,41 @@
 package api;
 
 import java.util.ArrayList;
+import java.util.UUID;
 
 /**
  * The Order record represents a customer order containing information
  * about the date of the order, the products purchased, and the total
- * cost of the order.
+ * cost of the order. Every order has an id that stays the same when its status changes,
+ * so the order can be found again, e.g. by the journal of the {@link FulfillmentPipeline}.
  *
- * @param status           the status of the order ("Ολοκληρωμένη" or"Εκκρεμής")
+ * @param id               the unique id of the order within the customer's order history
+ * @param status           the status of the order ("Εκκρεμής", "Σε επεξεργασία" or "Ολοκληρωμένη", see {@link FulfillmentPipeline})
  * @param orderDate        the date the order was placed, in the format "DD/MM/YY" (e.g., "15/11/24")
  * @param boughtProducts   a list of product titles purchased in the order (e.g., ["Yogurt", "Orange Juice"])
  * @param totalOrderCost   the total cost of the order (e.g., "129,99€")
  */
-public record Order(String status,String orderDate, ArrayList<String> boughtProducts, String totalOrderCost) {
+public record Order(String id, String status,String orderDate, ArrayList<String> boughtProducts, String totalOrderCost) {
+
+    /**
+     * Constructs a new order with a new, random id.
+     *
+     * @param status         the status of the order
+     * @param orderDate      the date the order was placed
+     * @param boughtProducts a list of product titles purchased in the order
+     * @param totalOrderCost the total cost of the order
+     */
+    public Order(String status, String orderDate, ArrayList<String> boughtProducts, String totalOrderCost) {
+        this(UUID.randomUUID().toString(), status, orderDate, boughtProducts, totalOrderCost);
+    }
+
+    /**
+     * Creates a copy of the order with a new status and the same id.
+     *
+     * @param status the new status.
+     * @return the order with the new status.
+     */
+    public Order withStatus(String status) {
+        return new Order(id, status, orderDate, boughtProducts, totalOrderCost);
+    }
 }
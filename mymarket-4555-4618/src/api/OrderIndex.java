@@ -0,0 +1,173 @@
+package api;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * An in-memory index of a customer's order history, for finding orders by date range and bought product
+ * without scanning the whole history. Every order has a position, its place in the history; the positions
+ * of the orders are kept in a bit set per order date and per bought product title, and a query combines them.
+ * <p>
+ * The index is built once from the order history and then updated with every completed order and status change,
+ * see {@link Customer#getOrderIndex()}. Orders whose date cannot be read are only found without a date range.</p>
+ */
+public class OrderIndex {
+
+    private final ArrayList<Order> orders;
+    private final IdentityHashMap<Order, Integer> positions;
+    private final TreeMap<LocalDateTime, BitSet> ordersByDate;
+    private final HashMap<String, BitSet> ordersByProduct;
+
+    /**
+     * Constructs an empty index for a customer without orders.
+     */
+    public OrderIndex() {
+        this.orders = new ArrayList<>();
+        this.positions = new IdentityHashMap<>();
+        this.ordersByDate = new TreeMap<>();
+        this.ordersByProduct = new HashMap<>();
+    }
+
+    /**
+     * Builds the index of an order history.
+     *
+     * @param orders the orders of the customer, oldest first.
+     * @return the index of the orders.
+     */
+    public static OrderIndex of(Collection<Order> orders) {
+        OrderIndex index = new OrderIndex();
+        for (Order order : orders) {
+            index.add(order);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a new order, placed after the orders already indexed.
+     *
+     * @param order the new order.
+     */
+    public synchronized void add(Order order) {
+        int position = orders.size();
+        orders.add(order);
+        positions.put(order, position);
+        indexOrder(order, position);
+    }
+
+    /**
+     * Replaces an order with a new version of it, e.g. with a new status, keeping its position.
+     *
+     * @param order the indexed order.
+     * @param replacement the new version of the order.
+     * @return {@code true} if the order was indexed and has been replaced.
+     */
+    public synchronized boolean replace(Order order, Order replacement) {
+        Integer position = positions.remove(order);
+        if (position == null) {
+            return false;
+        }
+        unindexOrder(order, position);
+        orders.set(position, replacement);
+        positions.put(replacement, position);
+        indexOrder(replacement, position);
+        return true;
+    }
+
+    private void indexOrder(Order order, int position) {
+        LocalDateTime date = CustomerSummary.parseDate(order.orderDate());
+        if (date != null) {
+            ordersByDate.computeIfAbsent(date, k -> new BitSet()).set(position);
+        }
+        for (String productTitle : order.boughtProducts()) {
+            ordersByProduct.computeIfAbsent(productTitle, k -> new BitSet()).set(position);
+        }
+    }
+
+    private void unindexOrder(Order order, int position) {
+        LocalDateTime date = CustomerSummary.parseDate(order.orderDate());
+        if (date != null) {
+            clear(ordersByDate, date, position);
+        }
+        for (String productTitle : order.boughtProducts()) {
+            clear(ordersByProduct, productTitle, position);
+        }
+    }
+
+    private static <K> void clear(Map<K, BitSet> index, K key, int position) {
+        BitSet bitSet = index.get(key);
+        if (bitSet != null) {
+            bitSet.clear(position);
+            if (bitSet.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Finds the orders placed in a date range that contain a product.
+     *
+     * @param from the first day of the range, or {@code null} for no lower bound.
+     * @param to the last day of the range, included, or {@code null} for no upper bound.
+     * @param product a part of the title of a bought product, case-insensitive, or {@code null} or blank for any product.
+     * @return the matching orders, newest first.
+     */
+    public synchronized List<Order> find(LocalDate from, LocalDate to, String product) {
+        BitSet matching;
+        if (from == null && to == null) {
+            matching = new BitSet();
+            matching.set(0, orders.size());
+        } else {
+            NavigableMap<LocalDateTime, BitSet> range = ordersByDate;
+            if (from != null) {
+                range = range.tailMap(from.atStartOfDay(), true);
+            }
+            if (to != null) {
+                range = range.headMap(to.plusDays(1).atStartOfDay(), false);
+            }
+            matching = union(range.values());
+        }
+
+        if (product != null && !product.isBlank()) {
+            String needle = product.trim().toLowerCase();
+            ArrayList<BitSet> withProduct = new ArrayList<>();
+            for (Map.Entry<String, BitSet> entry : ordersByProduct.entrySet()) {
+                if (entry.getKey().toLowerCase().contains(needle)) {
+                    withProduct.add(entry.getValue());
+                }
+            }
+            matching.and(union(withProduct));
+        }
+
+        ArrayList<Order> found = new ArrayList<>(matching.cardinality());
+        for (int position = matching.previousSetBit(orders.size() - 1); position >= 0; position = matching.previousSetBit(position - 1)) {
+            found.add(orders.get(position));
+        }
+        return found;
+    }
+
+    private static BitSet union(Collection<BitSet> bitSets) {
+        BitSet union = new BitSet();
+        for (BitSet bitSet : bitSets) {
+            union.or(bitSet);
+        }
+        return union;
+    }
+
+    /**
+     * Retrieves the number of orders indexed.
+     *
+     * @return the number of orders.
+     */
+    public synchronized int size() {
+        return orders.size();
+    }
+}
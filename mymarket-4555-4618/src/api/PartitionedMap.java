@@ -0,0 +1,153 @@
+package api;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An immutable map split into a fixed number of partitions by the hash of its keys, used by the indexes
+ * of a {@link CatalogSnapshot}. An edit copies only the partitions it changes and shares the others
+ * with the previous version, like the chunks of the snapshot, so a new version costs a few small copies
+ * instead of a copy of the whole map.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+final class PartitionedMap<K, V> {
+
+    private static final int PARTITIONS = 256;
+
+    private final boolean identity;
+    private final Map<K, V>[] partitions;
+
+    private PartitionedMap(boolean identity, Map<K, V>[] partitions) {
+        this.identity = identity;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Constructs an empty map that compares its keys by identity, like an {@link IdentityHashMap}.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     * @return the empty map.
+     */
+    static <K, V> PartitionedMap<K, V> byIdentity() {
+        return new PartitionedMap<>(true, emptyPartitions());
+    }
+
+    /**
+     * Constructs an empty map that compares its keys with {@code equals}, like a {@link HashMap}.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     * @return the empty map.
+     */
+    static <K, V> PartitionedMap<K, V> byEquality() {
+        return new PartitionedMap<>(false, emptyPartitions());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V>[] emptyPartitions() {
+        return (Map<K, V>[]) new Map<?, ?>[PARTITIONS];
+    }
+
+    /**
+     * Retrieves the value of a key.
+     *
+     * @param key the key.
+     * @return the value of the key, or {@code null} if the map does not contain it.
+     */
+    V get(K key) {
+        Map<K, V> partition = partitions[partitionOf(key)];
+        return partition == null ? null : partition.get(key);
+    }
+
+    /**
+     * Starts a batch of changes based on this map. The map itself is never modified.
+     *
+     * @return an editor for the next version.
+     */
+    Editor<K, V> edit() {
+        return new Editor<>(this);
+    }
+
+    private int partitionOf(K key) {
+        int hash = identity ? System.identityHashCode(key) : key.hashCode();
+        return (hash ^ (hash >>> 16)) & (PARTITIONS - 1);
+    }
+
+    /**
+     * Applies a batch of changes to a map. A partition is copied the first time the batch changes it,
+     * later changes to it are made in place. An editor is used by one thread and published once.
+     *
+     * @param <K> the type of the keys.
+     * @param <V> the type of the values.
+     */
+    static final class Editor<K, V> {
+
+        private final PartitionedMap<K, V> base;
+        private final Map<K, V>[] partitions;
+        private final boolean[] owned;
+
+        private Editor(PartitionedMap<K, V> base) {
+            this.base = base;
+            this.partitions = base.partitions.clone();
+            this.owned = new boolean[PARTITIONS];
+        }
+
+        /**
+         * Retrieves the value of a key, including the changes of the batch.
+         *
+         * @param key the key.
+         * @return the value of the key, or {@code null} if the map does not contain it.
+         */
+        V get(K key) {
+            Map<K, V> partition = partitions[base.partitionOf(key)];
+            return partition == null ? null : partition.get(key);
+        }
+
+        /**
+         * Sets the value of a key.
+         *
+         * @param key the key.
+         * @param value the new value.
+         */
+        void put(K key, V value) {
+            writablePartition(base.partitionOf(key)).put(key, value);
+        }
+
+        /**
+         * Removes a key.
+         *
+         * @param key the key.
+         */
+        void remove(K key) {
+            int partition = base.partitionOf(key);
+            if (partitions[partition] != null && partitions[partition].containsKey(key)) {
+                writablePartition(partition).remove(key);
+            }
+        }
+
+        /**
+         * Publishes the changes as a new, immutable map. The editor must not be used afterwards.
+         *
+         * @return the new version of the map.
+         */
+        PartitionedMap<K, V> publish() {
+            return new PartitionedMap<>(base.identity, partitions);
+        }
+
+        private Map<K, V> writablePartition(int partition) {
+            if (!owned[partition]) {
+                Map<K, V> copy = base.identity ? new IdentityHashMap<>() : new HashMap<>();
+                if (partitions[partition] != null) {
+                    copy.putAll(partitions[partition]);
+                }
+                partitions[partition] = copy;
+                owned[partition] = true;
+            }
+            return partitions[partition];
+        }
+    }
+}
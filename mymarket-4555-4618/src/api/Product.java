@@ -1,8 +1,15 @@
 package api;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class represents a product with attributes such as title, description, category, subcategory, price, quantity, and measurement unit.
  * Provides methods for accessing and modifying product details and creating a copy of the product.
+ * The stock quantity is an {@link AtomicInteger}, so concurrent checkouts reserve and release stock
+ * with compare-and-set instead of locking.
+ * <p>
+ * The products of the {@link Database} catalog are not edited in place: an admin edit publishes a
+ * new version of the product made by {@link #revise(Product)}, which shares the stock of the old one.</p>
  */
 public class Product {
 
@@ -12,7 +19,7 @@ public class Product {
     private String category;
     private String subCategory;
     private double productPrice;
-    private int productQuantity;
+    private final AtomicInteger productQuantity;
     private String measurementUnit;
 
     /**
@@ -28,6 +35,11 @@ public class Product {
      */
     public Product(String productTitle, String productDescription, String category, String subCategory
                    ,double productPrice, int productQuantity,String measurementUnit) {
+        this(productTitle, productDescription, category, subCategory, productPrice, new AtomicInteger(productQuantity), measurementUnit);
+    }
+
+    private Product(String productTitle, String productDescription, String category, String subCategory
+                   ,double productPrice, AtomicInteger productQuantity,String measurementUnit) {
         this.productTitle = productTitle;
         this.productDescription = productDescription;
         this.category = category;
@@ -44,7 +56,21 @@ public class Product {
      */
     public Product copy()
     {
-        return new Product(productTitle, productDescription, category, subCategory, productPrice, productQuantity, measurementUnit);
+        return new Product(productTitle, productDescription, category, subCategory, productPrice, productQuantity.get(), measurementUnit);
+    }
+
+    /**
+     * Creates a new version of the current {@link Product} with the details of an edited one.
+     * The new version shares the stock of the current product, so reservations made through either
+     * of them are never lost; the stock itself is left unchanged, the caller sets the edited quantity
+     * once the new version is in the catalog.
+     *
+     * @param edited A {@link Product} holding the new details.
+     * @return A new {@link Product} with the edited details and the shared stock.
+     */
+    public Product revise(Product edited) {
+        return new Product(edited.productTitle, edited.productDescription, edited.category, edited.subCategory,
+                edited.productPrice, productQuantity, edited.measurementUnit);
     }
 
 
@@ -99,7 +125,37 @@ public class Product {
      * @return The quantity of the product.
      */
     public int getProductQuantity() {
-        return productQuantity;
+        return productQuantity.get();
+    }
+
+    /**
+     * Atomically takes the given amount out of the stock, if there is enough of it.
+     *
+     * @param amount The amount to reserve.
+     * @return {@code true} if the amount was reserved, or {@code false} if the stock is not enough or the amount is not positive.
+     */
+    public boolean tryReserve(int amount) {
+        if (amount <= 0) {
+            return false;
+        }
+        while (true) {
+            int current = productQuantity.get();
+            if (current < amount) {
+                return false;
+            }
+            if (productQuantity.compareAndSet(current, current - amount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically puts back an amount previously reserved with {@link #tryReserve(int)}.
+     *
+     * @param amount The amount to release.
+     */
+    public void release(int amount) {
+        productQuantity.addAndGet(amount);
     }
 
     /**
@@ -171,7 +227,7 @@ public class Product {
         if(productQuantity < 0) {
             return false;
         }
-        this.productQuantity = productQuantity;
+        this.productQuantity.set(productQuantity);
         return true;
     }
 
@@ -1,6 +1,7 @@
 package api;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -16,6 +17,8 @@ import java.util.ArrayList;
  */
 public class ProductsReader {
 
+    private static final Metrics.IoMetrics METRICS = Metrics.io("reader.products");
+
     private final ArrayList<Product> products;
 
     /**
@@ -31,7 +34,7 @@ public class ProductsReader {
      */
     public ProductsReader(String fileName)  {
 
-
+        ShopEvents.FileIo run = METRICS.begin(fileName);
         try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
             String line;
             products = new ArrayList<>();
@@ -76,7 +79,7 @@ public class ProductsReader {
         catch (IOException ex) {
             throw new RuntimeException(ex);
         }
-
+        METRICS.end(run, new File(fileName).length(), products.size());
 
     }
 
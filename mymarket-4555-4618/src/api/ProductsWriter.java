@@ -1,7 +1,8 @@
 package api;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class handles writing the details of products from the database to a text file.
@@ -14,35 +15,43 @@ import java.util.ArrayList;
  */
 public class ProductsWriter {
 
+    private static final Metrics.IoMetrics METRICS = Metrics.io("writer.products");
+
     /**
      * Constructor for the ProductsWriter class.
      * Retrieves all products from the database and writes their details to a text file.
      * The details include product title, description, category, subcategory, price, and quantity with its measurement unit.
      * If the measurement unit is "kg", the quantity is appended with "kg". For other units, it is written as the quantity followed by the unit.
      * <p>
-     * The products are retrieved from the {@link Database} singleton instance.
+     * The products are retrieved from the {@link Database} singleton instance. The quantities held in carts
+     * are written as stock, since the holds are not saved and the carts are.
      *
      */
     public ProductsWriter() {
+        ShopEvents.FileIo run = METRICS.begin(DataFiles.file("products.txt"));
         Database database = Database.getInstance();
-        ArrayList<Product> allProducts = database.getAllProducts();
-        try (FileWriter writer = new FileWriter("src/api/textFiles/products.txt", false)) {
-            for (Product product : allProducts) {
+        List<Product> allProducts = database.getAllProducts();
+        CartHolds holds = database.getCartHolds();
+        int[] quantities = holds == null ? null : holds.stockWithHolds(allProducts);
+        try (FileWriter writer = new FileWriter(DataFiles.file("products.txt"), false)) {
+            for (int i = 0; i < allProducts.size(); i++) {
+                Product product = allProducts.get(i);
+                int quantity = quantities == null ? product.getProductQuantity() : quantities[i];
                 writer.write("Τίτλος: "+ product.getProductTitle() +"\n");
                 writer.write("Περιγραφή: "+ product.getProductDescription() +"\n");
                 writer.write("Κατηγορία: "+ product.getProductCategory() +"\n");
                 writer.write("Υποκατηγορία: "+ product.getProductSubCategory() +"\n");
                 writer.write("Τιμή: "+ product.getProductPrice() +"€"+"\n");
                 if(product.getProductMeasurementUnit().equals("kg"))
-                    writer.write("Ποσότητα: " + product.getProductQuantity()  + product.getProductMeasurementUnit() +"\n\n");
+                    writer.write("Ποσότητα: " + quantity  + product.getProductMeasurementUnit() +"\n\n");
                 else
-                    writer.write("Ποσότητα: " + product.getProductQuantity()+ " " + product.getProductMeasurementUnit() +"\n\n");
+                    writer.write("Ποσότητα: " + quantity+ " " + product.getProductMeasurementUnit() +"\n\n");
             }
         }
         catch (IOException e) {
             e.printStackTrace();
         }
-
+        METRICS.end(run, new File(DataFiles.file("products.txt")).length(), allProducts.size());
     }
 
 }
@@ -0,0 +1,183 @@
+package api;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Java Flight Recorder events of the e-shop, so that a recording shows our own operations
+ * next to the garbage collections, lock contention and allocations of the JVM.
+ * The events are in the "MyMarket" category and are recorded, like the JDK events, with for example
+ * {@code java -XX:StartFlightRecording=filename=mymarket.jfr,settings=profile ...};
+ * when no recording is running, creating and committing them costs next to nothing.
+ */
+public final class ShopEvents {
+
+    private ShopEvents() {
+    }
+
+    /**
+     * A run of a reader or writer of the data files.
+     */
+    @Name("mymarket.FileIo")
+    @Label("File I/O")
+    @Category({"MyMarket", "I/O"})
+    @Description("A run of a reader or writer of the data files")
+    @StackTrace(false)
+    public static final class FileIo extends Event {
+        @Label("Operation")
+        @Description("The reader or writer, e.g. reader.products")
+        String operation;
+
+        @Label("File")
+        @Description("The file, or the directory of a writer of one file per customer")
+        String file;
+
+        @Label("Records")
+        long records;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        transient long startNanos;
+
+        /**
+         * Starts the event of a run.
+         *
+         * @param operation the name of the reader or writer.
+         * @param file the path of the file.
+         * @return the started event.
+         */
+        static FileIo begin(String operation, String file) {
+            FileIo event = new FileIo();
+            event.operation = operation;
+            event.file = file;
+            event.startNanos = System.nanoTime();
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Ends the event of a run and commits it if a recording is interested.
+         *
+         * @param records the number of records read or written.
+         * @param bytes the size of the files.
+         */
+        void finish(long records, long bytes) {
+            this.records = records;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+
+    /**
+     * A call of {@link Customer#completeOrder()}, including the wait for the customer's mailbox.
+     */
+    @Name("mymarket.Checkout")
+    @Label("Checkout")
+    @Category({"MyMarket", "Orders"})
+    @Description("A checkout of a customer's cart")
+    public static final class Checkout extends Event {
+        @Label("Customer")
+        String customer;
+
+        @Label("Cart Lines")
+        int lines;
+
+        @Label("Completed")
+        boolean completed;
+
+        @Label("Failed Lines")
+        @Description("The cart lines whose stock was not enough")
+        int failedLines;
+    }
+
+    /**
+     * A search or filter query over the catalog.
+     */
+    @Name("mymarket.Query")
+    @Label("Catalog Query")
+    @Category({"MyMarket", "Queries"})
+    @Description("A search or filter query over the catalog")
+    public static final class Query extends Event {
+        @Label("Query")
+        @Description("The kind of query, e.g. searchProducts")
+        String query;
+
+        @Label("Argument")
+        @Description("The searched text, category or subcategory")
+        String argument;
+
+        @Label("Results")
+        int results;
+
+        /**
+         * Starts the event of a query.
+         *
+         * @param query the kind of query.
+         * @param argument the searched text, category or subcategory.
+         * @return the started event.
+         */
+        public static Query begin(String query, String argument) {
+            Query event = new Query();
+            event.query = query;
+            event.argument = argument;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Ends the event of a query and commits it if a recording is interested.
+         *
+         * @param results the number of results.
+         */
+        public void finish(int results) {
+            this.results = results;
+            commit();
+        }
+    }
+
+    /**
+     * A rebuild of the components of a panel of the GUI, e.g. the product grid after a filter.
+     */
+    @Name("mymarket.PanelRebuild")
+    @Label("Panel Rebuild")
+    @Category({"MyMarket", "GUI"})
+    @Description("A rebuild of the components of a panel of the GUI")
+    public static final class PanelRebuild extends Event {
+        @Label("Panel")
+        @Description("The method that rebuilt the panel, e.g. UserFrame.search")
+        String panel;
+
+        @Label("Components")
+        int components;
+
+        /**
+         * Starts the event of a rebuild.
+         *
+         * @param panel the method that rebuilds the panel.
+         * @return the started event.
+         */
+        public static PanelRebuild begin(String panel) {
+            PanelRebuild event = new PanelRebuild();
+            event.panel = panel;
+            event.begin();
+            return event;
+        }
+
+        /**
+         * Ends the event of a rebuild and commits it if a recording is interested.
+         *
+         * @param components the number of components of the rebuilt panel.
+         */
+        public void finish(int components) {
+            this.components = components;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package api;
+
+import java.util.ArrayList;
+
+/**
+ * A hierarchical timing wheel that expires items at their deadlines.
+ * Time is divided into ticks. The first level has one slot per tick for the next {@value #SLOTS} ticks,
+ * and every following level has slots {@value #SLOTS} times wider. An item is placed in the lowest level
+ * whose range covers its deadline and is moved down a level (cascaded) when the wheel reaches its slot,
+ * so scheduling, cancelling and expiring an item all cost O(1), no matter how many items are pending.
+ * The wheel does not run on its own: the owner calls {@link #advance(long)} with the current time.
+ * It is not thread-safe.
+ *
+ * @param <T> the type of the scheduled items.
+ */
+public class TimingWheel<T> {
+
+    /** The number of slots of every level. */
+    public static final int SLOTS = 64;
+
+    private static final int SLOT_BITS = 6;
+    private static final int LEVELS = 4;
+
+    /**
+     * A scheduled item. It is a node of the doubly linked list of its slot, so it can be cancelled in O(1).
+     */
+    public final class Timeout {
+        private final T item;
+        private final long deadlineTick;
+        private Timeout previous;
+        private Timeout next;
+        private int level = -1;
+        private int slot;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Retrieves the scheduled item.
+         *
+         * @return the item.
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * Checks if the item is still waiting for its deadline.
+         *
+         * @return {@code true} if the item has neither expired nor been cancelled.
+         */
+        public boolean isPending() {
+            return level >= 0;
+        }
+
+        /**
+         * Removes the item from the wheel, so it never expires.
+         *
+         * @return {@code true} if the item was pending, {@code false} if it had already expired or been cancelled.
+         */
+        public boolean cancel() {
+            if (level < 0) {
+                return false;
+            }
+            unlink(this);
+            size--;
+            return true;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startTime;
+    private final ArrayList<ArrayList<Timeout>> heads;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs an empty wheel.
+     *
+     * @param tickMillis the duration of a tick, in milliseconds; deadlines are rounded up to whole ticks.
+     * @param startTime the time of tick 0, in milliseconds since the epoch.
+     */
+    public TimingWheel(long tickMillis, long startTime) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("The tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.startTime = startTime;
+        this.heads = new ArrayList<>();
+        for (int level = 0; level < LEVELS; level++) {
+            ArrayList<Timeout> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(null);
+            }
+            heads.add(slots);
+        }
+    }
+
+    /**
+     * Schedules an item to expire at a deadline. Deadlines in the past expire on the next advance.
+     *
+     * @param item the item.
+     * @param deadline the time to expire the item, in milliseconds since the epoch.
+     * @return the handle of the scheduled item, for cancelling it.
+     */
+    public Timeout schedule(T item, long deadline) {
+        long deadlineTick = Math.floorDiv(deadline - startTime + tickMillis - 1, tickMillis);
+        Timeout timeout = new Timeout(item, deadlineTick);
+        place(timeout, currentTick + 1);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and expires every item whose deadline has passed.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     * @return the expired items, from the earliest to the latest tick.
+     */
+    public ArrayList<T> advance(long now) {
+        ArrayList<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(now - startTime, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // The higher levels are cascaded first, so an item due on this tick reaches the slot expired below.
+            cascade(1);
+            int slot = (int) (currentTick & (SLOTS - 1));
+            Timeout timeout = heads.get(0).get(slot);
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                unlink(timeout);
+                size--;
+                expired.add(timeout.item);
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Retrieves the number of pending items.
+     *
+     * @return the number of items that have neither expired nor been cancelled.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS || (currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+            return;
+        }
+        cascade(level + 1);
+        int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        Timeout timeout = heads.get(level).get(slot);
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            unlink(timeout);
+            place(timeout, currentTick);
+            timeout = next;
+        }
+    }
+
+    /**
+     * Links an item into the slot of its deadline.
+     *
+     * @param timeout the item.
+     * @param earliestTick the earliest tick to place it at: the next tick for a new item, and the current tick
+     *                     for a cascaded one, whose slot on the first level is expired right after the cascade.
+     */
+    private void place(Timeout timeout, long earliestTick) {
+        long deadlineTick = Math.max(timeout.deadlineTick, earliestTick);
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * LEVELS)) {
+            // Beyond the range of the wheel: park it in the furthest slot, it is placed again when cascaded.
+            deadlineTick = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int slot = (int) ((deadlineTick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        ArrayList<Timeout> slots = heads.get(level);
+        Timeout head = slots.get(slot);
+        timeout.previous = null;
+        timeout.next = head;
+        if (head != null) {
+            head.previous = timeout;
+        }
+        slots.set(slot, timeout);
+        timeout.level = level;
+        timeout.slot = slot;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.previous != null) {
+            timeout.previous.next = timeout.next;
+        } else {
+            heads.get(timeout.level).set(timeout.slot, timeout.next);
+        }
+        if (timeout.next != null) {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.previous = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+}
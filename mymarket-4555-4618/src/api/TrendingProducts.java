@@ -0,0 +1,176 @@
+package api;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Ranks products by a purchase score that decays exponentially over time, so recent purchases
+ * weigh more than old ones. Instead of decaying every score periodically, each purchase adds a
+ * weight that grows with the time elapsed since a global reference time. All scores keep the same
+ * relative order, and the decayed value of a score is obtained by scaling it back to the current time.
+ * When the weights become too large, all scores are rescaled once and the reference time is moved forward.
+ * The scores are kept in an indexed max-heap, so a purchase costs O(log n) and the top trending
+ * products can be read without sorting the whole catalog.
+ */
+public class TrendingProducts {
+
+    /** The default half-life of a purchase: one week. */
+    public static final long DEFAULT_HALF_LIFE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    /** The largest exponent allowed for a purchase weight before all scores are rescaled. */
+    private static final double MAX_EXPONENT = 500;
+
+    private final double decayRate;
+    private long referenceTime;
+
+    private final HashMap<String, Integer> productIds;
+    private final ArrayList<String> productTitles;
+    private double[] scores;
+    private int[] heap;
+    private int[] positions;
+
+    /**
+     * Constructs an empty ranking.
+     *
+     * @param halfLifeMillis the time, in milliseconds, after which the weight of a purchase is halved.
+     * @param referenceTime the initial reference time, in milliseconds since the epoch.
+     */
+    public TrendingProducts(long halfLifeMillis, long referenceTime) {
+        this.decayRate = Math.log(2) / halfLifeMillis;
+        this.referenceTime = referenceTime;
+        this.productIds = new HashMap<>();
+        this.productTitles = new ArrayList<>();
+        this.scores = new double[16];
+        this.heap = new int[16];
+        this.positions = new int[16];
+    }
+
+    /**
+     * Builds a ranking from the order history of the given customers, using the dates of the orders.
+     *
+     * @param customers the customers whose order history is counted.
+     * @param halfLifeMillis the time, in milliseconds, after which the weight of a purchase is halved.
+     * @return the built ranking.
+     */
+    public static TrendingProducts build(Iterable<Customer> customers, long halfLifeMillis) {
+        TrendingProducts trending = new TrendingProducts(halfLifeMillis, System.currentTimeMillis());
+        for (Customer customer : customers) {
+            for (Order order : customer.getCustomerOrderHistory()) {
+                LocalDateTime date = CustomerSummary.parseDate(order.orderDate());
+                if (date == null) {
+                    continue;
+                }
+                long time = date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                for (String productTitle : order.boughtProducts()) {
+                    trending.recordPurchase(productTitle, time);
+                }
+            }
+        }
+        return trending;
+    }
+
+    /**
+     * Records a purchase of a product.
+     *
+     * @param productTitle the title of the bought product.
+     * @param time the time of the purchase, in milliseconds since the epoch.
+     */
+    public synchronized void recordPurchase(String productTitle, long time) {
+        double exponent = decayRate * (time - referenceTime);
+        if (exponent > MAX_EXPONENT) {
+            rescale(time);
+            exponent = 0;
+        }
+        int id = idOf(productTitle);
+        scores[id] += Math.exp(exponent);
+        siftUp(positions[id]);
+    }
+
+    /**
+     * Retrieves the current decayed score of a product.
+     *
+     * @param productTitle the title of the product.
+     * @param now the current time, in milliseconds since the epoch.
+     * @return the decayed score, or 0 if the product was never bought.
+     */
+    public synchronized double getScore(String productTitle, long now) {
+        Integer id = productIds.get(productTitle);
+        if (id == null) {
+            return 0;
+        }
+        return scores[id] * Math.exp(-decayRate * (now - referenceTime));
+    }
+
+    /**
+     * Retrieves the products with the highest decayed scores.
+     *
+     * @param xTopProducts the number of products to return.
+     * @return the titles of the trending products, from the highest to the lowest score.
+     */
+    public synchronized ArrayList<String> topTrending(int xTopProducts) {
+        ArrayList<String> topProducts = new ArrayList<>();
+        int size = productTitles.size();
+        if (size == 0 || xTopProducts <= 0) {
+            return topProducts;
+        }
+
+        // Walk the heap best-first: only the children of already returned entries can be next.
+        PriorityQueue<Integer> candidates = new PriorityQueue<>((first, second) -> Double.compare(scores[heap[second]], scores[heap[first]]));
+        candidates.add(0);
+        while (!candidates.isEmpty() && topProducts.size() < xTopProducts) {
+            int index = candidates.poll();
+            topProducts.add(productTitles.get(heap[index]));
+            if (2 * index + 1 < size) {
+                candidates.add(2 * index + 1);
+            }
+            if (2 * index + 2 < size) {
+                candidates.add(2 * index + 2);
+            }
+        }
+        return topProducts;
+    }
+
+    private int idOf(String productTitle) {
+        Integer id = productIds.get(productTitle);
+        if (id == null) {
+            id = productTitles.size();
+            if (id == scores.length) {
+                scores = Arrays.copyOf(scores, id * 2);
+                heap = Arrays.copyOf(heap, id * 2);
+                positions = Arrays.copyOf(positions, id * 2);
+            }
+            productIds.put(productTitle, id);
+            productTitles.add(productTitle);
+            heap[id] = id;
+            positions[id] = id;
+        }
+        return id;
+    }
+
+    private void rescale(long time) {
+        double factor = Math.exp(-decayRate * (time - referenceTime));
+        for (int i = 0; i < productTitles.size(); i++) {
+            scores[i] *= factor;
+        }
+        referenceTime = time;
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (scores[heap[parent]] >= scores[id]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            positions[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
@@ -36,10 +36,10 @@ public class AdminFrame extends UserFrame implements ActionListener {
      * The frame provides administrative functionalities like viewing statistics
      * and adding products.
      *
-     * @param username The username of the administrator.
+     * @param navigator The navigator of the administrator's session.
      */
-    AdminFrame(String username) {
-        super(username);
+    AdminFrame(Navigator navigator) {
+        super(navigator);
         firstButton.setText("Statistics");
         secondButton.setText("Add");
     }
@@ -57,13 +57,23 @@ public class AdminFrame extends UserFrame implements ActionListener {
 
         int number = Integer.parseInt(choice);
 
+        CustomerSummary.Metric metric = (CustomerSummary.Metric) JOptionPane.showInputDialog(this,
+                "Rank customers by", "Customer ranking", JOptionPane.QUESTION_MESSAGE, null,
+                CustomerSummary.Metric.values(), CustomerSummary.Metric.TOTAL_SPEND);
+        if (metric == null) return;
+
+        ShopEvents.PanelRebuild rebuild = ShopEvents.PanelRebuild.begin("AdminFrame.statistics");
         productsPanel.removeAll();
 
         DisplayTopProducts(number);
+        DisplayCategoryBuyers();
+        DisplayTopCustomers(number, metric);
         DisplayUnavailableProducts();
 
+        showProductsPanel();
         productsPanel.revalidate();
         productsPanel.repaint();
+        rebuild.finish(productsPanel.getComponentCount());
     }
 
     /**
@@ -81,7 +91,50 @@ public class AdminFrame extends UserFrame implements ActionListener {
         int count = 0;
         for (String title : database.frequentlyBoughtProducts(number)) {
             count++;
-            panel.add(createLabel(count + ". " + title, MEDIUM_FONTSIZE, new Color(255, 255, 255)));
+            long distinctBuyers = database.getDistinctBuyersIndex().distinctBuyersOfProduct(title);
+            panel.add(createLabel(count + ". " + title + " (~" + distinctBuyers + " distinct customers)", MEDIUM_FONTSIZE, new Color(255, 255, 255)));
+        }
+        panel.add(Box.createVerticalStrut(20));
+        productsPanel.add(panel);
+    }
+
+    /**
+     * Displays the approximate number of distinct customers who bought from each category.
+     */
+    private void DisplayCategoryBuyers() {
+        JPanel panel = createPanel(new Dimension(800, (database.getCategories().size() + 1) * MEDIUM_FONTSIZE * 2),
+                DEFAULT_EMPTYBORDER, null);
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(createLabel("Distinct customers per category:", MEDIUM_FONTSIZE, new Color(255, 255, 255)));
+        panel.add(Box.createVerticalStrut(10));
+        for (String category : database.getCategories()) {
+            long distinctBuyers = database.getDistinctBuyersIndex().distinctBuyersOfCategory(category);
+            panel.add(createLabel(category + ": ~" + distinctBuyers, MEDIUM_FONTSIZE, new Color(255, 255, 255)));
+        }
+        productsPanel.add(panel);
+    }
+
+    /**
+     * Displays the top customers ranked by a metric of their order history summaries.
+     *
+     * @param number The number of top customers to display.
+     * @param metric The metric by which the customers are ranked.
+     */
+    private void DisplayTopCustomers(int number, CustomerSummary.Metric metric) {
+        JPanel panel = createPanel(new Dimension(800, (number * MEDIUM_FONTSIZE * 2) + MEDIUM_FONTSIZE + 10),
+                DEFAULT_EMPTYBORDER, null);
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(createLabel("Top " + number + " customers by " + metric.toString().toLowerCase() + ":",
+                MEDIUM_FONTSIZE, new Color(255, 255, 255)));
+        panel.add(Box.createVerticalStrut(10));
+        int count = 0;
+        for (Customer customer : database.rankCustomers(metric, number)) {
+            count++;
+            CustomerSummary summary = customer.getSummary();
+            panel.add(createLabel(String.format("%d. %s: %d orders, %.2f€, favourite: %s", count, customer.getUsername(),
+                    summary.getOrderCount(), summary.getTotalSpend(),
+                    summary.getFavouriteCategory() == null ? "-" : summary.getFavouriteCategory()),
+                    SMALL_FONTSIZE, new Color(255, 255, 255)));
         }
         panel.add(Box.createVerticalStrut(20));
         productsPanel.add(panel);
@@ -107,56 +160,81 @@ public class AdminFrame extends UserFrame implements ActionListener {
     }
 
     /**
-     * Creates a panel to represent a product and its details.
-     * This panel allows administrators to process individual products.
+     * The admin's product panel shows the stock, which changes in place with every order.
      *
-     * @param product The product to display in the panel.
-     * @return A JPanel displaying the product details and a processing button.
+     * @param product the product of the panel.
+     * @return the stock of the product.
      */
     @Override
-    protected JPanel createProduct(Product product) {
-        JPanel mainPanel = createPanel(new Dimension(500, HEIGHT_PRODUCT_PANEL), null, null);
-        mainPanel.setLayout(new BorderLayout());
-
-        JPanel productPanel = createPanel(new Dimension(0, 300), DEFAULT_EMPTYBORDER, Color.GRAY);
-        productPanel.setLayout(new BoxLayout(productPanel, BoxLayout.Y_AXIS));
-
-        JPanel addPanel = createPanel(new Dimension(0, 100), new EmptyBorder(25, 50, 20, 50), Color.LIGHT_GRAY);
-        addPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 0));
-
-        JButton productProcessingButton = createButton("product processing", new Dimension(400, 50));
-
-        JLabel title = createLabel(product.getProductTitle(), MEDIUM_FONTSIZE, new Color(30, 30, 30));
-        JLabel description = createLabel("Description: " + product.getProductDescription(), SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel category = createLabel("Category: " + product.getProductCategory(), SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel subcategory = createLabel("Subcategory: " + product.getProductSubCategory(), SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel price = createLabel(String.format("Price: %.2f€", product.getProductPrice()).replace('.', ','),
-                SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel availableQuantity = createLabel("Quantity: " + product.getProductQuantity(), SMALL_FONTSIZE, new Color(30, 30, 30));
-
-        productProcessingButton.addActionListener(_ -> {
-            new ProductFrame(product, username, true);
-            this.setVisible(false);
-        });
-
-        productPanel.add(title);
-        productPanel.add(Box.createVerticalStrut(10));
-        productPanel.add(description);
-        productPanel.add(Box.createVerticalStrut(10));
-        productPanel.add(category);
-        productPanel.add(Box.createVerticalStrut(5));
-        productPanel.add(subcategory);
-        productPanel.add(Box.createVerticalStrut(10));
-        productPanel.add(price);
-        productPanel.add(Box.createVerticalStrut(5));
-        productPanel.add(availableQuantity);
-
-        addPanel.add(productProcessingButton);
-
-        mainPanel.add(productPanel, BorderLayout.NORTH);
-        mainPanel.add(addPanel, BorderLayout.CENTER);
-
-        return mainPanel;
+    protected long panelVersion(Product product) {
+        return product.getProductQuantity();
+    }
+
+    /**
+     * Creates a cell to represent a product and its details.
+     * This cell allows administrators to process individual products.
+     *
+     * @return A cell displaying the product details and a processing button.
+     */
+    @Override
+    protected ProductCell createProductCell() {
+        return new AdminProductCell();
+    }
+
+    /**
+     * The cell of a product shown to the administrator, with the stock of the product.
+     */
+    private class AdminProductCell extends ProductCell {
+        private final JLabel title = createLabel("", MEDIUM_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel description = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel category = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel subcategory = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel price = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel availableQuantity = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+
+        AdminProductCell() {
+            setPreferredSize(new Dimension(500, HEIGHT_PRODUCT_PANEL));
+            setBackground(null);
+            setLayout(new BorderLayout());
+
+            JPanel productPanel = createPanel(new Dimension(0, 300), DEFAULT_EMPTYBORDER, Color.GRAY);
+            productPanel.setLayout(new BoxLayout(productPanel, BoxLayout.Y_AXIS));
+
+            JPanel addPanel = createPanel(new Dimension(0, 100), new EmptyBorder(25, 50, 20, 50), Color.LIGHT_GRAY);
+            addPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 0));
+
+            JButton productProcessingButton = createButton("product processing", new Dimension(400, 50));
+            productProcessingButton.addActionListener(e -> {
+                navigator.showTransient(new ProductFrame(getProduct(), true, navigator));
+            });
+
+            productPanel.add(title);
+            productPanel.add(Box.createVerticalStrut(10));
+            productPanel.add(description);
+            productPanel.add(Box.createVerticalStrut(10));
+            productPanel.add(category);
+            productPanel.add(Box.createVerticalStrut(5));
+            productPanel.add(subcategory);
+            productPanel.add(Box.createVerticalStrut(10));
+            productPanel.add(price);
+            productPanel.add(Box.createVerticalStrut(5));
+            productPanel.add(availableQuantity);
+
+            addPanel.add(productProcessingButton);
+
+            add(productPanel, BorderLayout.NORTH);
+            add(addPanel, BorderLayout.CENTER);
+        }
+
+        @Override
+        protected void showProduct(Product product) {
+            title.setText(product.getProductTitle());
+            description.setText("Description: " + product.getProductDescription());
+            category.setText("Category: " + product.getProductCategory());
+            subcategory.setText("Subcategory: " + product.getProductSubCategory());
+            price.setText(String.format("Price: %.2f€", product.getProductPrice()).replace('.', ','));
+            availableQuantity.setText("Quantity: " + product.getProductQuantity());
+        }
     }
 
     /**
@@ -172,8 +250,7 @@ public class AdminFrame extends UserFrame implements ActionListener {
      */
     @Override
     protected void handleSecondButton() {
-        new ProductFrame(null, username, false);
-        this.setVisible(false);
+        navigator.showTransient(new ProductFrame(null, false, navigator));
     }
 
     /**
@@ -184,8 +261,7 @@ public class AdminFrame extends UserFrame implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == signOutButton) {
-            new LoginFrame();
-            setVisible(false);
+            navigator.signOut();
         }
 
         if (e.getSource() == firstButton) {
@@ -208,7 +284,7 @@ public class AdminFrame extends UserFrame implements ActionListener {
             appliedFilters(selectedRadioButton);
         }
 
-        if (e.getSource() instanceof JCheckBox _) {
+        if (e.getSource() instanceof JCheckBox) {
             applyCheckboxFilters();
         }
     }
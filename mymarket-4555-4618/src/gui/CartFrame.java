@@ -6,7 +6,8 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.function.Consumer;
 
 /**
  * The CartFrame class represents the user interface for a customer's shopping cart.
@@ -14,6 +15,9 @@ import java.util.HashMap;
  * and proceed to checkout.
  * This frame interacts with the customer object to display and modify the contents of the cart.
  * It includes functionality to submit an order, clear the cart, and navigate to other parts of the application.
+ * The frame listens to the {@link CartChange}s of the customer, and updates only the row of the changed line
+ * and the total cost, whichever session or thread changed the cart. It keeps listening while it is hidden by
+ * the session's {@link Navigator}, so it is up to date whenever it is shown again, and stops when it is disposed.
  */
 public class CartFrame extends JFrame implements ActionListener {
 
@@ -56,24 +60,75 @@ public class CartFrame extends JFrame implements ActionListener {
     private JPanel northPanel;
     private JPanel centerPanel;
     private JPanel productsPanel;
-    private JPanel cartProductPanel;
     private JPanel checkoutCenterPanel;
     private JButton backButton, ordersButton, clearCartButton, submitOrderButton;
     private JLabel emptyCartLabel;
+    private JLabel totalCostLabel;
     private JScrollPane scrollPane;
-    private HashMap<String, JPanel> cartProductPanels;
+    private final IdentityHashMap<Product, CartRow> cartRows = new IdentityHashMap<>();  // The rows of the cart lines, by cart line.
+    private final Consumer<CartChange> cartListener = change -> SwingUtilities.invokeLater(() -> updateFrame(change));
 
-    // Database and customer
+    // Database, customer and navigator
     Database database = Database.getInstance();
     private final Customer customer;
+    private final Navigator navigator;
+
+    /**
+     * The components showing a cart line: its panel in the products list and its two labels in the checkout.
+     */
+    private final class CartRow {
+        private final JPanel panel;
+        private final JLabel titleLabel;
+        private final JLabel descriptionLabel;
+        private final JLabel categoryLabel;
+        private final JLabel subcategoryLabel;
+        private final JLabel priceLabel;
+        private final JLabel quantityLabel;
+        private final JTextField quantityText;
+        private final JLabel checkoutTitleLabel;
+        private final JLabel checkoutPriceLabel;
+
+        private CartRow(Product line) {
+            titleLabel = createLabel(line.getProductTitle(), MEDIUM_FONTSIZE, true);
+            descriptionLabel = createLabel("", SMALL_FONTSIZE, true);
+            categoryLabel = createLabel("", SMALL_FONTSIZE, true);
+            subcategoryLabel = createLabel("", SMALL_FONTSIZE, true);
+            priceLabel = createLabel("", SMALL_FONTSIZE, true);
+            quantityLabel = createLabel("", SMALL_FONTSIZE, true);
+            quantityText = new JTextField();
+            checkoutTitleLabel = createLabel("", SMALL_FONTSIZE, true);
+            checkoutPriceLabel = createLabel("", SMALL_FONTSIZE, false);
+            panel = createCartProduct(line, this);
+            update(line);
+        }
+
+        /**
+         * Shows the current details, quantity and price of the cart line.
+         *
+         * @param line the cart line.
+         */
+        private void update(Product line) {
+            titleLabel.setText(line.getProductTitle());
+            descriptionLabel.setText("Description: " + line.getProductDescription());
+            categoryLabel.setText("Category: " + line.getProductCategory());
+            subcategoryLabel.setText("Subcategory: " + line.getProductSubCategory());
+            priceLabel.setText(String.format("Price: %.2f€", line.getProductPrice()).replace('.', ','));
+            quantityLabel.setText("Quantity: " + line.getProductQuantity());
+            quantityText.setText(Integer.toString(line.getProductQuantity()));
+            checkoutTitleLabel.setText(line.getProductTitle() + ": " + line.getProductQuantity());
+            checkoutPriceLabel.setText(String.format("Price: %.2f€", line.getProductPrice() * line.getProductQuantity()));
+        }
+    }
 
     /**
      * Constructor that initializes the CartFrame for the given customer.
      *
      * @param customer The customer whose cart is being displayed.
+     * @param navigator The navigator of the customer's session.
      */
-    public CartFrame(Customer customer) {
+    CartFrame(Customer customer, Navigator navigator) {
         this.customer = customer;
+        this.navigator = navigator;
 
         initializeFrame();
         initializeMenu();
@@ -82,9 +137,20 @@ public class CartFrame extends JFrame implements ActionListener {
         this.add(northPanel, BorderLayout.NORTH);
         this.add(scrollPane);
 
+        customer.addCartListener(cartListener);
+
         this.setVisible(true);
     }
 
+    /**
+     * Stops listening to the cart and releases the frame.
+     */
+    @Override
+    public void dispose() {
+        customer.removeCartListener(cartListener);
+        super.dispose();
+    }
+
     /**
      * Initializes the JFrame settings.
      */
@@ -161,25 +227,9 @@ public class CartFrame extends JFrame implements ActionListener {
         productsPanel = createPanel(new Dimension(0, getHeightCart()), null, new Color(30,30,30));
         productsPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 0, 10));
 
-        cartProductPanels = new HashMap<>();
-
-        // Add each product in the cart
-        for (Product product : customer.getCart()) {
-            cartProductPanel = createCartProduct(product);
-            cartProductPanels.put(product.getProductTitle(), cartProductPanel);
-            productsPanel.add(cartProductPanel);
-        }
-
         emptyCartLabel = createLabel("Your cart is empty!", 50, true);
         emptyCartLabel.setBorder(DEFAULT_EMPTYBORDER);
         emptyCartLabel.setForeground(new Color(255, 255, 255));
-        emptyCartLabel.setVisible(false);
-
-        productsPanel.add(emptyCartLabel);
-
-        if (cartProductPanels.isEmpty()) {
-            emptyCartLabel.setVisible(true);
-        }
 
         JPanel checkoutPanel = createPanel(new Dimension(380, getHeightCart()), DEFAULT_EMPTYBORDER, Color.GRAY);
         checkoutPanel.setLayout(new BorderLayout());
@@ -192,21 +242,11 @@ public class CartFrame extends JFrame implements ActionListener {
         checkoutCenterPanel = createPanel(new Dimension(450, 0), DEFAULT_EMPTYBORDER, Color.LIGHT_GRAY);
         checkoutCenterPanel.setLayout(new BoxLayout(checkoutCenterPanel, BoxLayout.Y_AXIS));
 
-        // Add product details and total cost to check out panel
-        for (Product product : customer.getCart()) {
-            JLabel productTitle = createLabel((product.getProductTitle() + ": " + product.getProductQuantity()), SMALL_FONTSIZE, true);
-            JLabel productPrice = createLabel(String.format("Price: %.2f€", product.getProductPrice() * product.getProductQuantity()), SMALL_FONTSIZE, false);
-            checkoutCenterPanel.add(productTitle);
-            checkoutCenterPanel.add(productPrice);
-        }
-
-        checkoutCenterPanel.add(Box.createVerticalStrut(25));
-        checkoutCenterPanel.add(createLabel(String.format("Total cost: %.2f€", customer.getTotalCartCost()), MEDIUM_FONTSIZE, true));
-
+        totalCostLabel = createLabel("", MEDIUM_FONTSIZE, true);
         submitOrderButton = createButton("Submit", NORMAL_BUTTON_DIMENSIONS, MEDIUM_FONTSIZE);
 
-        checkoutCenterPanel.add(Box.createVerticalStrut(MEDIUM_FONTSIZE));
-        checkoutCenterPanel.add(submitOrderButton);
+        // Add product details and total cost to check out panel
+        showCart();
 
         checkoutPanel.add(myCheckout, BorderLayout.NORTH);
         checkoutPanel.add(checkoutCenterPanel, BorderLayout.CENTER);
@@ -267,11 +307,13 @@ public class CartFrame extends JFrame implements ActionListener {
 
     /**
      * Creates a panel to display a product in the cart.
+     * The labels and the quantity field that change with the cart line are taken from its row.
      *
      * @param product The product to display.
+     * @param row The row of the cart line.
      * @return The JPanel representing the product.
      */
-    private JPanel createCartProduct(Product product) {
+    private JPanel createCartProduct(Product product, CartRow row) {
         JPanel mainPanel = createPanel(new Dimension(1100, 160), DEFAULT_EMPTYBORDER, null);
         mainPanel.setLayout(new BorderLayout());
 
@@ -279,14 +321,14 @@ public class CartFrame extends JFrame implements ActionListener {
         productInfoPanel.setLayout(new BoxLayout(productInfoPanel, BoxLayout.Y_AXIS));
 
         JButton removeButton = createButton("Remove", new Dimension(100,50), SMALL_FONTSIZE);
-        removeButton.addActionListener(_ -> updateFrame(product, true));
+        removeButton.addActionListener(e -> customer.removeProductFromCart(product));
 
 
         JPanel  adjustQuantityPanel = createPanel(new Dimension(200,100), new EmptyBorder(15,0,0,0), Color.LIGHT_GRAY);
         adjustQuantityPanel.setLayout(new FlowLayout(FlowLayout.CENTER,0,0));
 
         JButton minusButton = createButton("-", SMALL_BUTTON_DIMENSIONS, MEDIUM_FONTSIZE);
-        JTextField quantityText = new JTextField(Integer.toString(product.getProductQuantity()));
+        JTextField quantityText = row.quantityText;
         quantityText.setFont(new Font("Arial", Font.BOLD, 25));
         quantityText.setPreferredSize(new Dimension(80,50));
         quantityText.setHorizontalAlignment(SwingConstants.CENTER);
@@ -303,7 +345,7 @@ public class CartFrame extends JFrame implements ActionListener {
             }
         });
 
-        minusButton.addActionListener(_ -> {
+        minusButton.addActionListener(e -> {
             if (!quantityText.getText().isEmpty()) {
                 int quantity = Integer.parseInt(quantityText.getText());
                 if (quantity > 0) {
@@ -312,7 +354,7 @@ public class CartFrame extends JFrame implements ActionListener {
             }
         });
 
-        plusButton.addActionListener(_ -> {
+        plusButton.addActionListener(e -> {
             if (quantityText.getText().isEmpty()) {
                 quantityText.setText("1");
             } else {
@@ -325,20 +367,20 @@ public class CartFrame extends JFrame implements ActionListener {
         message.setForeground(Color.red);
         message.setVisible(false);
 
-        adjustQuantityButton.addActionListener(_ -> {
+        adjustQuantityButton.addActionListener(e -> {
             String text = quantityText.getText().trim();
             if (!text.isEmpty() && text.matches("\\d+")) {
                 int quantity = Integer.parseInt(text);
                 if (quantity > 0) {
                     boolean isAdded = customer.adjustProductQuantityInCart(product, quantity);
                     if (isAdded) {
-                        updateFrame(product, false);
+                        message.setVisible(false);
                     } else {
                         message.setText("Unavailable quantity");
                         message.setVisible(true);
                     }
                 } else {
-                    updateFrame(product, true);
+                    customer.removeProductFromCart(product);
                 }
             } else {
                 message.setText("Invalid input, enter a number.");
@@ -352,12 +394,12 @@ public class CartFrame extends JFrame implements ActionListener {
         adjustQuantityPanel.add(adjustQuantityButton);
         adjustQuantityPanel.add(message);
 
-        productInfoPanel.add(createLabel(product.getProductTitle(), MEDIUM_FONTSIZE, true));
-        productInfoPanel.add(createLabel("Description: " + product.getProductDescription(), SMALL_FONTSIZE, true));
-        productInfoPanel.add(createLabel("Category: " + product.getProductCategory(), SMALL_FONTSIZE, true));
-        productInfoPanel.add(createLabel("Subcategory: " + product.getProductSubCategory(), SMALL_FONTSIZE, true));
-        productInfoPanel.add(createLabel(String.format("Price: %.2f€", product.getProductPrice()).replace('.', ','), SMALL_FONTSIZE, true));
-        productInfoPanel.add(createLabel("Quantity: " + product.getProductQuantity(), SMALL_FONTSIZE, true));
+        productInfoPanel.add(row.titleLabel);
+        productInfoPanel.add(row.descriptionLabel);
+        productInfoPanel.add(row.categoryLabel);
+        productInfoPanel.add(row.subcategoryLabel);
+        productInfoPanel.add(row.priceLabel);
+        productInfoPanel.add(row.quantityLabel);
 
         mainPanel.add(productInfoPanel, BorderLayout.WEST);
         mainPanel.add(adjustQuantityPanel, BorderLayout.CENTER);
@@ -367,50 +409,90 @@ public class CartFrame extends JFrame implements ActionListener {
     }
 
     /**
-     * Updates the cart display by re-rendering the product list and recalculating the total cost.
-     * This method is invoked after a product is removed or its quantity is adjusted.
-     * It also handles the visibility of a message when the cart is empty.
-     *
-     * @param product The product to update in the cart.
-     * @param removeProduct Whether the product should be removed from the cart.
+     * Builds the rows of every cart line and the checkout summary. Used when the frame is created and
+     * when the cart is cleared or replaced as a whole.
      */
-    private void updateFrame(Product product, boolean removeProduct) {
-        checkoutCenterPanel.removeAll();
+    private void showCart() {
         productsPanel.removeAll();
+        checkoutCenterPanel.removeAll();
+        cartRows.clear();
 
-        if (removeProduct && product != null) {
-            customer.removeProductFromCart(product);
-        }
-
-        for (Product cartProduct : customer.getCart()) {
-            cartProductPanel = createCartProduct(cartProduct);
-            cartProductPanels.put(cartProduct.getProductTitle(), cartProductPanel);
-            productsPanel.add(cartProductPanel);
-
-            JLabel productTitle = createLabel(cartProduct.getProductTitle() + ": " + cartProduct.getProductQuantity(), SMALL_FONTSIZE, true);
-            JLabel productPrice = createLabel(String.format("Price: %.2f€", cartProduct.getProductPrice() * cartProduct.getProductQuantity()), SMALL_FONTSIZE, false);
-
-            checkoutCenterPanel.add(productTitle);
-            checkoutCenterPanel.add(productPrice);
+        for (Product line : customer.getCart()) {
+            addRow(line);
         }
+        productsPanel.add(emptyCartLabel);
 
         checkoutCenterPanel.add(Box.createVerticalStrut(25));
-        checkoutCenterPanel.add(createLabel(String.format("Total cost: %.2f€", customer.getTotalCartCost()), MEDIUM_FONTSIZE, true));
+        checkoutCenterPanel.add(totalCostLabel);
         checkoutCenterPanel.add(Box.createVerticalStrut(25));
         checkoutCenterPanel.add(submitOrderButton);
+        showTotal(customer.getTotalCartCost());
+    }
 
-        emptyCartLabel.setVisible(customer.getCart().isEmpty());
-        if (customer.getCart().isEmpty()) {
-            productsPanel.add(emptyCartLabel);
-        }
+    /**
+     * Adds the row of a cart line after the rows already shown.
+     *
+     * @param line the cart line.
+     */
+    private void addRow(Product line) {
+        CartRow row = new CartRow(line);
+        int index = cartRows.size();
+        cartRows.put(line, row);
+        productsPanel.add(row.panel, index);
+        checkoutCenterPanel.add(row.checkoutTitleLabel, 2 * index);
+        checkoutCenterPanel.add(row.checkoutPriceLabel, 2 * index + 1);
+    }
 
+    /**
+     * Shows the total cost of the cart, and the empty cart message if there are no lines.
+     *
+     * @param totalCartCost the total cost of the cart.
+     */
+    private void showTotal(double totalCartCost) {
+        totalCostLabel.setText(String.format("Total cost: %.2f€", totalCartCost));
+        emptyCartLabel.setVisible(cartRows.isEmpty());
         productsPanel.setPreferredSize(new Dimension(0, getHeightCart()));
         centerPanel.setPreferredSize(new Dimension(0, getHeightCart()));
+    }
+
+    /**
+     * Updates the cart display after a change of the cart. Only the row of the changed line
+     * and the total cost are updated; the whole cart is rebuilt only when it was cleared or replaced.
+     * It also handles the visibility of a message when the cart is empty.
+     *
+     * @param change the change of the cart.
+     */
+    private void updateFrame(CartChange change) {
+        ShopEvents.PanelRebuild rebuild = ShopEvents.PanelRebuild.begin("CartFrame.updateFrame");
+        int updated = 1;
+        switch (change) {
+            case CartChange.LineAdded added -> addRow(added.line());
+            case CartChange.LineUpdated lineUpdated -> {
+                CartRow row = cartRows.get(lineUpdated.line());
+                if (row != null) {
+                    row.update(lineUpdated.line());
+                }
+            }
+            case CartChange.LineRemoved removed -> {
+                CartRow row = cartRows.remove(removed.line());
+                if (row != null) {
+                    productsPanel.remove(row.panel);
+                    checkoutCenterPanel.remove(row.checkoutTitleLabel);
+                    checkoutCenterPanel.remove(row.checkoutPriceLabel);
+                }
+            }
+            case CartChange.Reset reset -> {
+                showCart();
+                updated = cartRows.size();
+            }
+        }
+        showTotal(change.totalCartCost());
 
         productsPanel.revalidate();
         productsPanel.repaint();
         checkoutCenterPanel.revalidate();
         checkoutCenterPanel.repaint();
+        rebuild.finish(updated);
     }
 
     /**
@@ -420,10 +502,10 @@ public class CartFrame extends JFrame implements ActionListener {
      */
     private int getHeightCart() {
         int height;
-        if (customer.getCart().size() <= 9) {
+        if (cartRows.size() <= 9) {
             height = (9 * HEIGHT_PRODUCT_PANEL) + 40;
         } else {
-            height = (customer.getCart().size() * HEIGHT_PRODUCT_PANEL) + 40;
+            height = (cartRows.size() * HEIGHT_PRODUCT_PANEL) + 40;
         }
         return height;
     }
@@ -437,13 +519,11 @@ public class CartFrame extends JFrame implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == backButton) {
-            new CustomerFrame(customer.getUsername());
-            setVisible(false);
+            navigator.show(CustomerFrame.class, CustomerFrame::new);
         }
 
         if (e.getSource() == ordersButton) {
-            new OrdersFrame(customer);
-            setVisible(false);
+            navigator.show(OrdersFrame.class, session -> new OrdersFrame(customer, session));
         }
 
         if (e.getSource() == clearCartButton) {
@@ -451,7 +531,6 @@ public class CartFrame extends JFrame implements ActionListener {
                 JOptionPane.showMessageDialog(this, "Your cart is already empty!");
             } else {
                 customer.clearCart();
-                updateFrame(null, false);
             }
         }
 
@@ -461,8 +540,17 @@ public class CartFrame extends JFrame implements ActionListener {
             } else {
                 int option = JOptionPane.showConfirmDialog(this, "Are you sure you want to proceed with your order?", "Submit order", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
                 if (option == JOptionPane.YES_OPTION) {
-                    customer.completeOrder();
-                    new CustomerFrame(customer.getUsername());
+                    CheckoutResult result = customer.completeOrder();
+                    if (result.completed()) {
+                        navigator.show(CustomerFrame.class, CustomerFrame::new);
+                    } else {
+                        StringBuilder message = new StringBuilder("Not enough stock for:");
+                        for (Product product : result.failedLines()) {
+                            message.append("\n").append(product.getProductTitle());
+                        }
+                        message.append("\nPlease adjust these products in your cart.");
+                        JOptionPane.showMessageDialog(this, message.toString(), "Submit order", JOptionPane.WARNING_MESSAGE);
+                    }
                 } else if (option == JOptionPane.NO_OPTION) {
                     JOptionPane.showMessageDialog(this, "Order Canceled.");
                 }
@@ -6,6 +6,7 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
 
 /**
  * The CustomerFrame class extends the UserFrame and represents the graphical user interface (GUI)
@@ -25,6 +26,12 @@ public class CustomerFrame extends UserFrame implements ActionListener {
     /** Font size for medium text. */
     private static final int MEDIUM_FONTSIZE = 25;
 
+    /** Number of products shown in the "customers also bought" line of a product panel. */
+    private static final int ALSO_BOUGHT_PRODUCTS = 3;
+
+    /** Number of products shown in the "trending now" strip of the frame. */
+    private static final int TRENDING_PRODUCTS = 5;
+
     /** Default padding used for panels. */
     private static final EmptyBorder DEFAULT_EMPTYBORDER = new EmptyBorder(10, 10, 10, 10);
 
@@ -34,77 +41,134 @@ public class CustomerFrame extends UserFrame implements ActionListener {
     /** Customer object representing the logged-in customer. */
     private final Customer customer;
 
+    /** The "trending now" strip, shown above the products while there are trending products. */
+    private final JPanel trendingPanel;
+
     /**
      * Constructs a CustomerFrame for the specified customer. The frame allows the customer to
      * view their orders, manage their cart, and browse products.
      *
-     * @param username The username of the customer.
+     * @param navigator The navigator of the customer's session.
      */
-    CustomerFrame(String username) {
-        super(username);
+    CustomerFrame(Navigator navigator) {
+        super(navigator);
         this.customer = database.getAllCustomers().get(username);
         firstButton.setText("Orders");
         secondButton.setText("Cart");
+
+        trendingPanel = createPanel(new Dimension(0, 45), DEFAULT_EMPTYBORDER, new Color(30, 30, 30));
+        trendingPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        showTrendingProducts();
+    }
+
+    /**
+     * Brings the products shown and the "trending now" strip up to date when the frame is shown again.
+     */
+    @Override
+    public void refresh() {
+        super.refresh();
+        showTrendingProducts();
     }
 
     /**
-     * Creates a panel to represent a product and its details. This panel allows customers
+     * Fills the "trending now" strip with the products currently trending, and hides it if there are none.
+     */
+    private void showTrendingProducts() {
+        ArrayList<String> trending = database.trendingProducts(TRENDING_PRODUCTS);
+        trendingPanel.removeAll();
+        if (trending.isEmpty()) {
+            centerPanel.remove(trendingPanel);
+        } else {
+            trendingPanel.add(createLabel("Trending now: " + String.join(" | ", trending), SMALL_FONTSIZE, new Color(255, 255, 255)));
+            centerPanel.add(trendingPanel, BorderLayout.NORTH);
+        }
+        centerPanel.revalidate();
+        centerPanel.repaint();
+    }
+
+    /**
+     * Creates a cell to represent a product and its details. This cell allows customers
      * to add products to their cart.
      *
-     * @param product The product to display in the panel.
-     * @return A JPanel displaying the product details and an "Add product" button.
+     * @return A cell displaying the product details and an "Add product" button.
      */
     @Override
-    protected JPanel createProduct(Product product) {
-        JPanel mainPanel = createPanel(new Dimension(500, HEIGHT_PRODUCT_PANEL), null, null);
-        mainPanel.setLayout(new BorderLayout());
-
-        JPanel productPanel = createPanel(new Dimension(0, 300), DEFAULT_EMPTYBORDER, Color.GRAY);
-        productPanel.setLayout(new BoxLayout(productPanel, BoxLayout.Y_AXIS));
-
-        JPanel addPanel = createPanel(new Dimension(0, 100), new EmptyBorder(25, 50, 20, 50), Color.LIGHT_GRAY);
-        addPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 0));
-
-        JButton addButton = createButton("Add product", new Dimension(400, 50));
-
-        JLabel title = createLabel(product.getProductTitle(), MEDIUM_FONTSIZE, new Color(30, 30, 30));
-        JLabel description = createLabel("Description: " + product.getProductDescription(), SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel category = createLabel("Category: " + product.getProductCategory(), SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel subcategory = createLabel("Subcategory: " + product.getProductSubCategory(), SMALL_FONTSIZE, new Color(30, 30, 30));
-        JLabel price = createLabel(String.format("Price: %.2f€", product.getProductPrice()).replace('.', ','), SMALL_FONTSIZE, new Color(30, 30, 30));
-
-        JLabel message = createLabel("Product added successfully", SMALL_FONTSIZE, new Color(0, 255, 0));
-        message.setVisible(false);
-
-        addButton.addActionListener(_ -> {
-            if (customer.addProductToCart(product, 1)) {
-                message.setVisible(true);
-                Timer timer = new Timer(2000, _ -> message.setVisible(false));
-                timer.setRepeats(false);
-                timer.start();
-            } else {
-                JOptionPane.showMessageDialog(this, "Product already in the cart, adjust the quantity there!");
-            }
-        });
-
-        productPanel.add(title);
-        productPanel.add(Box.createVerticalStrut(10));
-        productPanel.add(description);
-        productPanel.add(Box.createVerticalStrut(10));
-        productPanel.add(category);
-        productPanel.add(Box.createVerticalStrut(5));
-        productPanel.add(subcategory);
-        productPanel.add(Box.createVerticalStrut(10));
-        productPanel.add(price);
-        productPanel.add(Box.createVerticalStrut(5));
-
-        addPanel.add(addButton);
-        addPanel.add(message);
-
-        mainPanel.add(productPanel, BorderLayout.NORTH);
-        mainPanel.add(addPanel, BorderLayout.CENTER);
-
-        return mainPanel;
+    protected ProductCell createProductCell() {
+        return new CustomerProductCell();
+    }
+
+    /**
+     * The cell of a product shown to the customer, with the products frequently bought together with it.
+     */
+    private class CustomerProductCell extends ProductCell {
+        private final JLabel title = createLabel("", MEDIUM_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel description = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel category = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel subcategory = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel price = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel alsoBought = createLabel("", SMALL_FONTSIZE, new Color(30, 30, 30));
+        private final JLabel message = createLabel("Product added successfully", SMALL_FONTSIZE, new Color(0, 255, 0));
+        private final Timer messageTimer = new Timer(2000, e -> message.setVisible(false));
+
+        CustomerProductCell() {
+            setPreferredSize(new Dimension(500, HEIGHT_PRODUCT_PANEL));
+            setBackground(null);
+            setLayout(new BorderLayout());
+
+            JPanel productPanel = createPanel(new Dimension(0, 300), DEFAULT_EMPTYBORDER, Color.GRAY);
+            productPanel.setLayout(new BoxLayout(productPanel, BoxLayout.Y_AXIS));
+
+            JPanel addPanel = createPanel(new Dimension(0, 100), new EmptyBorder(25, 50, 20, 50), Color.LIGHT_GRAY);
+            addPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 0, 0));
+
+            JButton addButton = createButton("Add product", new Dimension(400, 50));
+
+            message.setVisible(false);
+            messageTimer.setRepeats(false);
+
+            addButton.addActionListener(e -> {
+                if (customer.addProductToCart(getProduct(), 1)) {
+                    message.setVisible(true);
+                    messageTimer.restart();
+                } else {
+                    JOptionPane.showMessageDialog(CustomerFrame.this, "Product already in the cart, adjust the quantity there!");
+                }
+            });
+
+            productPanel.add(title);
+            productPanel.add(Box.createVerticalStrut(10));
+            productPanel.add(description);
+            productPanel.add(Box.createVerticalStrut(10));
+            productPanel.add(category);
+            productPanel.add(Box.createVerticalStrut(5));
+            productPanel.add(subcategory);
+            productPanel.add(Box.createVerticalStrut(10));
+            productPanel.add(price);
+            productPanel.add(Box.createVerticalStrut(5));
+            productPanel.add(alsoBought);
+
+            addPanel.add(addButton);
+            addPanel.add(message);
+
+            add(productPanel, BorderLayout.NORTH);
+            add(addPanel, BorderLayout.CENTER);
+        }
+
+        @Override
+        protected void showProduct(Product product) {
+            title.setText(product.getProductTitle());
+            description.setText("Description: " + product.getProductDescription());
+            category.setText("Category: " + product.getProductCategory());
+            subcategory.setText("Subcategory: " + product.getProductSubCategory());
+            price.setText(String.format("Price: %.2f€", product.getProductPrice()).replace('.', ','));
+
+            ArrayList<String> boughtTogether = database.frequentlyBoughtTogether(product, ALSO_BOUGHT_PRODUCTS);
+            alsoBought.setText("Customers also bought: " + String.join(", ", boughtTogether));
+            alsoBought.setVisible(!boughtTogether.isEmpty());
+
+            messageTimer.stop();
+            message.setVisible(false);
+        }
     }
 
     /**
@@ -112,8 +176,7 @@ public class CustomerFrame extends UserFrame implements ActionListener {
      */
     @Override
     protected void handleFirstButton() {
-        new OrdersFrame(customer);
-        setVisible(false);
+        navigator.show(OrdersFrame.class, session -> new OrdersFrame(customer, session));
     }
 
     /**
@@ -121,8 +184,7 @@ public class CustomerFrame extends UserFrame implements ActionListener {
      */
     @Override
     protected void handleSecondButton() {
-        new CartFrame(customer);
-        setVisible(false);
+        navigator.show(CartFrame.class, session -> new CartFrame(customer, session));
     }
 
     /**
@@ -134,8 +196,7 @@ public class CustomerFrame extends UserFrame implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == signOutButton) {
-            new LoginFrame();
-            setVisible(false);
+            navigator.signOut();
         }
 
         if (e.getSource() == firstButton) {
@@ -158,7 +219,7 @@ public class CustomerFrame extends UserFrame implements ActionListener {
             appliedFilters(selectedRadioButton);
         }
 
-        if (e.getSource() instanceof JCheckBox _) {
+        if (e.getSource() instanceof JCheckBox) {
             applyCheckboxFilters();
         }
     }
@@ -200,11 +200,11 @@ public class LoginFrame extends JFrame implements ActionListener {
             String password = new String(passwordArray);
 
             if ((username.equals("admin1") && password.equals("password1")) || (username.equals("admin2") && password.equals("password2"))) {
-                new AdminFrame(username);
-                this.setVisible(false);
-            } else if (database.getAllCustomers().containsKey(username) && database.getAllCustomers().get(username).getPassword().equals(password)) {
-                new CustomerFrame(database.getAllCustomers().get(username).getUsername());
-                this.setVisible(false);
+                new Navigator(username).show(AdminFrame.class, AdminFrame::new);
+                this.dispose();
+            } else if (database.login(username, password) != null) {
+                new Navigator(username).show(CustomerFrame.class, CustomerFrame::new);
+                this.dispose();
             } else {
                 JOptionPane.showMessageDialog(this, "Invalid username or password. Please try again.", "Login Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -215,7 +215,7 @@ public class LoginFrame extends JFrame implements ActionListener {
 
         if (e.getSource() == signUpButton) {
             new SignUpFrame();
-            this.setVisible(false);
+            this.dispose();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package gui;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+
+/**
+ * Moves a user's session between the frames of the GUI.
+ * The session keeps one instance of every frame type, e.g. one {@link CustomerFrame} and one {@link CartFrame},
+ * created the first time it is shown. Going back to a frame shows the same instance again instead of building
+ * a new one, and a {@link Refreshable} frame updates only the data that changed while it was hidden.
+ * Frames that belong to one task, like the {@link ProductFrame} of a product, are shown with
+ * {@link #showTransient(JFrame)} and disposed as soon as the session moves on.
+ * Signing out disposes every frame of the session.
+ */
+final class Navigator {
+
+    /**
+     * A frame that brings its content up to date when it is shown again.
+     */
+    interface Refreshable {
+
+        /**
+         * Updates the data that changed since the frame was last shown. Runs on the event dispatch thread.
+         */
+        void refresh();
+    }
+
+    private final String username;
+    private final LinkedHashMap<Class<? extends JFrame>, JFrame> frames;
+    private JFrame shown;
+    private JFrame transientFrame;
+
+    /**
+     * Starts the session of a user.
+     *
+     * @param username the username of the signed-in user.
+     */
+    Navigator(String username) {
+        this.username = username;
+        this.frames = new LinkedHashMap<>();
+    }
+
+    /**
+     * Retrieves the username of the session.
+     *
+     * @return the username of the signed-in user.
+     */
+    String getUsername() {
+        return username;
+    }
+
+    /**
+     * Shows the frame of a type, creating it the first time and refreshing it afterwards,
+     * and hides the frame shown before it.
+     *
+     * @param type the type of the frame.
+     * @param factory creates the frame of the session.
+     * @param <F> the type of the frame.
+     * @return the frame of the session.
+     */
+    <F extends JFrame> F show(Class<F> type, Function<Navigator, F> factory) {
+        JFrame frame = frames.get(type);
+        if (frame == null) {
+            frame = factory.apply(this);
+            frames.put(type, frame);
+        } else if (frame instanceof Refreshable refreshable) {
+            refreshable.refresh();
+        }
+        switchTo(frame);
+        return type.cast(frame);
+    }
+
+    /**
+     * Shows a frame of a single task, which is disposed when another frame is shown.
+     *
+     * @param frame the frame.
+     */
+    void showTransient(JFrame frame) {
+        switchTo(frame);
+        transientFrame = frame;
+    }
+
+    private void switchTo(JFrame frame) {
+        frame.setVisible(true);
+        if (shown != null && shown != frame) {
+            if (shown == transientFrame) {
+                shown.dispose();
+                transientFrame = null;
+            } else {
+                shown.setVisible(false);
+            }
+        }
+        shown = frame;
+    }
+
+    /**
+     * Ends the session: disposes every frame of it and shows the login screen.
+     */
+    void signOut() {
+        ArrayList<JFrame> sessionFrames = new ArrayList<>(frames.values());
+        if (transientFrame != null) {
+            sessionFrames.add(transientFrame);
+        }
+        frames.clear();
+        shown = null;
+        transientFrame = null;
+        new LoginFrame();
+        for (JFrame frame : sessionFrames) {
+            frame.dispose();
+        }
+    }
+}
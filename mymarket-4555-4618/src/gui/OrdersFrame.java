@@ -9,21 +9,35 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
 /**
  * The OrdersFrame class represents a graphical user interface (GUI) window
  * that displays a customer's order history.
  * It provides functionalities such as viewing past orders, navigating back,
  * accessing the home screen, and viewing the cart.
+ * The orders are shown in pages of {@link #PAGE_SIZE}, and only the panels of the current page are built.
+ * They can be filtered by date range and bought product through the customer's {@link OrderIndex}.
+ * The frame is kept by the session's {@link Navigator}; when it is shown again, the filters are applied
+ * again so new orders and status changes appear.
  * This class extends JFrame and implements ActionListener to handle button events.
  */
-public class OrdersFrame extends JFrame implements ActionListener {
+public class OrdersFrame extends JFrame implements ActionListener, Navigator.Refreshable {
 
     /** Font size constants for consistent text styling across the frame. */
     private static final int SMALL_FONTSIZE = 15;
     private static final int MEDIUM_FONTSIZE = 25;
     private static final int LARGE_FONTSIZE = 30;
 
+    /** The number of orders shown per page. */
+    static final int PAGE_SIZE = 9;
+
+    /** The format of the dates of the filters, e.g. "04/12/2024". */
+    private static final DateTimeFormatter FILTER_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
     /** Default dimensions for buttons in the frame. */
     private static final Dimension NORMAL_BUTTON_DIMENSIONS = new Dimension(180, 50);
 
@@ -42,20 +56,38 @@ public class OrdersFrame extends JFrame implements ActionListener {
     /** Left section of the top navigation menu. */
     JPanel northLeftPanel;
 
-    /** Panel containing the main content of the frame. */
+    /** Panel containing the orders of the current page. */
     JPanel centerPanel;
 
+    /** Panel containing the filters, the orders and the page buttons. */
+    JPanel contentPanel;
+
     /** Buttons for navigating back, home, and accessing the cart. */
     JButton backButton, cartButton, homeButton;
 
+    /** Buttons for applying and clearing the filters. */
+    JButton filterButton, clearFiltersButton;
+
+    /** Buttons for moving between the pages of orders. */
+    JButton previousPageButton, nextPageButton;
+
+    /** Fields of the date range and product filters. */
+    JTextField fromDateField, toDateField, productField;
+
+    /** Label showing the current page and the number of matching orders. */
+    JLabel pageLabel;
+
     /** Label displaying the market name. */
     JLabel nameOfMarket;
 
     /** Label showing the title of the frame with the customer's name. */
     JLabel cartLabel;
 
-    /** Height of the main center panel, dynamically calculated based on the order history. */
-    private int height;
+    /** The orders matching the filters, newest first. */
+    private List<Order> matchingOrders;
+
+    /** The index of the page shown, from zero. */
+    private int page;
 
     /** Scroll pane for displaying order history with vertical scrolling enabled. */
     JScrollPane scrollPane;
@@ -66,20 +98,25 @@ public class OrdersFrame extends JFrame implements ActionListener {
     /** The customer whose order history is displayed in the frame. */
     private final Customer customer;
 
+    /** The navigator of the customer's session. */
+    private final Navigator navigator;
+
     /**
      * Constructs an OrdersFrame instance for the specified customer.
      *
      * @param customer The customer whose order history is displayed.
+     * @param navigator The navigator of the customer's session.
      */
-    public OrdersFrame(Customer customer) {
+    OrdersFrame(Customer customer, Navigator navigator) {
         this.customer = customer;
+        this.navigator = navigator;
 
         initializeFrame();
         initializeMenu();
         initializeCenter();
 
         this.add(northPanel, BorderLayout.NORTH);
-        this.add(scrollPane, BorderLayout.CENTER);
+        this.add(contentPanel, BorderLayout.CENTER);
 
         this.setVisible(true);
     }
@@ -154,35 +191,131 @@ public class OrdersFrame extends JFrame implements ActionListener {
     }
 
     /**
-     * Initializes the center panel to display the customer's order history.
+     * Initializes the center panel to display the customer's order history, with the filters above it
+     * and the page buttons below it, and shows the first page of orders.
      */
     private void initializeCenter() {
-        centerPanel = createPanel(new Dimension(0, getPanelHeight()), new Color(30, 30, 30));
+        centerPanel = createPanel(new Dimension(0, 0), new Color(30, 30, 30));
         centerPanel.setLayout(new FlowLayout(FlowLayout.LEFT));
 
-        height = getOrderHeight();
-        if (customer.getCustomerOrderHistory().isEmpty()) {
-            JLabel emptyHistory = createLabel("No orders have been placed yet.", LARGE_FONTSIZE);
+        scrollPane = new JScrollPane(centerPanel);
+        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
+        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+
+        JPanel filtersPanel = createPanel(new Dimension(0, 80), Color.GRAY);
+        filtersPanel.setLayout(new FlowLayout(FlowLayout.LEFT, 10, 5));
+        fromDateField = createTextField(150);
+        toDateField = createTextField(150);
+        productField = createTextField(300);
+        filterButton = createButton("Filter");
+        clearFiltersButton = createButton("Clear");
+        filtersPanel.add(createLabel("From (DD/MM/YYYY):", SMALL_FONTSIZE));
+        filtersPanel.add(fromDateField);
+        filtersPanel.add(createLabel("To:", SMALL_FONTSIZE));
+        filtersPanel.add(toDateField);
+        filtersPanel.add(createLabel("Product:", SMALL_FONTSIZE));
+        filtersPanel.add(productField);
+        filtersPanel.add(filterButton);
+        filtersPanel.add(clearFiltersButton);
+
+        JPanel pagesPanel = createPanel(new Dimension(0, 80), Color.GRAY);
+        pagesPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 20, 5));
+        previousPageButton = createButton("Previous");
+        nextPageButton = createButton("Next");
+        pageLabel = createLabel("", SMALL_FONTSIZE);
+        pagesPanel.add(previousPageButton);
+        pagesPanel.add(pageLabel);
+        pagesPanel.add(nextPageButton);
+
+        contentPanel = new JPanel(new BorderLayout());
+        contentPanel.add(filtersPanel, BorderLayout.NORTH);
+        contentPanel.add(scrollPane, BorderLayout.CENTER);
+        contentPanel.add(pagesPanel, BorderLayout.SOUTH);
+
+        matchingOrders = customer.getOrderIndex().find(null, null, null);
+        showPage(0);
+    }
+
+    /**
+     * Shows a page of the matching orders, building the panels of its orders only.
+     *
+     * @param page the index of the page, from zero.
+     */
+    private void showPage(int page) {
+        int pages = Math.max(1, (matchingOrders.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        this.page = Math.clamp(page, 0, pages - 1);
+        List<Order> pageOrders = matchingOrders.subList(this.page * PAGE_SIZE,
+                Math.min(matchingOrders.size(), (this.page + 1) * PAGE_SIZE));
+
+        centerPanel.removeAll();
+        int height = getOrderHeight(pageOrders);
+        if (pageOrders.isEmpty()) {
+            String text = customer.getOrderIndex().size() == 0 ? "No orders have been placed yet." : "No orders match the filters.";
+            JLabel emptyHistory = createLabel(text, LARGE_FONTSIZE);
             emptyHistory.setForeground(Color.WHITE);
             centerPanel.add(emptyHistory);
         } else {
-            for (Order order : customer.getCustomerOrderHistory()) {
-                centerPanel.add(createOrder(order));
+            for (Order order : pageOrders) {
+                centerPanel.add(createOrder(order, height));
             }
         }
+        centerPanel.setPreferredSize(new Dimension(0, getPanelHeight(pageOrders.size(), height)));
 
-        scrollPane = new JScrollPane(centerPanel);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        pageLabel.setText("Page " + (this.page + 1) + " of " + pages + " (" + matchingOrders.size() + " orders)");
+        previousPageButton.setEnabled(this.page > 0);
+        nextPageButton.setEnabled(this.page < pages - 1);
+
+        centerPanel.revalidate();
+        centerPanel.repaint();
+        scrollPane.getViewport().setViewPosition(new Point(0, 0));
+    }
+
+    /**
+     * Finds the orders matching the filters again, staying on the page shown.
+     */
+    @Override
+    public void refresh() {
+        applyFilters(page);
+    }
+
+    /**
+     * Finds the orders matching the filters and shows a page of them.
+     *
+     * @param page the index of the page to show, from zero.
+     */
+    private void applyFilters(int page) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = parseFilterDate(fromDateField.getText());
+            to = parseFilterDate(toDateField.getText());
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid date, please use the format DD/MM/YYYY.", "Filter orders", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        matchingOrders = customer.getOrderIndex().find(from, to, productField.getText());
+        showPage(page);
+    }
+
+    /**
+     * Reads the date of a filter field.
+     *
+     * @param text the text of the field.
+     * @return the date, or {@code null} if the field is empty.
+     * @throws DateTimeParseException if the text is not a date in the format DD/MM/YYYY.
+     */
+    private static LocalDate parseFilterDate(String text) {
+        return text.isBlank() ? null : LocalDate.parse(text.trim(), FILTER_DATE_FORMAT);
     }
 
     /**
      * Creates a JPanel to represent a single order.
      *
      * @param order The order to be displayed.
+     * @param height The height of the order panels of the page.
      * @return A JPanel containing the order's details.
      */
-    private JPanel createOrder(Order order) {
+    private JPanel createOrder(Order order, int height) {
         JPanel mainPanel = createPanel(new Dimension(490, height), Color.GRAY);
         mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
 
@@ -210,27 +343,42 @@ public class OrdersFrame extends JFrame implements ActionListener {
     }
 
     /**
-     * Dynamically calculates the height of the center panel based on the order history size.
+     * Calculates the height of the center panel for the orders of a page, three orders per row.
      *
+     * @param orders The number of orders of the page.
+     * @param orderHeight The height of an order panel.
      * @return The calculated panel height.
      */
-    private int getPanelHeight() {
-        if (customer.getCustomerOrderHistory().size() < 4) {
-            return 3 * (getOrderHeight() + 10);
-        } else if (customer.getCustomerOrderHistory().size() % 3 == 0) {
-            return (customer.getCustomerOrderHistory().size() / 3) * (getOrderHeight() + 10);
-        } else {
-            return ((customer.getCustomerOrderHistory().size() / 3) + 1) * (getOrderHeight() + 10);
-        }
+    private int getPanelHeight(int orders, int orderHeight) {
+        int rows = Math.max(3, (orders + 2) / 3);
+        return rows * (orderHeight + 10);
     }
 
     /**
-     * Dynamically calculates the height of an individual order panel.
+     * Calculates the height of the order panels of a page from its largest order.
      *
+     * @param orders The orders of the page.
      * @return The calculated order height.
      */
-    private int getOrderHeight() {
-        return 500 * ((customer.getMaxProductsBought() / 25) + 1);
+    private int getOrderHeight(List<Order> orders) {
+        int maxProducts = 0;
+        for (Order order : orders) {
+            maxProducts = Math.max(maxProducts, order.boughtProducts().size());
+        }
+        return 500 * ((maxProducts / 25) + 1);
+    }
+
+    /**
+     * Creates a text field for a filter.
+     *
+     * @param width The width of the field.
+     * @return A styled JTextField instance.
+     */
+    private JTextField createTextField(int width) {
+        JTextField textField = new JTextField();
+        textField.setPreferredSize(new Dimension(width, 40));
+        textField.setFont(new Font("Arial", Font.BOLD, SMALL_FONTSIZE));
+        return textField;
     }
 
     /**
@@ -286,13 +434,30 @@ public class OrdersFrame extends JFrame implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == backButton || e.getSource() == homeButton) {
-            new CustomerFrame(customer.getUsername());
-            this.setVisible(false);
+            navigator.show(CustomerFrame.class, CustomerFrame::new);
         }
 
         if (e.getSource() == cartButton) {
-            new CartFrame(customer);
-            this.setVisible(false);
+            navigator.show(CartFrame.class, session -> new CartFrame(customer, session));
+        }
+
+        if (e.getSource() == filterButton) {
+            applyFilters(0);
+        }
+
+        if (e.getSource() == clearFiltersButton) {
+            fromDateField.setText("");
+            toDateField.setText("");
+            productField.setText("");
+            applyFilters(0);
+        }
+
+        if (e.getSource() == previousPageButton) {
+            showPage(page - 1);
+        }
+
+        if (e.getSource() == nextPageButton) {
+            showPage(page + 1);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package gui;
+
+import api.Product;
+
+import javax.swing.*;
+
+/**
+ * The cell of a product in a {@link ProductGrid}. A cell builds its components once and is then bound to
+ * one product after another as the grid scrolls, so showing a product only updates the texts of the components.
+ * The actions of the cell act on the product it is bound to at the time, see {@link #getProduct()}.
+ */
+abstract class ProductCell extends JPanel {
+
+    private Product product;
+
+    /**
+     * Shows a product in the cell.
+     *
+     * @param product the product.
+     */
+    void bind(Product product) {
+        this.product = product;
+        showProduct(product);
+    }
+
+    /**
+     * Retrieves the product the cell is bound to.
+     *
+     * @return the product, or {@code null} if the cell was never bound.
+     */
+    Product getProduct() {
+        return product;
+    }
+
+    /**
+     * Updates the components of the cell to show a product.
+     *
+     * @param product the product.
+     */
+    protected abstract void showProduct(Product product);
+}
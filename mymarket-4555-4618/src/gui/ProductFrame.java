@@ -36,22 +36,22 @@ public class ProductFrame extends JFrame implements ActionListener {
     // Instance of the database for fetching categories, subcategories, and managing products
     Database database = Database.getInstance();
 
-    // Product being processed (for edit mode), username of the admin, and mode flag
+    // Product being processed (for edit mode), navigator of the admin's session, and mode flag
     private final Product product;
-    private final String username;
+    private final Navigator navigator;
     private final boolean mode;
 
     /**
      * Constructor for the {@code ProductFrame} class.
      * Initializes the GUI for product processing.
      *
-     * @param product  The product to be edited, or {@code null} for adding a new product.
-     * @param username The username of the admin using the frame.
-     * @param mode     The mode of the frame: {@code true} for editing a product, {@code false} for adding a new product.
+     * @param product   The product to be edited, or {@code null} for adding a new product.
+     * @param mode      The mode of the frame: {@code true} for editing a product, {@code false} for adding a new product.
+     * @param navigator The navigator of the admin's session, which disposes the frame when the admin goes back.
      */
-    public ProductFrame(Product product, String username, boolean mode) {
+    ProductFrame(Product product, boolean mode, Navigator navigator) {
         this.product = product;
-        this.username = username;
+        this.navigator = navigator;
         this.mode = mode;
 
         initializeFrame();
@@ -124,8 +124,7 @@ public class ProductFrame extends JFrame implements ActionListener {
                         JOptionPane.OK_CANCEL_OPTION
                 );
                 if (choice == JOptionPane.OK_OPTION) {
-                    new AdminFrame(username);
-                    setVisible(false);
+                    navigator.show(AdminFrame.class, AdminFrame::new);
                 } else {
                     setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
                 }
@@ -294,15 +293,20 @@ public class ProductFrame extends JFrame implements ActionListener {
                     JOptionPane.showMessageDialog(this, "Product with the same title already exists", "EMPTY FIELDS", JOptionPane.WARNING_MESSAGE);
                 } else {
                     if (mode) {
-                        product.setProductTitle(titleText.getText());
-                        product.setProductDescription(descriptionText.getText());
-                        product.setProductCategory((String) dropdownCategories.getSelectedItem());
-                        product.setProductSubCategory((String) dropdownSubcategories.getSelectedItem());
-                        product.setProductPrice(Double.parseDouble(priceText.getText()));
-                        product.setProductQuantity(Integer.parseInt(quantityText.getText()));
-                        product.setProductMeasurementUnit((String) measurementUnitDropdown.getSelectedItem());
-
-                        JOptionPane.showMessageDialog(this, "Product processed successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        Product updated = database.updateProduct(product, new Product(
+                                titleText.getText(),
+                                descriptionText.getText(),
+                                (String) dropdownCategories.getSelectedItem(),
+                                (String) dropdownSubcategories.getSelectedItem(),
+                                Double.parseDouble(priceText.getText()),
+                                Integer.parseInt(quantityText.getText()),
+                                (String) measurementUnitDropdown.getSelectedItem()));
+
+                        if (updated == null) {
+                            JOptionPane.showMessageDialog(this, "The product was changed meanwhile, open it again to edit it", "EDIT FAILED", JOptionPane.WARNING_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Product processed successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        }
                     } else {
                         database.addNewProduct(new Product(
                                 titleText.getText(),
@@ -315,8 +319,7 @@ public class ProductFrame extends JFrame implements ActionListener {
                         JOptionPane.showMessageDialog(this, "Product added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                     }
 
-                    this.setVisible(false);
-                    new AdminFrame(username);
+                    navigator.show(AdminFrame.class, AdminFrame::new);
                 }
             }
         }
@@ -0,0 +1,225 @@
+package gui;
+
+import api.Product;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * A virtualized grid of product cells, shown in a {@link JScrollPane}.
+ * The grid is backed by a list of products, e.g. the catalog or the results of a search, and holds cell
+ * components only for the rows visible in the viewport. The cells come from a {@link ProductPanelCache}:
+ * the cells of products scrolled out of view are bound to the products scrolled into view, see
+ * {@link ProductCell#bind(Product)}, so the memory and the time to show the grid depend on the size of the viewport
+ * and not on the number of products.
+ * <p>
+ * When the products or the scroll position change, the visible cells are updated as a diff: the cells of
+ * products that stay in view are kept (and moved if their position changed), the cells of products leaving
+ * the view are rebound to the products entering it, and cells are only added or removed when the number of
+ * visible products changes. The products of the list must be distinct objects.</p>
+ */
+class ProductGrid extends JComponent implements Scrollable {
+
+    /** The gap between the cells, and between the cells and the edges of the grid. */
+    static final int GAP = 5;
+
+    /**
+     * The changes made to the visible cells by a layout.
+     *
+     * @param inserted the number of cells added to the grid
+     * @param removed  the number of cells removed from the grid
+     * @param moved    the number of cells kept but moved to another position
+     * @param rebound  the number of cells that left the view and were bound to a product entering it
+     */
+    record Diff(int inserted, int removed, int moved, int rebound) {
+    }
+
+    private final ProductPanelCache cells;
+    private final int cellWidth;
+    private final int cellHeight;
+    private IdentityHashMap<Product, ProductCell> visibleCells = new IdentityHashMap<>();
+    private List<Product> products = List.of();
+    private Diff lastDiff = new Diff(0, 0, 0, 0);
+
+    /**
+     * Constructs an empty grid.
+     *
+     * @param cells the cache of the cells of the products.
+     * @param cellWidth the width of every cell.
+     * @param cellHeight the height of every cell.
+     */
+    ProductGrid(ProductPanelCache cells, int cellWidth, int cellHeight) {
+        this.cells = cells;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        setLayout(null);
+        setOpaque(true);
+    }
+
+    /**
+     * Shows a new list of products. The list is not copied, so it must not change while it is shown.
+     *
+     * @param products the products to show, in order.
+     */
+    void setProducts(List<Product> products) {
+        this.products = products;
+        revalidate();
+        repaint(getVisibleRect());
+    }
+
+    /**
+     * Retrieves the products shown.
+     *
+     * @return the list of products.
+     */
+    List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Retrieves the number of cells per row at the current width.
+     *
+     * @return the number of columns, at least one.
+     */
+    int getColumns() {
+        int width = getParent() instanceof JViewport viewport ? viewport.getWidth() : getWidth();
+        return Math.max(1, (width - GAP) / (cellWidth + GAP));
+    }
+
+    /**
+     * Retrieves the changes made to the visible cells by the last layout.
+     *
+     * @return the diff of the last layout.
+     */
+    Diff getLastDiff() {
+        return lastDiff;
+    }
+
+    /**
+     * Retrieves the cell shown for a product.
+     *
+     * @param product the product.
+     * @return the cell, or {@code null} if the product is not in view.
+     */
+    ProductCell getVisibleCell(Product product) {
+        return visibleCells.get(product);
+    }
+
+    /**
+     * Moves or resizes the grid. The viewport scrolls by moving the grid, so the visible cells are laid out again.
+     */
+    @Override
+    public void setBounds(int x, int y, int width, int height) {
+        boolean moved = x != getX() || y != getY();
+        super.setBounds(x, y, width, height);
+        if (moved) {
+            layoutVisibleCells();
+            validate();
+        }
+    }
+
+    @Override
+    public void doLayout() {
+        layoutVisibleCells();
+    }
+
+    /**
+     * Places the cells of the visible rows. The cells of the products that left the view are bound to
+     * the products that came into it; the cells left over are removed, and the missing ones added.
+     */
+    private void layoutVisibleCells() {
+        Rectangle visible = getVisibleRect();
+        int columns = getColumns();
+        int rowHeight = cellHeight + GAP;
+        int first = 0;
+        int last = -1;
+        if (!products.isEmpty() && !visible.isEmpty()) {
+            int firstRow = Math.max(0, (visible.y - GAP) / rowHeight);
+            int lastRow = (visible.y + visible.height - 1) / rowHeight;
+            first = Math.min(products.size(), firstRow * columns);
+            last = Math.min(products.size(), (lastRow + 1) * columns) - 1;
+        }
+
+        IdentityHashMap<Product, ProductCell> shown = new IdentityHashMap<>();
+        for (int i = first; i <= last; i++) {
+            Product product = products.get(i);
+            ProductCell kept = visibleCells.remove(product);
+            if (kept != null) {
+                shown.put(product, kept);
+            }
+        }
+        ArrayDeque<ProductCell> spares = new ArrayDeque<>(visibleCells.values());
+
+        int inserted = 0;
+        int removed = 0;
+        int moved = 0;
+        int rebound = 0;
+        for (int i = first; i <= last; i++) {
+            Product product = products.get(i);
+            ProductCell previous = shown.get(product);
+            ProductCell cell = cells.get(product, previous == null ? spares.peek() : null);
+            Rectangle bounds = new Rectangle(GAP + (i % columns) * (cellWidth + GAP), GAP + (i / columns) * rowHeight, cellWidth, cellHeight);
+            if (previous == null && cell == spares.peek()) {
+                spares.poll();
+                rebound++;
+            } else if (previous != cell) {
+                if (previous != null) {
+                    remove(previous);
+                    removed++;
+                }
+                add(cell);
+                inserted++;
+            } else if (!cell.getBounds().equals(bounds)) {
+                moved++;
+            }
+            cell.setBounds(bounds);
+            shown.put(product, cell);
+        }
+        for (ProductCell scrolledOut : spares) {
+            remove(scrolledOut);
+            removed++;
+        }
+        visibleCells = shown;
+        lastDiff = new Diff(inserted, removed, moved, rebound);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int rows = (products.size() + getColumns() - 1) / getColumns();
+        return new Dimension(cellWidth + 2 * GAP, GAP + rows * (cellHeight + GAP));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? (cellHeight + GAP) / 8 : cellWidth / 8;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport viewport && viewport.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,132 @@
+package gui;
+
+import api.Product;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cache of the cells of products, keyed by product identity, so a product shown by every search and filter
+ * result keeps the cell it is bound to.
+ * An edit of a product in the catalog publishes a new product object, which gets a cell of its own; the details
+ * that change in place, e.g. the stock shown to the admin, are covered by a version of the product given
+ * by the frame, and a cell is bound again only when the version of its product changed.
+ * A product without a cell takes over a spare cell, e.g. one that scrolled out of view, and a cell is only
+ * built when there is no spare one. The least recently used cells are dropped when the cache is full.
+ */
+class ProductPanelCache {
+
+    /** The default number of cells kept. */
+    static final int DEFAULT_CAPACITY = 256;
+
+    /**
+     * A cached cell and the version of the product it was bound to.
+     *
+     * @param cell    the cell of the product
+     * @param version the version of the product when the cell was bound
+     */
+    private record Entry(ProductCell cell, long version) {
+    }
+
+    private final Supplier<ProductCell> factory;
+    private final ToLongFunction<Product> version;
+    private final LinkedHashMap<Product, Entry> entries;
+    private long created;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param factory builds an unbound cell.
+     * @param version the version of a product; a cell is bound again when the version of its product changes.
+     * @param capacity the number of cells kept.
+     */
+    ProductPanelCache(Supplier<ProductCell> factory, ToLongFunction<Product> version, int capacity) {
+        this.factory = factory;
+        this.version = version;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Product, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Retrieves the cell of a product, building it if it is not cached.
+     *
+     * @param product the product.
+     * @return the cell, bound to the product.
+     */
+    ProductCell get(Product product) {
+        return get(product, null);
+    }
+
+    /**
+     * Retrieves the cell of a product: its cached cell, bound again if the product changed, or else the spare cell
+     * bound to the product, or else a new cell.
+     *
+     * @param product the product.
+     * @param spare a cell that is no longer needed for its product, or {@code null}.
+     * @return the cell, bound to the product; the spare cell if it was taken over.
+     */
+    ProductCell get(Product product, ProductCell spare) {
+        long current = version.applyAsLong(product);
+        Entry entry = entries.get(product);
+        if (entry != null) {
+            if (entry.version() != current) {
+                entry.cell().bind(product);
+                entries.put(product, new Entry(entry.cell(), current));
+            }
+            return entry.cell();
+        }
+        ProductCell cell = spare;
+        if (cell == null) {
+            cell = factory.get();
+            created++;
+        } else {
+            Entry previous = entries.get(cell.getProduct());
+            if (previous != null && previous.cell() == cell) {
+                entries.remove(cell.getProduct());
+            }
+        }
+        cell.bind(product);
+        entries.put(product, new Entry(cell, current));
+        return cell;
+    }
+
+    /**
+     * Drops the cell of a product, so the product gets another cell the next time it is needed.
+     *
+     * @param product the product.
+     */
+    void invalidate(Product product) {
+        entries.remove(product);
+    }
+
+    /**
+     * Drops all the cells.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Retrieves the number of cells cached.
+     *
+     * @return the number of cells.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retrieves the number of cells built since the cache was created.
+     *
+     * @return the number of cells built.
+     */
+    long getCreatedCount() {
+        return created;
+    }
+}
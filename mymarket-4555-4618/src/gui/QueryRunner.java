@@ -0,0 +1,119 @@
+package gui;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs the searches and filters of a frame off the event dispatch thread, so the window stays responsive
+ * on large catalogs.
+ * Every query supersedes the ones submitted before it: a query still queued is cancelled and never runs,
+ * and the result of a query still running is dropped, so only the result of the last query is published.
+ * The result is published on the event dispatch thread. If a query takes longer than
+ * {@link #PROGRESS_DELAY_MILLIS}, the progress indicator of the frame is shown until a result is published.
+ */
+class QueryRunner {
+
+    /** How long a query runs before the progress indicator is shown, in milliseconds. */
+    static final int PROGRESS_DELAY_MILLIS = 150;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ui-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor publisher;
+    private final Consumer<Boolean> progress;
+    private final Timer progressTimer;
+    private long generation;
+    private Future<?> running;
+
+    /**
+     * Constructs a runner that publishes its results on the event dispatch thread.
+     *
+     * @param progress shows ({@code true}) or hides ({@code false}) the progress indicator.
+     */
+    QueryRunner(Consumer<Boolean> progress) {
+        this(SwingUtilities::invokeLater, progress);
+    }
+
+    /**
+     * Constructs a runner.
+     *
+     * @param publisher runs the publication of the results, normally on the event dispatch thread.
+     * @param progress shows ({@code true}) or hides ({@code false}) the progress indicator.
+     */
+    QueryRunner(Executor publisher, Consumer<Boolean> progress) {
+        this.publisher = publisher;
+        this.progress = progress;
+        this.progressTimer = new Timer(PROGRESS_DELAY_MILLIS, e -> {
+            if (isBusy()) {
+                progress.accept(true);
+            }
+        });
+        this.progressTimer.setRepeats(false);
+    }
+
+    /**
+     * Submits a query, cancelling the queries submitted before it.
+     *
+     * @param query the query, run on a background thread.
+     * @param publish applies the result of the query, unless a newer query was submitted meanwhile.
+     * @param <T> the type of the result.
+     */
+    synchronized <T> void submit(Callable<T> query, Consumer<T> publish) {
+        long current = ++generation;
+        if (running != null) {
+            running.cancel(true);
+        }
+        progressTimer.restart();
+        running = EXECUTOR.submit(() -> {
+            T result;
+            try {
+                result = query.call();
+            } catch (InterruptedException e) {
+                // Cancelled by a newer query.
+                return;
+            } catch (Exception e) {
+                e.printStackTrace();
+                publisher.execute(() -> finish(current));
+                return;
+            }
+            publisher.execute(() -> {
+                if (finish(current)) {
+                    publish.accept(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Hides the progress indicator when the last query finishes.
+     *
+     * @param finished the generation of the finished query.
+     * @return {@code true} if the query is the last one submitted.
+     */
+    private synchronized boolean finish(long finished) {
+        if (finished != generation) {
+            return false;
+        }
+        running = null;
+        progressTimer.stop();
+        progress.accept(false);
+        return true;
+    }
+
+    /**
+     * Checks whether a query is still running or waiting for its result to be published.
+     *
+     * @return {@code true} if the last query has not been published yet.
+     */
+    synchronized boolean isBusy() {
+        return running != null;
+    }
+}
@@ -215,7 +215,7 @@ public class SignUpFrame extends JFrame implements ActionListener {
 
         if (e.getSource() == backButton) {
             new LoginFrame();
-            this.setVisible(false);
+            this.dispose();
         }
     }
 }
\ No newline at end of file
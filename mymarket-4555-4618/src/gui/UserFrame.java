@@ -1,14 +1,21 @@
 package gui;
 
+import api.CatalogSnapshot;
 import api.Database;
+import api.FacetIndex;
 import api.Product;
+import api.ShopEvents;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The UserFrame class is an abstract class that provides the base structure for a GUI
@@ -17,13 +24,20 @@ import java.util.HashSet;
  * filtering based on categories and subcategories, and handling user interactions with buttons.
  * This class extends {@link JFrame} and implements {@link ActionListener}.
  * Subclasses must define the abstract methods for creating product panels and handling specific button actions.
+ * A user frame is kept by the session's {@link Navigator} and refreshed when it is shown again.
  */
-public abstract class UserFrame extends JFrame implements ActionListener {
+public abstract class UserFrame extends JFrame implements ActionListener, Navigator.Refreshable {
 
     // Constants
     /** The height of the product panel. */
     protected static final int HEIGHT_PRODUCT_PANEL = 400;
 
+    /** The width of the product panel. */
+    protected static final int PRODUCT_PANEL_WIDTH = 500;
+
+    /** The width of the filters panel. */
+    private static final int FILTERS_PANEL_WIDTH = 500;
+
     /** The font size for small text. */
     protected static final int SMALL_FONTSIZE = 15;
 
@@ -46,8 +60,10 @@ public abstract class UserFrame extends JFrame implements ActionListener {
     protected JPanel northPanel;  // The top panel containing the menu and search bar.
     protected JPanel centerPanel;  // The center panel containing filters and product displays.
     protected JPanel filtersPanel;  // The panel for category and subcategory filters.
-    protected JPanel productsPanel;  // The panel displaying the products.
-    protected JPanel productPanel;  // Individual product panel.
+    protected JPanel productsPanel;  // The panel displaying other content than products, e.g. statistics.
+    protected ProductGrid productGrid;  // The virtualized grid displaying the products.
+    protected ProductPanelCache productPanels;  // The cells of the products, reused across results and scrolling.
+    protected JScrollPane scrollProductsPane;  // The scroll pane showing the product grid or the products panel.
     protected JButton submitSearchButton;  // Button to submit the search query.
     protected JButton signOutButton;  // Button to sign out of the application.
     protected JButton firstButton;  // First customizable button.
@@ -56,9 +72,15 @@ public abstract class UserFrame extends JFrame implements ActionListener {
     protected JTextField searchBar;  // Text field for entering search queries.
     protected JRadioButton radioButton, lastSelectedRadioButton;  // Radio buttons for category selection.
     protected ButtonGroup radioButtonGroup;  // Group for radio buttons.
-    protected HashMap<String, JPanel> productPanels;  // Map of product titles to their respective panels.
     protected HashSet<JCheckBox> checkboxButtons;  // Set of checkboxes for subcategory filters.
+    protected HashMap<String, JRadioButton> categoryButtons;  // Map of categories to their radio buttons.
+    protected BitSet currentResults;  // Ordinals in the facet index of the products currently shown.
+    protected QueryRunner queries;  // Runs the searches and filters off the event dispatch thread.
+    protected JProgressBar queryProgress;  // Shown while a slow search or filter runs.
     protected final String username;  // Username of the currently logged-in user.
+    protected final Navigator navigator;  // Moves the session between its frames.
+    private CatalogSnapshot shownCatalog;  // The version of the catalog the products shown come from.
+    private String shownCategory;  // The category whose subcategories the filters panel shows, or null for the categories.
 
     // Database instance
     Database database = Database.getInstance();
@@ -67,12 +89,14 @@ public abstract class UserFrame extends JFrame implements ActionListener {
      * Constructor for the UserFrame class.
      * Initializes the user interface components, sets up the layout, and configures listeners.
      *
-     * @param username the username of the logged-in user.
+     * @param navigator the navigator of the logged-in user's session.
      */
-    UserFrame(String username) {
-        this.username = username;
+    UserFrame(Navigator navigator) {
+        this.navigator = navigator;
+        this.username = navigator.getUsername();
 
         initializeFrame(username);
+        shownCatalog = database.getCatalog();
         initializeMenu();
         initializeCenter();
 
@@ -159,8 +183,15 @@ public abstract class UserFrame extends JFrame implements ActionListener {
         northRightPanel.add(firstButton);
         northRightPanel.add(secondButton);
 
+        queryProgress = new JProgressBar();
+        queryProgress.setIndeterminate(true);
+        queryProgress.setPreferredSize(new Dimension(100, 10));
+        queryProgress.setVisible(false);
+        queries = new QueryRunner(this::showQueryProgress);
+
         northCenterPanel.add(searchBar);
         northCenterPanel.add(submitSearchButton);
+        northCenterPanel.add(queryProgress);
 
         northLeftPanel.add(nameOfMarket);
 
@@ -173,12 +204,17 @@ public abstract class UserFrame extends JFrame implements ActionListener {
      * Initializes the center panel, including filters and product displays.
      */
     private void initializeCenter() {
-        centerPanel = createPanel(new Dimension(0, getHeightBasedOnProducts()), DEFAULT_EMPTYBORDER, new Color(30,30,30));
+        centerPanel = createPanel(new Dimension(0, 0), DEFAULT_EMPTYBORDER, new Color(30,30,30));
         centerPanel.setBorder(null);
         centerPanel.setLayout(new BorderLayout());
 
-        filtersPanel = createPanel(new Dimension(500, getHeightBasedOnProducts()), null, Color.GRAY);
-        filtersPanel.setBorder(null);
+        filtersPanel = new JPanel() {
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(FILTERS_PANEL_WIDTH, super.getPreferredSize().height);
+            }
+        };
+        filtersPanel.setBackground(Color.GRAY);
         filtersPanel.setLayout(new BoxLayout(filtersPanel, BoxLayout.Y_AXIS));
 
         radioButtonGroup = new ButtonGroup();
@@ -186,55 +222,94 @@ public abstract class UserFrame extends JFrame implements ActionListener {
         filtersPanel.add(createLabel("Select Category", MEDIUM_FONTSIZE, new Color(30,30,30)));
         filtersPanel.add(Box.createVerticalStrut(10));
 
-        for (String category : database.getCategories()) {
-            radioButton = new JRadioButton(category);
-            radioButton.setOpaque(false);
-            radioButton.setFont(new Font(ARIAL, Font.BOLD, SMALL_FONTSIZE));
-            radioButton.setFocusPainted(false);
-            radioButton.setBorderPainted(false);
-            radioButton.setContentAreaFilled(false);
-            radioButtonGroup.add(radioButton);
-            radioButton.addActionListener(this);
-            filtersPanel.add(radioButton);
-            filtersPanel.add(Box.createVerticalStrut(10));
-        }
+        FacetIndex facetIndex = database.getFacetIndex();
+        currentResults = facetIndex.all();
+        addCategoryButtons(facetIndex.counts(FacetIndex.CATEGORY, currentResults));
 
         filtersPanel.add(Box.createVerticalStrut(10));
 
-        productsPanel = createPanel(new Dimension(0, getHeightBasedOnProducts()), null, new Color(30,30,30));
-        productsPanel.setBorder(null);
-        productsPanel.setLayout(new FlowLayout(FlowLayout.LEFT));
+        productsPanel = createPanel(new Dimension(0, 0), null, new Color(30,30,30));
+        productsPanel.setPreferredSize(null);
+        productsPanel.setLayout(new BoxLayout(productsPanel, BoxLayout.Y_AXIS));
 
-        productPanels = new HashMap<>();
-
-        for (Product product : database.getAllProducts()) {
-            productPanel = createProduct(product);
-            productPanels.put(product.getProductTitle(), productPanel);
-            productsPanel.add(productPanel);
-        }
+        productPanels = new ProductPanelCache(this::createProductCell, this::panelVersion, ProductPanelCache.DEFAULT_CAPACITY);
+        productGrid = new ProductGrid(productPanels, PRODUCT_PANEL_WIDTH, HEIGHT_PRODUCT_PANEL);
+        productGrid.setBackground(new Color(30,30,30));
 
         JScrollPane scrollFiltersPane = new JScrollPane(filtersPanel);
-        JScrollPane scrollProductsPane = new JScrollPane(productsPanel);
+        scrollProductsPane = new JScrollPane(productGrid);
+        showProducts(database.getAllProducts());
 
         scrollFiltersPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        scrollFiltersPane.getViewport().setBackground(Color.GRAY);
 
         centerPanel.add(scrollFiltersPane, BorderLayout.WEST);
         centerPanel.add(scrollProductsPane, BorderLayout.CENTER);
     }
 
     /**
-     * Returns the calculated height based on the number of products.
+     * Shows a list of products in the product grid, scrolled to the top.
+     * Only the cells of the products in view are shown, and the cells of products already shown by
+     * an earlier result, or scrolled out of view, are reused, see {@link ProductGrid} and {@link ProductPanelCache}.
      *
-     * @return the height for the product display panel.
+     * @param products the products to show.
      */
-    private int getHeightBasedOnProducts() {
-        int height;
-        if ((database.getAllProducts().size())%2==0) {
-            height = ((database.getAllProducts().size() * (HEIGHT_PRODUCT_PANEL + 5) / 2) + 5);
-        } else {
-            height = (((database.getAllProducts().size() + 1) * (HEIGHT_PRODUCT_PANEL + 5) / 2) + 5);
+    protected void showProducts(List<Product> products) {
+        shownCatalog = products instanceof CatalogSnapshot catalog ? catalog : database.getCatalog();
+        productGrid.setProducts(products);
+        if (scrollProductsPane.getViewport().getView() != productGrid) {
+            scrollProductsPane.setViewportView(productGrid);
+        }
+        scrollProductsPane.getViewport().setViewPosition(new Point(0, 0));
+    }
+
+    /**
+     * Brings the products shown up to date when the frame is shown again. If the catalog changed, the products
+     * shown are replaced by their current versions, followed through the facet index so renamed products stay,
+     * or by the whole new catalog if it was shown, keeping the scroll position; only the cells of changed products
+     * are bound again, and the counts of the filter options shown are recomputed. Otherwise the visible cells are only
+     * checked against their product versions, e.g. the stock shown to the admin.
+     */
+    @Override
+    public void refresh() {
+        CatalogSnapshot catalog = database.getCatalog();
+        if (catalog == shownCatalog) {
+            productGrid.revalidate();
+            productGrid.repaint();
+            return;
+        }
+        FacetIndex shownIndex = shownCatalog.getFacetIndex();
+        shownCatalog = catalog;
+        List<Product> shown = productGrid.getProducts();
+        boolean wholeCatalog = shown instanceof CatalogSnapshot;
+        String category = shownCategory;
+        queries.submit(() -> {
+            FacetIndex facetIndex = catalog.getFacetIndex();
+            List<Product> current = wholeCatalog ? catalog : shownIndex.resolveIn(facetIndex, shown);
+            BitSet ordinals = wholeCatalog ? facetIndex.all() : facetIndex.toBitSet(current);
+            Map<String, Integer> facetCounts = category == null
+                    ? facetIndex.counts(FacetIndex.CATEGORY, ordinals)
+                    : facetIndex.counts(FacetIndex.SUBCATEGORY, facetIndex.matching(FacetIndex.CATEGORY, category));
+            return new QueryResult(current, ordinals, facetCounts);
+        }, result -> {
+            currentResults = result.ordinals();
+            productGrid.setProducts(result.products());
+            if (category == null) {
+                updateCategoryCounts(result.facetCounts());
+            } else {
+                updateSubcategoryCounts(result.facetCounts());
+            }
+        });
+    }
+
+    /**
+     * Shows the products panel instead of the product grid, for content other than products.
+     * The caller fills the panel.
+     */
+    protected void showProductsPanel() {
+        if (scrollProductsPane.getViewport().getView() != productsPanel) {
+            scrollProductsPane.setViewportView(productsPanel);
         }
-        return height;
     }
 
     /**
@@ -302,160 +377,258 @@ public abstract class UserFrame extends JFrame implements ActionListener {
     }
 
     /**
-     * Performs a search for products based on the entered text in the search bar.
-     * Updates the product display area with matching products.
+     * Adds a radio button for every category to the filters panel. Each button shows how many
+     * products of the current results belong to its category.
      */
-    void search() {
-        productPanels.clear();
-        productsPanel.removeAll();
-
-        String searchingText = searchBar.getText().trim();
-
-        boolean found = false;
-        boolean defaultText = (searchBar.getForeground() != Color.LIGHT_GRAY && !searchingText.isEmpty());
+    private void addCategoryButtons(Map<String, Integer> categoryCounts) {
+        categoryButtons = new HashMap<>();
+        for (String category : database.getCategories()) {
+            radioButton = new JRadioButton(facetLabel(category, categoryCounts.getOrDefault(category, 0)));
+            radioButton.setActionCommand(category);
+            radioButton.setOpaque(false);
+            radioButton.setFont(new Font(ARIAL, Font.BOLD, SMALL_FONTSIZE));
+            radioButton.setFocusPainted(false);
+            radioButton.setBorderPainted(false);
+            radioButton.setContentAreaFilled(false);
+            radioButton.addActionListener(this);
+            radioButtonGroup.add(radioButton);
+            categoryButtons.put(category, radioButton);
+            filtersPanel.add(radioButton);
+            filtersPanel.add(Box.createVerticalStrut(10));
+        }
+    }
 
-        if (defaultText) {
-            for (Product product : database.getAllProducts()) {
-                if (product.getProductTitle().toLowerCase().contains(searchingText.toLowerCase()) || product.getProductCategory().toLowerCase().contains(searchingText.toLowerCase()) || product.getProductSubCategory().toLowerCase().contains(searchingText.toLowerCase())) {
-                    productPanel = createProduct(product);
-                    productPanels.put(product.getProductTitle(), productPanel);
-                    productsPanel.add(productPanel);
-                    found = true;
-                }
-            }
+    /**
+     * Updates the counts shown on the category radio buttons to match the current results.
+     *
+     * @param categoryCounts the number of current results per category.
+     */
+    private void updateCategoryCounts(Map<String, Integer> categoryCounts) {
+        for (Map.Entry<String, JRadioButton> entry : categoryButtons.entrySet()) {
+            entry.getValue().setText(facetLabel(entry.getKey(), categoryCounts.getOrDefault(entry.getKey(), 0)));
         }
+    }
 
-        if (!defaultText || !found) {
-            JOptionPane.showMessageDialog(this, "Product doesn't exist. Please try something else.", "Product Not Found", JOptionPane.INFORMATION_MESSAGE);
-            searchBar.setText("");
-            for (Product product : database.getAllProducts()) {
-                productPanel = createProduct(product);
-                productPanels.put(product.getProductTitle(), productPanel);
-                productsPanel.add(productPanel);
-            }
+    /**
+     * Updates the counts shown on the subcategory checkboxes to match the products of the selected category.
+     *
+     * @param subcategoryCounts the number of products of the category per subcategory.
+     */
+    private void updateSubcategoryCounts(Map<String, Integer> subcategoryCounts) {
+        for (JCheckBox checkBox : checkboxButtons) {
+            String subcategory = checkBox.getActionCommand();
+            checkBox.setText(facetLabel(subcategory, subcategoryCounts.getOrDefault(subcategory, 0)));
         }
+    }
+
+    /**
+     * Creates the text of a filter option, made of its value and the number of matching results.
+     *
+     * @param value the category or subcategory of the filter option.
+     * @param count the number of results that match the option.
+     * @return the text of the filter option.
+     */
+    private String facetLabel(String value, int count) {
+        return value + " (" + count + ")";
+    }
+
+    /**
+     * The result of a search or filter, computed off the event dispatch thread.
+     *
+     * @param products    the products to show
+     * @param ordinals    the ordinals of the products in the facet index
+     * @param facetCounts the number of products per category or subcategory, for the filter options
+     */
+    private record QueryResult(List<Product> products, BitSet ordinals, Map<String, Integer> facetCounts) {
+    }
+
+    /**
+     * Runs the queries behind the product list of a search.
+     *
+     * @param products the products found.
+     * @return the result of the search, with the number of products found per category.
+     */
+    private QueryResult searchResult(List<Product> products) {
+        FacetIndex facetIndex = database.getFacetIndex();
+        BitSet ordinals = facetIndex.toBitSet(products);
+        return new QueryResult(products, ordinals, facetIndex.counts(FacetIndex.CATEGORY, ordinals));
+    }
+
+    /**
+     * Runs the queries behind the list of all the products.
+     *
+     * @return all the products, with the number of products per category.
+     */
+    private QueryResult allProductsResult() {
+        CatalogSnapshot catalog = database.getCatalog();
+        BitSet ordinals = catalog.getFacetIndex().all();
+        return new QueryResult(catalog, ordinals, catalog.getFacetIndex().counts(FacetIndex.CATEGORY, ordinals));
+    }
+
+    /**
+     * Shows or hides the indicator of a slow search or filter.
+     *
+     * @param running {@code true} while the query runs.
+     */
+    private void showQueryProgress(boolean running) {
+        queryProgress.setVisible(running);
+        setCursor(running ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
+    /**
+     * Shows the result of a search in the product display area, and its counts on the category radio buttons.
+     *
+     * @param result the result of the search.
+     */
+    private void showSearchResult(QueryResult result) {
+        currentResults = result.ordinals();
+        showProducts(result.products());
+        updateCategoryCounts(result.facetCounts());
 
-        productsPanel.revalidate();
-        productsPanel.repaint();
         centerPanel.revalidate();
         centerPanel.repaint();
     }
 
+    /**
+     * Performs a search for products based on the entered text in the search bar.
+     * The search runs in the background, and the product display area is updated with the matching products
+     * unless another search or filter was applied meanwhile.
+     */
+    void search() {
+        ShopEvents.PanelRebuild rebuild = ShopEvents.PanelRebuild.begin("UserFrame.search");
+        String searchingText = searchBar.getText().trim();
+
+        boolean defaultText = (searchBar.getForeground() != Color.LIGHT_GRAY && !searchingText.isEmpty());
+
+        queries.submit(() -> {
+            List<Product> results = defaultText ? database.searchProducts(searchingText) : List.of();
+            return results.isEmpty() ? null : searchResult(results);
+        }, result -> {
+            if (result == null) {
+                JOptionPane.showMessageDialog(this, "Product doesn't exist. Please try something else.", "Product Not Found", JOptionPane.INFORMATION_MESSAGE);
+                searchBar.setText("");
+                queries.submit(this::allProductsResult, this::showSearchResult);
+            } else {
+                showSearchResult(result);
+            }
+            rebuild.finish(productGrid.getComponentCount());
+        });
+    }
+
     /**
      * Applies filters based on the selected radio button (category).
-     * Updates the product and filter panels accordingly.
+     * The products of the category are found in the background, and the product and filter panels
+     * are updated unless another search or filter was applied meanwhile.
      *
      * @param selectedRadioButton the selected radio button for the category.
      */
     void appliedFilters(JRadioButton selectedRadioButton) {
-        productPanels.clear();
-        productsPanel.removeAll();
-        filtersPanel.removeAll();
+        ShopEvents.PanelRebuild rebuild = ShopEvents.PanelRebuild.begin("UserFrame.appliedFilters");
 
         if (selectedRadioButton == lastSelectedRadioButton || selectedRadioButton == null) {
             radioButtonGroup.clearSelection();
 
-            filtersPanel.add(createLabel("Select Category", MEDIUM_FONTSIZE, new Color(30,30,30)));
-            filtersPanel.add(Box.createVerticalStrut(10));
-
-            for (String category : database.getCategories()) {
-                radioButton = new JRadioButton(category);
-                radioButton.setOpaque(false);
-                radioButton.setFont(new Font(ARIAL, Font.BOLD, SMALL_FONTSIZE));
-                radioButton.setFocusPainted(false);
-                radioButton.setBorderPainted(false);
-                radioButton.setContentAreaFilled(false);
-                radioButton.addActionListener(this);
-                radioButtonGroup.add(radioButton);
-                filtersPanel.add(radioButton);
+            queries.submit(this::allProductsResult, result -> {
+                filtersPanel.removeAll();
+                shownCategory = null;
+                filtersPanel.add(createLabel("Select Category", MEDIUM_FONTSIZE, new Color(30,30,30)));
                 filtersPanel.add(Box.createVerticalStrut(10));
-            }
 
-            for (Product product : database.getAllProducts()) {
-                productPanel = createProduct(product);
-                productPanels.put(product.getProductTitle(), productPanel);
-                productsPanel.add(productPanel);
-            }
+                currentResults = result.ordinals();
+                addCategoryButtons(result.facetCounts());
+
+                showProducts(result.products());
+                showFilters(rebuild);
+            });
         } else {
             lastSelectedRadioButton = selectedRadioButton;
 
-            for (Product product : database.getAllProductsByCategory(selectedRadioButton.getText())) {
-                productPanel = createProduct(product);
-                productPanels.put(product.getProductTitle(), productPanel);
-                productsPanel.add(productPanel);
-            }
-
-            filtersPanel.add(createLabel("Select subcategory", MEDIUM_FONTSIZE, new Color(30,30,30)));
-            filtersPanel.add(Box.createVerticalStrut(10));
-
-            checkboxButtons = new HashSet<>();
-            for (String subcategory : database.getSubCategories(selectedRadioButton.getText())) {
-                JCheckBox checkBox = new JCheckBox(subcategory);
-                checkBox.setFont(new Font(ARIAL, Font.BOLD, SMALL_FONTSIZE));
-                checkBox.setFocusPainted(false);
-                checkBox.setBorderPainted(false);
-                checkBox.setContentAreaFilled(false);
-                checkBox.addActionListener(this);
-                checkboxButtons.add(checkBox);
-                filtersPanel.add(checkBox);
+            String selectedCategory = selectedRadioButton.getActionCommand();
+            queries.submit(() -> {
+                FacetIndex facetIndex = database.getFacetIndex();
+                BitSet ordinals = facetIndex.matching(FacetIndex.CATEGORY, selectedCategory);
+                return new QueryResult(facetIndex.toProducts(ordinals), ordinals,
+                        facetIndex.counts(FacetIndex.SUBCATEGORY, ordinals));
+            }, result -> {
+                filtersPanel.removeAll();
+                shownCategory = selectedCategory;
+                currentResults = result.ordinals();
+                showProducts(result.products());
+
+                filtersPanel.add(createLabel("Select subcategory", MEDIUM_FONTSIZE, new Color(30,30,30)));
                 filtersPanel.add(Box.createVerticalStrut(10));
-            }
 
-            backToCategoriesButton = createButton("Back to categories", BUTTON_DIMENSIONS);
-            backToCategoriesButton.addActionListener(this);
-            filtersPanel.add(backToCategoriesButton);
-            filtersPanel.add(Box.createVerticalStrut(10));
+                checkboxButtons = new HashSet<>();
+                for (String subcategory : database.getSubCategories(selectedCategory)) {
+                    JCheckBox checkBox = new JCheckBox(facetLabel(subcategory, result.facetCounts().getOrDefault(subcategory, 0)));
+                    checkBox.setActionCommand(subcategory);
+                    checkBox.setFont(new Font(ARIAL, Font.BOLD, SMALL_FONTSIZE));
+                    checkBox.setFocusPainted(false);
+                    checkBox.setBorderPainted(false);
+                    checkBox.setContentAreaFilled(false);
+                    checkBox.addActionListener(this);
+                    checkboxButtons.add(checkBox);
+                    filtersPanel.add(checkBox);
+                    filtersPanel.add(Box.createVerticalStrut(10));
+                }
 
-            productsPanel.revalidate();
-            productsPanel.repaint();
-            filtersPanel.revalidate();
-            filtersPanel.repaint();
+                backToCategoriesButton = createButton("Back to categories", BUTTON_DIMENSIONS);
+                backToCategoriesButton.addActionListener(this);
+                filtersPanel.add(backToCategoriesButton);
+                filtersPanel.add(Box.createVerticalStrut(10));
+                showFilters(rebuild);
+            });
         }
+    }
 
-        productsPanel.revalidate();
-        productsPanel.repaint();
+    /**
+     * Lays out the rebuilt filters panel.
+     *
+     * @param rebuild the event of the rebuild.
+     */
+    private void showFilters(ShopEvents.PanelRebuild rebuild) {
         filtersPanel.revalidate();
         filtersPanel.repaint();
+        rebuild.finish(productGrid.getComponentCount() + filtersPanel.getComponentCount());
     }
 
     /**
      * Applies filters based on selected subcategories (checkboxes).
-     * Updates the product display area with matching products.
+     * The products are found in the background, and the product display area is updated with them
+     * unless another search or filter was applied meanwhile.
      */
     void applyCheckboxFilters() {
-        productPanels.clear();
-        productsPanel.removeAll();
+        ShopEvents.PanelRebuild rebuild = ShopEvents.PanelRebuild.begin("UserFrame.applyCheckboxFilters");
 
         HashSet<String> selectedSubcategories = new HashSet<>();
         for (JCheckBox checkBox : checkboxButtons) {
             if (checkBox.isSelected()) {
-                selectedSubcategories.add(checkBox.getText());
+                selectedSubcategories.add(checkBox.getActionCommand());
             }
         }
+        String selectedCategory = lastSelectedRadioButton.getActionCommand();
 
-        if (selectedSubcategories.isEmpty()) {
-            for (Product product : database.getAllProductsByCategory(lastSelectedRadioButton.getText())) {
-                productPanel = createProduct(product);
-                productPanels.put(product.getProductTitle(), productPanel);
-                productsPanel.add(productPanel);
+        queries.submit(() -> {
+            if (selectedSubcategories.isEmpty()) {
+                return database.getAllProductsByCategory(selectedCategory);
             }
-        } else {
+            ArrayList<Product> results = new ArrayList<>();
             for (String subcategory : selectedSubcategories) {
-                for (Product product : database.getAllProductsBySubCategory(subcategory)) {
-                    productPanel = createProduct(product);
-                    productPanels.put(product.getProductTitle(), productPanel);
-                    productsPanel.add(productPanel);
-                }
+                results.addAll(database.getAllProductsBySubCategory(subcategory));
             }
-
-            if (productPanels.isEmpty()) {
+            return results;
+        }, results -> {
+            if (!selectedSubcategories.isEmpty() && results.isEmpty()) {
+                productsPanel.removeAll();
                 productsPanel.add(createLabel("Unfortunately, there are no products available in this subcategory at the moment.", MEDIUM_FONTSIZE, new Color(255,255,255)));
+                showProductsPanel();
+                productsPanel.revalidate();
+                productsPanel.repaint();
+            } else {
+                showProducts(results);
             }
-
-        }
-
-        productsPanel.revalidate();
-        productsPanel.repaint();
+            rebuild.finish(productGrid.getComponentCount());
+        });
     }
 
     /**
@@ -466,8 +639,7 @@ public abstract class UserFrame extends JFrame implements ActionListener {
     @Override
     public void actionPerformed(ActionEvent e) {
         if (e.getSource() == signOutButton) {
-            new LoginFrame();
-            setVisible(false);
+            navigator.signOut();
         }
 
         if (e.getSource() == firstButton) {
@@ -490,18 +662,29 @@ public abstract class UserFrame extends JFrame implements ActionListener {
             appliedFilters(selectedRadioButton);
         }
 
-        if (e.getSource() instanceof JCheckBox _) {
+        if (e.getSource() instanceof JCheckBox) {
             applyCheckboxFilters();
         }
     }
 
     /**
-     * Abstract method to create a product panel. Must be implemented by subclasses.
+     * Abstract method to create a product cell, which the product grid binds to the products it shows.
+     * Must be implemented by subclasses.
+     *
+     * @return the created product cell, not bound to a product yet.
+     */
+    abstract protected ProductCell createProductCell();
+
+    /**
+     * Retrieves the version of the details a product cell shows that may change without the product
+     * being replaced in the catalog. A cached cell is bound again when the version of its product changes.
      *
-     * @param product the product for which the panel is created.
-     * @return the created product panel.
+     * @param product the product of the panel.
+     * @return the version of the product; the base frame shows no such details.
      */
-    abstract protected JPanel createProduct(Product product);
+    protected long panelVersion(Product product) {
+        return 0;
+    }
 
     /**
      * Abstract method to handle actions for the first button. Must be implemented by subclasses.
@@ -0,0 +1,475 @@
+package server;
+
+import api.CheckoutResult;
+import api.Customer;
+import api.Database;
+import api.FacetIndex;
+import api.Order;
+import api.Product;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A headless HTTP server exposing the shop to customers as a JSON API, without the Swing frames.
+ * It is built on the JDK's {@link HttpServer}, and every request runs on its own virtual thread,
+ * so requests waiting on a customer's mailbox or on the disk do not hold a platform thread.
+ * <p>
+ * The endpoints, all under {@code /api}:</p>
+ * <ul>
+ *     <li>{@code GET /api/categories} - the categories and their subcategories.</li>
+ *     <li>{@code GET /api/products?q=&category=&subcategory=} - browses and searches the catalog.</li>
+ *     <li>{@code GET /api/products/<title>} - one product.</li>
+ *     <li>{@code POST /api/login} with {@code {"username", "password"}} - returns a session token,
+ *     sent back in an {@code Authorization: Bearer <token>} header by the endpoints below.</li>
+ *     <li>{@code POST /api/logout} - ends the session. A session also ends when it has not been used
+ *     for the idle timeout of the server.</li>
+ *     <li>{@code GET /api/cart} - the customer's cart.</li>
+ *     <li>{@code POST /api/cart} with {@code {"title", "quantity"}} - adds a product to the cart.</li>
+ *     <li>{@code PUT /api/cart} with {@code {"title", "quantity"}} - changes the quantity of a cart line.</li>
+ *     <li>{@code DELETE /api/cart/<title>} - removes a product from the cart.</li>
+ *     <li>{@code POST /api/checkout} - completes the order.</li>
+ *     <li>{@code GET /api/orders} - the customer's order history.</li>
+ * </ul>
+ * Errors are returned as {@code {"error": "..."}} with a 4xx status.
+ */
+public class ShopServer {
+
+    /** The default port of the server. */
+    public static final int DEFAULT_PORT = 8080;
+
+    /** The default time after which an unused session ends, in milliseconds. */
+    public static final long DEFAULT_SESSION_IDLE_MILLIS = 30 * 60 * 1000;
+
+    private static final String API = "/api";
+
+    /**
+     * A failed request, answered with its status code and message.
+     */
+    private static final class ApiException extends RuntimeException {
+        private final int status;
+
+        private ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * The handler of an endpoint.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        /**
+         * Handles a request.
+         *
+         * @param exchange the request.
+         * @return the body of the response, written as JSON.
+         */
+        Object handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * A logged-in customer's session and the time it was last used.
+     */
+    private static final class Session {
+        private final String username;
+        private volatile long lastUsed;
+
+        private Session(String username, long lastUsed) {
+            this.username = username;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final Database database;
+    private final long sessionIdleMillis;
+    private final ConcurrentHashMap<String, Session> sessions;
+    private final SecureRandom random;
+    private HttpServer httpServer;
+    private ExecutorService executor;
+    private ScheduledExecutorService sessionSweeper;
+
+    /**
+     * Constructs a stopped server over a database, whose sessions end after {@link #DEFAULT_SESSION_IDLE_MILLIS}.
+     *
+     * @param database the database of the shop.
+     */
+    public ShopServer(Database database) {
+        this(database, DEFAULT_SESSION_IDLE_MILLIS);
+    }
+
+    /**
+     * Constructs a stopped server over a database.
+     *
+     * @param database the database of the shop.
+     * @param sessionIdleMillis the time after which an unused session ends, in milliseconds.
+     */
+    public ShopServer(Database database, long sessionIdleMillis) {
+        if (sessionIdleMillis <= 0) {
+            throw new IllegalArgumentException("The idle timeout must be positive: " + sessionIdleMillis);
+        }
+        this.database = database;
+        this.sessionIdleMillis = sessionIdleMillis;
+        this.sessions = new ConcurrentHashMap<>();
+        this.random = new SecureRandom();
+    }
+
+    /**
+     * Starts listening for requests.
+     *
+     * @param port the port to listen on, or 0 for any free port.
+     * @throws IOException if the port cannot be opened.
+     */
+    public synchronized void start(int port) throws IOException {
+        if (httpServer != null) {
+            return;
+        }
+        httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        httpServer.setExecutor(executor);
+        httpServer.createContext(API + "/categories", exchange -> respond(exchange, this::categories));
+        httpServer.createContext(API + "/products", exchange -> respond(exchange, this::products));
+        httpServer.createContext(API + "/login", exchange -> respond(exchange, this::login));
+        httpServer.createContext(API + "/logout", exchange -> respond(exchange, this::logout));
+        httpServer.createContext(API + "/cart", exchange -> respond(exchange, this::cart));
+        httpServer.createContext(API + "/checkout", exchange -> respond(exchange, this::checkout));
+        httpServer.createContext(API + "/orders", exchange -> respond(exchange, this::orders));
+        httpServer.start();
+        sessionSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shop-server-sessions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1, sessionIdleMillis / 2);
+        sessionSweeper.scheduleAtFixedRate(() -> expireIdleSessions(System.currentTimeMillis()), sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the server, giving the running requests up to a second to finish.
+     */
+    public synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(1);
+            executor.shutdown();
+            sessionSweeper.shutdownNow();
+            httpServer = null;
+            executor = null;
+            sessionSweeper = null;
+        }
+    }
+
+    /**
+     * Retrieves the port the server listens on.
+     *
+     * @return the port, or -1 if the server is not running.
+     */
+    public synchronized int getPort() {
+        return httpServer == null ? -1 : httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Ends the sessions that have not been used for the idle timeout. Runs periodically while the server is running.
+     *
+     * @param now the current time, in milliseconds since the epoch.
+     * @return the number of sessions ended.
+     */
+    int expireIdleSessions(long now) {
+        int before = sessions.size();
+        sessions.values().removeIf(session -> now - session.lastUsed > sessionIdleMillis);
+        return before - sessions.size();
+    }
+
+    private Object categories(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        LinkedHashMap<String, Object> categories = new LinkedHashMap<>();
+        for (String category : database.getCategories()) {
+            categories.put(category, database.getSubCategories(category));
+        }
+        return categories;
+    }
+
+    private Object products(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        String title = pathRemainder(exchange, "/products");
+        if (!title.isEmpty()) {
+            return toJson(findProduct(title));
+        }
+
+        Map<String, String> query = query(exchange);
+        FacetIndex facetIndex = database.getFacetIndex();
+        BitSet results = facetIndex.all();
+        if (query.containsKey("category")) {
+            results.and(facetIndex.matching(FacetIndex.CATEGORY, query.get("category")));
+        }
+        if (query.containsKey("subcategory")) {
+            results.and(facetIndex.matching(FacetIndex.SUBCATEGORY, query.get("subcategory")));
+        }
+        String searchingText = query.getOrDefault("q", "").trim();
+        if (!searchingText.isEmpty()) {
+            results.and(facetIndex.toBitSet(database.searchProducts(searchingText)));
+        }
+
+        ArrayList<Object> products = new ArrayList<>();
+        for (Product product : facetIndex.toProducts(results)) {
+            products.add(toJson(product));
+        }
+        return products;
+    }
+
+    private Object login(HttpExchange exchange) throws IOException {
+        requireMethod(exchange, "POST");
+        Map<String, Object> body = body(exchange);
+        String username = stringField(body, "username");
+        String password = stringField(body, "password");
+        Customer customer = database.login(username, password);
+        if (customer == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        byte[] tokenBytes = new byte[16];
+        random.nextBytes(tokenBytes);
+        String token = HexFormat.of().formatHex(tokenBytes);
+        sessions.put(token, new Session(username, System.currentTimeMillis()));
+
+        LinkedHashMap<String, Object> session = new LinkedHashMap<>();
+        session.put("token", token);
+        session.put("username", customer.getUsername());
+        session.put("firstName", customer.getFirstName());
+        session.put("surname", customer.getSurname());
+        return session;
+    }
+
+    private Object logout(HttpExchange exchange) {
+        requireMethod(exchange, "POST");
+        authenticate(exchange);
+        sessions.remove(token(exchange));
+        return Map.of("loggedOut", true);
+    }
+
+    private Object cart(HttpExchange exchange) throws IOException {
+        Customer customer = authenticate(exchange);
+        switch (exchange.getRequestMethod()) {
+            case "GET" -> {
+                return cartToJson(customer);
+            }
+            case "POST" -> {
+                Map<String, Object> body = body(exchange);
+                Product product = findProduct(stringField(body, "title"));
+                if (!customer.addProductToCart(product, intField(body, "quantity"))) {
+                    throw new ApiException(409, "The product is already in the cart, or its stock is not enough");
+                }
+                return cartToJson(customer);
+            }
+            case "PUT" -> {
+                Map<String, Object> body = body(exchange);
+                Product line = findCartLine(customer, stringField(body, "title"));
+                if (!customer.adjustProductQuantityInCart(line, intField(body, "quantity"))) {
+                    throw new ApiException(409, "The stock is not enough");
+                }
+                return cartToJson(customer);
+            }
+            case "DELETE" -> {
+                customer.removeProductFromCart(findCartLine(customer, pathRemainder(exchange, "/cart")));
+                return cartToJson(customer);
+            }
+            default -> throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private Object checkout(HttpExchange exchange) {
+        requireMethod(exchange, "POST");
+        Customer customer = authenticate(exchange);
+        if (customer.getCart().isEmpty()) {
+            throw new ApiException(409, "The cart is empty");
+        }
+        CheckoutResult result = customer.completeOrder();
+        LinkedHashMap<String, Object> response = new LinkedHashMap<>();
+        response.put("completed", result.completed());
+        if (result.completed()) {
+            response.put("order", toJson(customer.getCustomerOrderHistory().getLast()));
+        } else {
+            ArrayList<Object> failedLines = new ArrayList<>();
+            for (Product line : result.failedLines()) {
+                failedLines.add(line.getProductTitle());
+            }
+            response.put("failedLines", failedLines);
+        }
+        return response;
+    }
+
+    private Object orders(HttpExchange exchange) {
+        requireMethod(exchange, "GET");
+        Customer customer = authenticate(exchange);
+        ArrayList<Object> orders = new ArrayList<>();
+        for (Order order : customer.getCustomerOrderHistory()) {
+            orders.add(toJson(order));
+        }
+        return orders;
+    }
+
+    private Customer authenticate(HttpExchange exchange) {
+        String token = token(exchange);
+        Session session = token == null ? null : sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (session != null && now - session.lastUsed > sessionIdleMillis) {
+            sessions.remove(token, session);
+            session = null;
+        }
+        Customer customer = null;
+        if (session != null) {
+            session.lastUsed = now;
+            customer = database.getAllCustomers().get(session.username);
+        }
+        if (customer == null) {
+            throw new ApiException(401, "Login required");
+        }
+        return customer;
+    }
+
+    private static String token(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        return authorization.substring("Bearer ".length()).trim();
+    }
+
+    private Product findProduct(String title) {
+        Product product = database.getCatalog().find(title);
+        if (product == null) {
+            throw new ApiException(404, "No product titled " + title);
+        }
+        return product;
+    }
+
+    private static Product findCartLine(Customer customer, String title) {
+        for (Product line : customer.getCart()) {
+            if (line.getProductTitle().equals(title)) {
+                return line;
+            }
+        }
+        throw new ApiException(404, "No cart line titled " + title);
+    }
+
+    private static void respond(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        int status = 200;
+        Object body;
+        try {
+            body = endpoint.handle(exchange);
+        } catch (ApiException ex) {
+            status = ex.status;
+            body = Map.of("error", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            status = 400;
+            body = Map.of("error", ex.getMessage());
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+            status = 500;
+            body = Map.of("error", "Internal server error");
+        }
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws IOException {
+        return Json.parseObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    private static String pathRemainder(HttpExchange exchange, String endpoint) {
+        String path = exchange.getRequestURI().getPath();
+        String prefix = API + endpoint;
+        if (path.length() <= prefix.length() + 1) {
+            return "";
+        }
+        return path.substring(prefix.length() + 1);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        LinkedHashMap<String, String> parameters = new LinkedHashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static String stringField(Map<String, Object> body, String field) {
+        if (body.get(field) instanceof String value) {
+            return value;
+        }
+        throw new IllegalArgumentException("Missing text field \"" + field + "\"");
+    }
+
+    private static int intField(Map<String, Object> body, String field) {
+        if (body.get(field) instanceof Double value && value == Math.rint(value)) {
+            return value.intValue();
+        }
+        throw new IllegalArgumentException("Missing whole number field \"" + field + "\"");
+    }
+
+    private static Map<String, Object> toJson(Product product) {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("title", product.getProductTitle());
+        json.put("description", product.getProductDescription());
+        json.put("category", product.getProductCategory());
+        json.put("subcategory", product.getProductSubCategory());
+        json.put("price", product.getProductPrice());
+        json.put("quantity", product.getProductQuantity());
+        json.put("unit", product.getProductMeasurementUnit());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(Order order) {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("status", order.status());
+        json.put("date", order.orderDate());
+        json.put("products", List.copyOf(order.boughtProducts()));
+        json.put("totalCost", order.totalOrderCost());
+        return json;
+    }
+
+    private static Map<String, Object> cartToJson(Customer customer) {
+        ArrayList<Object> lines = new ArrayList<>();
+        for (Product line : customer.getCart()) {
+            lines.add(toJson(line));
+        }
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("lines", lines);
+        json.put("totalCost", customer.getTotalCartCost());
+        return json;
+    }
+}
@@ -0,0 +1,350 @@
+package tools;
+
+import api.DataFiles;
+import api.Database;
+import api.FulfillmentPipeline;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates a synthetic data set for the e-shop: "products.txt", "customers.txt", and the customers'
+ * order history and active cart files, in the formats the readers of the {@code api} package expect.
+ * The products use the real taxonomy of {@link Database#TAXONOMY}.
+ * <p>
+ * Every product and every customer is generated from its own random stream derived from the seed and its index,
+ * so the output is the same for the same seed no matter how many threads are used. The work is split into chunks
+ * generated in parallel, and each chunk is written as soon as the chunks before it are, so the memory used
+ * does not grow with the size of the data set.</p>
+ * <p>
+ * Usage: {@code java tools.DatasetGenerator [--out=<dir>] [--products=<n>] [--customers=<n>] [--orders=<n>]
+ * [--seed=<n>] [--threads=<n>]}. The output directory defaults to the data directory of {@link DataFiles};
+ * run the shop with {@code -Dmymarket.data=<dir>} to load a data set generated elsewhere.</p>
+ */
+public class DatasetGenerator {
+
+    /** The seed used when none is given. */
+    public static final long DEFAULT_SEED = 42;
+
+    /** The number of products or customers generated by one task. */
+    private static final int CHUNK_SIZE = 2048;
+
+    /** The share of customers, in percent, that have an active cart. */
+    private static final int CART_PERCENT = 10;
+
+    /** The share of customers, in percent, whose latest order is still pending. */
+    private static final int PENDING_PERCENT = 5;
+
+    private static final long PRODUCT_STREAM = 1;
+    private static final long CUSTOMER_STREAM = 2;
+
+    private static final long FIRST_ORDER_SECOND = LocalDateTime.of(2022, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long LAST_ORDER_SECOND = LocalDateTime.of(2024, 12, 31, 23, 59).toEpochSecond(ZoneOffset.UTC);
+    private static final DateTimeFormatter ORDER_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final String[] BRANDS = {"Αγρός", "Ελληνική Γη", "Νότος", "Όλυμπος", "Αιγαίο", "Καλή Μέρα", "Δήμητρα", "Φάρος"};
+    private static final String[] SIZES = {"100g", "250g", "500g", "750ml", "1L", "6x330ml", "12 τεμ.", "2 τεμ."};
+    private static final String[] FIRST_NAMES = {"Georgios", "Maria", "Ioannis", "Eleni", "Dimitrios", "Aikaterini", "Nikolaos", "Sofia"};
+    private static final String[] SURNAMES = {"Papadopoulos", "Georgiou", "Nikolaidis", "Ioannou", "Karagiannis", "Vlachou", "Pappas", "Oikonomou"};
+
+    /**
+     * A product of the data set.
+     *
+     * @param title       the title of the product
+     * @param description the description of the product
+     * @param category    the category of the product
+     * @param subCategory the subcategory of the product
+     * @param price       the price of the product
+     * @param quantity    the stock of the product
+     * @param unit        the measurement unit of the product
+     */
+    private record GeneratedProduct(String title, String description, String category, String subCategory,
+                                    double price, int quantity, String unit) {
+    }
+
+    /**
+     * Generates one chunk of a file.
+     */
+    @FunctionalInterface
+    private interface ChunkGenerator {
+        /**
+         * Generates the text of the chunk starting at an index.
+         *
+         * @param start the index of the first item of the chunk.
+         * @param end   the index after the last item of the chunk.
+         * @return the text of the chunk.
+         */
+        String generate(int start, int end) throws IOException;
+    }
+
+    private final File directory;
+    private final int productCount;
+    private final int customerCount;
+    private final long orderCount;
+    private final long seed;
+    private final int threads;
+    private final List<String[]> subCategories;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param directory the directory to write the data set to.
+     * @param productCount the number of products.
+     * @param customerCount the number of customers.
+     * @param orderCount the total number of orders, spread evenly over the customers.
+     * @param seed the seed of the random streams.
+     * @param threads the number of threads generating in parallel.
+     */
+    public DatasetGenerator(File directory, int productCount, int customerCount, long orderCount, long seed, int threads) {
+        if (productCount <= 0 || customerCount <= 0 || orderCount < 0 || threads <= 0) {
+            throw new IllegalArgumentException("The sizes and threads must be positive");
+        }
+        this.directory = directory;
+        this.productCount = productCount;
+        this.customerCount = customerCount;
+        this.orderCount = orderCount;
+        this.seed = seed;
+        this.threads = threads;
+        this.subCategories = new ArrayList<>();
+        for (Map.Entry<String, List<String>> category : Database.TAXONOMY.entrySet()) {
+            for (String subCategory : category.getValue()) {
+                subCategories.add(new String[]{category.getKey(), subCategory});
+            }
+        }
+    }
+
+    /**
+     * Generates the data set, replacing any files of the same names in the directory.
+     *
+     * @throws IOException if a file cannot be written.
+     */
+    public void generate() throws IOException {
+        new File(directory, DataFiles.ORDER_HISTORY_DIRECTORY).mkdirs();
+        new File(directory, DataFiles.ACTIVE_CARTS_DIRECTORY).mkdirs();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            writeInOrder(executor, new File(directory, "products.txt"), productCount, this::productsChunk);
+            writeInOrder(executor, new File(directory, "customers.txt"), customerCount, this::customersChunk);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Generates the chunks of a file in parallel and writes them in order. At most two chunks per thread
+     * are kept in memory while waiting for the earlier chunks.
+     */
+    private void writeInOrder(ExecutorService executor, File file, int count, ChunkGenerator generator) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            ArrayDeque<Future<String>> window = new ArrayDeque<>();
+            for (int start = 0; start < count; start += CHUNK_SIZE) {
+                int chunkStart = start;
+                int chunkEnd = Math.min(count, start + CHUNK_SIZE);
+                window.add(executor.submit(() -> generator.generate(chunkStart, chunkEnd)));
+                if (window.size() >= threads * 2) {
+                    writer.write(await(window.poll()));
+                }
+            }
+            while (!window.isEmpty()) {
+                writer.write(await(window.poll()));
+            }
+        }
+    }
+
+    private static String await(Future<String> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    private String productsChunk(int start, int end) {
+        StringBuilder builder = new StringBuilder((end - start) * 200);
+        for (int i = start; i < end; i++) {
+            GeneratedProduct product = product(i);
+            builder.append("Τίτλος: ").append(product.title()).append('\n');
+            builder.append("Περιγραφή: ").append(product.description()).append('\n');
+            builder.append("Κατηγορία: ").append(product.category()).append('\n');
+            builder.append("Υποκατηγορία: ").append(product.subCategory()).append('\n');
+            builder.append("Τιμή: ").append(product.price()).append("€\n");
+            builder.append("Ποσότητα: ").append(quantity(product.quantity(), product.unit())).append("\n\n");
+        }
+        return builder.toString();
+    }
+
+    private String customersChunk(int start, int end) throws IOException {
+        StringBuilder builder = new StringBuilder((end - start) * 80);
+        for (int i = start; i < end; i++) {
+            SplittableRandom random = random(CUSTOMER_STREAM, i);
+            String username = "user" + (i + 1);
+            builder.append("username: ").append(username).append('\n');
+            builder.append("password: ").append("password").append(i + 1).append('\n');
+            builder.append("firstName: ").append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append('\n');
+            builder.append("surname: ").append(SURNAMES[random.nextInt(SURNAMES.length)]).append('\n');
+
+            long orders = orderCount / customerCount + (i < orderCount % customerCount ? 1 : 0);
+            writeOrderHistory(username, orders, random);
+            writeActiveCart(username, random);
+        }
+        return builder.toString();
+    }
+
+    private void writeOrderHistory(String username, long orders, SplittableRandom random) throws IOException {
+        long[] orderSeconds = new long[(int) orders];
+        for (int i = 0; i < orderSeconds.length; i++) {
+            orderSeconds[i] = random.nextLong(FIRST_ORDER_SECOND, LAST_ORDER_SECOND);
+        }
+        Arrays.sort(orderSeconds);
+        boolean latestPending = random.nextInt(100) < PENDING_PERCENT;
+
+        File file = new File(new File(directory, DataFiles.ORDER_HISTORY_DIRECTORY), DataFiles.orderHistoryFileName(username));
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < orderSeconds.length; i++) {
+                boolean pending = latestPending && i == orderSeconds.length - 1;
+                writer.write("Status: " + (pending ? FulfillmentPipeline.PENDING : FulfillmentPipeline.COMPLETED) + "\n");
+                writer.write("Date: " + LocalDateTime.ofEpochSecond(orderSeconds[i], 0, ZoneOffset.UTC).format(ORDER_DATE_FORMAT) + "\n");
+                writer.write("boughtProducts: ");
+                double totalCost = 0;
+                for (int productIndex : distinctProducts(random, 1 + random.nextInt(8))) {
+                    GeneratedProduct product = product(productIndex);
+                    writer.write(product.title() + "|");
+                    totalCost += product.price() * (1 + random.nextInt(3));
+                }
+                writer.write("\n");
+                writer.write("totalOrderCost: " + Double.toString(Math.round(totalCost * 100) / 100.0).replace('.', ',') + "€\n");
+            }
+        }
+    }
+
+    private void writeActiveCart(String username, SplittableRandom random) throws IOException {
+        File file = new File(new File(directory, DataFiles.ACTIVE_CARTS_DIRECTORY), DataFiles.activeCartFileName(username));
+        if (random.nextInt(100) >= CART_PERCENT) {
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int productIndex : distinctProducts(random, 1 + random.nextInt(5))) {
+                GeneratedProduct product = product(productIndex);
+                writer.write("Τίτλος: " + product.title() + "\n");
+                writer.write("Περιγραφή: " + product.description() + "\n");
+                writer.write("Κατηγορία: " + product.category() + "\n");
+                writer.write("Υποκατηγορία: " + product.subCategory() + "\n");
+                writer.write("Τιμή: " + String.valueOf(product.price()).replace('.', ',') + "€\n");
+                writer.write("Ποσότητα: " + quantity(1 + random.nextInt(Math.min(3, product.quantity())), product.unit()) + "\n");
+            }
+        }
+    }
+
+    /**
+     * Picks distinct product indexes, so that an order or cart never has the same product twice.
+     */
+    private int[] distinctProducts(SplittableRandom random, int count) {
+        int[] indexes = new int[Math.min(count, productCount)];
+        for (int i = 0; i < indexes.length; i++) {
+            int index;
+            boolean duplicate;
+            do {
+                index = random.nextInt(productCount);
+                duplicate = false;
+                for (int j = 0; j < i && !duplicate; j++) {
+                    duplicate = indexes[j] == index;
+                }
+            } while (duplicate);
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * Generates the product with an index. The same index always gives the same product,
+     * so the orders and carts can refer to products without keeping the catalog in memory.
+     */
+    private GeneratedProduct product(int index) {
+        SplittableRandom random = random(PRODUCT_STREAM, index);
+        String[] subCategory = subCategories.get(random.nextInt(subCategories.size()));
+        String unit = subCategory[0].equals("Φρέσκα τρόφιμα") ? "kg" : "τεμάχια";
+        String size = unit.equals("kg") ? "1kg" : SIZES[random.nextInt(SIZES.length)];
+        String title = subCategory[1] + " " + BRANDS[random.nextInt(BRANDS.length)] + " " + (index + 1) + " " + size;
+        String description = subCategory[1] + " " + BRANDS[random.nextInt(BRANDS.length)] + ", κωδικός " + (index + 1) + ".";
+        double price = random.nextInt(30, 5000) / 100.0;
+        int quantity = 1 + random.nextInt(500);
+        return new GeneratedProduct(title, description, subCategory[0], subCategory[1], price, quantity, unit);
+    }
+
+    private static String quantity(int quantity, String unit) {
+        return unit.equals("kg") ? quantity + "kg" : quantity + " " + unit;
+    }
+
+    /**
+     * Derives the random stream of one item, mixing the seed, the kind of item and its index.
+     */
+    private SplittableRandom random(long stream, long index) {
+        long mixed = seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL;
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(mixed ^ (mixed >>> 31));
+    }
+
+    /**
+     * Generates a data set with the sizes given on the command line.
+     *
+     * @param args the options described in the class documentation.
+     * @throws IOException if a file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(DataFiles.directory());
+        int products = 10_000;
+        int customers = 1_000;
+        long orders = 20_000;
+        long seed = DEFAULT_SEED;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--out=")) {
+                directory = new File(value);
+            } else if (arg.startsWith("--products=")) {
+                products = Integer.parseInt(value);
+            } else if (arg.startsWith("--customers=")) {
+                customers = Integer.parseInt(value);
+            } else if (arg.startsWith("--orders=")) {
+                orders = Long.parseLong(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        long start = System.nanoTime();
+        directory.mkdirs();
+        new DatasetGenerator(directory, products, customers, orders, seed, threads).generate();
+        System.out.printf("Generated %d products, %d customers and %d orders in %s in %.1f s%n",
+                products, customers, orders, directory.getPath(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,314 @@
+package tools;
+
+import api.Customer;
+import api.Database;
+import api.LatencyHistogram;
+import api.Product;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates concurrent shoppers against the {@link Database} and {@link Customer} API, without the GUI.
+ * Every shopper runs on its own virtual thread: it logs in, then repeatedly picks an {@link Operation}
+ * according to the configured mix, performs it and waits for a random think time, until the run ends.
+ * The latency of every operation is recorded in a {@link LatencyHistogram} per operation.
+ * <p>
+ * The shoppers log in as the existing customers of the database; if there are fewer customers than shoppers,
+ * customers named "simulated&lt;n&gt;" are added. The simulation changes the database of the running process
+ * (carts, orders and stock) but never saves it.</p>
+ * <p>
+ * Usage: {@code java tools.WorkloadSimulator [--shoppers=<n>] [--seconds=<n>] [--think-millis=<n>]
+ * [--mix=browse:30,search:20,add:25,adjust:10,remove:5,checkout:10] [--seed=<n>]}.</p>
+ */
+public class WorkloadSimulator {
+
+    /**
+     * The operations of a shopper.
+     */
+    public enum Operation {
+        /** Checks the shopper's username and password. */
+        LOGIN,
+        /** Lists the products of a category. */
+        BROWSE,
+        /** Searches the catalog for a word of a product title. */
+        SEARCH,
+        /** Adds a product to the cart. */
+        ADD,
+        /** Changes the quantity of a cart line. */
+        ADJUST,
+        /** Removes a cart line. */
+        REMOVE,
+        /** Completes the order. */
+        CHECKOUT
+    }
+
+    /**
+     * The results of a simulation.
+     *
+     * @param elapsedNanos the duration of the run, in nanoseconds
+     * @param latencies    the latencies of every operation, in nanoseconds
+     * @param failures     the number of operations of every kind that did not succeed, e.g. out of stock
+     */
+    public record Report(long elapsedNanos, Map<Operation, LatencyHistogram> latencies, Map<Operation, Long> failures) {
+
+        /**
+         * Retrieves the number of operations of a kind per second.
+         *
+         * @param operation the operation.
+         * @return the throughput of the operation.
+         */
+        public double throughput(Operation operation) {
+            return latencies.get(operation).getCount() / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Formats the report as a table with one row per operation; the latencies are in milliseconds.
+         *
+         * @return the table.
+         */
+        public String format() {
+            StringBuilder builder = new StringBuilder(String.format("%-9s %10s %10s %9s %9s %9s %9s %9s %8s%n",
+                    "operation", "count", "ops/s", "mean", "p50", "p90", "p99", "max", "failed"));
+            for (Operation operation : Operation.values()) {
+                LatencyHistogram histogram = latencies.get(operation);
+                builder.append(String.format("%-9s %10d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f %8d%n",
+                        operation.name().toLowerCase(), histogram.getCount(), throughput(operation),
+                        histogram.getMean() / 1e6, histogram.getValueAtPercentile(50) / 1e6,
+                        histogram.getValueAtPercentile(90) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                        histogram.getMax() / 1e6, failures.get(operation)));
+            }
+            return builder.toString();
+        }
+    }
+
+    private final Database database;
+    private final int shoppers;
+    private final long durationMillis;
+    private final long thinkMillis;
+    private final EnumMap<Operation, Integer> mix;
+    private final int totalWeight;
+    private final long seed;
+    private final EnumMap<Operation, LatencyHistogram> latencies;
+    private final EnumMap<Operation, LongAdder> failures;
+
+    /**
+     * Constructs a simulator.
+     *
+     * @param database the database to run against.
+     * @param shoppers the number of concurrent shoppers.
+     * @param durationMillis the duration of the run, in milliseconds.
+     * @param thinkMillis the mean think time between the operations of a shopper, in milliseconds; 0 for none.
+     * @param mix the relative weight of every operation except {@link Operation#LOGIN}; missing operations are never picked.
+     * @param seed the seed of the shoppers' random choices.
+     */
+    public WorkloadSimulator(Database database, int shoppers, long durationMillis, long thinkMillis, Map<Operation, Integer> mix, long seed) {
+        this.database = database;
+        this.shoppers = shoppers;
+        this.durationMillis = durationMillis;
+        this.thinkMillis = thinkMillis;
+        this.mix = new EnumMap<>(mix);
+        this.mix.remove(Operation.LOGIN);
+        this.totalWeight = this.mix.values().stream().mapToInt(Integer::intValue).sum();
+        if (shoppers <= 0 || totalWeight <= 0) {
+            throw new IllegalArgumentException("There must be shoppers and at least one operation in the mix");
+        }
+        this.seed = seed;
+        this.latencies = new EnumMap<>(Operation.class);
+        this.failures = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            failures.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Retrieves the default mix of operations: mostly browsing and searching, with one checkout in ten operations.
+     *
+     * @return the weights of the operations.
+     */
+    public static Map<Operation, Integer> defaultMix() {
+        EnumMap<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        mix.put(Operation.BROWSE, 30);
+        mix.put(Operation.SEARCH, 20);
+        mix.put(Operation.ADD, 25);
+        mix.put(Operation.ADJUST, 10);
+        mix.put(Operation.REMOVE, 5);
+        mix.put(Operation.CHECKOUT, 10);
+        return mix;
+    }
+
+    /**
+     * Runs the simulation and waits for every shopper to finish.
+     *
+     * @return the report of the run.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public Report run() throws InterruptedException {
+        ArrayList<Customer> customers = customers();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < shoppers; i++) {
+                Customer customer = customers.get(i);
+                SplittableRandom random = new SplittableRandom(seed * 31 + i);
+                executor.execute(() -> shop(customer, random, deadline));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        EnumMap<Operation, Long> failed = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            failed.put(operation, failures.get(operation).sum());
+        }
+        return new Report(elapsed, latencies, failed);
+    }
+
+    private ArrayList<Customer> customers() {
+        ArrayList<Customer> customers = new ArrayList<>(database.getAllCustomers().values());
+        for (int i = customers.size(); i < shoppers; i++) {
+            String username = "simulated" + i;
+            Customer customer = database.getAllCustomers().get(username);
+            if (customer == null) {
+                customer = new Customer(username, "password" + i, "Simulated", "Shopper");
+                database.addCustomer(username, customer);
+            }
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    private void shop(Customer customer, SplittableRandom random, long deadline) {
+        perform(Operation.LOGIN, () -> database.login(customer.getUsername(), customer.getPassword()) != null);
+        while (System.nanoTime() < deadline) {
+            Operation operation = pick(random);
+            perform(operation, () -> switch (operation) {
+                case BROWSE -> browse(random);
+                case SEARCH -> search(random);
+                case ADD -> add(customer, random);
+                case ADJUST -> adjust(customer, random);
+                case REMOVE -> remove(customer, random);
+                case CHECKOUT -> customer.getCart().isEmpty() || customer.completeOrder().completed();
+                case LOGIN -> true;
+            });
+            if (thinkMillis > 0) {
+                long think = (long) (-Math.log(1 - random.nextDouble()) * thinkMillis * 1_000_000);
+                LockSupport.parkNanos(Math.min(think, Math.max(0, deadline - System.nanoTime())));
+            }
+        }
+    }
+
+    /**
+     * An operation that reports whether it succeeded.
+     */
+    @FunctionalInterface
+    private interface Action {
+        boolean perform();
+    }
+
+    private void perform(Operation operation, Action action) {
+        long start = System.nanoTime();
+        boolean succeeded;
+        try {
+            succeeded = action.perform();
+        } catch (RuntimeException ex) {
+            succeeded = false;
+        }
+        latencies.get(operation).record(System.nanoTime() - start);
+        if (!succeeded) {
+            failures.get(operation).increment();
+        }
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int choice = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            choice -= entry.getValue();
+            if (choice < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("The weights changed during the run");
+    }
+
+    private boolean browse(SplittableRandom random) {
+        List<String> categories = database.getCategories();
+        String category = categories.get(random.nextInt(categories.size()));
+        database.getAllProductsByCategory(category);
+        return true;
+    }
+
+    private boolean search(SplittableRandom random) {
+        String[] words = randomProduct(random).getProductTitle().toLowerCase().split(" ");
+        String word = words[random.nextInt(words.length)];
+        return !database.searchProducts(word).isEmpty();
+    }
+
+    private boolean add(Customer customer, SplittableRandom random) {
+        return customer.addProductToCart(randomProduct(random), 1 + random.nextInt(3));
+    }
+
+    private boolean adjust(Customer customer, SplittableRandom random) {
+        List<Product> cart = customer.getCart();
+        return !cart.isEmpty() && customer.adjustProductQuantityInCart(cart.get(random.nextInt(cart.size())), 1 + random.nextInt(3));
+    }
+
+    private boolean remove(Customer customer, SplittableRandom random) {
+        List<Product> cart = customer.getCart();
+        if (cart.isEmpty()) {
+            return false;
+        }
+        customer.removeProductFromCart(cart.get(random.nextInt(cart.size())));
+        return true;
+    }
+
+    private Product randomProduct(SplittableRandom random) {
+        List<Product> catalog = database.getCatalog();
+        return catalog.get(random.nextInt(catalog.size()));
+    }
+
+    /**
+     * Runs a simulation with the options given on the command line and prints its report.
+     *
+     * @param args the options described in the class documentation.
+     * @throws InterruptedException if the simulation is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int shoppers = 1000;
+        long seconds = 30;
+        long thinkMillis = 50;
+        long seed = DatasetGenerator.DEFAULT_SEED;
+        Map<Operation, Integer> mix = defaultMix();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--shoppers=")) {
+                shoppers = Integer.parseInt(value);
+            } else if (arg.startsWith("--seconds=")) {
+                seconds = Long.parseLong(value);
+            } else if (arg.startsWith("--think-millis=")) {
+                thinkMillis = Long.parseLong(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            } else if (arg.startsWith("--mix=")) {
+                mix = new EnumMap<>(Operation.class);
+                for (String weight : value.split(",")) {
+                    String[] parts = weight.split(":");
+                    mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+        }
+
+        Report report = new WorkloadSimulator(Database.getInstance(), shoppers, seconds * 1000, thinkMillis, mix, seed).run();
+        System.out.printf("%d shoppers for %.1f s%n", shoppers, report.elapsedNanos() / 1e9);
+        System.out.print(report.format());
+    }
+}
@@ -0,0 +1,31 @@
+package api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+public class BuyerSketchesReaderTest {
+
+    String correctSketchesFilename = "test/api/TestTextFiles/correctBuyerSketches.txt";
+    String truncatedSketchesFilename = "test/api/TestTextFiles/truncatedBuyerSketches.txt";
+
+    @Test
+    public void getSketchesCorrect() {
+        BuyerSketchesReader reader = new BuyerSketchesReader(correctSketchesFilename);
+        assertTrue(reader.isComplete());
+        assertEquals(2, reader.getSketches().size());
+    }
+
+    @Test
+    public void truncatedFileIsIncomplete() {
+        BuyerSketchesReader reader = new BuyerSketchesReader(truncatedSketchesFilename);
+        assertTrue(reader.fileFound());
+        assertFalse(reader.isComplete());
+    }
+
+    @Test
+    public void missingFileIsIncomplete() {
+        BuyerSketchesReader reader = new BuyerSketchesReader("test/api/TestTextFiles/missingBuyerSketches.txt");
+        assertFalse(reader.fileFound());
+        assertFalse(reader.isComplete());
+    }
+}
@@ -0,0 +1,88 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+public class CartHoldsTest {
+
+    private static final long MINUTE = 60 * 1000L;
+
+    @Test
+    public void holdTakesStockUntilExpiry() {
+        CartHolds holds = new CartHolds(10 * MINUTE, 1000, 0);
+        Product product = new Product("Φέτα 400g","Φέτα ΠΟΠ.","Τρόφιμα","Τυριά",5.2,10,"τεμάχια");
+        assertTrue(holds.hold("Sakis", product, 4, 0));
+        assertEquals(6, product.getProductQuantity());
+        assertFalse(holds.hold("Maria", product, 7, 0));
+        assertEquals(0, holds.advance(9 * MINUTE));
+        assertEquals(6, product.getProductQuantity());
+        assertEquals(1, holds.advance(10 * MINUTE));
+        assertEquals(10, product.getProductQuantity());
+        assertEquals(0, holds.heldQuantity("Sakis", "Φέτα 400g"));
+    }
+
+    @Test
+    public void holdReplacesPreviousHold() {
+        CartHolds holds = new CartHolds(10 * MINUTE, 1000, 0);
+        Product product = new Product("Φέτα 400g","Φέτα ΠΟΠ.","Τρόφιμα","Τυριά",5.2,10,"τεμάχια");
+        assertTrue(holds.hold("Sakis", product, 4, 0));
+        assertTrue(holds.hold("Sakis", product, 9, 5 * MINUTE));
+        assertEquals(1, product.getProductQuantity());
+        assertFalse(holds.hold("Sakis", product, 11, 5 * MINUTE));
+        assertTrue(holds.hold("Sakis", product, 2, 5 * MINUTE));
+        assertEquals(8, product.getProductQuantity());
+        assertEquals(1, holds.size());
+        assertEquals(0, holds.advance(14 * MINUTE));
+        assertEquals(1, holds.advance(15 * MINUTE));
+        assertEquals(10, product.getProductQuantity());
+    }
+
+    @Test
+    public void takenHoldKeepsStock() {
+        CartHolds holds = new CartHolds(10 * MINUTE, 1000, 0);
+        Product product = new Product("Φέτα 400g","Φέτα ΠΟΠ.","Τρόφιμα","Τυριά",5.2,10,"τεμάχια");
+        holds.hold("Sakis", product, 3, 0);
+        assertFalse(holds.take("Sakis", "Φέτα 400g", 2));
+        assertTrue(holds.take("Sakis", "Φέτα 400g", 3));
+        assertEquals(0, holds.advance(60 * MINUTE));
+        assertEquals(7, product.getProductQuantity());
+
+        holds.restore("Sakis", product, 3, 60 * MINUTE);
+        assertEquals(3, holds.release("Sakis", "Φέτα 400g"));
+        assertEquals(10, product.getProductQuantity());
+    }
+
+    @Test
+    public void stockWithHoldsCountsHeldQuantities() {
+        CartHolds holds = new CartHolds(10 * MINUTE, 1000, 0);
+        Product feta = new Product("Φέτα 400g","Φέτα ΠΟΠ.","Τρόφιμα","Τυριά",5.2,10,"τεμάχια");
+        Product milk = new Product("Γάλα 1L","Φρέσκο γάλα.","Τρόφιμα","Γαλακτοκομικά",1.5,6,"τεμάχια");
+        holds.hold("Sakis", feta, 3, 0);
+        holds.hold("Maria", feta, 2, 0);
+        assertArrayEquals(new int[]{10, 6}, holds.stockWithHolds(List.of(feta, milk)));
+        assertEquals(5, feta.getProductQuantity());
+        assertEquals(2, holds.size());
+    }
+
+    @Test
+    public void renameMovesHold() {
+        CartHolds holds = new CartHolds(10 * MINUTE, 1000, 0);
+        Product product = new Product("Φέτα 400g","Φέτα ΠΟΠ.","Τρόφιμα","Τυριά",5.2,10,"τεμάχια");
+        holds.hold("Sakis", product, 3, 0);
+        holds.rename("Sakis", "Φέτα 400g", "Φέτα ΠΟΠ 400g");
+        assertEquals(0, holds.heldQuantity("Sakis", "Φέτα 400g"));
+        assertEquals(3, holds.heldQuantity("Sakis", "Φέτα ΠΟΠ 400g"));
+        assertEquals(7, product.getProductQuantity());
+        assertTrue(holds.take("Sakis", "Φέτα ΠΟΠ 400g", 3));
+
+        holds.hold("Maria", product, 2, 0);
+        assertEquals(1, holds.advance(10 * MINUTE));
+        assertEquals(7, product.getProductQuantity());
+        holds.hold("Maria", product, 2, 10 * MINUTE);
+        holds.rename("Maria", "Φέτα 400g", "Φέτα ΠΟΠ 400g");
+        assertEquals(1, holds.advance(20 * MINUTE));
+        assertEquals(7, product.getProductQuantity());
+    }
+}
@@ -0,0 +1,139 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+public class CatalogSnapshotTest {
+
+    private static ArrayList<Product> products(int count) {
+        ArrayList<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("Προϊόν " + i, "Περιγραφή", "Σνακ", "Κράκερς", 1.0 + i, 10, "τεμάχια"));
+        }
+        return products;
+    }
+
+    @Test
+    public void editSharesUnchangedChunks() {
+        ArrayList<Product> products = products(100);
+        CatalogSnapshot first = CatalogSnapshot.of(products);
+        assertEquals(1, first.getVersion());
+        assertEquals(products, first);
+
+        Product revised = products.get(40).revise(new Product("Προϊόν 40 νέο", "Περιγραφή", "Σνακ", "Κράκερς", 2.0, 10, "τεμάχια"));
+        CatalogSnapshot.Editor editor = first.edit();
+        assertTrue(editor.replace(products.get(40), revised));
+        CatalogSnapshot second = editor.publish();
+
+        assertEquals(2, second.getVersion());
+        assertSame(products.get(40), first.get(40));
+        assertSame(revised, second.get(40));
+        assertSame(first.chunk(0), second.chunk(0));
+        assertNotSame(first.chunk(1), second.chunk(1));
+        assertSame(first.chunk(2), second.chunk(2));
+        assertSame(first.chunk(3), second.chunk(3));
+    }
+
+    @Test
+    public void batchPublishesOneVersion() {
+        ArrayList<Product> products = products(40);
+        CatalogSnapshot first = CatalogSnapshot.of(products);
+        CatalogSnapshot.Editor editor = first.edit();
+        Product extra = new Product("Νέο", "Περιγραφή", "Σνακ", "Κράκερς", 3.0, 10, "τεμάχια");
+        editor.add(extra);
+        assertTrue(editor.remove(products.get(0)));
+        assertFalse(editor.remove(products.get(0)));
+        assertSame(products.get(5), editor.find("Προϊόν 5"));
+        CatalogSnapshot second = editor.publish();
+
+        assertEquals(2, second.getVersion());
+        assertEquals(40, first.size());
+        assertEquals(40, second.size());
+        assertSame(products.get(1), second.get(0));
+        assertSame(extra, second.get(39));
+        assertEquals(2, editor.getChanges().size());
+        assertThrows(IllegalStateException.class, () -> editor.add(extra));
+    }
+
+    @Test
+    public void removeCopiesOnlyItsChunk() {
+        ArrayList<Product> products = products(100);
+        CatalogSnapshot first = CatalogSnapshot.of(products);
+        CatalogSnapshot.Editor editor = first.edit();
+        assertTrue(editor.remove(products.get(5)));
+        CatalogSnapshot second = editor.publish();
+
+        assertEquals(99, second.size());
+        assertNotSame(first.chunk(0), second.chunk(0));
+        assertSame(first.chunk(1), second.chunk(1));
+        assertSame(first.chunk(3), second.chunk(3));
+        assertSame(products.get(6), second.get(5));
+        assertSame(products.get(32), second.get(31));
+        assertSame(products.get(99), second.get(98));
+        ArrayList<Product> expected = new ArrayList<>(products);
+        expected.remove(5);
+        assertEquals(expected, new ArrayList<>(second));
+    }
+
+    @Test
+    public void indexesAreVersionedWithTheSnapshot() {
+        ArrayList<Product> products = products(40);
+        CatalogSnapshot first = CatalogSnapshot.of(products);
+        Product revised = products.get(3).revise(new Product("Προϊόν 3 νέο", "Περιγραφή", "Ζυμαρικά", "Βρώμη", 2.0, 10, "τεμάχια"));
+        CatalogSnapshot.Editor editor = first.edit();
+        editor.replace(products.get(3), revised);
+        CatalogSnapshot second = editor.publish();
+
+        assertSame(products.get(3), first.find("Προϊόν 3"));
+        assertNull(second.find("Προϊόν 3"));
+        assertSame(revised, second.find("Προϊόν 3 νέο"));
+        assertTrue(first.getFacetIndex().matching(FacetIndex.CATEGORY, "Ζυμαρικά").isEmpty());
+        assertEquals(List.of(revised), second.getFacetIndex().toProducts(second.getFacetIndex().matching(FacetIndex.CATEGORY, "Ζυμαρικά")));
+    }
+
+    @Test
+    public void revisedProductSharesStock() {
+        Product product = new Product("Φέτα 400g","Φέτα ΠΟΠ.","Τρόφιμα","Τυριά",5.2,10,"τεμάχια");
+        Product revised = product.revise(new Product("Φέτα 400g","Φέτα ΠΟΠ Ηπείρου.","Τρόφιμα","Τυριά",5.5,12,"τεμάχια"));
+        assertEquals("Φέτα ΠΟΠ.", product.getProductDescription());
+        assertEquals(5.5, revised.getProductPrice(), 0.001);
+        assertEquals(10, revised.getProductQuantity());
+        assertTrue(product.tryReserve(2));
+        assertEquals(8, revised.getProductQuantity());
+    }
+
+    @Test
+    public void databaseUpdatePublishesNewVersion() {
+        Database database = Database.getInstance();
+        Product product = new Product("Κράκερς Ολικής 200g","Κράκερς.","Σνακ","Κράκερς",1.9,20,"τεμάχια");
+        database.addNewProduct(product);
+        CatalogSnapshot before = database.getCatalog();
+        Product revised = database.updateProduct(product, new Product("Κράκερς Ολικής με Σουσάμι 200g","Κράκερς.","Σνακ","Κράκερς",2.1,20,"τεμάχια"));
+        CatalogSnapshot after = database.getCatalog();
+
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertTrue(before.contains(product));
+        assertFalse(after.contains(product));
+        assertTrue(after.contains(revised));
+        assertSame(revised, database.getSpecificProduct(revised));
+        assertFalse(database.productExists(product));
+        assertTrue(database.getAllProductsByCategory("Σνακ").contains(revised));
+    }
+
+    @Test
+    public void databaseUpdateOfStaleVersionFails() {
+        Database database = Database.getInstance();
+        Product product = new Product("Κριτσίνια Ολικής 200g","Κριτσίνια.","Σνακ","Κράκερς",1.4,20,"τεμάχια");
+        database.addNewProduct(product);
+        Product revised = database.updateProduct(product, new Product("Κριτσίνια Ολικής 200g","Κριτσίνια.","Σνακ","Κράκερς",1.5,15,"τεμάχια"));
+        CatalogSnapshot before = database.getCatalog();
+
+        assertNull(database.updateProduct(product, new Product("Κριτσίνια Ολικής 200g","Κριτσίνια.","Σνακ","Κράκερς",1.6,30,"τεμάχια")));
+        assertSame(before, database.getCatalog());
+        assertEquals(15, revised.getProductQuantity());
+        assertEquals(1.5, database.getCatalog().find("Κριτσίνια Ολικής 200g").getProductPrice(), 0.001);
+    }
+}
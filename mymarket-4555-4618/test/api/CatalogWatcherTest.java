@@ -0,0 +1,141 @@
+package api;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+public class CatalogWatcherTest {
+
+    private static final String NEW_TITLE = "Κράκερς Επαναφόρτωσης 100g";
+
+    private static void write(File file, List<Product> products) throws IOException {
+        try (FileWriter writer = new FileWriter(file, false)) {
+            for (Product product : products) {
+                writer.write("Τίτλος: " + product.getProductTitle() + "\n");
+                writer.write("Περιγραφή: " + product.getProductDescription() + "\n");
+                writer.write("Κατηγορία: " + product.getProductCategory() + "\n");
+                writer.write("Υποκατηγορία: " + product.getProductSubCategory() + "\n");
+                writer.write("Τιμή: " + product.getProductPrice() + "€\n");
+                if (product.getProductMeasurementUnit().equals("kg")) {
+                    writer.write("Ποσότητα: " + product.getProductQuantity() + "kg\n\n");
+                } else {
+                    writer.write("Ποσότητα: " + product.getProductQuantity() + " τεμάχια\n\n");
+                }
+            }
+        }
+    }
+
+    private static Product withPrice(Product product, double price) {
+        return new Product(product.getProductTitle(), product.getProductDescription(), product.getProductCategory(),
+                product.getProductSubCategory(), price, product.getProductQuantity(), product.getProductMeasurementUnit());
+    }
+
+    @Test
+    public void reloadAppliesOnlyTheDifferences() throws IOException {
+        Database database = Database.getInstance();
+        File file = File.createTempFile("products", ".txt");
+        file.deleteOnExit();
+        ArrayList<Product> products = new ArrayList<>(database.getCatalog());
+        write(file, products);
+        CatalogWatcher watcher = new CatalogWatcher(database, file.toPath(), CatalogWatcher.DEFAULT_QUIET_MILLIS);
+
+        long version = database.getCatalog().getVersion();
+        assertEquals(new CatalogWatcher.Reload(0, 0, 0), watcher.reload());
+        assertEquals(version, database.getCatalog().getVersion());
+
+        Product original = products.get(3);
+        ArrayList<Product> edited = new ArrayList<>(products);
+        edited.set(3, withPrice(original, original.getProductPrice() + 1));
+        edited.add(new Product(NEW_TITLE, "Κράκερς.", "Σνακ", "Κράκερς", 1.5, 30, "τεμάχια"));
+        write(file, edited);
+        assertEquals(new CatalogWatcher.Reload(1, 1, 0), watcher.reload());
+        assertEquals(version + 1, database.getCatalog().getVersion());
+        assertEquals(original.getProductPrice() + 1, database.getSpecificProduct(original).getProductPrice(), 0);
+        assertEquals(1, database.getFacetIndex().toProducts(database.getFacetIndex().all()).stream()
+                .filter(product -> product.getProductTitle().equals(NEW_TITLE)).count());
+
+        write(file, products);
+        assertEquals(new CatalogWatcher.Reload(0, 1, 1), watcher.reload());
+        assertEquals(original.getProductPrice(), database.getSpecificProduct(original).getProductPrice(), 0);
+        assertFalse(database.productExists(new Product(NEW_TITLE, "", "", "", 0, 0, "τεμάχια")));
+        assertEquals(products.size(), database.getCatalog().size());
+    }
+
+    @Test
+    public void cartsFollowTheCatalog() throws IOException {
+        Database database = Database.getInstance();
+        Customer customer = new Customer("catalogWatcherTester", "password", "Catalog", "Watcher");
+        database.addCustomer(customer.getUsername(), customer);
+        File file = File.createTempFile("products", ".txt");
+        file.deleteOnExit();
+        ArrayList<Product> products = new ArrayList<>(database.getCatalog());
+        write(file, products);
+        CatalogWatcher watcher = new CatalogWatcher(database, file.toPath(), CatalogWatcher.DEFAULT_QUIET_MILLIS);
+
+        Product original = products.get(5);
+        assertTrue(customer.addProductToCart(original, 1));
+        ArrayList<Product> edited = new ArrayList<>(products);
+        edited.set(5, withPrice(original, original.getProductPrice() + 2));
+        write(file, edited);
+        watcher.reload();
+        database.getEventBus().awaitSubscribers(5000);
+        assertEquals(original.getProductPrice() + 2, customer.getCart().get(0).getProductPrice(), 0);
+        assertEquals(Math.round((original.getProductPrice() + 2) * 100.0) / 100.0, customer.getTotalCartCost(), 0);
+
+        write(file, products);
+        watcher.reload();
+        database.getEventBus().awaitSubscribers(5000);
+        assertEquals(original.getProductPrice(), customer.getCart().get(0).getProductPrice(), 0);
+        customer.clearCart();
+    }
+
+    @Test
+    public void watchesOnlyTheChangesOfOtherPrograms() throws Exception {
+        Database database = Database.getInstance();
+        File file = File.createTempFile("products", ".txt");
+        file.deleteOnExit();
+        ArrayList<Product> products = new ArrayList<>(database.getCatalog());
+        write(file, products);
+        CatalogWatcher watcher = new CatalogWatcher(database, file.toPath(), 50);
+        Product own = products.get(7);
+        Product other = products.get(8);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        EventBus.Subscription subscription = database.getEventBus().subscribe("catalogWatcherTest", events -> {
+            for (DomainEvent event : events) {
+                if (event instanceof DomainEvent.ProductUpdated updated && updated.product() == other) {
+                    reloaded.countDown();
+                }
+            }
+        });
+        watcher.start();
+        try {
+            ArrayList<Product> edited = new ArrayList<>(products);
+            edited.set(7, withPrice(own, own.getProductPrice() + 3));
+            watcher.writeCatalog(() -> {
+                try {
+                    write(file, edited);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            edited.set(8, withPrice(other, other.getProductPrice() + 3));
+            write(file, edited);
+
+            assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+            assertEquals(other.getProductPrice() + 3, database.getSpecificProduct(other).getProductPrice(), 0);
+            assertSame(own, database.getSpecificProduct(own));
+        } finally {
+            subscription.cancel();
+            watcher.stop();
+            write(file, products);
+            watcher.reload();
+        }
+    }
+}
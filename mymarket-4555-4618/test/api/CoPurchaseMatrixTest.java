@@ -0,0 +1,73 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+public class CoPurchaseMatrixTest {
+
+    @Test
+    public void recordOrder() {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(CoPurchaseMatrix.DEFAULT_MAX_NEIGHBOURS);
+        matrix.recordOrder(Arrays.asList("Γάλα", "Ψωμί", "Βούτυρο"));
+        matrix.recordOrder(Arrays.asList("Γάλα", "Βούτυρο"));
+        matrix.recordOrder(Arrays.asList("Γάλα", "Βούτυρο", "Βούτυρο"));
+        assertEquals(3, matrix.getCount("Γάλα", "Βούτυρο"));
+        assertEquals(1, matrix.getCount("Ψωμί", "Γάλα"));
+        assertEquals(0, matrix.getCount("Γάλα", "Γάλα"));
+        assertEquals(Arrays.asList("Βούτυρο", "Ψωμί"), matrix.topNeighbours("Γάλα", 5));
+        assertEquals(List.of("Βούτυρο"), matrix.topNeighbours("Γάλα", 1));
+        assertTrue(matrix.topNeighbours("Μέλι", 5).isEmpty());
+
+        matrix.recordOrder(List.of("Αυγά"));
+        assertTrue(matrix.topNeighbours("Αυγά", 5).isEmpty());
+        assertEquals(0, matrix.getCount("Αυγά", "Γάλα"));
+        matrix.recordOrder(Arrays.asList("Αυγά", "Γάλα"));
+        assertEquals(1, matrix.getCount("Αυγά", "Γάλα"));
+        assertEquals(Arrays.asList("Βούτυρο", "Ψωμί", "Αυγά"), matrix.topNeighbours("Γάλα", 5));
+    }
+
+    @Test
+    public void build() {
+        Customer firstCustomer = new Customer("matrixTestUser1", "1234", "First", "Customer");
+        Customer secondCustomer = new Customer("matrixTestUser2", "1234", "Second", "Customer");
+        ArrayList<Order> firstHistory = new ArrayList<>();
+        firstHistory.add(new Order("Ολοκληρωμένη", "04/12/2024 00:19:01", new ArrayList<>(Arrays.asList("Γάλα", "Ψωμί")), "3,0€"));
+        ArrayList<Order> secondHistory = new ArrayList<>();
+        secondHistory.add(new Order("Ολοκληρωμένη", "04/12/2024 00:19:50", new ArrayList<>(Arrays.asList("Ψωμί", "Γάλα", "Μέλι")), "9,0€"));
+        firstCustomer.setCustomerOrderHistory(firstHistory);
+        secondCustomer.setCustomerOrderHistory(secondHistory);
+
+        CoPurchaseMatrix matrix = CoPurchaseMatrix.build(Arrays.asList(firstCustomer, secondCustomer), CoPurchaseMatrix.DEFAULT_MAX_NEIGHBOURS);
+        assertEquals(2, matrix.getCount("Γάλα", "Ψωμί"));
+        assertEquals(1, matrix.getCount("Μέλι", "Ψωμί"));
+        assertEquals("Ψωμί", matrix.topNeighbours("Γάλα", 1).getFirst());
+    }
+
+    @Test
+    public void pruneLowCounts() {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(4);
+        for (int i = 0; i < 3; i++) {
+            matrix.recordOrder(Arrays.asList("Γάλα", "Βούτυρο"));
+        }
+        for (int i = 0; i < 10; i++) {
+            matrix.recordOrder(Arrays.asList("Γάλα", "Προϊόν " + i));
+        }
+        assertTrue(matrix.topNeighbours("Γάλα", 100).size() <= 4);
+        assertEquals("Βούτυρο", matrix.topNeighbours("Γάλα", 1).getFirst());
+    }
+
+    @Test
+    public void pruneTiedCounts() {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(4);
+        for (int i = 0; i < 5; i++) {
+            matrix.recordOrder(Arrays.asList("Γάλα", "Προϊόν " + i));
+        }
+        assertEquals(Arrays.asList("Προϊόν 0", "Προϊόν 1"), matrix.topNeighbours("Γάλα", 100));
+        matrix.recordOrder(Arrays.asList("Γάλα", "Προϊόν 5"));
+        assertEquals(3, matrix.topNeighbours("Γάλα", 100).size());
+    }
+}
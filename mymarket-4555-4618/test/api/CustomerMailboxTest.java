@@ -0,0 +1,49 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+public class CustomerMailboxTest {
+
+    private int counter;
+
+    @Test
+    public void commandsNeverInterleave() throws Exception {
+        CustomerMailbox mailbox = new CustomerMailbox();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    mailbox.execute(() -> counter++);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(80000, (int) mailbox.call(() -> counter));
+    }
+
+    @Test
+    public void nestedCommandsRunImmediately() {
+        CustomerMailbox mailbox = new CustomerMailbox();
+        int result = mailbox.call(() -> mailbox.call(() -> 20) + 22);
+        assertEquals(42, result);
+    }
+
+    @Test
+    public void exceptionsReachTheSender() {
+        CustomerMailbox mailbox = new CustomerMailbox();
+        assertThrows(IllegalStateException.class, () -> mailbox.execute(() -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals("still working", mailbox.call(() -> "still working"));
+    }
+}
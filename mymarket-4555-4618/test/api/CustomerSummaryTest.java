@@ -0,0 +1,54 @@
+package api;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+public class CustomerSummaryTest {
+
+    @Test
+    public void summaryOfOrders() {
+        HashMap<String, String> categories = new HashMap<>();
+        categories.put("Πορτοκάλια 1kg", "Φρέσκα τρόφιμα");
+        categories.put("Καρότα 1kg", "Φρέσκα τρόφιμα");
+        categories.put("Ούζο Πλωμαρίου 200ml", "Αλκοολούχα ποτά");
+
+        ArrayList<Order> orders = new ArrayList<>();
+        orders.add(new Order("Ολοκληρωμένη", "05/12/2024 10:00:00", new ArrayList<>(Arrays.asList("Πορτοκάλια 1kg", "Καρότα 1kg")), "9,0€"));
+        orders.add(new Order("Ολοκληρωμένη", "04/12/2024 00:19:50", new ArrayList<>(Arrays.asList("Ούζο Πλωμαρίου 200ml", "Καρότα 1kg", "Πορτοκάλια 1kg")), "12,5€"));
+
+        CustomerSummary summary = CustomerSummary.of(orders, categories::get);
+        assertEquals(2, summary.getOrderCount());
+        assertEquals(21.5, summary.getTotalSpend(), 0.001);
+        assertEquals(3, summary.getMaxBasket());
+        assertEquals(2.5, summary.getAverageBasket(), 0.001);
+        assertEquals(LocalDateTime.of(2024, 12, 4, 0, 19, 50), summary.getFirstOrderDate());
+        assertEquals(LocalDateTime.of(2024, 12, 5, 10, 0, 0), summary.getLastOrderDate());
+        assertEquals("Φρέσκα τρόφιμα", summary.getFavouriteCategory());
+    }
+
+    @Test
+    public void emptySummary() {
+        CustomerSummary summary = CustomerSummary.of(new ArrayList<>(), title -> null);
+        assertEquals(0, summary.getOrderCount());
+        assertEquals(0, summary.getAverageBasket(), 0.001);
+        assertNull(summary.getFirstOrderDate());
+        assertNull(summary.getFavouriteCategory());
+    }
+
+    @Test
+    public void metricComparator() {
+        CustomerSummary small = CustomerSummary.of(new ArrayList<>(), title -> null);
+        ArrayList<Order> orders = new ArrayList<>();
+        orders.add(new Order("Ολοκληρωμένη", "05/12/2024 10:00:00", new ArrayList<>(Arrays.asList("Πορτοκάλια 1kg")), "1,2€"));
+        CustomerSummary large = CustomerSummary.of(orders, title -> null);
+        assertTrue(CustomerSummary.Metric.TOTAL_SPEND.comparator().compare(large, small) < 0);
+        assertTrue(CustomerSummary.Metric.LAST_ORDER.comparator().compare(large, small) < 0);
+        assertEquals(1.2, CustomerSummary.Metric.TOTAL_SPEND.valueOf(large), 0.001);
+        assertTrue(CustomerSummary.Metric.FIRST_ORDER.valueOf(large) > CustomerSummary.Metric.FIRST_ORDER.valueOf(small));
+    }
+}
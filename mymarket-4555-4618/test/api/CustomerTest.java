@@ -2,6 +2,10 @@ package api;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 import static org.junit.Assert.*;
 public class CustomerTest {
 
@@ -43,16 +47,63 @@ public class CustomerTest {
         assertEquals(0,productInCart.getProductQuantity());
     }
 
+    @Test
+    public void cartListenersReceiveEveryChange() {
+        Customer customer = new Customer("Sakis","sakis123","Athanasios","Giarlopoylos");
+        ArrayList<CartChange> changes = new ArrayList<>();
+        Consumer<CartChange> listener = changes::add;
+        customer.addCartListener(listener);
+        Product productToAdd = new Product("Τσίπουρο Χωρίς Γλυκάνισο 200ml","Αυθεντικό τσίπουρο χωρίς γλυκάνισο.","Αλκοολούχα ποτά","Τσίπουρο",6.5,97,"τεμάχια");
+        customer.addProductToCart(productToAdd,2);
+        Product productInCart = customer.getCart().getFirst();
+        customer.adjustProductQuantityInCart(productInCart,3);
+        customer.removeProductFromCart(productInCart);
+        customer.clearCart();
+
+        assertEquals(List.of(new CartChange.LineAdded(productInCart, 13),
+                new CartChange.LineUpdated(productInCart, 19.5),
+                new CartChange.LineRemoved(productInCart, 0),
+                new CartChange.Reset(0)), changes);
+
+        customer.removeCartListener(listener);
+        customer.addProductToCart(productToAdd,1);
+        assertEquals(4, changes.size());
+        customer.clearCart();
+    }
+
     @Test
     public void completeOrder() {
         Customer customer = new Customer("Sakis","sakis123","Athanasios","Giarlopoylos");
         Product productToAdd = new Product("Τσίπουρο Χωρίς Γλυκάνισο 200ml","Αυθεντικό τσίπουρο χωρίς γλυκάνισο.","Αλκοολούχα ποτά","Τσίπουρο",6.5,97,"τεμάχια");
         customer.addProductToCart(productToAdd,2);
         assertEquals(1,customer.getCart().size());
+        OrderIndex orderIndex = customer.getOrderIndex();
         customer.completeOrder();
         assertEquals(0,customer.getCart().size());
         assertEquals(0,customer.getTotalCartCost(),0.001);
         assertEquals(1,customer.getCustomerOrderHistory().size());
+        assertEquals(customer.getCustomerOrderHistory(), orderIndex.find(null, null, "Τσίπουρο"));
+    }
+
+    @Test
+    public void completeOrderWithoutEnoughStock() {
+        Database database = Database.getInstance();
+        Product product1 = new Product("Κρασί Λευκό 750ml","Ξηρό λευκό κρασί.","Αλκοολούχα ποτά","Κρασί",8.0,5,"τεμάχια");
+        Product product2 = new Product("Κρασί Ερυθρό 750ml","Ξηρό ερυθρό κρασί.","Αλκοολούχα ποτά","Κρασί",9.0,5,"τεμάχια");
+        database.addNewProduct(product1);
+        database.addNewProduct(product2);
+        Customer customer = new Customer("Sakis","sakis123","Athanasios","Giarlopoylos");
+        customer.addProductToCart(product1,3);
+        customer.addProductToCart(product2,3);
+        product2.setProductQuantity(2);
+        CheckoutResult result = customer.completeOrder();
+        assertFalse(result.completed());
+        assertEquals(1,result.failedLines().size());
+        assertEquals("Κρασί Ερυθρό 750ml",result.failedLines().getFirst().getProductTitle());
+        assertEquals(5,product1.getProductQuantity());
+        assertEquals(2,product2.getProductQuantity());
+        assertEquals(2,customer.getCart().size());
+        assertEquals(0,customer.getCustomerOrderHistory().size());
     }
 
 
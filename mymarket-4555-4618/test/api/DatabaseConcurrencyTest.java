@@ -0,0 +1,121 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class DatabaseConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void addNewProductWhileReading() throws Exception {
+        Database database = Database.getInstance();
+        int initialAllProductsSize = database.getAllProducts().size();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    database.addNewProduct(new Product("Concurrent " + thread + "-" + i, "Περιγραφή", "Concurrent", "Concurrent sub", 1.5, 10, "τεμάχια"));
+                    for (Product product : database.getAllProducts()) {
+                        product.getProductTitle();
+                    }
+                    database.getAllProductsByCategory("Concurrent");
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(initialAllProductsSize + THREADS * 50, database.getAllProducts().size());
+        assertEquals(THREADS * 50, database.getAllProductsByCategory("Concurrent").size());
+    }
+
+    @Test
+    public void completeOrderFromManyCustomers() throws Exception {
+        Database database = Database.getInstance();
+        Product hotProduct = new Product("Concurrent hot product", "Περιγραφή", "Concurrent hot", "Concurrent hot sub", 2.0, 10000, "τεμάχια");
+        database.addNewProduct(hotProduct);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Customer customer = new Customer("concurrent" + t, "1234", "Όνομα", "Επώνυμο");
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    assertTrue(customer.addProductToCart(hotProduct, 3));
+                    customer.completeOrder();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(10000 - THREADS * 100 * 3, hotProduct.getProductQuantity());
+    }
+
+    @Test
+    public void checkoutNeverOversells() throws Exception {
+        Database database = Database.getInstance();
+        Product hotProduct = new Product("Concurrent scarce product", "Περιγραφή", "Concurrent scarce", "Concurrent scarce sub", 2.0, 101, "τεμάχια");
+        database.addNewProduct(hotProduct);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ArrayList<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Customer customer = new Customer("concurrentScarce" + t, "1234", "Όνομα", "Επώνυμο");
+            futures.add(executor.submit(() -> {
+                int completed = 0;
+                for (int i = 0; i < 20; i++) {
+                    if (customer.addProductToCart(hotProduct, 2) && customer.completeOrder().completed()) {
+                        completed++;
+                    }
+                    customer.clearCart();
+                }
+                return completed;
+            }));
+        }
+        int completed = 0;
+        for (Future<Integer> future : futures) {
+            completed += future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(50, completed);
+        assertEquals(1, hotProduct.getProductQuantity());
+    }
+
+    @Test
+    public void addProductToCartFromManyThreads() throws Exception {
+        Database database = Database.getInstance();
+        for (int i = 0; i < 100; i++) {
+            database.addNewProduct(new Product("Concurrent cart " + i, "Περιγραφή", "Concurrent cart", "Concurrent cart sub", 1.0, 5, "τεμάχια"));
+        }
+        Customer customer = new Customer("concurrentCart", "1234", "Όνομα", "Επώνυμο");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (Product product : database.getAllProductsByCategory("Concurrent cart")) {
+                    customer.addProductToCart(product, 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(100, customer.getCart().size());
+        assertEquals(100.0, customer.getTotalCartCost(), 0.001);
+    }
+}
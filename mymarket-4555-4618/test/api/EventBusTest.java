@@ -0,0 +1,113 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+public class EventBusTest {
+
+    @Test
+    public void subscribersReceiveEveryEventInOrder() throws Exception {
+        EventBus eventBus = new EventBus(64);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        EventBus.Subscription subscription = eventBus.subscribe("test", events -> {
+            for (DomainEvent event : events) {
+                received.add(((DomainEvent.StockChanged) event).productTitle());
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    eventBus.publish(new DomainEvent.StockChanged(thread + ":" + i, i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(eventBus.awaitSubscribers(10000));
+        assertEquals(20000, received.size());
+        int[] lastOfThread = {-1, -1, -1, -1};
+        for (String title : received) {
+            String[] parts = title.split(":");
+            int thread = Integer.parseInt(parts[0]);
+            int i = Integer.parseInt(parts[1]);
+            assertEquals(lastOfThread[thread] + 1, i);
+            lastOfThread[thread] = i;
+        }
+        assertEquals(20000, eventBus.getPublishedCount());
+        assertEquals(20000, subscription.getProcessedCount());
+        assertEquals(0, subscription.getLag());
+        assertTrue(subscription.getAverageBatchSize() >= 1);
+        assertTrue(eventBus.getAveragePublishNanos() > 0);
+        subscription.cancel();
+    }
+
+    @Test
+    public void cancelledSubscriberDoesNotBlockPublishers() {
+        EventBus eventBus = new EventBus(8);
+        EventBus.Subscription subscription = eventBus.subscribe("cancelled", events -> { });
+        subscription.cancel();
+        for (int i = 0; i < 100; i++) {
+            eventBus.publish(new DomainEvent.StockChanged("Γάλα 1lt", i));
+        }
+        assertEquals(100, eventBus.getPublishedCount());
+        assertTrue(eventBus.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    public void parkedSubscriberWakesUpAndClearsHandledSlots() {
+        EventBus eventBus = new EventBus(8);
+        List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+        EventBus.Subscription subscription = eventBus.subscribe("parked", received::addAll);
+        Thread thread = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("event-bus-parked")).findFirst().orElseThrow();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (thread.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+
+        for (int i = 0; i < 3; i++) {
+            eventBus.publish(new DomainEvent.StockChanged("Γάλα 1lt", i));
+        }
+        assertTrue(eventBus.awaitSubscribers(10000));
+        assertEquals(3, received.size());
+        while (eventBus.slot(2) != null && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        for (long sequence = 0; sequence < 3; sequence++) {
+            assertNull(eventBus.slot(sequence));
+        }
+        subscription.cancel();
+    }
+
+    @Test
+    public void completedOrderReachesAnalytics() {
+        Database database = Database.getInstance();
+        Product first = new Product("Μέλι Θυμαρίσιο 450g","Μέλι.","Πρωινό","Μέλι",7.5,50,"τεμάχια");
+        Product second = new Product("Ταχίνι 300g","Ταχίνι.","Πρωινό","Ταχίνι",3.2,50,"τεμάχια");
+        database.addNewProduct(first);
+        database.addNewProduct(second);
+        Customer customer = new Customer("eventBusBuyer","1234","Όνομα","Επώνυμο");
+        customer.addProductToCart(first,1);
+        customer.addProductToCart(second,1);
+        assertTrue(customer.completeOrder().completed());
+
+        assertTrue(database.getEventBus().awaitSubscribers(10000));
+        assertEquals(1, database.getCoPurchaseMatrix().getCount("Μέλι Θυμαρίσιο 450g", "Ταχίνι 300g"));
+        assertEquals(1, database.getDistinctBuyersIndex().distinctBuyersOfProduct("Ταχίνι 300g"));
+        assertTrue(database.getTrendingProducts().getScore("Μέλι Θυμαρίσιο 450g", System.currentTimeMillis()) > 0);
+    }
+}
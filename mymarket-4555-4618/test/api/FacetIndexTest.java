@@ -0,0 +1,75 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+public class FacetIndexTest {
+
+    private final Product oranges = new Product("Πορτοκάλια 1kg","Φρέσκα πορτοκάλια.","Φρέσκα τρόφιμα","Φρούτα",1.2,50,"kg");
+    private final Product carrots = new Product("Καρότα 1kg","Φρέσκα καρότα.","Φρέσκα τρόφιμα","Λαχανικά",0.8,40,"kg");
+    private final Product apples = new Product("Μήλα 1kg","Φρέσκα μήλα.","Φρέσκα τρόφιμα","Φρούτα",1.8,30,"kg");
+    private final Product ouzo = new Product("Ούζο Πλωμαρίου 200ml","Παραδοσιακό ούζο.","Αλκοολούχα ποτά","Ούζο",4.5,20,"τεμάχια");
+
+    @Test
+    public void matching() {
+        FacetIndex index = new FacetIndex(Arrays.asList(oranges, carrots, apples, ouzo));
+        assertEquals(Arrays.asList(oranges, carrots, apples), index.toProducts(index.matching(FacetIndex.CATEGORY, "Φρέσκα τρόφιμα")));
+        assertEquals(List.of(ouzo), index.toProducts(index.matching(FacetIndex.UNIT, "τεμάχια")));
+        assertTrue(index.matching(FacetIndex.SUBCATEGORY, "Κρασί").isEmpty());
+    }
+
+    @Test
+    public void counts() {
+        FacetIndex index = new FacetIndex(Arrays.asList(oranges, carrots, apples, ouzo));
+        BitSet freshFood = index.matching(FacetIndex.CATEGORY, "Φρέσκα τρόφιμα");
+        LinkedHashMap<String, Integer> subcategoryCounts = index.counts(FacetIndex.SUBCATEGORY, freshFood);
+        assertEquals(2, (int) subcategoryCounts.get("Φρούτα"));
+        assertEquals(1, (int) subcategoryCounts.get("Λαχανικά"));
+        assertEquals(0, (int) subcategoryCounts.get("Ούζο"));
+
+        LinkedHashMap<String, Integer> priceCounts = index.counts(FacetIndex.PRICE_BAND, index.all());
+        assertEquals(1, (int) priceCounts.get("0-1€"));
+        assertEquals(2, (int) priceCounts.get("1-3€"));
+        assertEquals(1, (int) priceCounts.get("3-5€"));
+    }
+
+    @Test
+    public void update() {
+        FacetIndex index = new FacetIndex(Arrays.asList(oranges, carrots));
+        carrots.setProductSubCategory("Φρούτα");
+        FacetIndex updated = index.update(carrots);
+        assertEquals(Arrays.asList(oranges, carrots), updated.toProducts(updated.matching(FacetIndex.SUBCATEGORY, "Φρούτα")));
+        assertTrue(updated.matching(FacetIndex.SUBCATEGORY, "Λαχανικά").isEmpty());
+        assertEquals(List.of(oranges), index.toProducts(index.matching(FacetIndex.SUBCATEGORY, "Φρούτα")));
+    }
+
+    @Test
+    public void applyLeavesPreviousVersion() {
+        FacetIndex index = new FacetIndex(Arrays.asList(oranges, carrots, apples));
+        FacetIndex next = index.apply(List.of(new CatalogSnapshot.Change(null, ouzo), new CatalogSnapshot.Change(carrots, null)));
+        assertEquals(Arrays.asList(oranges, apples, ouzo), next.toProducts(next.all()));
+        assertEquals(Arrays.asList(oranges, carrots, apples), index.toProducts(index.all()));
+        assertTrue(next.matching(FacetIndex.SUBCATEGORY, "Λαχανικά").isEmpty());
+        assertEquals(3, next.toBitSet(Arrays.asList(oranges, carrots, ouzo)).nextSetBit(1));
+    }
+
+    @Test
+    public void resolveInFollowsRenamedProducts() {
+        FacetIndex index = new FacetIndex(Arrays.asList(oranges, carrots, apples));
+        Product renamed = new Product("Μήλα Ζαγοράς 1kg","Φρέσκα μήλα.","Φρέσκα τρόφιμα","Φρούτα",1.8,30,"kg");
+        FacetIndex next = index.apply(List.of(new CatalogSnapshot.Change(apples, renamed), new CatalogSnapshot.Change(carrots, null)));
+        assertEquals(Arrays.asList(renamed, oranges), index.resolveIn(next, Arrays.asList(apples, carrots, oranges)));
+    }
+
+    @Test
+    public void priceBandOf() {
+        assertEquals("0-1€", FacetIndex.priceBandOf(0.5));
+        assertEquals("5-10€", FacetIndex.priceBandOf(5));
+        assertEquals("10€+", FacetIndex.priceBandOf(25.9));
+    }
+}
@@ -0,0 +1,129 @@
+package api;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+public class FulfillmentPipelineTest {
+
+    private static Order order(String status, String orderDate, String totalOrderCost) {
+        return new Order(status, orderDate, new ArrayList<>(List.of("Φέτα 400g")), totalOrderCost);
+    }
+
+    private static Customer customer(String username, Order... orders) {
+        Customer customer = new Customer(username, "1234", "Όνομα", "Επώνυμο");
+        customer.setCustomerOrderHistory(new ArrayList<>(List.of(orders)));
+        return customer;
+    }
+
+    private static File journal() throws Exception {
+        File journal = File.createTempFile("fulfillmentJournal", ".txt");
+        journal.delete();
+        journal.deleteOnExit();
+        return journal;
+    }
+
+    private static void awaitCompleted(FulfillmentPipeline pipeline, long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pipeline.getCompletedCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, pipeline.getCompletedCount());
+    }
+
+    @Test
+    public void ordersMoveFromPendingToCompleted() throws Exception {
+        Customer customer = customer("pipelineUser",
+                order(FulfillmentPipeline.PENDING, "01/12/24", "5,2€"),
+                order(FulfillmentPipeline.COMPLETED, "02/12/24", "10,4€"));
+        HashMap<String, Customer> customers = new HashMap<>();
+        customers.put(customer.getUsername(), customer);
+        File journal = journal();
+        FulfillmentPipeline pipeline = new FulfillmentPipeline(journal, customers::get, order -> { });
+
+        pipeline.start(2, customers.values());
+        Order newOrder = order(FulfillmentPipeline.PENDING, "03/12/24", "15,6€");
+        ArrayList<Order> history = customer.getCustomerOrderHistory();
+        history.add(newOrder);
+        customer.setCustomerOrderHistory(history);
+        pipeline.submit(customer.getUsername(), newOrder);
+        awaitCompleted(pipeline, 2);
+        assertTrue(pipeline.flush(5000));
+        pipeline.stop();
+
+        for (Order order : customer.getCustomerOrderHistory()) {
+            assertEquals(FulfillmentPipeline.COMPLETED, order.status());
+        }
+        List<String> records = Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8);
+        assertTrue(records.contains(FulfillmentPipeline.COMPLETED + "\tpipelineUser\t" + newOrder.id()));
+        assertEquals(0, pipeline.getQueueDepth());
+        assertTrue(pipeline.getThroughputPerSecond() > 0);
+    }
+
+    @Test
+    public void restartResumesUnfinishedOrders() throws Exception {
+        // Two orders with the same date and cost: only their ids tell them apart.
+        Order first = order(FulfillmentPipeline.PROCESSING, "01/12/24", "5,2€");
+        Order second = order(FulfillmentPipeline.PENDING, "01/12/24", "5,2€");
+        Customer customer = customer("pipelineRestartUser", first, second);
+        HashMap<String, Customer> customers = new HashMap<>();
+        customers.put(customer.getUsername(), customer);
+        File journal = journal();
+        Files.write(journal.toPath(), List.of(
+                FulfillmentPipeline.PENDING + "\tpipelineRestartUser\t" + first.id(),
+                FulfillmentPipeline.PENDING + "\tpipelineRestartUser\t" + second.id(),
+                FulfillmentPipeline.PROCESSING + "\tpipelineRestartUser\t" + first.id(),
+                FulfillmentPipeline.PROCESSING + "\tpipelineRestartUser\t" + second.id(),
+                FulfillmentPipeline.COMPLETED + "\tpipelineRestartUser\t" + second.id()), StandardCharsets.UTF_8);
+        CopyOnWriteArrayList<String> fulfilled = new CopyOnWriteArrayList<>();
+        FulfillmentPipeline pipeline = new FulfillmentPipeline(journal, customers::get, order -> fulfilled.add(order.id()));
+
+        pipeline.start(1, customers.values());
+        awaitCompleted(pipeline, 1);
+        pipeline.stop();
+
+        assertEquals(List.of(first.id()), fulfilled);
+        for (Order order : customer.getCustomerOrderHistory()) {
+            assertEquals(FulfillmentPipeline.COMPLETED, order.status());
+        }
+    }
+
+    @Test
+    public void queueDepthAndInFlight() throws Exception {
+        Customer customer = customer("pipelineQueueUser");
+        HashMap<String, Customer> customers = new HashMap<>();
+        customers.put(customer.getUsername(), customer);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FulfillmentPipeline pipeline = new FulfillmentPipeline(journal(), customers::get, order -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+
+        pipeline.start(1, customers.values());
+        for (int i = 1; i <= 3; i++) {
+            pipeline.submit(customer.getUsername(), order(FulfillmentPipeline.PENDING, "0" + i + "/12/24", i + "€"));
+        }
+        started.await();
+        assertEquals(1, pipeline.getInFlight());
+        assertEquals(2, pipeline.getQueueDepth());
+        release.countDown();
+        awaitCompleted(pipeline, 3);
+        pipeline.stop();
+
+        assertEquals(0, pipeline.getInFlight());
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+}
@@ -0,0 +1,57 @@
+package api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+public class HyperLogLogTest {
+
+    @Test
+    public void estimateSmallCardinality() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int i = 0; i < 3; i++) {
+            sketch.offer("user1");
+            sketch.offer("user2");
+            sketch.offer("user3");
+        }
+        assertEquals(3, sketch.estimate());
+    }
+
+    @Test
+    public void estimateLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int i = 0; i < 100000; i++) {
+            sketch.offer("user" + i);
+        }
+        assertEquals(100000, sketch.estimate(), 100000 * 0.1);
+    }
+
+    @Test
+    public void merge() {
+        HyperLogLog first = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        HyperLogLog second = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int i = 0; i < 6000; i++) {
+            first.offer("user" + i);
+        }
+        for (int i = 4000; i < 10000; i++) {
+            second.offer("user" + i);
+        }
+        first.merge(second);
+        assertEquals(10000, first.estimate(), 10000 * 0.1);
+    }
+
+    @Test
+    public void encodeAndDecode() {
+        HyperLogLog sketch = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        for (int i = 0; i < 500; i++) {
+            sketch.offer("user" + i);
+        }
+        HyperLogLog decoded = HyperLogLog.decode(sketch.encode());
+        assertEquals(sketch.getPrecision(), decoded.getPrecision());
+        assertEquals(sketch.estimate(), decoded.estimate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeDifferentPrecisions() {
+        new HyperLogLog(10).merge(new HyperLogLog(12));
+    }
+}
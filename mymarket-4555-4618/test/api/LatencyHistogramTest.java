@@ -0,0 +1,49 @@
+package api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsKeepRelativePrecision() {
+        for (long value : new long[]{0, 1, 127, 128, 129, 1000, 123_456_789, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            assertTrue(highest >= value);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS);
+        }
+        for (int value = 0; value < LatencyHistogram.LINEAR_VALUES; value++) {
+            assertEquals(value, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value)));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000L);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_500, histogram.getMean(), 0.001);
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void addAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(20);
+        second.record(30);
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals(30, first.getMax());
+        assertEquals(20, first.getValueAtPercentile(50));
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,73 @@
+package api;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.lang.management.ManagementFactory;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+public class MetricsTest {
+
+    @Test
+    public void countersAndHistogramsAreRegisteredOnce() {
+        LongAdder counter = Metrics.counter("test.counter");
+        assertSame(counter, Metrics.counter("test.counter"));
+        assertSame(Metrics.histogram("test.histogram"), Metrics.histogram("test.histogram"));
+    }
+
+    @Test
+    public void snapshot() {
+        Metrics.counter("test.snapshot.counter").add(3);
+        Metrics.gauge("test.snapshot.gauge", () -> 1.5);
+        LatencyHistogram histogram = Metrics.histogram("test.snapshot.latency");
+        histogram.record(2_000);
+        histogram.record(4_000);
+
+        TreeMap<String, Number> values = Metrics.snapshot();
+        assertEquals(3L, values.get("test.snapshot.counter").longValue());
+        assertEquals(1.5, values.get("test.snapshot.gauge").doubleValue(), 0);
+        assertEquals(2L, values.get("test.snapshot.latency.count").longValue());
+        assertEquals(3.0, values.get("test.snapshot.latency.meanMicros").doubleValue(), 0.001);
+        assertEquals(4.0, values.get("test.snapshot.latency.maxMicros").doubleValue(), 0.001);
+        assertTrue(values.containsKey("test.snapshot.latency.p99Micros"));
+        assertTrue(Metrics.dump().contains("test.snapshot.counter = 3\n"));
+    }
+
+    @Test
+    public void ioMetrics() {
+        Metrics.IoMetrics io = Metrics.io("test.reader");
+        assertSame(io, Metrics.io("test.reader"));
+        io.record(100, 4, 1_000);
+        io.record(50, 2, 3_000);
+
+        TreeMap<String, Number> values = Metrics.snapshot();
+        assertEquals(150L, values.get("test.reader.bytes").longValue());
+        assertEquals(6L, values.get("test.reader.records").longValue());
+        assertEquals(2L, values.get("test.reader.duration.count").longValue());
+    }
+
+    @Test
+    public void readersRecordTheirRuns() {
+        long before = Metrics.counter("reader.products.records").sum();
+        int products = new ProductsReader("test/api/TestTextFiles/correctProducts.txt").getProducts().size();
+        assertEquals(before + products, Metrics.counter("reader.products.records").sum());
+    }
+
+    @Test
+    public void mBean() throws Exception {
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+        Metrics.counter("test.mbean.counter").add(7);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertEquals(7L, server.getAttribute(name, "test.mbean.counter"));
+        assertTrue(((String) server.invoke(name, "dump", null, null)).contains("test.mbean.counter = 7"));
+        ReflectionException unknown = assertThrows(ReflectionException.class, () -> server.invoke(name, "restart", null, null));
+        assertTrue(unknown.getTargetException() instanceof NoSuchMethodException);
+    }
+}
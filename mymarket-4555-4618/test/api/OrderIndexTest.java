@@ -0,0 +1,54 @@
+package api;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+public class OrderIndexTest {
+
+    private static Order order(String date, String... products) {
+        return new Order("Ολοκληρωμένη", date, new ArrayList<>(Arrays.asList(products)), "9,0€");
+    }
+
+    @Test
+    public void findsOrdersByDateRangeAndProduct() {
+        Order first = order("01/12/2024 10:00:00", "Πορτοκάλια 1kg", "Καρότα 1kg");
+        Order second = order("04/12/2024 00:19:50", "Ούζο Πλωμαρίου 200ml");
+        Order third = order("05/12/2024 23:59:59", "Καρότα 1kg");
+        OrderIndex index = OrderIndex.of(List.of(first, second, third));
+
+        assertEquals(List.of(third, second, first), index.find(null, null, null));
+        assertEquals(List.of(third, second), index.find(LocalDate.of(2024, 12, 4), LocalDate.of(2024, 12, 5), ""));
+        assertEquals(List.of(first), index.find(null, LocalDate.of(2024, 12, 3), null));
+        assertEquals(List.of(third, first), index.find(null, null, "καρότα"));
+        assertEquals(List.of(third), index.find(LocalDate.of(2024, 12, 2), null, "Καρότα"));
+        assertTrue(index.find(null, null, "Γάλα").isEmpty());
+    }
+
+    @Test
+    public void followsNewAndChangedOrders() {
+        Order first = order("01/12/2024 10:00:00", "Πορτοκάλια 1kg");
+        OrderIndex index = OrderIndex.of(List.of(first));
+        Order second = order("02/12/2024 10:00:00", "Καρότα 1kg");
+        index.add(second);
+        assertEquals(List.of(second, first), index.find(LocalDate.of(2024, 12, 1), null, null));
+
+        Order delivered = new Order("Σε επεξεργασία", first.orderDate(), first.boughtProducts(), first.totalOrderCost());
+        assertTrue(index.replace(first, delivered));
+        assertFalse(index.replace(first, delivered));
+        assertSame(delivered, index.find(null, null, "Πορτοκάλια").getFirst());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void ordersWithoutAReadableDateOnlyMatchWithoutARange() {
+        Order undated = order("15/11/24", "Πορτοκάλια 1kg");
+        OrderIndex index = OrderIndex.of(List.of(undated));
+        assertEquals(List.of(undated), index.find(null, null, "Πορτοκάλια"));
+        assertTrue(index.find(LocalDate.of(2024, 1, 1), null, null).isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package api;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+public class ShopEventsTest {
+
+    private static final String PRODUCTS_FILE = "test/api/TestTextFiles/correctProducts.txt";
+
+    @Test
+    public void readersAndQueriesAreRecorded() throws Exception {
+        Path output = Files.createTempFile("mymarket", ".jfr");
+        int products;
+        int results;
+        try (Recording recording = new Recording()) {
+            recording.enable("mymarket.FileIo");
+            recording.enable("mymarket.Query");
+            recording.start();
+            products = new ProductsReader(PRODUCTS_FILE).getProducts().size();
+            String category = Database.getInstance().getCategories().get(0);
+            results = Database.getInstance().getAllProductsByCategory(category).size();
+            recording.stop();
+            recording.dump(output);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(output);
+        Files.delete(output);
+        RecordedEvent read = events.stream()
+                .filter(event -> event.getEventType().getName().equals("mymarket.FileIo") && event.getString("file").equals(PRODUCTS_FILE))
+                .findFirst().orElseThrow();
+        assertEquals("reader.products", read.getString("operation"));
+        assertEquals(products, read.getLong("records"));
+        assertEquals(new File(PRODUCTS_FILE).length(), read.getLong("bytes"));
+
+        RecordedEvent query = events.stream()
+                .filter(event -> event.getEventType().getName().equals("mymarket.Query"))
+                .findFirst().orElseThrow();
+        assertEquals("getAllProductsByCategory", query.getString("query"));
+        assertEquals(results, query.getInt("results"));
+    }
+
+    @Test
+    public void ioRunsAreTimed() {
+        Metrics.IoMetrics io = Metrics.io("test.events.writer");
+        ShopEvents.FileIo run = io.begin("test.txt");
+        io.end(run, 10, 1);
+        assertEquals(10L, Metrics.counter("test.events.writer.bytes").sum());
+        assertEquals(1, Metrics.histogram("test.events.writer.duration").getCount());
+    }
+}
@@ -0,0 +1,85 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+public class TimingWheelTest {
+
+    @Test
+    public void expiresAtDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 100);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.advance(20).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertTrue(wheel.advance(99).isEmpty());
+        assertEquals(List.of("b"), wheel.advance(100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelledItemsNeverExpire() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        TimingWheel<String>.Timeout timeout = wheel.schedule("a", 50);
+        wheel.schedule("b", 50);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertFalse(timeout.isPending());
+        assertEquals(List.of("b"), wheel.advance(1000));
+    }
+
+    @Test
+    public void cascadesFromHigherLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        Random random = new Random(42);
+        ArrayList<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long deadline = 1 + random.nextInt(20_000_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        deadlines.add(70_000_000L);
+        wheel.schedule(70_000_000L, 70_000_000L);
+
+        long now = 0;
+        int expired = 0;
+        while (now < 70_000_000L) {
+            now += 1 + random.nextInt(100_000);
+            for (long deadline : wheel.advance(now)) {
+                assertTrue(deadline <= now);
+                assertTrue(deadline > now - 100_001);
+                expired++;
+            }
+        }
+        assertEquals(deadlines.size(), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void expiresOnCascadeBoundaries() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        long[] boundaries = {TimingWheel.SLOTS, 2 * TimingWheel.SLOTS, TimingWheel.SLOTS * TimingWheel.SLOTS};
+        for (long boundary : boundaries) {
+            wheel.schedule(boundary, boundary);
+        }
+        for (long boundary : boundaries) {
+            assertTrue(wheel.advance(boundary - 1).isEmpty());
+            assertEquals(List.of(boundary), wheel.advance(boundary));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void pastDeadlinesExpireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1000);
+        wheel.advance(2000);
+        wheel.schedule("late", 500);
+        assertEquals(Arrays.asList("late"), wheel.advance(2010));
+    }
+}
@@ -0,0 +1,45 @@
+package api;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+public class TrendingProductsTest {
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @Test
+    public void recentPurchasesOutweighOldOnes() {
+        TrendingProducts trending = new TrendingProducts(DAY, 0);
+        for (int i = 0; i < 10; i++) {
+            trending.recordPurchase("Ελαιόλαδο 1lt", 0);
+        }
+        for (int i = 0; i < 3; i++) {
+            trending.recordPurchase("Παγωτό Βανίλια", 5 * DAY);
+        }
+        trending.recordPurchase("Μπύρα 500ml", 5 * DAY - DAY / 2);
+        assertEquals(Arrays.asList("Παγωτό Βανίλια", "Μπύρα 500ml", "Ελαιόλαδο 1lt"), trending.topTrending(5));
+        assertEquals("Παγωτό Βανίλια", trending.topTrending(1).getFirst());
+    }
+
+    @Test
+    public void scoreDecaysByHalfLife() {
+        TrendingProducts trending = new TrendingProducts(DAY, 0);
+        trending.recordPurchase("Γάλα 1lt", 0);
+        assertEquals(1.0, trending.getScore("Γάλα 1lt", 0), 0.0001);
+        assertEquals(0.5, trending.getScore("Γάλα 1lt", DAY), 0.0001);
+        assertEquals(0, trending.getScore("Ψωμί", DAY), 0.0001);
+    }
+
+    @Test
+    public void rescaleKeepsOrder() {
+        TrendingProducts trending = new TrendingProducts(DAY, 0);
+        trending.recordPurchase("Γάλα 1lt", 0);
+        trending.recordPurchase("Γάλα 1lt", 1000 * DAY);
+        trending.recordPurchase("Ψωμί", 1000 * DAY);
+        trending.recordPurchase("Ψωμί", 1000 * DAY);
+        assertEquals(Arrays.asList("Ψωμί", "Γάλα 1lt"), trending.topTrending(2));
+        assertEquals(2.0, trending.getScore("Ψωμί", 1000 * DAY), 0.0001);
+    }
+}
@@ -0,0 +1,117 @@
+package gui;
+
+import api.Product;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+public class ProductGridTest {
+
+    private static ArrayList<Product> products(int count) {
+        ArrayList<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("Προϊόν " + i, "Περιγραφή", "Σνακ", "Κράκερς", 1.0, 10, "τεμάχια"));
+        }
+        return products;
+    }
+
+    private static ProductGrid grid(AtomicInteger created) {
+        ProductPanelCache cells = new ProductPanelCache(() -> {
+            created.incrementAndGet();
+            return new ProductCell() {
+                @Override
+                protected void showProduct(Product product) {
+                }
+            };
+        }, product -> 0, ProductPanelCache.DEFAULT_CAPACITY);
+        return new ProductGrid(cells, 500, 400);
+    }
+
+    private static JScrollPane scrollPane(ProductGrid grid) {
+        JScrollPane scrollPane = new JScrollPane(grid);
+        scrollPane.setSize(1100, 1000);
+        scrollPane.doLayout();
+        scrollPane.getViewport().doLayout();
+        grid.doLayout();
+        return scrollPane;
+    }
+
+    @Test
+    public void createsCellsOnlyForVisibleRows() {
+        AtomicInteger created = new AtomicInteger();
+        ProductGrid grid = grid(created);
+        ArrayList<Product> products = products(100_000);
+        grid.setProducts(products);
+        JScrollPane scrollPane = scrollPane(grid);
+
+        int columns = grid.getColumns();
+        assertEquals(2, columns);
+        assertEquals(ProductGrid.GAP + 50_000 * (400 + ProductGrid.GAP), grid.getPreferredSize().height);
+        int visibleRows = (scrollPane.getViewport().getHeight() + 400 + ProductGrid.GAP - 1) / (400 + ProductGrid.GAP);
+        assertTrue(grid.getComponentCount() <= (visibleRows + 1) * columns);
+        assertEquals(grid.getComponentCount(), created.get());
+        assertNotNull(grid.getVisibleCell(products.get(0)));
+        assertNull(grid.getVisibleCell(products.get(99_999)));
+
+        Rectangle cell = grid.getVisibleCell(products.get(1)).getBounds();
+        assertEquals(new Rectangle(ProductGrid.GAP * 2 + 500, ProductGrid.GAP, 500, 400), cell);
+    }
+
+    @Test
+    public void rebindsTheCellsScrolledOutOfView() {
+        AtomicInteger created = new AtomicInteger();
+        ProductGrid grid = grid(created);
+        ArrayList<Product> products = products(1000);
+        grid.setProducts(products);
+        JScrollPane scrollPane = scrollPane(grid);
+        int shown = grid.getComponentCount();
+        ProductCell first = grid.getVisibleCell(products.get(0));
+
+        scrollPane.getViewport().setViewPosition(new Point(0, 100 * (400 + ProductGrid.GAP)));
+        assertNull(grid.getVisibleCell(products.get(0)));
+        assertSame(products.get(200), grid.getVisibleCell(products.get(200)).getProduct());
+        assertEquals(shown, grid.getLastDiff().rebound());
+        assertSame(grid, first.getParent());
+        assertNotSame(products.get(0), first.getProduct());
+        int afterScroll = created.get();
+
+        scrollPane.getViewport().setViewPosition(new Point(0, 0));
+        assertSame(products.get(0), grid.getVisibleCell(products.get(0)).getProduct());
+        assertEquals(shown, grid.getLastDiff().rebound());
+        assertEquals(afterScroll, created.get());
+        assertEquals(shown, grid.getComponentCount());
+    }
+
+    @Test
+    public void appliesNewResultsAsADiff() {
+        AtomicInteger created = new AtomicInteger();
+        ProductGrid grid = grid(created);
+        ArrayList<Product> products = products(20);
+        grid.setProducts(products);
+        scrollPane(grid);
+        ProductCell kept = grid.getVisibleCell(products.get(2));
+        int shown = grid.getComponentCount();
+
+        ArrayList<Product> results = new ArrayList<>(products.subList(2, 20));
+        grid.setProducts(results);
+        grid.doLayout();
+        assertSame(kept, grid.getVisibleCell(products.get(2)));
+        assertNull(grid.getVisibleCell(products.get(0)));
+        assertEquals(new ProductGrid.Diff(0, 0, shown - 2, 2), grid.getLastDiff());
+
+        grid.setProducts(products);
+        grid.doLayout();
+        assertEquals(shown, created.get());
+        assertEquals(new ProductGrid.Diff(0, 0, shown - 2, 2), grid.getLastDiff());
+        assertEquals(shown, grid.getComponentCount());
+
+        grid.setProducts(products.subList(0, 1));
+        grid.doLayout();
+        assertEquals(new ProductGrid.Diff(0, shown - 1, 0, 0), grid.getLastDiff());
+        assertEquals(1, grid.getComponentCount());
+    }
+}
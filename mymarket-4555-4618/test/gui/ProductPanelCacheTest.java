@@ -0,0 +1,82 @@
+package gui;
+
+import api.Product;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+public class ProductPanelCacheTest {
+
+    private static Product product(String title) {
+        return new Product(title, "Περιγραφή", "Σνακ", "Κράκερς", 1.0, 10, "τεμάχια");
+    }
+
+    private static ProductCell cell(AtomicInteger binds) {
+        return new ProductCell() {
+            @Override
+            protected void showProduct(Product product) {
+                binds.incrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void reusesThePanelOfTheSameProduct() {
+        ProductPanelCache cache = new ProductPanelCache(() -> cell(new AtomicInteger()), product -> 0, ProductPanelCache.DEFAULT_CAPACITY);
+        Product product = product("Κράκερς 100g");
+        ProductCell panel = cache.get(product);
+
+        assertSame(panel, cache.get(product));
+        assertNotSame(panel, cache.get(product("Κράκερς 100g")));
+        assertEquals(2, cache.getCreatedCount());
+    }
+
+    @Test
+    public void rebindsThePanelWhenTheProductChanges() {
+        AtomicLong version = new AtomicLong();
+        AtomicInteger binds = new AtomicInteger();
+        ProductPanelCache cache = new ProductPanelCache(() -> cell(binds), product -> version.get(), ProductPanelCache.DEFAULT_CAPACITY);
+        Product product = product("Κράκερς 100g");
+        ProductCell panel = cache.get(product);
+
+        version.incrementAndGet();
+        assertSame(panel, cache.get(product));
+        assertSame(panel, cache.get(product));
+        assertEquals(2, binds.get());
+
+        cache.invalidate(product);
+        assertNotSame(panel, cache.get(product));
+        assertEquals(2, cache.getCreatedCount());
+    }
+
+    @Test
+    public void takesOverTheSpareCell() {
+        ProductPanelCache cache = new ProductPanelCache(() -> cell(new AtomicInteger()), product -> 0, ProductPanelCache.DEFAULT_CAPACITY);
+        Product first = product("Πρώτο");
+        Product second = product("Δεύτερο");
+        ProductCell spare = cache.get(first);
+
+        assertSame(spare, cache.get(second, spare));
+        assertSame(second, spare.getProduct());
+        assertSame(spare, cache.get(second, cache.get(first)));
+        assertNotSame(spare, cache.get(first));
+        assertEquals(2, cache.getCreatedCount());
+    }
+
+    @Test
+    public void dropsTheLeastRecentlyUsedPanels() {
+        ProductPanelCache cache = new ProductPanelCache(() -> cell(new AtomicInteger()), product -> 0, 2);
+        Product first = product("Πρώτο");
+        Product second = product("Δεύτερο");
+        ProductCell firstPanel = cache.get(first);
+        ProductCell secondPanel = cache.get(second);
+
+        cache.get(first);
+        cache.get(product("Τρίτο"));
+        assertEquals(2, cache.size());
+        assertSame(firstPanel, cache.get(first));
+        assertNotSame(secondPanel, cache.get(second));
+    }
+}
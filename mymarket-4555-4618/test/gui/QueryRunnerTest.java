@@ -0,0 +1,77 @@
+package gui;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+public class QueryRunnerTest {
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException e) {
+                // Keep running like a query that does not check for cancellation.
+            }
+        }
+    }
+
+    @Test
+    public void publishesOnlyTheLastQuery() throws InterruptedException {
+        List<String> published = new CopyOnWriteArrayList<>();
+        QueryRunner queries = new QueryRunner(Runnable::run, busy -> {});
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean supersededRan = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+
+        queries.submit(() -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+            return "first";
+        }, published::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        queries.submit(() -> {
+            supersededRan.set(true);
+            return "second";
+        }, published::add);
+        queries.submit(() -> "third", result -> {
+            published.add(result);
+            done.countDown();
+        });
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("third"), new ArrayList<>(published));
+        assertFalse(supersededRan.get());
+        assertFalse(queries.isBusy());
+    }
+
+    @Test
+    public void showsProgressOnlyForSlowQueries() throws InterruptedException {
+        List<Boolean> progress = new CopyOnWriteArrayList<>();
+        QueryRunner queries = new QueryRunner(Runnable::run, progress::add);
+        CountDownLatch done = new CountDownLatch(1);
+
+        queries.submit(() -> "fast", result -> done.countDown());
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(QueryRunner.PROGRESS_DELAY_MILLIS * 2L);
+        assertEquals(List.of(false), new ArrayList<>(progress));
+
+        progress.clear();
+        CountDownLatch slowDone = new CountDownLatch(1);
+        queries.submit(() -> {
+            Thread.sleep(QueryRunner.PROGRESS_DELAY_MILLIS * 3L);
+            return "slow";
+        }, result -> slowDone.countDown());
+        assertTrue(slowDone.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(true, false), new ArrayList<>(progress));
+    }
+}
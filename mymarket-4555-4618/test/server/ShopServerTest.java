@@ -0,0 +1,118 @@
+package server;
+
+import api.Customer;
+import api.Database;
+import api.Product;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+public class ShopServerTest {
+
+    private static final String PRODUCT = "Server test φακές 500g";
+
+    private static ShopServer server;
+    private static HttpClient client;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        Database database = Database.getInstance();
+        database.addNewProduct(new Product(PRODUCT, "Φακές ψιλές.", "Server test", "Όσπρια", 2.5, 100, "τεμάχια"));
+        database.addCustomer("serverUser", new Customer("serverUser", "1234", "Όνομα", "Επώνυμο"));
+        server = new ShopServer(database);
+        server.start(0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.stop();
+    }
+
+    private static HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private static String login() throws Exception {
+        HttpResponse<String> response = send("POST", "/api/login", null, "{\"username\": \"serverUser\", \"password\": \"1234\"}");
+        assertEquals(200, response.statusCode());
+        return (String) Json.parseObject(response.body()).get("token");
+    }
+
+    @Test
+    public void searchProducts() throws Exception {
+        HttpResponse<String> response = send("GET", "/api/products?category=" + URLEncoder.encode("Server test", StandardCharsets.UTF_8) + "&q=" + URLEncoder.encode("φακές", StandardCharsets.UTF_8), null, null);
+        assertEquals(200, response.statusCode());
+        List<?> products = (List<?>) Json.parse(response.body());
+        assertEquals(1, products.size());
+        assertEquals(PRODUCT, ((Map<?, ?>) products.getFirst()).get("title"));
+
+        response = send("GET", "/api/products/" + URLEncoder.encode("Δεν υπάρχει", StandardCharsets.UTF_8).replace("+", "%20"), null, null);
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    public void cartNeedsLogin() throws Exception {
+        assertEquals(401, send("POST", "/api/login", null, "{\"username\": \"serverUser\", \"password\": \"wrong\"}").statusCode());
+        assertEquals(401, send("GET", "/api/cart", null, null).statusCode());
+        assertEquals(400, send("POST", "/api/login", null, "{\"username\": ").statusCode());
+    }
+
+    @Test
+    public void addAdjustAndCheckout() throws Exception {
+        String token = login();
+        HttpResponse<String> response = send("POST", "/api/cart", token, "{\"title\": \"" + PRODUCT + "\", \"quantity\": 2}");
+        assertEquals(200, response.statusCode());
+        assertEquals(5.0, (Double) Json.parseObject(response.body()).get("totalCost"), 0.001);
+        assertEquals(409, send("POST", "/api/cart", token, "{\"title\": \"" + PRODUCT + "\", \"quantity\": 1}").statusCode());
+
+        response = send("PUT", "/api/cart", token, "{\"title\": \"" + PRODUCT + "\", \"quantity\": 4}");
+        assertEquals(200, response.statusCode());
+        assertEquals(10.0, (Double) Json.parseObject(response.body()).get("totalCost"), 0.001);
+
+        response = send("POST", "/api/checkout", token, null);
+        assertEquals(200, response.statusCode());
+        Map<String, Object> result = Json.parseObject(response.body());
+        assertEquals(true, result.get("completed"));
+        assertEquals(List.of(PRODUCT), ((Map<?, ?>) result.get("order")).get("products"));
+        assertEquals(96, Database.getInstance().getSpecificProduct(new Product(PRODUCT, "", "", "", 0, 0, "τεμάχια")).getProductQuantity());
+        assertEquals(409, send("POST", "/api/checkout", token, null).statusCode());
+
+        assertEquals(200, send("POST", "/api/logout", token, null).statusCode());
+        assertEquals(401, send("GET", "/api/orders", token, null).statusCode());
+    }
+
+    @Test
+    public void idleSessionsEnd() throws Exception {
+        String token = login();
+        long now = System.currentTimeMillis();
+        assertEquals(200, send("GET", "/api/cart", token, null).statusCode());
+        assertEquals(0, server.expireIdleSessions(now));
+
+        assertTrue(server.expireIdleSessions(now + ShopServer.DEFAULT_SESSION_IDLE_MILLIS + 1000) >= 1);
+        assertEquals(401, send("GET", "/api/cart", token, null).statusCode());
+    }
+
+    @Test
+    public void jsonRoundTrip() {
+        String json = Json.write(Map.of("text", "\"Φέτα\"\n", "list", List.of(1, true)));
+        Map<String, Object> parsed = Json.parseObject(json);
+        assertEquals("\"Φέτα\"\n", parsed.get("text"));
+        assertEquals(List.of(1.0, true), parsed.get("list"));
+    }
+}
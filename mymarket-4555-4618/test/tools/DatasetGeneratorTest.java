@@ -0,0 +1,75 @@
+package tools;
+
+import api.DataFiles;
+import api.Database;
+import api.Product;
+import api.ProductsReader;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+public class DatasetGeneratorTest {
+
+    private static File generate(long seed, int threads) throws IOException {
+        File directory = Files.createTempDirectory("dataset").toFile();
+        new DatasetGenerator(directory, 5000, 300, 1234, seed, threads).generate();
+        return directory;
+    }
+
+    private static void delete(File directory) throws IOException {
+        try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+            for (java.nio.file.Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static long countLines(File file, String prefix) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream().filter(line -> line.startsWith(prefix)).count();
+    }
+
+    @Test
+    public void generatesReadableData() throws IOException {
+        File directory = generate(DatasetGenerator.DEFAULT_SEED, 4);
+        try {
+            List<Product> products = new ProductsReader(new File(directory, "products.txt").getPath()).getProducts();
+            assertEquals(5000, products.size());
+            HashSet<String> titles = new HashSet<>();
+            for (Product product : products) {
+                assertTrue(titles.add(product.getProductTitle()));
+                assertTrue(Database.TAXONOMY.get(product.getProductCategory()).contains(product.getProductSubCategory()));
+            }
+
+            assertEquals(300, countLines(new File(directory, "customers.txt"), "username: "));
+            long orders = 0;
+            for (int i = 1; i <= 300; i++) {
+                orders += countLines(new File(new File(directory, DataFiles.ORDER_HISTORY_DIRECTORY), DataFiles.orderHistoryFileName("user" + i)), "Status: ");
+            }
+            assertEquals(1234, orders);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameData() throws IOException {
+        File first = generate(7, 1);
+        File second = generate(7, 3);
+        try {
+            for (String file : List.of("products.txt", "customers.txt", DataFiles.ORDER_HISTORY_DIRECTORY + "/" + DataFiles.orderHistoryFileName("user42"))) {
+                assertArrayEquals(Files.readAllBytes(new File(first, file).toPath()), Files.readAllBytes(new File(second, file).toPath()));
+            }
+        } finally {
+            delete(first);
+            delete(second);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package tools;
+
+import api.Customer;
+import api.Database;
+import api.Product;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+public class WorkloadSimulatorTest {
+
+    @Test
+    public void runsTheMixOnEveryShopper() throws InterruptedException {
+        Database database = Database.getInstance();
+        Map<WorkloadSimulator.Operation, Integer> mix = WorkloadSimulator.defaultMix();
+        // Checkouts would change the stock of the shared database, which other tests depend on.
+        mix.remove(WorkloadSimulator.Operation.CHECKOUT);
+        // The shoppers include the existing customers, whose carts are restored afterwards.
+        HashMap<Customer, ArrayList<Product>> carts = new HashMap<>();
+        HashMap<Customer, Double> totals = new HashMap<>();
+        for (Customer customer : database.getAllCustomers().values()) {
+            ArrayList<Product> cart = new ArrayList<>();
+            for (Product line : customer.getCart()) {
+                cart.add(line.copy());
+            }
+            carts.put(customer, cart);
+            totals.put(customer, customer.getTotalCartCost());
+        }
+        int shoppers = carts.size() + 20;
+        try {
+            WorkloadSimulator.Report report = new WorkloadSimulator(database, shoppers, 300, 1, mix, 1).run();
+
+            assertEquals(shoppers, report.latencies().get(WorkloadSimulator.Operation.LOGIN).getCount());
+            assertEquals(0, report.latencies().get(WorkloadSimulator.Operation.CHECKOUT).getCount());
+            for (WorkloadSimulator.Operation operation : mix.keySet()) {
+                assertTrue(report.latencies().get(operation).getCount() > 0);
+            }
+            assertTrue(report.throughput(WorkloadSimulator.Operation.BROWSE) > 0);
+            assertTrue(report.format().contains("browse"));
+        } finally {
+            for (Customer customer : new ArrayList<>(database.getAllCustomers().values())) {
+                customer.clearCart();
+                if (carts.containsKey(customer)) {
+                    customer.setCart(carts.get(customer));
+                    customer.setTotalCartCost(totals.get(customer));
+                } else {
+                    database.removeCustomer(customer.getUsername());
+                }
+            }
+        }
+        assertEquals(carts.keySet(), new HashSet<>(database.getAllCustomers().values()));
+    }
+}